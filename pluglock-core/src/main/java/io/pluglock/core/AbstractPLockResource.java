@@ -10,11 +10,8 @@ public abstract class AbstractPLockResource implements PLockResource {
 
     @Override
     public Long acquireResource(String name, long leaseTime, TimeUnit unit, long threadId) {
-        long sourceLeaseTime = leaseTime;
-        if (leaseTime == -1) {
-            sourceLeaseTime = 30 * 1000;
-        }
-        long leaseMillis = unit.toMillis(sourceLeaseTime);
+        // 未指定租约时间时使用内部租约，由看门狗续期
+        long leaseMillis = leaseTime == -1 ? getInternalLeaseMillis() : unit.toMillis(leaseTime);
         Long ttl = tryAcquireResource(name, threadId, leaseMillis);
         if (ttl == null) {
             if (leaseTime == -1) {
@@ -24,9 +21,17 @@ public abstract class AbstractPLockResource implements PLockResource {
                 // 什么也不用做,紧做记录
                 intervalLeaseTime = leaseMillis;
             }
-            return ttl;
         }
-        return 0L;
+        return ttl;
+    }
+
+    /**
+     * 未指定租约时间时使用的内部租约时间
+     *
+     * @return 内部租约时间（毫秒）
+     */
+    protected long getInternalLeaseMillis() {
+        return LockWatchdog.DEFAULT_LEASE_MILLIS;
     }
 
     protected abstract void startWatchDog(String name, long threadId, long leaseMillis, Long ttl);
@@ -0,0 +1,334 @@
+package io.pluglock.core;
+
+import io.pluglock.core.otel.LockTracing;
+import io.pluglock.core.otel.ReleaseSpan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * 先在本地排队的锁包装，见 {@link CohortRegistry}
+ */
+class CohortPLock implements PLock {
+
+    private static final Logger log = LoggerFactory.getLogger(CohortPLock.class);
+
+    private final PReentrantLock delegate;
+    private final CohortRegistry registry;
+    private final int budget;
+    private final long lingerNanos;
+
+    CohortPLock(PReentrantLock delegate, CohortRegistry registry, int budget, long lingerNanos) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.budget = budget;
+        this.lingerNanos = lingerNanos;
+    }
+
+    @Override
+    public void lock() {
+        try {
+            lock(-1, null);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException();
+        }
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) throws InterruptedException {
+        CohortRegistry.Cohort cohort = registry.enter(getName());
+        cohort.local.lock();
+        acquire(cohort, leaseTime, unit);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        CohortRegistry.Cohort cohort = registry.enter(getName());
+        boolean locked = false;
+        try {
+            cohort.local.lockInterruptibly();
+            locked = true;
+        } finally {
+            if (!locked) {
+                giveUp(cohort);
+            }
+        }
+        acquire(cohort, -1, null);
+    }
+
+    /**
+     * 已持有本地锁，后端锁不在本JVM时向后端加锁
+     */
+    private void acquire(CohortRegistry.Cohort cohort, long leaseTime, TimeUnit unit) throws InterruptedException {
+        boolean acquired = false;
+        try {
+            if (!holding(cohort)) {
+                delegate.lock(leaseTime, unit);
+                held(cohort, leaseTime);
+            }
+            acquired = true;
+        } finally {
+            if (!acquired) {
+                leave(cohort);
+            }
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        CohortRegistry.Cohort cohort = registry.enter(getName());
+        if (!cohort.local.tryLock()) {
+            registry.exit(getName());
+            return false;
+        }
+        boolean acquired = false;
+        try {
+            if (holding(cohort)) {
+                acquired = true;
+            } else if (delegate.tryLock()) {
+                held(cohort, -1);
+                acquired = true;
+            }
+        } finally {
+            if (!acquired) {
+                leave(cohort);
+            }
+        }
+        return acquired;
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException {
+        return tryLock(waitTime, -1, unit);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(waitTime);
+        CohortRegistry.Cohort cohort = registry.enter(getName());
+        boolean locked = false;
+        try {
+            locked = cohort.local.tryLock(waitTime, unit);
+        } finally {
+            if (!locked) {
+                giveUp(cohort);
+            }
+        }
+        if (!locked) {
+            return false;
+        }
+        boolean acquired = false;
+        try {
+            if (holding(cohort)) {
+                acquired = true;
+            } else {
+                // 本地排队用掉的时间从等待时间里扣除
+                long remaining = Math.max(deadline - System.nanoTime(), 0);
+                acquired = leaseTime == -1 ? delegate.tryLock(remaining, TimeUnit.NANOSECONDS)
+                        : delegate.tryLock(remaining, unit.toNanos(leaseTime), TimeUnit.NANOSECONDS);
+                if (acquired) {
+                    held(cohort, leaseTime);
+                }
+            }
+        } finally {
+            if (!acquired) {
+                leave(cohort);
+            }
+        }
+        return acquired;
+    }
+
+    @Override
+    public void unlock() {
+        CohortRegistry.Cohort cohort = registry.get(getName());
+        if (cohort == null || !cohort.local.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("Current thread does not hold lock " + getName());
+        }
+        boolean handedOff = false;
+        try {
+            if (cohort.local.getHoldCount() == 1) {
+                boolean keep = cohort.renewed && !cohort.demanded;
+                boolean queued = cohort.local.hasQueuedThreads();
+                if (keep && queued && cohort.handoffs < budget) {
+                    // 后端锁留给下一个本地线程
+                    cohort.handoffs++;
+                    handedOff = true;
+                    handOff();
+                } else if (keep && !queued && lingerNanos > 0) {
+                    linger(cohort);
+                } else {
+                    release(cohort);
+                }
+            }
+        } finally {
+            cohort.local.unlock();
+            if (handedOff) {
+                reclaim(cohort);
+            }
+            registry.exit(getName());
+        }
+    }
+
+    /**
+     * 后端锁是否已在本JVM，逗留中的锁被重新使用
+     */
+    private boolean holding(CohortRegistry.Cohort cohort) {
+        if (!cohort.held) {
+            return false;
+        }
+        if (cohort.lingering) {
+            cohort.lingering = false;
+            registry.exit(getName());
+        }
+        return true;
+    }
+
+    private void held(CohortRegistry.Cohort cohort, long leaseTime) {
+        cohort.held = true;
+        cohort.renewed = leaseTime == -1;
+        cohort.handoffs = 0;
+        cohort.demanded = false;
+        if (lingerNanos > 0 && cohort.renewed) {
+            cohort.watching = delegate.lockResource.watchDemand(getName(), () -> demanded(cohort));
+        }
+    }
+
+    /**
+     * 把后端锁还给后端
+     */
+    private void release(CohortRegistry.Cohort cohort) {
+        cohort.held = false;
+        if (cohort.watching) {
+            cohort.watching = false;
+            delegate.lockResource.unwatchDemand(getName());
+        }
+        delegate.unlock();
+    }
+
+    private void handOff() {
+        if (LockTracing.ENABLED) {
+            ReleaseSpan.handOff(getName());
+        }
+    }
+
+    /**
+     * 没有本地线程使用时继续持有后端锁，逗留期间计为一个使用者，注册表不会移除
+     */
+    private void linger(CohortRegistry.Cohort cohort) {
+        handOff();
+        if (!cohort.lingering) {
+            cohort.lingering = true;
+            registry.enter(getName());
+        }
+        cohort.lingerUntil = System.nanoTime() + lingerNanos;
+        if (!cohort.expiryScheduled) {
+            cohort.expiryScheduled = true;
+            schedule(cohort, lingerNanos);
+        }
+    }
+
+    private void schedule(CohortRegistry.Cohort cohort, long delayNanos) {
+        CohortRegistry.SCHEDULER.schedule(() -> expire(cohort, false), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 其他节点发出加锁需求，在通知线程中调用
+     */
+    private void demanded(CohortRegistry.Cohort cohort) {
+        cohort.demanded = true;
+        CohortRegistry.SCHEDULER.execute(() -> expire(cohort, true));
+    }
+
+    /**
+     * 逗留到期或收到需求时把后端锁还给后端；正在使用时由使用者释放时处理
+     *
+     * @param demand 是否由加锁需求触发
+     */
+    private void expire(CohortRegistry.Cohort cohort, boolean demand) {
+        if (!cohort.local.tryLock()) {
+            if (!demand) {
+                schedule(cohort, lingerNanos);
+            }
+            return;
+        }
+        try {
+            if (!cohort.lingering) {
+                if (!demand) {
+                    cohort.expiryScheduled = false;
+                }
+                return;
+            }
+            long remaining = cohort.lingerUntil - System.nanoTime();
+            if (remaining > 0 && !cohort.demanded) {
+                if (!demand) {
+                    schedule(cohort, remaining);
+                }
+                return;
+            }
+            cohort.lingering = false;
+            try {
+                release(cohort);
+            } catch (RuntimeException e) {
+                log.warn("Failed to release lingering lock {}", getName(), e);
+            } finally {
+                registry.exit(getName());
+            }
+        } finally {
+            cohort.local.unlock();
+        }
+    }
+
+    /**
+     * 加锁失败，释放本地锁
+     */
+    private void leave(CohortRegistry.Cohort cohort) {
+        cohort.local.unlock();
+        registry.exit(getName());
+    }
+
+    /**
+     * 排队时超时或被中断，放弃加锁
+     */
+    private void giveUp(CohortRegistry.Cohort cohort) {
+        try {
+            reclaim(cohort);
+        } finally {
+            registry.exit(getName());
+        }
+    }
+
+    /**
+     * 交接时在排队的线程可能随后超时放弃，没有线程接手时把后端锁还给后端或开始逗留
+     *
+     * 必须在exit()之前调用，否则同名的新队列可能在后端锁还没还时重新加锁
+     */
+    private void reclaim(CohortRegistry.Cohort cohort) {
+        if (cohort.local.hasQueuedThreads() || !cohort.local.tryLock()) {
+            // 有线程接手
+            return;
+        }
+        try {
+            if (cohort.held && !cohort.lingering && cohort.local.getHoldCount() == 1) {
+                if (cohort.renewed && !cohort.demanded && lingerNanos > 0) {
+                    linger(cohort);
+                } else {
+                    release(cohort);
+                }
+            }
+        } finally {
+            cohort.local.unlock();
+        }
+    }
+
+    @Override
+    public Condition newCondition() {
+        return delegate.newCondition();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+}
@@ -0,0 +1,153 @@
+package io.pluglock.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JVM内的锁队列（cohort），同名的锁先在本地排队，只有队首线程访问后端
+ *
+ * 同一个注册表的锁在后端共用一个持有者标识，释放时如果本地还有线程在等待，
+ * 分布式锁不还给后端，直接交给下一个本地线程；连续交接次数达到公平预算后还给后端，
+ * 让其他节点有机会获取。只有看门狗续期的持有才会交接，指定租约时间的持有在释放时总是还给后端，
+ * 交接得到的锁同样由看门狗续期。
+ *
+ * 配置lock.sticky.linger后最后一个本地线程释放时也不还给后端，在逗留时间内再次加锁只在本地完成；
+ * 逗留时间到期或其他节点通过释放频道发出加锁需求时才还给后端。
+ *
+ * 锁工厂按后端各自持有一个实例，持有者标识在JVM内唯一
+ */
+public class CohortRegistry {
+
+    /**
+     * 开启cohort模式的配置项
+     */
+    public static final String ENABLED = "lock.cohort.enabled";
+
+    /**
+     * 连续交接给本地线程的最大次数
+     */
+    public static final String BUDGET = "lock.cohort.budget";
+
+    /**
+     * 释放后继续持有后端锁的时间（毫秒），大于0时开启，同时开启本地排队
+     */
+    public static final String LINGER = "lock.sticky.linger";
+
+    private static final int DEFAULT_BUDGET = 16;
+
+    // 快照上缓存解析后的设置
+    private static final String SETTINGS = CohortRegistry.class.getName();
+
+    // 逗留到期和响应加锁需求的后台线程
+    static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "pluglock-cohort-linger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 与令牌共用负数标识，不会与线程ID冲突
+    private final long ownerId = LockOwner.newToken();
+
+    // 有线程在加锁、持有或释放的锁名称，没有线程使用时移除
+    private final ConcurrentMap<String, Cohort> cohorts = new ConcurrentHashMap<>();
+
+    /**
+     * 按配置为锁加上本地排队，没有开启lock.cohort.enabled或lock.sticky.linger时原样返回
+     *
+     * @param lock   新创建的锁，之后只能通过返回的锁使用
+     * @param config 锁的配置参数
+     * @return 锁
+     */
+    public PLock apply(PReentrantLock lock, LockConfig config) {
+        Settings settings = config.resolve(SETTINGS, Settings::new);
+        if (!settings.enabled) {
+            return lock;
+        }
+        lock.setOwnerId(ownerId);
+        // 逗留的节点只在收到需求时提前释放，等待者需要发出需求
+        lock.setSignalDemand(settings.lingerNanos > 0);
+        return new CohortPLock(lock, this, settings.budget, settings.lingerNanos);
+    }
+
+    /**
+     * @return 正在使用的锁名称数量
+     */
+    public int size() {
+        return cohorts.size();
+    }
+
+    Cohort enter(String name) {
+        return cohorts.compute(name, (k, cohort) -> {
+            if (cohort == null) {
+                cohort = new Cohort();
+            }
+            cohort.users++;
+            return cohort;
+        });
+    }
+
+    Cohort get(String name) {
+        return cohorts.get(name);
+    }
+
+    void exit(String name) {
+        cohorts.computeIfPresent(name, (k, cohort) -> --cohort.users == 0 ? null : cohort);
+    }
+
+    /**
+     * 从配置解析的cohort设置
+     */
+    private static final class Settings {
+
+        final boolean enabled;
+        final int budget;
+        final long lingerNanos;
+
+        Settings(LockConfig config) {
+            long linger = config.getLong(LINGER, 0);
+            this.enabled = config.getBoolean(ENABLED, false) || linger > 0;
+            this.budget = config.getInt(BUDGET, DEFAULT_BUDGET);
+            if (enabled && budget < 0) {
+                throw new IllegalArgumentException(BUDGET + " must not be negative");
+            }
+            this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(linger, 0));
+        }
+    }
+
+    /**
+     * 同名锁在本JVM内的状态，除users外都在持有local时读写
+     */
+    static final class Cohort {
+
+        final ReentrantLock local = new ReentrantLock();
+
+        // 进入enter()还没有exit()的次数，逗留算一次，在cohorts.compute中读写
+        int users;
+
+        // 后端锁是否由本注册表的持有者持有
+        boolean held;
+
+        // 后端锁是否由看门狗续期，只有这样的持有才交接
+        boolean renewed;
+
+        // 本次持有以来交接的次数
+        int handoffs;
+
+        // 没有本地线程使用，后端锁逗留到lingerUntil（System.nanoTime）
+        boolean lingering;
+        long lingerUntil;
+
+        // 是否已安排到期检查
+        boolean expiryScheduled;
+
+        // 是否在监听其他节点的加锁需求
+        boolean watching;
+
+        // 收到其他节点的加锁需求，在通知线程中写入
+        volatile boolean demanded;
+    }
+}
@@ -0,0 +1,262 @@
+package io.pluglock.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 锁竞争分析：统计等待时间最长和持有时间最长的锁名称
+ *
+ * 锁名称可能有上百万个，不能按名称分别统计。这里把等待时间和持有时间按名称累加到
+ * {@link HeavyHitters} 草图中，每个时间窗口只保留固定数量的计数器，内存占用与锁名称数量无关；
+ * 查询时合并最近几个窗口，得到滚动时间段内的前N名。
+ * 等待或持有超过阈值的锁按采样间隔打印日志，每个间隔最多一条，并带上期间省略的条数
+ */
+public class ContentionProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentionProfiler.class);
+
+    private final long windowMillis;
+    private final Window[] windows;
+    private final long slowWaitNanos;
+    private final long slowHoldNanos;
+    private final long slowLogIntervalNanos;
+    private final AtomicLong nextSlowLog = new AtomicLong(System.nanoTime());
+    private final AtomicLong suppressedSlowLocks = new AtomicLong();
+    private final ThreadLocal<Map<String, HoldStart>> threadHolds = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * 每个窗口128个计数器，保留5个1分钟窗口，等待超过1秒或持有超过10秒的锁每10秒最多打印一条日志
+     */
+    public ContentionProfiler() {
+        this(128, 60_000, 5, 1_000, 10_000, 10_000);
+    }
+
+    /**
+     * @param capacity              每个窗口保留的锁名称数量
+     * @param windowMillis          窗口长度
+     * @param windowCount           参与统计的窗口数量，统计的时间段为 windowMillis * windowCount
+     * @param slowWaitMillis        等待超过这个时间时打印日志，小于等于0时不打印
+     * @param slowHoldMillis        持有超过这个时间时打印日志，小于等于0时不打印
+     * @param slowLogIntervalMillis 慢锁日志的最小间隔
+     */
+    public ContentionProfiler(int capacity, long windowMillis, int windowCount,
+                              long slowWaitMillis, long slowHoldMillis, long slowLogIntervalMillis) {
+        if (capacity <= 0 || windowMillis <= 0 || windowCount <= 0) {
+            throw new IllegalArgumentException("capacity, windowMillis and windowCount must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.windows = new Window[windowCount];
+        for (int i = 0; i < windowCount; i++) {
+            windows[i] = new Window(capacity);
+        }
+        this.slowWaitNanos = slowWaitMillis <= 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(slowWaitMillis);
+        this.slowHoldNanos = slowHoldMillis <= 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(slowHoldMillis);
+        this.slowLogIntervalNanos = TimeUnit.MILLISECONDS.toNanos(slowLogIntervalMillis);
+    }
+
+    /**
+     * 包装锁，加锁解锁时统计等待和持有时间
+     *
+     * @param lock 锁
+     * @param name 统计使用的名称，同一线程内用它区分不同的锁
+     * @return 统计时间的锁
+     */
+    public PLock profile(PLock lock, String name) {
+        return new ProfiledPLock(lock, name, this);
+    }
+
+    public PLock profile(PLock lock) {
+        return profile(lock, lock.getName());
+    }
+
+    /**
+     * 记录一次等待，获取成功时开始计算持有时间
+     */
+    void waited(String name, long waitNanos, boolean acquired) {
+        long now = System.nanoTime();
+        if (waitNanos > 0) {
+            record(name, waitNanos, true);
+            if (waitNanos >= slowWaitNanos) {
+                slowLock("waited", name, waitNanos, now);
+            }
+        }
+        if (acquired) {
+            Map<String, HoldStart> current = threadHolds.get();
+            HoldStart hold = current.get(name);
+            if (hold != null) {
+                hold.depth++;
+            } else {
+                current.put(name, new HoldStart(now));
+            }
+        }
+    }
+
+    void released(String name) {
+        Map<String, HoldStart> current = threadHolds.get();
+        HoldStart hold = current.get(name);
+        if (hold == null || --hold.depth > 0) {
+            return;
+        }
+        current.remove(name);
+        long now = System.nanoTime();
+        long holdNanos = now - hold.startNanos;
+        record(name, holdNanos, false);
+        if (holdNanos >= slowHoldNanos) {
+            slowLock("held", name, holdNanos, now);
+        }
+    }
+
+    /**
+     * @return 最近几个窗口内累计等待时间最长的锁，时间长的在前
+     */
+    public List<HotLock> getTopContended(int n) {
+        return top(n, true);
+    }
+
+    /**
+     * @return 最近几个窗口内累计持有时间最长的锁，时间长的在前
+     */
+    public List<HotLock> getTopHeld(int n) {
+        return top(n, false);
+    }
+
+    /**
+     * @return 统计的时间段长度
+     */
+    public long getPeriodMillis() {
+        return windowMillis * windows.length;
+    }
+
+    private void record(String name, long nanos, boolean wait) {
+        long bucket = System.currentTimeMillis() / windowMillis;
+        windows[(int) (bucket % windows.length)].add(bucket, name, nanos, wait);
+    }
+
+    private List<HotLock> top(int n, boolean waits) {
+        long oldest = System.currentTimeMillis() / windowMillis - windows.length + 1;
+        List<HeavyHitters.Counter> counters = new ArrayList<>();
+        for (Window window : windows) {
+            window.copyTo(counters, oldest, waits);
+        }
+        // 同一个名称在多个窗口中的计数相加
+        Map<String, HotLock> merged = new HashMap<>();
+        for (HeavyHitters.Counter counter : counters) {
+            HotLock hot = merged.get(counter.key);
+            if (hot == null) {
+                merged.put(counter.key, new HotLock(counter));
+            } else {
+                hot.merge(counter);
+            }
+        }
+        List<HotLock> result = new ArrayList<>(merged.values());
+        result.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        return result.size() > n ? new ArrayList<>(result.subList(0, n)) : result;
+    }
+
+    private void slowLock(String action, String name, long nanos, long now) {
+        long next = nextSlowLog.get();
+        if (now - next < 0 || !nextSlowLog.compareAndSet(next, now + slowLogIntervalNanos)) {
+            suppressedSlowLocks.incrementAndGet();
+            return;
+        }
+        log.warn("Lock '{}' {} for {} ms ({} slow locks not logged since the previous report)",
+                name, action, TimeUnit.NANOSECONDS.toMillis(nanos), suppressedSlowLocks.getAndSet(0));
+    }
+
+    /**
+     * 一个时间窗口的等待和持有统计，窗口过期后清空复用
+     */
+    private static final class Window {
+        private final HeavyHitters waits;
+        private final HeavyHitters holds;
+        private long bucket = -1;
+
+        Window(int capacity) {
+            this.waits = new HeavyHitters(capacity);
+            this.holds = new HeavyHitters(capacity);
+        }
+
+        synchronized void add(long bucket, String name, long nanos, boolean wait) {
+            if (this.bucket != bucket) {
+                this.bucket = bucket;
+                waits.clear();
+                holds.clear();
+            }
+            (wait ? waits : holds).add(name, nanos);
+        }
+
+        synchronized void copyTo(List<HeavyHitters.Counter> target, long oldestBucket, boolean waits) {
+            if (bucket >= oldestBucket) {
+                (waits ? this.waits : holds).copyTo(target);
+            }
+        }
+    }
+
+    private static final class HoldStart {
+        final long startNanos;
+        int depth = 1;
+
+        HoldStart(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * 一个锁名称的统计结果，时间是估计值，可能偏大，偏大的量不超过 {@link #getErrorMillis()}
+     */
+    public static final class HotLock {
+        private final String name;
+        private long nanos;
+        private long errorNanos;
+        private long events;
+        private long maxNanos;
+
+        HotLock(HeavyHitters.Counter counter) {
+            this.name = counter.key;
+            this.nanos = counter.weight;
+            this.errorNanos = counter.error;
+            this.events = counter.events;
+            this.maxNanos = counter.max;
+        }
+
+        void merge(HeavyHitters.Counter counter) {
+            nanos += counter.weight;
+            errorNanos += counter.error;
+            events += counter.events;
+            maxNanos = Math.max(maxNanos, counter.max);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return 累计时间
+         */
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        public long getErrorMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(errorNanos);
+        }
+
+        /**
+         * @return 计入统计的加锁次数，不含计数器被替换前的部分
+         */
+        public long getEvents() {
+            return events;
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos);
+        }
+    }
+}
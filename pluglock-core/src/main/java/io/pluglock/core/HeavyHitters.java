@@ -0,0 +1,137 @@
+package io.pluglock.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按权重统计的Space-Saving草图，只保留固定数量的计数器
+ *
+ * 计数器满了以后新的key替换权重最小的计数器，并继承它的权重作为误差，
+ * 因此估计的权重只会偏大，偏大的量不超过 {@link Counter#error}。
+ * 计数器放在按权重排序的最小堆里，每次更新是O(log capacity)。非线程安全
+ */
+final class HeavyHitters {
+
+    private final Counter[] heap;
+    private final Map<String, Counter> index;
+    private int size;
+
+    HeavyHitters(int capacity) {
+        this.heap = new Counter[capacity];
+        this.index = new HashMap<>(capacity * 2);
+    }
+
+    void add(String key, long weight) {
+        Counter counter = index.get(key);
+        if (counter != null) {
+            counter.update(weight);
+            siftDown(counter.position);
+            return;
+        }
+        if (size < heap.length) {
+            // 清空后复用上一轮的计数器对象
+            counter = heap[size];
+            if (counter == null) {
+                counter = new Counter();
+            }
+            counter.reset(key, 0, weight);
+            counter.position = size;
+            heap[size++] = counter;
+            index.put(key, counter);
+            siftUp(counter.position);
+            return;
+        }
+        // 替换最小的计数器，复用对象
+        counter = heap[0];
+        index.remove(counter.key);
+        counter.reset(key, counter.weight, counter.weight + weight);
+        index.put(key, counter);
+        siftDown(0);
+    }
+
+    void clear() {
+        size = 0;
+        index.clear();
+    }
+
+    /**
+     * 复制当前的计数器
+     */
+    void copyTo(List<Counter> target) {
+        for (int i = 0; i < size; i++) {
+            target.add(heap[i].copy());
+        }
+    }
+
+    private void siftUp(int position) {
+        Counter counter = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent].weight <= counter.weight) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(counter, position);
+    }
+
+    private void siftDown(int position) {
+        Counter counter = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && heap[right].weight < heap[child].weight) {
+                child = right;
+            }
+            if (counter.weight <= heap[child].weight) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(counter, position);
+    }
+
+    private void place(Counter counter, int position) {
+        heap[position] = counter;
+        counter.position = position;
+    }
+
+    static final class Counter {
+        String key;
+        long weight;
+        long error;
+        long events;
+        long max;
+        int position;
+
+        void reset(String key, long error, long weight) {
+            this.key = key;
+            this.error = error;
+            this.weight = weight;
+            this.events = 1;
+            this.max = weight - error;
+        }
+
+        void update(long weight) {
+            this.weight += weight;
+            this.events++;
+            if (weight > max) {
+                max = weight;
+            }
+        }
+
+        Counter copy() {
+            Counter copy = new Counter();
+            copy.key = key;
+            copy.weight = weight;
+            copy.error = error;
+            copy.events = events;
+            copy.max = max;
+            return copy;
+        }
+    }
+}
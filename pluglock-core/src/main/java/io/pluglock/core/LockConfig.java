@@ -1,6 +1,15 @@
 package io.pluglock.core;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * 分布式锁配置类
@@ -35,4 +44,269 @@ public class LockConfig {
     public void setProperty(String key, String value) {
         properties.setProperty(key, value);
     }
-}
\ No newline at end of file
+    
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+    
+    public int getInt(String key, int defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+    
+    public long getLong(String key, long defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+    
+    /**
+     * 按配置计算的结果，例如从多个配置项得到的设置；快照上每个key只计算一次，未冻结的配置每次重新计算
+     *
+     * 计算结果只能取决于配置本身，同一个快照可能被多个锁工厂共用
+     *
+     * @param key      结果的名称，不同的计算使用不同的名称
+     * @param resolver 从配置计算结果，不能返回null
+     * @return 计算结果
+     */
+    public <T> T resolve(String key, Function<LockConfig, T> resolver) {
+        return resolver.apply(this);
+    }
+    
+    /**
+     * 不可修改的快照，之后修改当前配置不影响快照
+     *
+     * 快照不再经过同步的Properties，类型化的值第一次读取时解析并缓存
+     *
+     * @return 配置快照，当前配置已经是快照时返回自身
+     */
+    public LockConfig freeze() {
+        return new FrozenLockConfig(properties);
+    }
+    
+    /**
+     * @return 是否为不可修改的快照
+     */
+    public boolean isFrozen() {
+        return false;
+    }
+    
+    private static final class FrozenLockConfig extends LockConfig {
+        
+        // 解析结果中表示未配置
+        private static final Object ABSENT = new Object();
+        
+        private final Map<String, String> values;
+        private final Properties view;
+        private final ConcurrentMap<String, Object> parsed = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Object> resolved = new ConcurrentHashMap<>();
+        
+        FrozenLockConfig(Properties properties) {
+            super(null);
+            Map<String, String> copy = new HashMap<>();
+            for (String key : properties.stringPropertyNames()) {
+                copy.put(key, properties.getProperty(key));
+            }
+            this.values = Collections.unmodifiableMap(copy);
+            this.view = new ReadOnlyProperties(copy);
+        }
+        
+        /**
+         * @return 配置项的只读视图，每次返回同一个实例，修改时抛出UnsupportedOperationException
+         */
+        @Override
+        public Properties getProperties() {
+            return view;
+        }
+        
+        @Override
+        public void setProperties(Properties properties) {
+            throw new UnsupportedOperationException("Lock config is frozen");
+        }
+        
+        @Override
+        public String getProperty(String key) {
+            return values.get(key);
+        }
+        
+        @Override
+        public String getProperty(String key, String defaultValue) {
+            String value = values.get(key);
+            return value == null ? defaultValue : value;
+        }
+        
+        @Override
+        public void setProperty(String key, String value) {
+            throw new UnsupportedOperationException("Lock config is frozen");
+        }
+        
+        @Override
+        public boolean getBoolean(String key, boolean defaultValue) {
+            Object value = parsed(key, Boolean.class);
+            return value == ABSENT ? defaultValue : (Boolean) value;
+        }
+        
+        @Override
+        public int getInt(String key, int defaultValue) {
+            Object value = parsed(key, Integer.class);
+            return value == ABSENT ? defaultValue : (Integer) value;
+        }
+        
+        @Override
+        public long getLong(String key, long defaultValue) {
+            Object value = parsed(key, Long.class);
+            return value == ABSENT ? defaultValue : (Long) value;
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T resolve(String key, Function<LockConfig, T> resolver) {
+            Object value = resolved.get(key);
+            if (value == null) {
+                value = resolver.apply(this);
+                Object previous = resolved.putIfAbsent(key, value);
+                if (previous != null) {
+                    value = previous;
+                }
+            }
+            return (T) value;
+        }
+        
+        /**
+         * 同一个配置项按不同类型读取时以最近一次为准
+         */
+        private Object parsed(String key, Class<?> type) {
+            Object value = parsed.get(key);
+            if (value == null || (value != ABSENT && value.getClass() != type)) {
+                value = parse(values.get(key), type);
+                parsed.put(key, value);
+            }
+            return value;
+        }
+        
+        private static Object parse(String value, Class<?> type) {
+            if (value == null) {
+                return ABSENT;
+            }
+            value = value.trim();
+            if (type == Boolean.class) {
+                return Boolean.parseBoolean(value);
+            }
+            if (type == Integer.class) {
+                return Integer.parseInt(value);
+            }
+            return Long.parseLong(value);
+        }
+        
+        @Override
+        public LockConfig freeze() {
+            return this;
+        }
+        
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+    }
+    
+    /**
+     * 快照的只读Properties，所有修改操作都抛出UnsupportedOperationException
+     */
+    private static final class ReadOnlyProperties extends Properties {
+        
+        private static final long serialVersionUID = 1L;
+        
+        // 集合视图从这里取，条目的setValue同样不可用
+        private final Map<Object, Object> entries;
+        
+        ReadOnlyProperties(Map<String, String> values) {
+            super.putAll(values);
+            this.entries = Collections.unmodifiableMap(new HashMap<Object, Object>(values));
+        }
+        
+        private static UnsupportedOperationException frozen() {
+            return new UnsupportedOperationException("Lock config is frozen");
+        }
+        
+        @Override
+        public synchronized Object put(Object key, Object value) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized void putAll(Map<?, ?> t) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized Object remove(Object key) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized boolean remove(Object key, Object value) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized void clear() {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized Object putIfAbsent(Object key, Object value) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized Object replace(Object key, Object value) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized Object compute(Object key, BiFunction<? super Object, ? super Object, ?> remapping) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized Object computeIfAbsent(Object key, Function<? super Object, ?> mapping) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized Object computeIfPresent(Object key, BiFunction<? super Object, ? super Object, ?> remapping) {
+            throw frozen();
+        }
+        
+        @Override
+        public synchronized Object merge(Object key, Object value,
+                                         BiFunction<? super Object, ? super Object, ?> remapping) {
+            throw frozen();
+        }
+        
+        @Override
+        public Set<Object> keySet() {
+            return entries.keySet();
+        }
+        
+        @Override
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            return entries.entrySet();
+        }
+        
+        @Override
+        public Collection<Object> values() {
+            return entries.values();
+        }
+    }
+}
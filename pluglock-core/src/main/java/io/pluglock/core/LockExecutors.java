@@ -0,0 +1,37 @@
+package io.pluglock.core;
+
+/**
+ * PlugLock的后台线程，例如阻塞订阅的线程
+ *
+ * Java 21及以上默认使用虚拟线程，阻塞的客户端调用不占用平台线程；否则使用守护线程
+ */
+public final class LockExecutors {
+
+    /**
+     * Java 21及以上是否使用虚拟线程，默认true
+     */
+    public static final String VIRTUAL = "pluglock.executor.virtual";
+
+    private LockExecutors() {
+    }
+
+    /**
+     * 创建长期运行的后台线程，例如阻塞订阅的线程，按配置使用虚拟线程或守护线程
+     *
+     * @param name 线程名称
+     * @param task 线程执行的任务
+     * @return 未启动的线程
+     */
+    public static Thread newThread(String name, Runnable task) {
+        if (useVirtualThreads()) {
+            return VirtualThreads.newThread(name, task);
+        }
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static boolean useVirtualThreads() {
+        return VirtualThreads.isSupported() && Boolean.parseBoolean(System.getProperty(VIRTUAL, "true"));
+    }
+}
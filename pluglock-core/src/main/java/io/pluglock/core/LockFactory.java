@@ -1,5 +1,9 @@
 package io.pluglock.core;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
 /**
  * 分布式锁工厂接口，用于通过SPI机制创建不同类型的分布式锁
  */
@@ -14,6 +18,40 @@ public interface LockFactory {
      */
     PLock createLock(String name, LockConfig config);
     
+    /**
+     * 创建分布式读写锁实例
+     * 
+     * @param name 锁的名称
+     * @param config 锁的配置参数
+     * @return 分布式读写锁实例
+     */
+    default PReadWriteLock createReadWriteLock(String name, LockConfig config) {
+        throw new UnsupportedOperationException(getName() + " lock factory does not support read-write lock");
+    }
+    
+    /**
+     * 创建同时锁定多个名称的组合锁
+     * 
+     * 默认实现按名称顺序逐个加锁，支持原子批量加锁的后端可以覆盖此方法
+     * 
+     * @param names 锁的名称列表
+     * @param config 锁的配置参数
+     * @return 组合锁实例
+     */
+    default PLock createMultiLock(List<String> names, LockConfig config) {
+        List<PLock> locks = new ArrayList<>(names.size());
+        for (String name : new LinkedHashSet<>(names)) {
+            locks.add(createLock(name, config));
+        }
+        return new PMultiLock(locks);
+    }
+    
+    /**
+     * 关闭工厂，释放工厂持有的连接、线程等资源
+     */
+    default void close() {
+    }
+    
     /**
      * 获取工厂的名称
      * 
@@ -0,0 +1,76 @@
+package io.pluglock.core;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 按名称缓存锁实例，值为弱引用：应用不再引用的锁在GC后移除，缓存大小不超过正在使用的锁名称数量
+ *
+ * 同名的锁可以被多个线程共用。加锁和解锁之间锁实例可能被回收，之后拿到的是新实例，
+ * 因此锁工厂返回的锁不能把持有记录保存在实例字段里，要放在后端、按线程记录或放在工厂共享的结构中按名称区分
+ *
+ * @param <T> 锁类型
+ */
+class LockHandles<T> {
+
+    private final ConcurrentMap<String, Handle<T>> handles = new ConcurrentHashMap<>();
+    private final ReferenceQueue<T> cleared = new ReferenceQueue<>();
+
+    /**
+     * @param factory 没有缓存时创建锁
+     * @return 缓存的锁，没有时创建
+     */
+    T get(String name, Function<String, T> factory) {
+        Handle<T> handle = handles.get(name);
+        T lock = handle == null ? null : handle.get();
+        if (lock != null) {
+            return lock;
+        }
+        expunge();
+        T created = factory.apply(name);
+        while (true) {
+            handle = handles.get(name);
+            lock = handle == null ? null : handle.get();
+            if (lock != null) {
+                // 其他线程先创建了
+                return lock;
+            }
+            Handle<T> fresh = new Handle<>(name, created, cleared);
+            if (handle == null ? handles.putIfAbsent(name, fresh) == null : handles.replace(name, handle, fresh)) {
+                return created;
+            }
+        }
+    }
+
+    int size() {
+        expunge();
+        return handles.size();
+    }
+
+    void clear() {
+        handles.clear();
+    }
+
+    /**
+     * 移除已被回收的锁
+     */
+    @SuppressWarnings("unchecked")
+    private void expunge() {
+        Handle<T> handle;
+        while ((handle = (Handle<T>) cleared.poll()) != null) {
+            handles.remove(handle.name, handle);
+        }
+    }
+
+    private static final class Handle<T> extends WeakReference<T> {
+        final String name;
+
+        Handle(String name, T lock, ReferenceQueue<T> queue) {
+            super(lock, queue);
+            this.name = name;
+        }
+    }
+}
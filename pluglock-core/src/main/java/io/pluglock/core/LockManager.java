@@ -6,18 +6,23 @@ import java.util.concurrent.ConcurrentMap;
 
 /**
  * 锁管理器，通过SPI机制加载和管理不同的锁工厂
+ * 
+ * 静态方法使用JVM内共享的默认实例；需要互相隔离的锁工厂（例如不同的连接、看门狗和缓存）时创建新的实例，
+ * 每个实例通过SPI加载自己的锁工厂，用完后调用 {@link #close()}
  */
 public class LockManager {
     
-    private static final ConcurrentMap<String, LockFactory> lockFactories = new ConcurrentHashMap<>();
+    private static final LockManager DEFAULT = new LockManager();
+    
     // 定义默认锁类型的优先级顺序
     private static final String[] DEFAULT_LOCK_TYPE_PRIORITY = {"redis", "zookeeper", "jdbc"};
     
-    static {
-        loadLockFactories();
-    }
+    private final ConcurrentMap<String, LockFactory> lockFactories = new ConcurrentHashMap<>();
     
-    private static void loadLockFactories() {
+    /**
+     * 创建独立的锁管理器，通过SPI加载一组新的锁工厂
+     */
+    public LockManager() {
         ServiceLoader<LockFactory> loader = ServiceLoader.load(LockFactory.class);
         for (LockFactory factory : loader) {
             lockFactories.put(factory.getName(), factory);
@@ -25,21 +30,28 @@ public class LockManager {
     }
     
     /**
-     * 根据类型获取锁工厂
+     * @return 静态方法使用的默认实例
+     */
+    public static LockManager getDefault() {
+        return DEFAULT;
+    }
+    
+    /**
+     * 根据类型获取本实例的锁工厂
      * 
-     * @param type 锁类型（如"redis"、"jdbc"、"zookeeper"等）
-     * @return 锁工厂实例
+     * @param type 锁类型
+     * @return 锁工厂实例，没有时返回null
      */
-    public static LockFactory getLockFactory(String type) {
+    public LockFactory getFactory(String type) {
         return lockFactories.get(type);
     }
     
     /**
-     * 自动获取锁工厂，根据预设的优先级顺序选择第一个可用的锁工厂
+     * 按预设的优先级顺序选择本实例第一个可用的锁工厂
      * 
      * @return 锁工厂实例，如果没有可用的锁工厂则返回null
      */
-    public static LockFactory getLockFactory() {
+    public LockFactory getFactory() {
         for (String type : DEFAULT_LOCK_TYPE_PRIORITY) {
             LockFactory factory = lockFactories.get(type);
             if (factory != null) {
@@ -50,6 +62,70 @@ public class LockManager {
         return lockFactories.values().stream().findFirst().orElse(null);
     }
     
+    /**
+     * 创建绑定本实例锁工厂的注册中心，注册中心缓存锁实例，配置只解析一次
+     * 
+     * @param type 锁类型
+     * @param config 锁配置
+     * @return 锁注册中心
+     */
+    public PLockRegistry newRegistry(String type, LockConfig config) {
+        LockFactory factory = getFactory(type);
+        if (factory == null) {
+            throw new IllegalArgumentException("No lock factory found for type: " + type);
+        }
+        return new PLockRegistry(factory, config);
+    }
+    
+    /**
+     * 创建注册中心，自动选择可用的锁工厂
+     * 
+     * @param config 锁配置
+     * @return 锁注册中心
+     */
+    public PLockRegistry newRegistry(LockConfig config) {
+        LockFactory factory = getFactory();
+        if (factory == null) {
+            throw new IllegalStateException("No lock factory available");
+        }
+        return new PLockRegistry(factory, config);
+    }
+    
+    /**
+     * @return 本实例可用的锁类型
+     */
+    public String[] getTypes() {
+        return lockFactories.keySet().toArray(new String[0]);
+    }
+    
+    /**
+     * 关闭本实例的所有锁工厂
+     */
+    public void close() {
+        for (LockFactory factory : lockFactories.values()) {
+            factory.close();
+        }
+    }
+    
+    /**
+     * 根据类型获取锁工厂
+     * 
+     * @param type 锁类型（如"redis"、"jdbc"、"zookeeper"等）
+     * @return 锁工厂实例
+     */
+    public static LockFactory getLockFactory(String type) {
+        return DEFAULT.getFactory(type);
+    }
+    
+    /**
+     * 自动获取锁工厂，根据预设的优先级顺序选择第一个可用的锁工厂
+     * 
+     * @return 锁工厂实例，如果没有可用的锁工厂则返回null
+     */
+    public static LockFactory getLockFactory() {
+        return DEFAULT.getFactory();
+    }
+    
     /**
      * 创建分布式锁
      * 
@@ -87,6 +163,6 @@ public class LockManager {
      * @return 锁类型数组
      */
     public static String[] getAvailableLockTypes() {
-        return lockFactories.keySet().toArray(new String[0]);
+        return DEFAULT.getTypes();
     }
 }
\ No newline at end of file
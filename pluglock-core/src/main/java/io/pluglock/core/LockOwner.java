@@ -0,0 +1,106 @@
+package io.pluglock.core;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 锁的持有者标识
+ *
+ * JVM内以long区分持有者：默认为当前线程ID，也可以是 {@link #newToken()} 创建的令牌。
+ * 令牌不属于某个线程，异步、虚拟线程或响应式代码在加锁和释放时分别 {@link #bind(long)} 同一个令牌，
+ * 就能在不同线程上加锁和释放。开启 {@link CohortRegistry} 的锁使用锁队列自己的标识，本地排队按线程进行，不支持跨线程释放。
+ *
+ * 写入后端时加上本JVM的客户端ID，避免不同JVM中相同的线程ID互相重入或释放对方的锁；
+ * 编码结果按线程缓存，同一线程反复加锁时不再拼接
+ */
+public final class LockOwner {
+
+    /**
+     * 本JVM的客户端ID
+     */
+    public static final String CLIENT_ID = UUID.randomUUID().toString();
+
+    // 令牌和锁队列的标识取负数，不会与线程ID冲突
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private static final ThreadLocal<long[]> BOUND = new ThreadLocal<>();
+
+    private static final ThreadLocal<Encoded> ENCODED = ThreadLocal.withInitial(Encoded::new);
+
+    private LockOwner() {
+    }
+
+    /**
+     * 创建一个JVM内唯一的令牌
+     *
+     * @return 令牌，总是负数
+     */
+    public static long newToken() {
+        return IDS.decrementAndGet();
+    }
+
+    /**
+     * 当前线程加锁和释放时使用的持有者，没有绑定令牌时为线程ID
+     */
+    public static long current() {
+        long[] bound = BOUND.get();
+        return bound != null && bound[0] != 0 ? bound[0] : Thread.currentThread().getId();
+    }
+
+    /**
+     * 让当前线程以令牌的身份加锁和释放，直到关闭返回的作用域
+     *
+     * @param token {@link #newToken()} 创建的令牌
+     * @return 作用域，关闭时恢复之前的持有者
+     */
+    public static Scope bind(long token) {
+        if (token >= 0) {
+            throw new IllegalArgumentException("Lock token must be created by LockOwner.newToken()");
+        }
+        long[] bound = BOUND.get();
+        if (bound == null) {
+            bound = new long[1];
+            BOUND.set(bound);
+        }
+        Scope scope = new Scope(bound, bound[0]);
+        bound[0] = token;
+        return scope;
+    }
+
+    /**
+     * 后端记录的持有者：客户端ID:持有者
+     *
+     * @param ownerId JVM内的持有者
+     */
+    public static String encode(long ownerId) {
+        Encoded encoded = ENCODED.get();
+        if (encoded.value == null || encoded.ownerId != ownerId) {
+            encoded.value = CLIENT_ID + ":" + ownerId;
+            encoded.ownerId = ownerId;
+        }
+        return encoded.value;
+    }
+
+    /**
+     * 令牌绑定的作用域
+     */
+    public static final class Scope implements AutoCloseable {
+        private final long[] bound;
+        private final long previous;
+
+        private Scope(long[] bound, long previous) {
+            this.bound = bound;
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            bound[0] = previous;
+        }
+    }
+
+    private static final class Encoded {
+        long ownerId;
+        String value;
+    }
+}
@@ -0,0 +1,198 @@
+package io.pluglock.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 记录本JVM持有和等待的锁，用于监控和排查问题
+ *
+ * 每个线程只增删自己的记录：持有记录按线程保存在ThreadLocal中，
+ * 全局集合以记录对象本身为key，不同线程不会写同一个位置，加锁解锁不会因为记录而互相竞争；
+ * 等待数等汇总信息在读取时再计算
+ */
+public class LockTracker {
+
+    private final Set<Hold> holds = ConcurrentHashMap.newKeySet();
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Map<String, Hold>> threadHolds = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * 包装锁，加锁解锁时记录状态
+     *
+     * @param lock 锁
+     * @param name 记录中使用的名称，同一线程内用它区分不同的锁
+     * @return 记录状态的锁
+     */
+    public PLock track(PLock lock, String name) {
+        return new TrackedPLock(lock, name, this);
+    }
+
+    public PLock track(PLock lock) {
+        return track(lock, lock.getName());
+    }
+
+    Waiter beginWait(String name) {
+        Thread thread = Thread.currentThread();
+        Waiter waiter = new Waiter(name, thread.getName(), thread.getId(), System.currentTimeMillis());
+        waiters.add(waiter);
+        return waiter;
+    }
+
+    void endWait(Waiter waiter) {
+        waiters.remove(waiter);
+    }
+
+    /**
+     * @param leaseMillis 租约时间，-1表示持有到解锁
+     */
+    void acquired(String name, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        long leaseDeadline = leaseMillis < 0 ? -1 : now + leaseMillis;
+        Map<String, Hold> current = threadHolds.get();
+        Hold hold = current.get(name);
+        if (hold != null) {
+            hold.holdCount++;
+            hold.leaseDeadline = leaseDeadline;
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        hold = new Hold(name, thread.getName(), thread.getId(), now, leaseDeadline);
+        current.put(name, hold);
+        holds.add(hold);
+    }
+
+    void released(String name) {
+        Map<String, Hold> current = threadHolds.get();
+        Hold hold = current.get(name);
+        if (hold != null && --hold.holdCount <= 0) {
+            current.remove(name);
+            holds.remove(hold);
+        }
+    }
+
+    /**
+     * @return 当前持有的锁
+     */
+    public List<Hold> getHolds() {
+        return new ArrayList<>(holds);
+    }
+
+    /**
+     * @return 当前等待中的线程
+     */
+    public List<Waiter> getWaiters() {
+        return new ArrayList<>(waiters);
+    }
+
+    /**
+     * @return 每个锁名称的等待线程数
+     */
+    public Map<String, Integer> getWaiterCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Waiter waiter : waiters) {
+            counts.merge(waiter.getName(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public int getHoldCount() {
+        return holds.size();
+    }
+
+    public int getWaiterCount() {
+        return waiters.size();
+    }
+
+    /**
+     * 一个线程对一个锁的持有记录，重入时只增加次数
+     */
+    public static final class Hold {
+        private final String name;
+        private final String owner;
+        private final long threadId;
+        private final long acquiredAt;
+        private volatile long leaseDeadline;
+        private volatile int holdCount = 1;
+
+        Hold(String name, String owner, long threadId, long acquiredAt, long leaseDeadline) {
+            this.name = name;
+            this.owner = owner;
+            this.threadId = threadId;
+            this.acquiredAt = acquiredAt;
+            this.leaseDeadline = leaseDeadline;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return 持有线程的名称
+         */
+        public String getOwner() {
+            return owner;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        /**
+         * @return 获取锁的时间，毫秒时间戳
+         */
+        public long getAcquiredAt() {
+            return acquiredAt;
+        }
+
+        /**
+         * @return 租约到期时间，毫秒时间戳；-1表示持有到解锁，期间由看门狗续期
+         */
+        public long getLeaseDeadline() {
+            return leaseDeadline;
+        }
+
+        public int getHoldCount() {
+            return holdCount;
+        }
+    }
+
+    /**
+     * 一个等待中的线程
+     */
+    public static final class Waiter {
+        private final String name;
+        private final String owner;
+        private final long threadId;
+        private final long since;
+
+        Waiter(String name, String owner, long threadId, long since) {
+            this.name = name;
+            this.owner = owner;
+            this.threadId = threadId;
+            this.since = since;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        /**
+         * @return 开始等待的时间，毫秒时间戳
+         */
+        public long getSince() {
+            return since;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.pluglock.core;
+
+import io.pluglock.core.jfr.LeaseRenewedEvent;
+import io.pluglock.core.jfr.LockEvents;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 看门狗，为没有指定租约时间的锁定期续期
+ *
+ * 锁以内部租约时间加锁，持有期间每隔租约时间的三分之一续期一次；
+ * 进程退出后不再续期，锁在内部租约时间后自动过期。同一个看门狗可以被多个锁资源共享
+ */
+public class LockWatchdog {
+
+    /**
+     * 默认内部租约时间
+     */
+    public static final long DEFAULT_LEASE_MILLIS = Constants.DEFAULT_TIMEOUT_SECONDS * 1000;
+
+    private final long leaseMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, ScheduledFuture<?>> renewals = new ConcurrentHashMap<>();
+
+    public LockWatchdog() {
+        this(DEFAULT_LEASE_MILLIS);
+    }
+
+    public LockWatchdog(long leaseMillis) {
+        this.leaseMillis = leaseMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pluglock-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 开始为持有者续期，已在续期时不重复登记
+     *
+     * @param name    锁名称
+     * @param ownerId 持有者
+     * @param renewer 续期操作
+     */
+    public void watch(String name, long ownerId, LeaseRenewer renewer) {
+        watch(name, ownerId, null, renewer);
+    }
+
+    /**
+     * @param backend 后端名称，用于诊断事件
+     */
+    public void watch(String name, long ownerId, String backend, LeaseRenewer renewer) {
+        watch(name, ownerId, backend, leaseMillis, renewer);
+    }
+
+    /**
+     * 按指定的租约时间续期，例如比锁租约短的Redis会话
+     *
+     * @param leaseMillis 租约时间，每隔三分之一续期一次
+     */
+    public void watch(String name, long ownerId, String backend, long leaseMillis, LeaseRenewer renewer) {
+        String key = key(name, ownerId);
+        renewals.computeIfAbsent(key, k -> {
+            long period = Math.max(1, leaseMillis / 3);
+            return scheduler.scheduleAtFixedRate(() -> renew(name, ownerId, backend, leaseMillis, renewer),
+                    period, period, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * 停止续期，锁完全释放后调用
+     *
+     * @param name    锁名称
+     * @param ownerId 持有者
+     */
+    public void unwatch(String name, long ownerId) {
+        ScheduledFuture<?> future = renewals.remove(key(name, ownerId));
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    private void renew(String name, long ownerId, String backend, long leaseMillis, LeaseRenewer renewer) {
+        LeaseRenewedEvent event = LockEvents.ENABLED ? LeaseRenewedEvent.start() : null;
+        boolean renewed = false;
+        try {
+            renewed = renewer.renew(name, ownerId, leaseMillis);
+        } catch (RuntimeException e) {
+            // 存储暂时不可用，下个周期重试
+            return;
+        } finally {
+            if (event != null) {
+                event.finish(name, backend, ownerId, leaseMillis, renewed);
+            }
+        }
+        if (!renewed) {
+            // 锁已不属于该持有者
+            unwatch(name, ownerId);
+        }
+    }
+
+    private static String key(String name, long ownerId) {
+        return ownerId + ":" + name;
+    }
+
+    /**
+     * 内部租约时间
+     */
+    public long getLeaseMillis() {
+        return leaseMillis;
+    }
+
+    /**
+     * 正在续期的锁数量
+     */
+    public int size() {
+        return renewals.size();
+    }
+
+    public void close() {
+        scheduler.shutdownNow();
+        renewals.clear();
+    }
+
+    /**
+     * 续期操作
+     */
+    @FunctionalInterface
+    public interface LeaseRenewer {
+
+        /**
+         * 续期
+         *
+         * @param name        锁名称
+         * @param ownerId     持有者
+         * @param leaseMillis 新的租约时间
+         * @return 是否仍由该持有者持有
+         */
+        boolean renew(String name, long ownerId, long leaseMillis);
+    }
+}
@@ -22,6 +22,23 @@ public interface PLock extends Lock {
      */
     void lock(long leaseTime, TimeUnit unit) throws InterruptedException;
 
+    /**
+     * 在等待时间内尝试获取锁，获取成功后持有leaseTime时间自动释放
+     *
+     * 默认实现只支持leaseTime为-1，能够指定租约的锁需要覆盖此方法
+     *
+     * @param waitTime  最长等待时间，0表示不等待
+     * @param leaseTime 租约时间，-1表示持有到解锁
+     * @param unit      时间单位
+     * @return 是否获取成功
+     */
+    default boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        if (leaseTime != -1) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support tryLock with leaseTime");
+        }
+        return tryLock(waitTime, unit);
+    }
+
     /**
      * 获取锁的名字
      * 
@@ -5,6 +5,9 @@ import java.util.concurrent.Semaphore;
 public class PLockEntry {
     private Semaphore latch = new Semaphore(0);
 
+    // 共用该条目的等待者数量，由锁资源在ConcurrentHashMap.compute中读写
+    private int waiters;
+
     public Semaphore getLatch() {
         return latch;
     }
@@ -12,4 +15,22 @@ public class PLockEntry {
     public void setLatch(Semaphore latch) {
         this.latch = latch;
     }
+
+    /**
+     * @return 增加后的等待者数量
+     */
+    public int incrementWaiters() {
+        return ++waiters;
+    }
+
+    /**
+     * @return 减少后的等待者数量，为0时锁资源移除该条目
+     */
+    public int decrementWaiters() {
+        return --waiters;
+    }
+
+    public int getWaiters() {
+        return waiters;
+    }
 }
@@ -0,0 +1,169 @@
+package io.pluglock.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 锁注册中心，绑定一个锁工厂和一份配置，应用通过它按名称获取锁
+ *
+ * 配置在创建时冻结为快照；同名的锁和读写锁按名称缓存复用，应用不再引用后随GC移除。
+ * 多个注册中心互不影响，可以在同一个JVM中并存
+ */
+public class PLockRegistry {
+
+    /**
+     * 是否按名称缓存锁实例，默认true；锁工厂返回的锁只能由创建它的线程使用，或者在实例字段中保存持有记录时关闭
+     */
+    public static final String HANDLE_CACHE = "lock.handle.cache";
+
+    private final LockFactory lockFactory;
+    private final LockConfig lockConfig;
+    // 为null时不记录锁状态
+    private final LockTracker tracker;
+    // 为null时不统计竞争
+    private final ContentionProfiler profiler;
+    // 为null时每次创建新的锁实例
+    private final LockHandles<PLock> locks;
+    private final LockHandles<PReadWriteLock> readWriteLocks;
+
+    public PLockRegistry(LockFactory lockFactory, LockConfig lockConfig) {
+        this(lockFactory, lockConfig, null);
+    }
+
+    /**
+     * @param tracker 记录本JVM持有和等待的锁，为null时不记录
+     */
+    public PLockRegistry(LockFactory lockFactory, LockConfig lockConfig, LockTracker tracker) {
+        this(lockFactory, lockConfig, tracker, null);
+    }
+
+    /**
+     * @param tracker  记录本JVM持有和等待的锁，为null时不记录
+     * @param profiler 统计竞争最多和持有最久的锁，为null时不统计
+     */
+    public PLockRegistry(LockFactory lockFactory, LockConfig lockConfig, LockTracker tracker,
+                         ContentionProfiler profiler) {
+        this.lockFactory = lockFactory;
+        this.lockConfig = lockConfig.freeze();
+        this.tracker = tracker;
+        this.profiler = profiler;
+        boolean cached = this.lockConfig.getBoolean(HANDLE_CACHE, true);
+        this.locks = cached ? new LockHandles<>() : null;
+        this.readWriteLocks = cached ? new LockHandles<>() : null;
+    }
+
+    /**
+     * 获取锁
+     *
+     * @param name 锁名称
+     * @return 锁实例
+     */
+    public PLock getLock(String name) {
+        return locks == null ? createLock(name) : locks.get(name, this::createLock);
+    }
+
+    private PLock createLock(String name) {
+        PLock lock = lockFactory.createLock(name, lockConfig);
+        return decorate(lock, lock.getName());
+    }
+
+    /**
+     * 获取读写锁
+     *
+     * @param name 锁名称
+     * @return 读写锁实例
+     */
+    public PReadWriteLock getReadWriteLock(String name) {
+        return readWriteLocks == null ? createReadWriteLock(name) : readWriteLocks.get(name, this::createReadWriteLock);
+    }
+
+    private PReadWriteLock createReadWriteLock(String name) {
+        PReadWriteLock lock = lockFactory.createReadWriteLock(name, lockConfig);
+        return tracker == null && profiler == null ? lock : new DecoratedReadWriteLock(lock);
+    }
+
+    /**
+     * 获取同时锁定多个名称的组合锁
+     *
+     * @param names 锁名称
+     * @return 组合锁实例
+     */
+    public PLock getMultiLock(List<String> names) {
+        PLock lock = lockFactory.createMultiLock(names, lockConfig);
+        return decorate(lock, lock.getName());
+    }
+
+    public PLock getMultiLock(String... names) {
+        return getMultiLock(Arrays.asList(names));
+    }
+
+    public LockFactory getLockFactory() {
+        return lockFactory;
+    }
+
+    /**
+     * @return 创建时冻结的配置快照
+     */
+    public LockConfig getLockConfig() {
+        return lockConfig;
+    }
+
+    public LockTracker getTracker() {
+        return tracker;
+    }
+
+    public ContentionProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * 关闭注册中心及其锁工厂
+     */
+    public void close() {
+        if (locks != null) {
+            locks.clear();
+            readWriteLocks.clear();
+        }
+        lockFactory.close();
+    }
+
+    /**
+     * 按配置加上竞争统计和状态记录
+     */
+    private PLock decorate(PLock lock, String name) {
+        if (profiler != null) {
+            lock = profiler.profile(lock, name);
+        }
+        return tracker == null ? lock : tracker.track(lock, name);
+    }
+
+    /**
+     * 读锁和写锁分别记录，名称加上:read、:write后缀
+     */
+    private class DecoratedReadWriteLock implements PReadWriteLock {
+        private final PReadWriteLock delegate;
+        private final PLock readLock;
+        private final PLock writeLock;
+
+        DecoratedReadWriteLock(PReadWriteLock delegate) {
+            this.delegate = delegate;
+            this.readLock = decorate(delegate.readLock(), delegate.getName() + ":read");
+            this.writeLock = decorate(delegate.writeLock(), delegate.getName() + ":write");
+        }
+
+        @Override
+        public PLock readLock() {
+            return readLock;
+        }
+
+        @Override
+        public PLock writeLock() {
+            return writeLock;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+    }
+}
@@ -25,6 +25,17 @@ public interface PLockResource {
      */
     PLockEntry subscribe(String name);
 
+    /**
+     * 订阅锁释放的消息，等待订阅确认的时间不超过调用方剩余的等待时间
+     *
+     * @param name          锁名称
+     * @param timeoutMillis 最多等待订阅确认的时间（毫秒）
+     * @return 锁条目
+     */
+    default PLockEntry subscribe(String name, long timeoutMillis) {
+        return subscribe(name);
+    }
+
     /**
      * 取消订阅锁释放的消息
      *
@@ -49,4 +60,50 @@ public interface PLockResource {
      * @param threadId  线程ID
      */
     void releaseResource(String name, long threadId);
+
+    /**
+     * 通知当前持有者有其他节点在等待，后端不支持时忽略
+     *
+     * @param name 锁名称
+     */
+    default void signalDemand(String name) {
+    }
+
+    /**
+     * 监听其他节点通过 {@link #signalDemand(String)} 发出的加锁需求
+     *
+     * @param name     锁名称
+     * @param listener 收到需求时在通知线程中调用，不能阻塞
+     * @return 后端是否支持
+     */
+    default boolean watchDemand(String name, Runnable listener) {
+        return false;
+    }
+
+    /**
+     * 停止监听加锁需求
+     *
+     * @param name 锁名称
+     */
+    default void unwatchDemand(String name) {
+    }
+
+    /**
+     * 不访问后端判断锁是否仍由其他持有者持有，用于tryLock()快速失败
+     *
+     * @param name 锁名称
+     * @return 持有者的剩余时间（毫秒），null表示不确定，需要访问后端
+     */
+    default Long cachedTtl(String name) {
+        return null;
+    }
+
+    /**
+     * 后端名称，用于监控和诊断事件
+     *
+     * @return 后端名称
+     */
+    default String getBackend() {
+        return getClass().getSimpleName();
+    }
 }
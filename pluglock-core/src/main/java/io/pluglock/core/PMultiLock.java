@@ -0,0 +1,146 @@
+package io.pluglock.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 组合锁，把多个锁当作一个锁使用
+ *
+ * 按锁名称排序后依次加锁、逆序解锁，所有使用组合锁的线程加锁顺序一致，不会互相死锁；
+ * 任何一个锁获取失败时已获取的锁全部释放
+ */
+public class PMultiLock extends AbstractPLock {
+
+    private final List<PLock> locks;
+
+    public PMultiLock(List<? extends PLock> locks) {
+        super(locks.stream().map(PLock::getName).sorted().collect(Collectors.joining(",")));
+        List<PLock> sorted = new ArrayList<>(locks);
+        sorted.sort(Comparator.comparing(PLock::getName));
+        this.locks = sorted;
+    }
+
+    @Override
+    public void lock() {
+        int acquired = 0;
+        try {
+            for (PLock lock : locks) {
+                lock.lock();
+                acquired++;
+            }
+        } finally {
+            if (acquired < locks.size()) {
+                unlock(acquired);
+            }
+        }
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) throws InterruptedException {
+        int acquired = 0;
+        try {
+            for (PLock lock : locks) {
+                lock.lock(leaseTime, unit);
+                acquired++;
+            }
+        } finally {
+            if (acquired < locks.size()) {
+                unlock(acquired);
+            }
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        int acquired = 0;
+        try {
+            for (PLock lock : locks) {
+                lock.lockInterruptibly();
+                acquired++;
+            }
+        } finally {
+            if (acquired < locks.size()) {
+                unlock(acquired);
+            }
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        int acquired = 0;
+        try {
+            for (PLock lock : locks) {
+                if (!lock.tryLock()) {
+                    return false;
+                }
+                acquired++;
+            }
+            return true;
+        } finally {
+            if (acquired < locks.size()) {
+                unlock(acquired);
+            }
+        }
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return tryLock(time, -1, unit);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(waitTime);
+        long leaseNanos = leaseTime == -1 ? -1 : unit.toNanos(leaseTime);
+        int acquired = 0;
+        try {
+            for (PLock lock : locks) {
+                if (!lock.tryLock(Math.max(0, deadline - System.nanoTime()), leaseNanos, TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                acquired++;
+            }
+            return true;
+        } finally {
+            if (acquired < locks.size()) {
+                unlock(acquired);
+            }
+        }
+    }
+
+    @Override
+    public void unlock() {
+        unlock(locks.size());
+    }
+
+    /**
+     * 逆序释放前count个锁
+     */
+    private void unlock(int count) {
+        RuntimeException failure = null;
+        for (int i = count - 1; i >= 0; i--) {
+            try {
+                locks.get(i).unlock();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 获取组合中的锁，按名称排序
+     *
+     * @return 锁列表
+     */
+    public List<PLock> getLocks() {
+        return locks;
+    }
+}
@@ -0,0 +1,32 @@
+package io.pluglock.core;
+
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * 分布式读写锁接口，继承自JDK的ReadWriteLock接口
+ */
+public interface PReadWriteLock extends ReadWriteLock {
+
+    /**
+     * 获取共享的读锁
+     *
+     * @return 读锁
+     */
+    @Override
+    PLock readLock();
+
+    /**
+     * 获取独占的写锁
+     *
+     * @return 写锁
+     */
+    @Override
+    PLock writeLock();
+
+    /**
+     * 获取锁的名字
+     *
+     * @return 锁的名字
+     */
+    String getName();
+}
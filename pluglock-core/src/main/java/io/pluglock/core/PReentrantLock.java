@@ -1,9 +1,19 @@
 package io.pluglock.core;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import io.pluglock.core.jfr.AcquireAttemptEvent;
+import io.pluglock.core.jfr.LockEvents;
+import io.pluglock.core.jfr.LockGrantedEvent;
+import io.pluglock.core.jfr.LockReleasedEvent;
+import io.pluglock.core.jfr.LockWaitEvent;
+import io.pluglock.core.otel.AcquireSpan;
+import io.pluglock.core.otel.LockTracing;
+import io.pluglock.core.otel.ReleaseSpan;
+import io.pluglock.core.wait.NotifyWaitStrategy;
+import io.pluglock.core.wait.WaitStrategy;
+
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 可重入分布式锁抽象基类
@@ -15,15 +25,52 @@ public abstract class PReentrantLock extends AbstractPLock {
      */
     protected PLockResource lockResource;
 
+    /**
+     * 两次尝试之间的等待策略，默认第一次失败就订阅释放通知
+     */
+    protected WaitStrategy waitStrategy = DEFAULT_WAIT_STRATEGY;
+
+    /**
+     * tryLock()是否先查询锁资源的否定结果缓存，见 {@link PLockResource#cachedTtl(String)}
+     */
+    protected boolean negativeCache;
+
     /**
      * 默认超时时间（30秒）
      */
     protected static final long DEFAULT_TIMEOUT_SECONDS = Constants.DEFAULT_TIMEOUT_SECONDS;
 
+    private static final WaitStrategy DEFAULT_WAIT_STRATEGY = new NotifyWaitStrategy();
+
+    /**
+     * 固定的持有者标识，0表示按当前线程绑定的令牌或线程ID，见 {@link CohortRegistry}
+     */
+    private long ownerId;
+
+    /**
+     * 第一次加锁失败时是否通知持有者，见 {@link CohortRegistry#LINGER}
+     */
+    private boolean signalDemand;
+
     public PReentrantLock(String lockName) {
         super(lockName);
     }
 
+    /**
+     * JVM内的持有者标识，后端记录时由 {@link LockOwner#encode(long)} 加上客户端ID
+     */
+    long getOwnerId() {
+        return ownerId != 0 ? ownerId : LockOwner.current();
+    }
+
+    void setOwnerId(long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    void setSignalDemand(boolean signalDemand) {
+        this.signalDemand = signalDemand;
+    }
+
     @Override
     public void lock() {
         try {
@@ -35,38 +82,73 @@ public abstract class PReentrantLock extends AbstractPLock {
 
     @Override
     public void lock(long leaseTime, TimeUnit unit) throws InterruptedException {
-        long threadId = Thread.currentThread().getId();
-        Long ttl = lockResource.acquireResource(getName(), leaseTime, unit, threadId);
+        if (!LockTracing.ENABLED) {
+            acquire(leaseTime, unit, null);
+            return;
+        }
+        AcquireSpan span = AcquireSpan.start("PLock.lock", getName(), lockResource.getBackend(),
+                leaseMillis(leaseTime, unit));
+        boolean acquired = false;
+        try {
+            acquire(leaseTime, unit, span);
+            acquired = true;
+        } catch (RuntimeException | InterruptedException e) {
+            span.failed(e);
+            throw e;
+        } finally {
+            span.end(acquired);
+        }
+    }
+
+    private void acquire(long leaseTime, TimeUnit unit, AcquireSpan span) throws InterruptedException {
+        long threadId = getOwnerId();
+        LockGrantedEvent grantedEvent = LockEvents.ENABLED ? LockGrantedEvent.start() : null;
+        int attempts = 1;
+        Long ttl = attempt(leaseTime, unit, threadId, span);
         if (ttl == null) {
             // 上锁成功
+            granted(grantedEvent, leaseTime, unit, attempts);
             return;
         }
-        // 这里阻塞订阅锁释放消息
-        PLockEntry pLockEntry = lockResource.subscribe(getName());
-
+        if (signalDemand) {
+            lockResource.signalDemand(getName());
+        }
+        WaitStrategy.Waiter waiter = waitStrategy.newWaiter(getName());
+        PLockEntry pLockEntry = null;
+        boolean interrupted = false;
         try {
             while (true) {
-                ttl = lockResource.acquireResource(getName(), leaseTime, unit, threadId);
-                if (ttl == null) {
-                    // 上锁成功
-                    break;
-                }
-
-                if (ttl >= 0) {
+                long delay = waiter.nextDelay(ttl);
+                if (delay == WaitStrategy.PARK && pLockEntry == null) {
+                    // 订阅后立即重试一次，订阅之前发出的释放通知收不到
+                    pLockEntry = lockResource.subscribe(getName());
+                } else {
                     try {
-                        // 阻塞ttl这么久
-                        pLockEntry.getLatch().tryAcquire(ttl, TimeUnit.MICROSECONDS);
+                        if (!pause(pLockEntry, ttl, delay, -1, span) && delay == WaitStrategy.PARK) {
+                            resignalDemand();
+                        }
                     } catch (InterruptedException e) {
-
+                        // lock()不响应中断，获取到锁后恢复中断状态
+                        interrupted = true;
                     }
-                } else {
-                    // 即将到期直接一直阻塞
-                    pLockEntry.getLatch().acquire();
+                }
+                attempts++;
+                ttl = attempt(leaseTime, unit, threadId, span);
+                if (ttl == null) {
+                    // 上锁成功
+                    break;
                 }
             }
         } finally {
             // 释放订阅
-            lockResource.unsubscribe(getName());
+            if (pLockEntry != null) {
+                lockResource.unsubscribe(getName());
+            }
+        }
+        waiter.acquired();
+        granted(grantedEvent, leaseTime, unit, attempts);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -77,19 +159,224 @@ public abstract class PReentrantLock extends AbstractPLock {
 
     @Override
     public boolean tryLock() {
-        // 修正此处调用，添加缺少的参数
-        Long ttl = lockResource.tryAcquireResource(getName(), Thread.currentThread().getId(), DEFAULT_TIMEOUT_SECONDS * 1000);
-        return ttl != null;
+        if (negativeCache && lockResource.cachedTtl(getName()) != null) {
+            // 不久前得知锁由其他持有者持有，还没有收到释放通知
+            return false;
+        }
+        // 与lock()一样走acquireResource，持有期间由看门狗续期
+        if (!LockTracing.ENABLED) {
+            return attempt(-1, null, getOwnerId(), null) == null;
+        }
+        AcquireSpan span = AcquireSpan.start("PLock.tryLock", getName(), lockResource.getBackend(), -1);
+        boolean acquired = false;
+        try {
+            acquired = attempt(-1, null, getOwnerId(), span) == null;
+        } catch (RuntimeException e) {
+            span.failed(e);
+            throw e;
+        } finally {
+            span.end(acquired);
+        }
+        return acquired;
     }
 
     @Override
     public boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException {
-        throw new UnsupportedOperationException("Reentrant distributed lock does not support tryLock");
+        return tryLock(waitTime, -1, unit);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        if (!LockTracing.ENABLED) {
+            return tryAcquire(waitTime, leaseTime, unit, null);
+        }
+        AcquireSpan span = AcquireSpan.start("PLock.tryLock", getName(), lockResource.getBackend(),
+                leaseMillis(leaseTime, unit));
+        boolean acquired = false;
+        try {
+            acquired = tryAcquire(waitTime, leaseTime, unit, span);
+        } catch (RuntimeException | InterruptedException e) {
+            span.failed(e);
+            throw e;
+        } finally {
+            span.end(acquired);
+        }
+        return acquired;
+    }
+
+    private boolean tryAcquire(long waitTime, long leaseTime, TimeUnit unit, AcquireSpan span)
+            throws InterruptedException {
+        long threadId = getOwnerId();
+        long deadline = System.nanoTime() + unit.toNanos(waitTime);
+        LockGrantedEvent grantedEvent = LockEvents.ENABLED ? LockGrantedEvent.start() : null;
+        int attempts = 1;
+        Long ttl = attempt(leaseTime, unit, threadId, span);
+        if (ttl == null) {
+            granted(grantedEvent, leaseTime, unit, attempts);
+            return true;
+        }
+        if (waitTime <= 0) {
+            return false;
+        }
+        if (signalDemand) {
+            lockResource.signalDemand(getName());
+        }
+        WaitStrategy.Waiter waiter = waitStrategy.newWaiter(getName());
+        PLockEntry pLockEntry = null;
+        try {
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                long delay = waiter.nextDelay(ttl);
+                if (delay == WaitStrategy.PARK && pLockEntry == null) {
+                    // 等待订阅确认同样计入等待时间
+                    pLockEntry = lockResource.subscribe(getName(), TimeUnit.NANOSECONDS.toMillis(remaining));
+                } else {
+                    // 最多等到等待时间用完
+                    if (!pause(pLockEntry, ttl, delay, remaining, span) && delay == WaitStrategy.PARK) {
+                        resignalDemand();
+                    }
+                }
+                attempts++;
+                ttl = attempt(leaseTime, unit, threadId, span);
+                if (ttl == null) {
+                    waiter.acquired();
+                    granted(grantedEvent, leaseTime, unit, attempts);
+                    return true;
+                }
+            }
+        } finally {
+            if (pLockEntry != null) {
+                lockResource.unsubscribe(getName());
+            }
+        }
     }
 
     @Override
     public void unlock() {
-        lockResource.releaseResource(getName(), Thread.currentThread().getId());
+        if (!LockEvents.ENABLED && !LockTracing.ENABLED) {
+            lockResource.releaseResource(getName(), getOwnerId());
+            return;
+        }
+        LockReleasedEvent event = LockEvents.ENABLED ? LockReleasedEvent.start() : null;
+        ReleaseSpan span = LockTracing.ENABLED ? ReleaseSpan.start(getName(), lockResource.getBackend()) : null;
+        boolean success = false;
+        try {
+            lockResource.releaseResource(getName(), getOwnerId());
+            success = true;
+        } catch (RuntimeException e) {
+            if (span != null) {
+                span.failed(e);
+            }
+            throw e;
+        } finally {
+            if (event != null) {
+                event.finish(getName(), lockResource.getBackend(), success);
+            }
+            if (span != null) {
+                span.end(success);
+            }
+        }
+    }
+
+    /**
+     * 向后端尝试一次加锁
+     *
+     * @return null表示获取成功，否则为当前持有者的剩余时间
+     */
+    private Long attempt(long leaseTime, TimeUnit unit, long threadId, AcquireSpan span) {
+        if (span != null) {
+            span.attempted();
+        }
+        if (!LockEvents.ENABLED) {
+            return lockResource.acquireResource(getName(), leaseTime, unit, threadId);
+        }
+        AcquireAttemptEvent event = AcquireAttemptEvent.start();
+        Long ttl = lockResource.acquireResource(getName(), leaseTime, unit, threadId);
+        event.finish(getName(), lockResource.getBackend(), leaseMillis(leaseTime, unit), ttl);
+        return ttl;
+    }
+
+    /**
+     * 按等待策略的结果等待下一次尝试
+     *
+     * @param pLockEntry 已订阅时的释放通知，未订阅时为null
+     * @param delay      等待策略返回的等待时间，{@link WaitStrategy#PARK} 表示等待释放通知
+     * @param limit      最长等待时间（纳秒），小于0表示不限制
+     * @return 是否被释放通知唤醒
+     */
+    private boolean pause(PLockEntry pLockEntry, long ttl, long delay, long limit, AcquireSpan span)
+            throws InterruptedException {
+        long timeout = delay;
+        if (delay == WaitStrategy.PARK) {
+            timeout = notifyBound(ttl);
+        }
+        if (limit >= 0 && (timeout < 0 || timeout > limit)) {
+            timeout = limit;
+        }
+        return timeout != 0 && await(pLockEntry, ttl, timeout, span);
+    }
+
+    /**
+     * 等待释放通知超时，持有者可能在第一次需求发出之后才开始监听，再发一次
+     */
+    private void resignalDemand() {
+        if (signalDemand) {
+            lockResource.signalDemand(getName());
+        }
+    }
+
+    /**
+     * 等待释放通知的上限（纳秒），小于0表示一直等待
+     *
+     * 同名的等待者共用一个订阅条目，释放通知不会因为互相覆盖而丢失，最多等到当前持有者的租约到期
+     */
+    private static long notifyBound(long ttl) {
+        return ttl >= 0 ? TimeUnit.MILLISECONDS.toNanos(ttl) : -1;
+    }
+
+    /**
+     * 等待锁释放通知，未订阅时只是休眠
+     *
+     * @param ttl     当前持有者的剩余时间，只用于记录
+     * @param timeout 最长等待时间（纳秒），小于0表示一直等待
+     * @return 是否被释放通知唤醒
+     */
+    private boolean await(PLockEntry pLockEntry, long ttl, long timeout, AcquireSpan span)
+            throws InterruptedException {
+        LockWaitEvent event = LockEvents.ENABLED ? LockWaitEvent.start() : null;
+        boolean notified;
+        if (pLockEntry == null) {
+            LockSupport.parkNanos(this, timeout);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            notified = false;
+        } else if (timeout < 0) {
+            pLockEntry.getLatch().acquire();
+            notified = true;
+        } else {
+            notified = pLockEntry.getLatch().tryAcquire(timeout, TimeUnit.NANOSECONDS);
+        }
+        if (event != null) {
+            event.finish(getName(), lockResource.getBackend(), ttl, notified);
+        }
+        if (span != null) {
+            span.waited(ttl, notified);
+        }
+        return notified;
+    }
+
+    private void granted(LockGrantedEvent event, long leaseTime, TimeUnit unit, int attempts) {
+        if (event != null) {
+            event.finish(getName(), lockResource.getBackend(), leaseMillis(leaseTime, unit), attempts);
+        }
+    }
+
+    private static long leaseMillis(long leaseTime, TimeUnit unit) {
+        return leaseTime == -1 ? -1 : unit.toMillis(leaseTime);
     }
 
     @Override
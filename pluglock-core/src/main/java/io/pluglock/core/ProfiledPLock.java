@@ -0,0 +1,82 @@
+package io.pluglock.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * 把等待和持有时间计入 {@link ContentionProfiler} 的锁包装
+ */
+class ProfiledPLock implements PLock {
+
+    private final PLock delegate;
+    private final String name;
+    private final ContentionProfiler profiler;
+
+    ProfiledPLock(PLock delegate, String name, ContentionProfiler profiler) {
+        this.delegate = delegate;
+        this.name = name;
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void lock() {
+        long start = System.nanoTime();
+        delegate.lock();
+        profiler.waited(name, System.nanoTime() - start, true);
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        delegate.lock(leaseTime, unit);
+        profiler.waited(name, System.nanoTime() - start, true);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        long start = System.nanoTime();
+        delegate.lockInterruptibly();
+        profiler.waited(name, System.nanoTime() - start, true);
+    }
+
+    @Override
+    public boolean tryLock() {
+        long start = System.nanoTime();
+        boolean acquired = delegate.tryLock();
+        profiler.waited(name, System.nanoTime() - start, acquired);
+        return acquired;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return tryLock(time, -1, unit);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        boolean acquired = leaseTime == -1 ? delegate.tryLock(waitTime, unit) : delegate.tryLock(waitTime, leaseTime, unit);
+        // 超时放弃的等待同样计入竞争
+        profiler.waited(name, System.nanoTime() - start, acquired);
+        return acquired;
+    }
+
+    @Override
+    public void unlock() {
+        try {
+            delegate.unlock();
+        } finally {
+            profiler.released(name);
+        }
+    }
+
+    @Override
+    public Condition newCondition() {
+        return delegate.newCondition();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+}
@@ -0,0 +1,102 @@
+package io.pluglock.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * 把加锁、等待和解锁记录到 {@link LockTracker} 的锁包装
+ */
+class TrackedPLock implements PLock {
+
+    private final PLock delegate;
+    private final String name;
+    private final LockTracker tracker;
+
+    TrackedPLock(PLock delegate, String name, LockTracker tracker) {
+        this.delegate = delegate;
+        this.name = name;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void lock() {
+        LockTracker.Waiter waiter = tracker.beginWait(name);
+        try {
+            delegate.lock();
+        } finally {
+            tracker.endWait(waiter);
+        }
+        tracker.acquired(name, -1);
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) throws InterruptedException {
+        LockTracker.Waiter waiter = tracker.beginWait(name);
+        try {
+            delegate.lock(leaseTime, unit);
+        } finally {
+            tracker.endWait(waiter);
+        }
+        tracker.acquired(name, leaseTime == -1 ? -1 : unit.toMillis(leaseTime));
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        LockTracker.Waiter waiter = tracker.beginWait(name);
+        try {
+            delegate.lockInterruptibly();
+        } finally {
+            tracker.endWait(waiter);
+        }
+        tracker.acquired(name, -1);
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (delegate.tryLock()) {
+            tracker.acquired(name, -1);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return tryLock(time, -1, unit);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        boolean acquired;
+        LockTracker.Waiter waiter = tracker.beginWait(name);
+        try {
+            acquired = leaseTime == -1 ? delegate.tryLock(waitTime, unit) : delegate.tryLock(waitTime, leaseTime, unit);
+        } finally {
+            tracker.endWait(waiter);
+        }
+        if (acquired) {
+            tracker.acquired(name, leaseTime == -1 ? -1 : unit.toMillis(leaseTime));
+        }
+        return acquired;
+    }
+
+    @Override
+    public void unlock() {
+        try {
+            delegate.unlock();
+        } finally {
+            // 租约已过期等情况下解锁会失败，记录同样要删除
+            tracker.released(name);
+        }
+    }
+
+    @Override
+    public Condition newCondition() {
+        return delegate.newCondition();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+}
@@ -0,0 +1,24 @@
+package io.pluglock.core;
+
+/**
+ * 虚拟线程支持，Java 21及以上由多版本JAR中的实现替换
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 方法而不是常量，避免调用方编译时内联
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * @return 未启动的线程
+     */
+    static Thread newThread(String name, Runnable task) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21");
+    }
+}
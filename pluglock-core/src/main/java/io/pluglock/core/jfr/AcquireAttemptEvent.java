@@ -0,0 +1,63 @@
+package io.pluglock.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * 向后端发起的一次加锁尝试
+ */
+@Name("io.pluglock.AcquireAttempt")
+@Label("Lock Acquire Attempt")
+@Category(LockEvents.CATEGORY)
+@Description("One attempt to acquire a lock on the backend")
+@StackTrace(false)
+@Threshold("1 ms")
+public class AcquireAttemptEvent extends Event {
+
+    @Label("Lock Name")
+    String name;
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Lease Time")
+    @Description("-1 when the lease is renewed by the watchdog")
+    @Timespan(Timespan.MILLISECONDS)
+    long leaseTime;
+
+    @Label("Acquired")
+    boolean acquired;
+
+    @Label("TTL")
+    @Description("Remaining time to live of the lock held by another owner, -1 when acquired")
+    @Timespan(Timespan.MILLISECONDS)
+    long ttl;
+
+    public static AcquireAttemptEvent start() {
+        AcquireAttemptEvent event = new AcquireAttemptEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param leaseTime 租约时间（毫秒），-1表示由看门狗续期
+     * @param ttl       其他持有者的剩余时间，null表示获取成功
+     */
+    public void finish(String name, String backend, long leaseTime, Long ttl) {
+        end();
+        if (shouldCommit()) {
+            this.name = name;
+            this.backend = backend;
+            this.leaseTime = leaseTime;
+            this.acquired = ttl == null;
+            this.ttl = ttl == null ? -1 : ttl;
+            commit();
+        }
+    }
+}
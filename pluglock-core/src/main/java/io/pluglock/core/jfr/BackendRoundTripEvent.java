@@ -0,0 +1,48 @@
+package io.pluglock.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 对锁后端的一次请求，包含借用连接的时间
+ */
+@Name("io.pluglock.RoundTrip")
+@Label("Lock Backend Round Trip")
+@Category(LockEvents.CATEGORY)
+@Description("One request to the lock backend, including borrowing a connection")
+@Threshold("1 ms")
+public class BackendRoundTripEvent extends Event {
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Key")
+    String key;
+
+    @Label("Success")
+    boolean success;
+
+    public static BackendRoundTripEvent start() {
+        BackendRoundTripEvent event = new BackendRoundTripEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String backend, String operation, String key, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.backend = backend;
+            this.operation = operation;
+            this.key = key;
+            this.success = success;
+            commit();
+        }
+    }
+}
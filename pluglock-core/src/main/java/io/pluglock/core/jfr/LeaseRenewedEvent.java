@@ -0,0 +1,57 @@
+package io.pluglock.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * 看门狗的一次续期
+ */
+@Name("io.pluglock.LeaseRenewed")
+@Label("Lock Lease Renewed")
+@Category(LockEvents.CATEGORY)
+@Description("Lease of a held lock renewed by the watchdog")
+@StackTrace(false)
+@Threshold("0 ms")
+public class LeaseRenewedEvent extends Event {
+
+    @Label("Lock Name")
+    String name;
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Owner")
+    long owner;
+
+    @Label("Lease Time")
+    @Timespan(Timespan.MILLISECONDS)
+    long leaseTime;
+
+    @Label("Renewed")
+    @Description("False when the lock is no longer held by the owner or the backend failed")
+    boolean renewed;
+
+    public static LeaseRenewedEvent start() {
+        LeaseRenewedEvent event = new LeaseRenewedEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String name, String backend, long owner, long leaseTime, boolean renewed) {
+        end();
+        if (shouldCommit()) {
+            this.name = name;
+            this.backend = backend;
+            this.owner = owner;
+            this.leaseTime = leaseTime;
+            this.renewed = renewed;
+            commit();
+        }
+    }
+}
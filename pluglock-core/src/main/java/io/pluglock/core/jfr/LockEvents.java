@@ -0,0 +1,36 @@
+package io.pluglock.core.jfr;
+
+/**
+ * JDK Flight Recorder事件的开关
+ *
+ * 运行在没有jdk.jfr模块的JVM上或设置了 -Dpluglock.jfr.enabled=false 时为false，
+ * 调用方先检查 {@link #ENABLED} 再创建事件，事件类不会被加载。
+ * JFR可用但没有记录时，创建和提交事件只有一次enabled检查的开销
+ *
+ * 每个事件的阈值可以在.jfc配置文件中按事件名称单独设置，也可以在JMC中修改，
+ * 未配置时使用各事件类上 {@link jdk.jfr.Threshold} 的默认值
+ */
+public final class LockEvents {
+
+    public static final boolean ENABLED = isAvailable();
+
+    /**
+     * 事件分类
+     */
+    static final String CATEGORY = "PlugLock";
+
+    private LockEvents() {
+    }
+
+    private static boolean isAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("pluglock.jfr.enabled", "true"))) {
+            return false;
+        }
+        try {
+            Class.forName("jdk.jfr.Event", false, LockEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
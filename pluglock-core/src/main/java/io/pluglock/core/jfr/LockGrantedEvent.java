@@ -0,0 +1,51 @@
+package io.pluglock.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * 获取到锁，持续时间为从第一次尝试到获取成功
+ */
+@Name("io.pluglock.Granted")
+@Label("Lock Granted")
+@Category(LockEvents.CATEGORY)
+@Description("Lock acquired, duration is the time from the first attempt until the lock was granted")
+@Threshold("10 ms")
+public class LockGrantedEvent extends Event {
+
+    @Label("Lock Name")
+    String name;
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Lease Time")
+    @Description("-1 when the lease is renewed by the watchdog")
+    @Timespan(Timespan.MILLISECONDS)
+    long leaseTime;
+
+    @Label("Attempts")
+    int attempts;
+
+    public static LockGrantedEvent start() {
+        LockGrantedEvent event = new LockGrantedEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String name, String backend, long leaseTime, int attempts) {
+        end();
+        if (shouldCommit()) {
+            this.name = name;
+            this.backend = backend;
+            this.leaseTime = leaseTime;
+            this.attempts = attempts;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.pluglock.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 释放锁，持续时间为释放操作本身
+ */
+@Name("io.pluglock.Released")
+@Label("Lock Released")
+@Category(LockEvents.CATEGORY)
+@Description("Lock released by its owner")
+@Threshold("1 ms")
+public class LockReleasedEvent extends Event {
+
+    @Label("Lock Name")
+    String name;
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Success")
+    boolean success;
+
+    public static LockReleasedEvent start() {
+        LockReleasedEvent event = new LockReleasedEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String name, String backend, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.name = name;
+            this.backend = backend;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.pluglock.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * 等待锁释放通知的一次阻塞，替代分析结果中匿名的Semaphore park
+ */
+@Name("io.pluglock.Wait")
+@Label("Lock Wait")
+@Category(LockEvents.CATEGORY)
+@Description("Thread blocked waiting for a lock to be released")
+@Threshold("10 ms")
+public class LockWaitEvent extends Event {
+
+    @Label("Lock Name")
+    String name;
+
+    @Label("Backend")
+    String backend;
+
+    @Label("TTL")
+    @Description("Remaining time to live of the lock when the wait started")
+    @Timespan(Timespan.MILLISECONDS)
+    long ttl;
+
+    @Label("Notified")
+    @Description("Woken by a release notification rather than by timeout")
+    boolean notified;
+
+    public static LockWaitEvent start() {
+        LockWaitEvent event = new LockWaitEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String name, String backend, long ttl, boolean notified) {
+        end();
+        if (shouldCommit()) {
+            this.name = name;
+            this.backend = backend;
+            this.ttl = ttl;
+            this.notified = notified;
+            commit();
+        }
+    }
+}
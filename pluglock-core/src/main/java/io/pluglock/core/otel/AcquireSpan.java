@@ -0,0 +1,124 @@
+package io.pluglock.core.otel;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 一次加锁的span，从开始加锁到获取成功或放弃，包含期间所有的后端往返和等待
+ *
+ * 加锁期间span是当前span，后端客户端自己的追踪会挂在它下面。
+ * 获取成功后记录span上下文，解锁时 {@link ReleaseSpan} 通过link关联回来
+ */
+public final class AcquireSpan {
+
+    static final AttributeKey<String> LOCK_NAME = AttributeKey.stringKey("pluglock.lock.name");
+    static final AttributeKey<String> BACKEND = AttributeKey.stringKey("pluglock.backend");
+    private static final AttributeKey<Long> LEASE = AttributeKey.longKey("pluglock.lease_ms");
+    private static final AttributeKey<Long> ROUND_TRIPS = AttributeKey.longKey("pluglock.round_trips");
+    private static final AttributeKey<Long> WAKEUPS = AttributeKey.longKey("pluglock.wakeups");
+    private static final AttributeKey<Long> TTL = AttributeKey.longKey("pluglock.ttl_ms");
+    private static final AttributeKey<Boolean> ACQUIRED = AttributeKey.booleanKey("pluglock.acquired");
+
+    /**
+     * 当前线程持有的锁对应的加锁span，同名的锁重入时按栈保存
+     */
+    static final ThreadLocal<Map<String, ArrayDeque<Hold>>> HOLDS = ThreadLocal.withInitial(HashMap::new);
+
+    private static volatile Tracer tracer;
+
+    private final Span span;
+    private final Scope scope;
+    private final String name;
+    private int roundTrips;
+    private int wakeups;
+    private boolean waited;
+
+    private AcquireSpan(Span span, String name) {
+        this.span = span;
+        this.scope = span.makeCurrent();
+        this.name = name;
+    }
+
+    static void setTracer(Tracer tracer) {
+        AcquireSpan.tracer = tracer;
+    }
+
+    static Tracer tracer() {
+        Tracer current = tracer;
+        return current != null ? current : GlobalOpenTelemetry.getTracer(LockTracing.INSTRUMENTATION_NAME);
+    }
+
+    /**
+     * @param operation   span名称，如PLock.lock
+     * @param leaseMillis 租约时间，-1表示由看门狗续期
+     */
+    public static AcquireSpan start(String operation, String name, String backend, long leaseMillis) {
+        Span span = tracer().spanBuilder(operation)
+                .setAttribute(LOCK_NAME, name)
+                .setAttribute(BACKEND, backend)
+                .setAttribute(LEASE, leaseMillis)
+                .startSpan();
+        return new AcquireSpan(span, name);
+    }
+
+    /**
+     * 记录一次向后端的加锁尝试
+     */
+    public void attempted() {
+        roundTrips++;
+    }
+
+    /**
+     * 记录一次等待，第一次等待时的ttl作为属性
+     *
+     * @param notified 是否被释放通知唤醒
+     */
+    public void waited(long ttl, boolean notified) {
+        if (!waited) {
+            waited = true;
+            span.setAttribute(TTL, ttl);
+        }
+        if (notified) {
+            wakeups++;
+        }
+    }
+
+    public void failed(Throwable e) {
+        span.recordException(e);
+        span.setStatus(StatusCode.ERROR);
+    }
+
+    public void end(boolean acquired) {
+        try {
+            span.setAttribute(ROUND_TRIPS, roundTrips);
+            span.setAttribute(WAKEUPS, wakeups);
+            span.setAttribute(ACQUIRED, acquired);
+            span.end();
+        } finally {
+            scope.close();
+        }
+        if (acquired) {
+            HOLDS.get().computeIfAbsent(name, k -> new ArrayDeque<>())
+                    .push(new Hold(span.getSpanContext(), System.nanoTime()));
+        }
+    }
+
+    static final class Hold {
+        final SpanContext context;
+        final long acquiredAt;
+
+        Hold(SpanContext context, long acquiredAt) {
+            this.context = context;
+            this.acquiredAt = acquiredAt;
+        }
+    }
+}
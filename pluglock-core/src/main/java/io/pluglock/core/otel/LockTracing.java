@@ -0,0 +1,44 @@
+package io.pluglock.core.otel;
+
+import io.opentelemetry.api.OpenTelemetry;
+
+/**
+ * OpenTelemetry追踪的开关
+ *
+ * classpath上没有opentelemetry-api或设置了 -Dpluglock.otel.enabled=false 时为false，
+ * 调用方先检查 {@link #ENABLED} 再创建span，OpenTelemetry的类不会被加载。
+ * 默认使用 {@link io.opentelemetry.api.GlobalOpenTelemetry}，没有注册SDK时span都是空操作
+ */
+public final class LockTracing {
+
+    public static final boolean ENABLED = isAvailable();
+
+    /**
+     * 追踪使用的instrumentation名称
+     */
+    static final String INSTRUMENTATION_NAME = "io.pluglock";
+
+    private LockTracing() {
+    }
+
+    /**
+     * 使用指定的OpenTelemetry实例而不是全局实例，用于SDK没有注册为全局实例的应用
+     */
+    public static void setOpenTelemetry(OpenTelemetry openTelemetry) {
+        if (ENABLED) {
+            AcquireSpan.setTracer(openTelemetry.getTracer(INSTRUMENTATION_NAME));
+        }
+    }
+
+    private static boolean isAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("pluglock.otel.enabled", "true"))) {
+            return false;
+        }
+        try {
+            Class.forName("io.opentelemetry.api.GlobalOpenTelemetry", false, LockTracing.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.pluglock.core.otel;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.StatusCode;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次解锁的span，link到获取这把锁的 {@link AcquireSpan}，并记录持有时间
+ */
+public final class ReleaseSpan {
+
+    private static final AttributeKey<Long> HOLD = AttributeKey.longKey("pluglock.hold_ms");
+    private static final AttributeKey<Boolean> RELEASED = AttributeKey.booleanKey("pluglock.released");
+
+    private final Span span;
+
+    private ReleaseSpan(Span span) {
+        this.span = span;
+    }
+
+    public static ReleaseSpan start(String name, String backend) {
+        SpanBuilder builder = AcquireSpan.tracer().spanBuilder("PLock.unlock")
+                .setAttribute(AcquireSpan.LOCK_NAME, name)
+                .setAttribute(AcquireSpan.BACKEND, backend);
+        AcquireSpan.Hold hold = pop(name);
+        if (hold != null) {
+            builder.addLink(hold.context)
+                    .setAttribute(HOLD, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - hold.acquiredAt));
+        }
+        return new ReleaseSpan(builder.startSpan());
+    }
+
+    public void failed(Throwable e) {
+        span.recordException(e);
+        span.setStatus(StatusCode.ERROR);
+    }
+
+    public void end(boolean released) {
+        span.setAttribute(RELEASED, released);
+        span.end();
+    }
+
+    /**
+     * 持有交给了同一JVM内的其他线程，没有向后端释放，丢弃当前线程记录的持有
+     */
+    public static void handOff(String name) {
+        pop(name);
+    }
+
+    private static AcquireSpan.Hold pop(String name) {
+        Map<String, ArrayDeque<AcquireSpan.Hold>> holds = AcquireSpan.HOLDS.get();
+        ArrayDeque<AcquireSpan.Hold> stack = holds.get(name);
+        if (stack == null) {
+            return null;
+        }
+        AcquireSpan.Hold hold = stack.poll();
+        if (stack.isEmpty()) {
+            holds.remove(name);
+        }
+        return hold;
+    }
+}
@@ -0,0 +1,107 @@
+package io.pluglock.core.wait;
+
+import io.pluglock.core.LockConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 先间隔重试，等待时间超过预估后再订阅释放通知
+ *
+ * 每个锁名称记录从第一次失败到获取成功的等待时间的指数移动平均，即观察到的持有者还要持有多久。
+ * 预估时间不超过自旋上限时，在预估时间的两倍内按指数增长的间隔重试；
+ * 超过上限或重试期内没有获取到时订阅通知。
+ * 预估值放在按名称哈希的固定大小数组里，不同名称可能共用一个槽位，内存占用与锁名称数量无关
+ */
+public class AdaptiveWaitStrategy implements WaitStrategy {
+
+    public static final String NAME = "adaptive";
+
+    private static final int SLOTS = 1024;
+    private static final long MIN_STEP_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    private final AtomicLongArray estimates = new AtomicLongArray(SLOTS);
+    private long maxSpinNanos = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * lock.wait.spin.max：最长的重试时间，单位微秒，超过它的锁直接订阅通知
+     */
+    @Override
+    public void configure(LockConfig config) {
+        maxSpinNanos = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(config.getProperty("lock.wait.spin.max", "1000")));
+    }
+
+    @Override
+    public Waiter newWaiter(String name) {
+        int slot = spread(name.hashCode()) & (SLOTS - 1);
+        long estimate = estimates.get(slot);
+        long budget;
+        if (estimate == 0) {
+            // 还没有观察到这个锁，先按上限重试
+            budget = maxSpinNanos;
+        } else if (estimate <= maxSpinNanos) {
+            budget = Math.min(estimate * 2, maxSpinNanos);
+        } else {
+            budget = 0;
+        }
+        return new AdaptiveWaiter(slot, budget);
+    }
+
+    /**
+     * @return 锁名称当前的预估等待时间（纳秒），0表示还没有观察到
+     */
+    public long getEstimateNanos(String name) {
+        return estimates.get(spread(name.hashCode()) & (SLOTS - 1));
+    }
+
+    private void observe(int slot, long waitNanos) {
+        // 超过自旋上限的样本按两倍上限计，偶尔一次很长的等待不会让锁一直直接订阅
+        waitNanos = Math.min(waitNanos, maxSpinNanos * 2);
+        long current = estimates.get(slot);
+        // 权重1/4的指数移动平均，并发更新时丢失个别样本没有影响
+        long updated = current == 0 ? waitNanos : current + (waitNanos - current) / 4;
+        estimates.set(slot, Math.max(updated, 1));
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private class AdaptiveWaiter implements Waiter {
+        private final int slot;
+        private final long budget;
+        private final long start = System.nanoTime();
+        private long step = MIN_STEP_NANOS;
+        private boolean parked;
+
+        AdaptiveWaiter(int slot, long budget) {
+            this.slot = slot;
+            this.budget = budget;
+        }
+
+        @Override
+        public long nextDelay(long ttl) {
+            if (parked) {
+                return PARK;
+            }
+            long remaining = budget - (System.nanoTime() - start);
+            if (remaining <= 0) {
+                parked = true;
+                return PARK;
+            }
+            long delay = Math.min(step, remaining);
+            step = Math.min(step * 2, Math.max(budget / 4, MIN_STEP_NANOS));
+            return delay;
+        }
+
+        @Override
+        public void acquired() {
+            observe(slot, System.nanoTime() - start);
+        }
+    }
+}
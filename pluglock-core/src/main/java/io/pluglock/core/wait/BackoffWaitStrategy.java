@@ -0,0 +1,54 @@
+package io.pluglock.core.wait;
+
+import io.pluglock.core.LockConfig;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指数退避加随机抖动，不订阅释放通知
+ *
+ * 每次失败后等待 [0, min(max, base * 2^n)) 之间的随机时间，抖动避免多个节点同时重试；
+ * 锁有过期时间时不会等待超过剩余时间。适合没有释放通知的后端，例如JDBC
+ */
+public class BackoffWaitStrategy implements WaitStrategy {
+
+    public static final String NAME = "backoff";
+
+    private long baseNanos = TimeUnit.MICROSECONDS.toNanos(100);
+    private long maxNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * lock.wait.backoff.base、lock.wait.backoff.max，单位微秒
+     */
+    @Override
+    public void configure(LockConfig config) {
+        baseNanos = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(config.getProperty("lock.wait.backoff.base", "100")));
+        maxNanos = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(config.getProperty("lock.wait.backoff.max", "100000")));
+        if (baseNanos <= 0 || maxNanos < baseNanos) {
+            throw new IllegalArgumentException("lock.wait.backoff.base must be positive and not greater than lock.wait.backoff.max");
+        }
+    }
+
+    @Override
+    public Waiter newWaiter(String name) {
+        return new BackoffWaiter();
+    }
+
+    private class BackoffWaiter implements Waiter {
+        private long ceiling = baseNanos;
+
+        @Override
+        public long nextDelay(long ttl) {
+            long delay = ThreadLocalRandom.current().nextLong(ceiling) + 1;
+            ceiling = Math.min(ceiling * 2, maxNanos);
+            // JDBC等不知道剩余时间的后端返回0
+            return ttl > 0 ? Math.min(delay, TimeUnit.MILLISECONDS.toNanos(ttl)) : delay;
+        }
+    }
+}
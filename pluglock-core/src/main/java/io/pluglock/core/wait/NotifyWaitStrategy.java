@@ -0,0 +1,23 @@
+package io.pluglock.core.wait;
+
+/**
+ * 第一次失败后就订阅释放通知，等到通知或锁过期再重试
+ *
+ * 适合持有时间较长的锁；后端不支持通知时会按ttl轮询
+ */
+public class NotifyWaitStrategy implements WaitStrategy {
+
+    public static final String NAME = "notify";
+
+    private static final Waiter WAITER = ttl -> PARK;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Waiter newWaiter(String name) {
+        return WAITER;
+    }
+}
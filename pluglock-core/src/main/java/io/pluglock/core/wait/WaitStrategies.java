@@ -0,0 +1,72 @@
+package io.pluglock.core.wait;
+
+import io.pluglock.core.LockConfig;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按配置获取等待策略，配置相同的锁共享同一个策略实例，自适应策略因此能积累每个锁名称的观察结果
+ *
+ * 锁工厂各自持有一个实例，策略通过SPI加载，内置adaptive、backoff、notify
+ */
+public class WaitStrategies {
+
+    /**
+     * 选择等待策略的配置项
+     */
+    public static final String STRATEGY = "lock.wait.strategy";
+
+    private static final String PREFIX = "lock.wait.";
+
+    // 快照上缓存lock.wait.配置项，不必每次创建锁都扫描全部配置项
+    private static final String SETTINGS = WaitStrategies.class.getName();
+
+    // 外层key为lock.wait.配置项，内层key为小写的策略名称
+    private final ConcurrentMap<String, ConcurrentMap<String, WaitStrategy>> strategies = new ConcurrentHashMap<>();
+
+    /**
+     * @param config      锁的配置参数
+     * @param defaultName 没有配置lock.wait.strategy时使用的策略
+     * @return 等待策略
+     */
+    public WaitStrategy get(LockConfig config, String defaultName) {
+        String name = config.getProperty(STRATEGY, defaultName);
+        ConcurrentMap<String, WaitStrategy> byName = strategies.computeIfAbsent(
+                config.resolve(SETTINGS, WaitStrategies::settings), k -> new ConcurrentHashMap<>());
+        return byName.computeIfAbsent(name.toLowerCase(), k -> create(name, config));
+    }
+
+    /**
+     * 通过SPI创建并初始化等待策略
+     *
+     * @param name   策略名称
+     * @param config 锁的配置参数
+     * @return 等待策略
+     */
+    public static WaitStrategy create(String name, LockConfig config) {
+        for (WaitStrategy strategy : ServiceLoader.load(WaitStrategy.class, WaitStrategy.class.getClassLoader())) {
+            if (strategy.getName().equalsIgnoreCase(name)) {
+                strategy.configure(config);
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown wait strategy: " + name);
+    }
+
+    /**
+     * 除lock.wait.strategy外所有lock.wait.开头的配置项
+     */
+    private static String settings(LockConfig config) {
+        Map<String, String> settings = new TreeMap<>();
+        for (String property : config.getProperties().stringPropertyNames()) {
+            if (property.startsWith(PREFIX) && !property.equals(STRATEGY)) {
+                settings.put(property, config.getProperty(property));
+            }
+        }
+        return settings.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package io.pluglock.core.wait;
+
+import io.pluglock.core.LockConfig;
+
+/**
+ * 加锁失败后两次尝试之间的等待策略，通过SPI机制加载，按名称在 {@link LockConfig} 中选择
+ *
+ * 订阅释放通知本身需要一次往返，锁很快释放时直接间隔重试更划算；
+ * 锁持有时间长时订阅通知，避免反复访问后端
+ */
+public interface WaitStrategy {
+
+    /**
+     * {@link Waiter#nextDelay(long)} 的返回值，表示订阅释放通知并等待
+     */
+    long PARK = -1;
+
+    /**
+     * 策略名称，即配置项lock.wait.strategy的取值
+     *
+     * @return 策略名称
+     */
+    String getName();
+
+    /**
+     * 按配置初始化，创建后调用一次
+     *
+     * @param config 锁的配置参数
+     */
+    default void configure(LockConfig config) {
+    }
+
+    /**
+     * 开始一次加锁的等待，第一次尝试失败后调用
+     *
+     * @param name 锁名称
+     * @return 这次加锁的等待状态
+     */
+    Waiter newWaiter(String name);
+
+    /**
+     * 一次加锁的等待状态，只在加锁线程中使用
+     */
+    interface Waiter {
+
+        /**
+         * 尝试失败后决定下一次尝试前怎样等待
+         *
+         * 返回 {@link #PARK} 后会订阅释放通知，订阅后的等待都会被通知提前唤醒
+         *
+         * @param ttl 当前持有者的剩余时间（毫秒），小于0表示没有过期时间
+         * @return 等待的纳秒数，0表示立即重试，{@link #PARK} 表示等待释放通知，最多等到锁过期
+         */
+        long nextDelay(long ttl);
+
+        /**
+         * 加锁成功
+         */
+        default void acquired() {
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.pluglock.core;
+
+/**
+ * 虚拟线程支持，Java 21及以上的实现
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 方法而不是常量，避免调用方编译时内联
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * @return 未启动的线程
+     */
+    static Thread newThread(String name, Runnable task) {
+        return Thread.ofVirtual().name(name).unstarted(task);
+    }
+}
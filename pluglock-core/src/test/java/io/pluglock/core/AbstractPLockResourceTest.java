@@ -0,0 +1,38 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbstractPLockResourceTest {
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+
+    @Test
+    void acquireWithoutLeaseAcceptsNullUnit() {
+        assertNull(resource.acquireResource("no-lease", -1, null, 1));
+        assertEquals(LockWatchdog.DEFAULT_LEASE_MILLIS, resource.lastLeaseMillis);
+        assertEquals(1, resource.watchdogStarts.get());
+    }
+
+    @Test
+    void acquireWithLeaseDoesNotStartWatchdog() {
+        assertNull(resource.acquireResource("lease", 5, TimeUnit.SECONDS, 1));
+        assertEquals(5000, resource.lastLeaseMillis);
+        assertEquals(0, resource.watchdogStarts.get());
+    }
+
+    @Test
+    void failedAcquireReturnsRemainingTtlOfHolder() {
+        resource.holdBy("held", 2, 10_000);
+        Long ttl = resource.acquireResource("held", -1, null, 1);
+        assertNotNull(ttl);
+        assertTrue(ttl > 9_000 && ttl <= 10_000, "ttl: " + ttl);
+        assertEquals(0, resource.watchdogStarts.get());
+    }
+}
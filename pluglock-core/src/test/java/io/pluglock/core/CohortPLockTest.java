@@ -0,0 +1,149 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CohortPLockTest {
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+    private final CohortRegistry registry = new CohortRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private PLock cohortLock(String name, int budget) {
+        LockConfig config = new LockConfig();
+        config.setProperty(CohortRegistry.ENABLED, "true");
+        config.setProperty(CohortRegistry.BUDGET, String.valueOf(budget));
+        return registry.apply(new TestPLock(name, resource), config);
+    }
+
+    @Test
+    void disabledConfigReturnsLockUnchanged() {
+        TestPLock lock = new TestPLock("plain", resource);
+        assertSame(lock, registry.apply(lock, new LockConfig()));
+    }
+
+    @Test
+    void queuedLocalThreadsTakeOverWithoutBackend() throws Exception {
+        PLock lock = cohortLock("handoff", 16);
+        lock.lock();
+        List<Future<?>> waiters = startQueued(lock, 3);
+
+        lock.unlock();
+        for (Future<?> waiter : waiters) {
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+        // 只有第一个线程访问后端，最后一个线程释放时还给后端
+        assertEquals(1, resource.acquireCalls.get());
+        assertEquals(1, resource.releaseCalls.get());
+        assertFalse(resource.isHeld("handoff"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void exhaustedBudgetReturnsLockToBackend() throws Exception {
+        PLock lock = cohortLock("budget", 1);
+        lock.lock();
+        List<Future<?>> waiters = startQueued(lock, 3);
+
+        lock.unlock();
+        for (Future<?> waiter : waiters) {
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+        // 交接一次后还给后端，下一个线程重新加锁后又可以交接一次
+        assertEquals(2, resource.acquireCalls.get());
+        assertEquals(2, resource.releaseCalls.get());
+        assertFalse(resource.isHeld("budget"));
+    }
+
+    @Test
+    void holdWithLeaseTimeIsNotHandedOff() throws Exception {
+        PLock lock = cohortLock("lease", 16);
+        lock.lock(10, TimeUnit.SECONDS);
+        List<Future<?>> waiters = startQueued(lock, 1);
+
+        lock.unlock();
+        waiters.get(0).get(5, TimeUnit.SECONDS);
+        assertEquals(2, resource.acquireCalls.get());
+        assertFalse(resource.isHeld("lease"));
+    }
+
+    @Test
+    void tryLockFailsLocallyWhileAnotherLocalThreadHolds() throws Exception {
+        PLock lock = cohortLock("try", 16);
+        lock.lock();
+        try {
+            assertFalse(executor.submit(() -> lock.tryLock()).get(5, TimeUnit.SECONDS));
+            assertFalse(executor.submit(() -> lock.tryLock(50, TimeUnit.MILLISECONDS)).get(5, TimeUnit.SECONDS));
+            assertEquals(1, resource.acquireCalls.get());
+        } finally {
+            lock.unlock();
+        }
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void localThreadsAreMutuallyExclusive() throws Exception {
+        PLock lock = cohortLock("exclusive", 4);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            workers.add(executor.submit(() -> {
+                for (int j = 0; j < 500; j++) {
+                    lock.lock();
+                    try {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        inside.decrementAndGet();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(1, maxInside.get());
+        assertEquals(resource.acquireCalls.get(), resource.releaseCalls.get());
+        assertFalse(resource.isHeld("exclusive"));
+        assertEquals(0, registry.size());
+    }
+
+    /**
+     * 启动在本地排队的线程，返回时它们都已在本地锁上等待
+     */
+    private List<Future<?>> startQueued(PLock lock, int count) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(executor.submit(() -> {
+                lock.lock();
+                lock.unlock();
+            }));
+        }
+        CohortRegistry.Cohort cohort = registry.get(lock.getName());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cohort.local.getQueueLength() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, cohort.local.getQueueLength());
+        return futures;
+    }
+}
@@ -0,0 +1,101 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentionProfilerTest {
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ContentionProfiler(0, 60_000, 5, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ContentionProfiler(16, 0, 5, 0, 0, 0));
+    }
+
+    @Test
+    void ranksLocksByTotalHoldTime() {
+        ContentionProfiler profiler = new ContentionProfiler();
+        holdFor(profiler, "short", 1_000_000);
+        holdFor(profiler, "long", 50_000_000);
+        holdFor(profiler, "long", 50_000_000);
+
+        List<ContentionProfiler.HotLock> top = profiler.getTopHeld(1);
+        assertEquals(1, top.size());
+        assertEquals("long", top.get(0).getName());
+        assertEquals(2, top.get(0).getEvents());
+        assertEquals(2, profiler.getTopHeld(10).size());
+        assertTrue(profiler.getTopContended(10).isEmpty());
+    }
+
+    @Test
+    void reentrantHoldIsCountedOnce() {
+        ContentionProfiler profiler = new ContentionProfiler();
+        PLock lock = profiler.profile(new TestPLock("nested", resource));
+        lock.lock();
+        lock.lock();
+        lock.unlock();
+        assertTrue(profiler.getTopHeld(10).isEmpty());
+        lock.unlock();
+
+        List<ContentionProfiler.HotLock> top = profiler.getTopHeld(10);
+        assertEquals(1, top.size());
+        assertEquals(1, top.get(0).getEvents());
+    }
+
+    @Test
+    void contendedWaitIsRecorded() throws Exception {
+        ContentionProfiler profiler = new ContentionProfiler();
+        PLock lock = profiler.profile(new TestPLock("contended", resource));
+        lock.lock();
+        Future<?> waiter = executor.submit(() -> {
+            lock.lock();
+            lock.unlock();
+        });
+        Thread.sleep(50);
+        lock.unlock();
+        waiter.get(5, TimeUnit.SECONDS);
+
+        List<ContentionProfiler.HotLock> top = profiler.getTopContended(10);
+        assertEquals(1, top.size());
+        assertEquals("contended", top.get(0).getName());
+        assertTrue(top.get(0).getMaxMillis() >= 40);
+    }
+
+    @Test
+    void expiredWindowsAreNotReported() throws Exception {
+        ContentionProfiler profiler = new ContentionProfiler(16, 20, 2, 0, 0, 0);
+        holdFor(profiler, "old", 1_000_000);
+        assertEquals(40, profiler.getPeriodMillis());
+        Thread.sleep(100);
+        assertTrue(profiler.getTopHeld(10).isEmpty());
+    }
+
+    /**
+     * 直接记录一次持有，持有时间至少为nanos
+     */
+    private static void holdFor(ContentionProfiler profiler, String name, long nanos) {
+        profiler.waited(name, 0, true);
+        long deadline = System.nanoTime() + nanos;
+        while (System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        profiler.released(name);
+    }
+}
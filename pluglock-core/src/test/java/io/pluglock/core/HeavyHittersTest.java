@@ -0,0 +1,93 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTest {
+
+    @Test
+    void countsAreExactBelowCapacity() {
+        HeavyHitters sketch = new HeavyHitters(4);
+        sketch.add("a", 5);
+        sketch.add("b", 3);
+        sketch.add("a", 7);
+
+        Counters counters = new Counters(sketch);
+        assertEquals(2, counters.list.size());
+        HeavyHitters.Counter a = counters.get("a");
+        assertEquals(12, a.weight);
+        assertEquals(0, a.error);
+        assertEquals(2, a.events);
+        assertEquals(7, a.max);
+        assertEquals(3, counters.get("b").weight);
+    }
+
+    @Test
+    void newKeyReplacesSmallestCounterAndInheritsItsWeightAsError() {
+        HeavyHitters sketch = new HeavyHitters(2);
+        sketch.add("a", 10);
+        sketch.add("b", 2);
+        sketch.add("c", 5);
+
+        Counters counters = new Counters(sketch);
+        assertEquals(2, counters.list.size());
+        assertFalse(counters.contains("b"));
+        HeavyHitters.Counter c = counters.get("c");
+        assertEquals(7, c.weight);
+        assertEquals(2, c.error);
+        assertEquals(5, c.max);
+    }
+
+    @Test
+    void heavyKeySurvivesManyLightKeys() {
+        HeavyHitters sketch = new HeavyHitters(8);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add("hot", 10);
+            sketch.add("cold-" + i, 1);
+        }
+        Counters counters = new Counters(sketch);
+        HeavyHitters.Counter hot = counters.get("hot");
+        // 估计值只会偏大，偏大的量不超过误差
+        assertTrue(hot.weight >= 100_000 && hot.weight - hot.error <= 100_000);
+        assertEquals("hot", counters.list.stream()
+                .max(Comparator.comparingLong(counter -> counter.weight)).get().key);
+    }
+
+    @Test
+    void clearedSketchStartsOver() {
+        HeavyHitters sketch = new HeavyHitters(2);
+        sketch.add("a", 10);
+        sketch.add("b", 2);
+        sketch.clear();
+        sketch.add("c", 1);
+
+        Counters counters = new Counters(sketch);
+        assertEquals(1, counters.list.size());
+        assertEquals(1, counters.get("c").weight);
+        assertEquals(0, counters.get("c").error);
+    }
+
+    private static final class Counters {
+        final List<HeavyHitters.Counter> list = new ArrayList<>();
+
+        Counters(HeavyHitters sketch) {
+            sketch.copyTo(list);
+        }
+
+        boolean contains(String key) {
+            return list.stream().anyMatch(counter -> counter.key.equals(key));
+        }
+
+        HeavyHitters.Counter get(String key) {
+            return list.stream().filter(counter -> counter.key.equals(key)).findFirst()
+                    .orElseThrow(() -> new AssertionError("No counter for " + key));
+        }
+    }
+}
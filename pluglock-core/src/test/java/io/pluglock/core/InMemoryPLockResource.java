@@ -0,0 +1,126 @@
+package io.pluglock.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用的内存锁资源，记录后端调用以便断言
+ */
+class InMemoryPLockResource extends AbstractPLockResource {
+
+    private final ConcurrentMap<String, Holder> holders = new ConcurrentHashMap<>();
+    private final Map<String, PLockEntry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Runnable> demandListeners = new ConcurrentHashMap<>();
+
+    final AtomicInteger acquireCalls = new AtomicInteger();
+    final AtomicInteger releaseCalls = new AtomicInteger();
+    final AtomicInteger watchdogStarts = new AtomicInteger();
+    final AtomicInteger subscribeCalls = new AtomicInteger();
+    volatile long lastLeaseMillis;
+    volatile long lastSubscribeTimeout = -1;
+
+    @Override
+    public Long tryAcquireResource(String name, long threadId, long leaseTime) {
+        acquireCalls.incrementAndGet();
+        lastLeaseMillis = leaseTime;
+        long now = System.currentTimeMillis();
+        Holder holder = holders.compute(name, (k, current) -> {
+            if (current == null || current.deadline <= now) {
+                return new Holder(threadId, now + leaseTime);
+            }
+            if (current.owner == threadId) {
+                current.count++;
+                current.deadline = now + leaseTime;
+            }
+            return current;
+        });
+        return holder.owner == threadId ? null : Math.max(0, holder.deadline - now);
+    }
+
+    @Override
+    public void releaseResource(String name, long threadId) {
+        releaseCalls.incrementAndGet();
+        boolean[] released = new boolean[1];
+        holders.computeIfPresent(name, (k, current) -> {
+            if (current.owner != threadId) {
+                throw new IllegalMonitorStateException("Not owner: " + name);
+            }
+            if (--current.count > 0) {
+                return current;
+            }
+            released[0] = true;
+            return null;
+        });
+        if (released[0]) {
+            PLockEntry entry = entries.get(name);
+            if (entry != null) {
+                entry.getLatch().release();
+            }
+        }
+    }
+
+    @Override
+    protected void startWatchDog(String name, long threadId, long leaseMillis, Long ttl) {
+        watchdogStarts.incrementAndGet();
+    }
+
+    @Override
+    public PLockEntry subscribe(String name) {
+        subscribeCalls.incrementAndGet();
+        return entries.computeIfAbsent(name, k -> new PLockEntry());
+    }
+
+    @Override
+    public PLockEntry subscribe(String name, long timeoutMillis) {
+        lastSubscribeTimeout = timeoutMillis;
+        return subscribe(name);
+    }
+
+    @Override
+    public void unsubscribe(String name) {
+    }
+
+    @Override
+    public void signalDemand(String name) {
+        Runnable listener = demandListeners.get(name);
+        if (listener != null && isHeld(name)) {
+            listener.run();
+        }
+    }
+
+    @Override
+    public boolean watchDemand(String name, Runnable listener) {
+        demandListeners.put(name, listener);
+        return true;
+    }
+
+    @Override
+    public void unwatchDemand(String name) {
+        demandListeners.remove(name);
+    }
+
+    /**
+     * 以其他持有者的身份占用锁
+     */
+    void holdBy(String name, long owner, long leaseMillis) {
+        holders.put(name, new Holder(owner, System.currentTimeMillis() + leaseMillis));
+    }
+
+    boolean isHeld(String name) {
+        Holder holder = holders.get(name);
+        return holder != null && holder.deadline > System.currentTimeMillis();
+    }
+
+    private static final class Holder {
+        private final long owner;
+        private long deadline;
+        private int count = 1;
+
+        Holder(long owner, long deadline) {
+            this.owner = owner;
+            this.deadline = deadline;
+        }
+    }
+}
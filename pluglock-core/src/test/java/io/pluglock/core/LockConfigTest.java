@@ -0,0 +1,61 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockConfigTest {
+
+    @Test
+    void frozenConfigIsSnapshotWithTypedGetters() {
+        LockConfig config = new LockConfig();
+        config.setProperty("lock.int", " 42 ");
+        config.setProperty("lock.flag", "true");
+        LockConfig frozen = config.freeze();
+        config.setProperty("lock.int", "7");
+
+        assertTrue(frozen.isFrozen());
+        assertSame(frozen, frozen.freeze());
+        assertEquals(42, frozen.getInt("lock.int", 0));
+        assertEquals(42L, frozen.getLong("lock.int", 0));
+        assertTrue(frozen.getBoolean("lock.flag", false));
+        assertEquals(5, frozen.getInt("lock.missing", 5));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.setProperty("lock.int", "1"));
+    }
+
+    @Test
+    void frozenPropertiesAreSharedReadOnlyView() {
+        LockConfig config = new LockConfig();
+        config.setProperty("lock.a", "1");
+        LockConfig frozen = config.freeze();
+
+        Properties properties = frozen.getProperties();
+        assertSame(properties, frozen.getProperties());
+        assertEquals("1", properties.getProperty("lock.a"));
+        assertThrows(UnsupportedOperationException.class, () -> properties.setProperty("lock.b", "2"));
+        assertThrows(UnsupportedOperationException.class, () -> properties.remove("lock.a"));
+        assertThrows(UnsupportedOperationException.class, () -> properties.keySet().clear());
+        assertThrows(UnsupportedOperationException.class, () -> properties.entrySet().iterator().next().setValue("2"));
+        assertEquals("1", frozen.getProperty("lock.a"));
+    }
+
+    @Test
+    void resolveComputesOncePerFrozenConfig() {
+        LockConfig config = new LockConfig();
+        AtomicInteger calls = new AtomicInteger();
+        config.resolve("key", c -> calls.incrementAndGet());
+        config.resolve("key", c -> calls.incrementAndGet());
+        assertEquals(2, calls.get());
+
+        LockConfig frozen = config.freeze();
+        assertEquals(3, (int) frozen.resolve("key", c -> calls.incrementAndGet()));
+        assertEquals(3, (int) frozen.resolve("key", c -> calls.incrementAndGet()));
+        assertEquals(4, (int) frozen.resolve("other", c -> calls.incrementAndGet()));
+    }
+}
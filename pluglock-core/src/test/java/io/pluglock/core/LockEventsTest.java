@@ -0,0 +1,134 @@
+package io.pluglock.core;
+
+import io.pluglock.core.jfr.LockEvents;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 加锁、等待和解锁写入的JFR事件
+ */
+class LockEventsTest {
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @BeforeAll
+    static void requireJfr() {
+        assumeTrue(LockEvents.ENABLED, "JFR is not available");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void contendedAcquireRecordsAttemptsWaitAndGrant() throws Exception {
+        String name = "jfr-" + System.nanoTime();
+        PLock lock = new TestPLock(name, resource);
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            for (String event : new String[]{"Granted", "AcquireAttempt", "Wait", "Released"}) {
+                recording.enable("io.pluglock." + event).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            lock.lock();
+            AtomicReference<Thread> waiterThread = new AtomicReference<>();
+            Future<?> waiter = executor.submit(() -> {
+                waiterThread.set(Thread.currentThread());
+                lock.lock();
+                lock.unlock();
+            });
+            // 等到等待线程订阅后阻塞在释放通知上
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!isWaiting(waiterThread.get()) && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            lock.unlock();
+            waiter.get(5, TimeUnit.SECONDS);
+            recording.stop();
+            events = read(recording, name);
+        }
+
+        List<RecordedEvent> attempts = ofType(events, "io.pluglock.AcquireAttempt");
+        assertTrue(attempts.stream().anyMatch(e -> !e.getBoolean("acquired") && e.getLong("ttl") > 0));
+        assertEquals(2, attempts.stream().filter(e -> e.getBoolean("acquired")).count());
+        assertTrue(ofType(events, "io.pluglock.Wait").stream().anyMatch(e -> e.getBoolean("notified")));
+
+        List<RecordedEvent> granted = ofType(events, "io.pluglock.Granted");
+        assertEquals(2, granted.size());
+        assertTrue(granted.stream().anyMatch(e -> e.getInt("attempts") >= 2));
+        assertTrue(granted.stream().allMatch(e -> e.getLong("leaseTime") == -1));
+
+        List<RecordedEvent> released = ofType(events, "io.pluglock.Released");
+        assertEquals(2, released.size());
+        assertTrue(released.stream().allMatch(e -> e.getBoolean("success")));
+    }
+
+    @Test
+    void failedUnlockIsRecordedAsUnsuccessful() throws Exception {
+        String name = "jfr-failed-" + System.nanoTime();
+        PLock lock = new TestPLock(name, resource);
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("io.pluglock.Released").withThreshold(Duration.ZERO);
+            recording.start();
+            lock.lock();
+            resource.holdBy(name, LockOwner.newToken(), 60_000);
+            try {
+                lock.unlock();
+            } catch (IllegalMonitorStateException expected) {
+                // 锁已被其他持有者拿走
+            }
+            recording.stop();
+            events = read(recording, name);
+        }
+        List<RecordedEvent> released = ofType(events, "io.pluglock.Released");
+        assertEquals(1, released.size());
+        assertFalse(released.get(0).getBoolean("success"));
+    }
+
+    private boolean isWaiting(Thread thread) {
+        if (thread == null || resource.subscribeCalls.get() == 0) {
+            return false;
+        }
+        Thread.State state = thread.getState();
+        return state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING;
+    }
+
+    private static List<RecordedEvent> read(Recording recording, String name) throws Exception {
+        Path file = Files.createTempFile("pluglock", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> name.equals(e.getString("name")))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String type) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(type)).collect(Collectors.toList());
+    }
+}
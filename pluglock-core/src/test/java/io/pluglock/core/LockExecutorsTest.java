@@ -0,0 +1,42 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockExecutorsTest {
+
+    @Test
+    void newThreadIsNamedAndNotStarted() throws Exception {
+        Thread[] ran = new Thread[1];
+        Thread thread = LockExecutors.newThread("pluglock-test", () -> ran[0] = Thread.currentThread());
+        assertEquals("pluglock-test", thread.getName());
+        assertTrue(thread.isDaemon());
+        assertEquals(Thread.State.NEW, thread.getState());
+        thread.start();
+        thread.join(5000);
+        assertSame(thread, ran[0]);
+    }
+
+    @Test
+    void virtualThreadsCanBeDisabled() throws Exception {
+        String previous = System.getProperty(LockExecutors.VIRTUAL);
+        System.setProperty(LockExecutors.VIRTUAL, "false");
+        try {
+            Thread thread = LockExecutors.newThread("pluglock-platform", () -> { });
+            assertTrue(thread.isDaemon());
+            assertEquals(Thread.State.NEW, thread.getState());
+            // 平台线程可以设置优先级，虚拟线程忽略
+            thread.setPriority(Thread.MIN_PRIORITY);
+            assertEquals(Thread.MIN_PRIORITY, thread.getPriority());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(LockExecutors.VIRTUAL);
+            } else {
+                System.setProperty(LockExecutors.VIRTUAL, previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LockHandlesTest {
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+
+    @Test
+    void sameNameReturnsCachedLock() {
+        LockHandles<PLock> handles = new LockHandles<>();
+        AtomicInteger created = new AtomicInteger();
+        PLock first = handles.get("a", name -> {
+            created.incrementAndGet();
+            return new TestPLock(name, resource);
+        });
+        assertSame(first, handles.get("a", name -> {
+            created.incrementAndGet();
+            return new TestPLock(name, resource);
+        }));
+        assertEquals(1, created.get());
+        assertNotSame(first, handles.get("b", name -> new TestPLock(name, resource)));
+        assertEquals(2, handles.size());
+    }
+
+    @Test
+    void concurrentGetsShareOneLock() throws Exception {
+        LockHandles<PLock> handles = new LockHandles<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<PLock>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return handles.get("shared", name -> new TestPLock(name, resource));
+                }));
+            }
+            start.countDown();
+            PLock lock = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<PLock> future : futures) {
+                assertSame(lock, future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void unreferencedLockIsRemovedAfterGc() throws Exception {
+        LockHandles<PLock> handles = new LockHandles<>();
+        handles.get("weak", name -> new TestPLock(name, resource));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (handles.size() > 0 && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(0, handles.size());
+    }
+}
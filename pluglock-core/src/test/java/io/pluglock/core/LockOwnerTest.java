@@ -0,0 +1,81 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockOwnerTest {
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void tokensAreNegativeAndUnique() {
+        long first = LockOwner.newToken();
+        long second = LockOwner.newToken();
+        assertTrue(first < 0 && second < 0);
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void ownerDefaultsToThreadIdAndScopesNest() {
+        long threadId = Thread.currentThread().getId();
+        assertEquals(threadId, LockOwner.current());
+        long outer = LockOwner.newToken();
+        long inner = LockOwner.newToken();
+        try (LockOwner.Scope ignored = LockOwner.bind(outer)) {
+            assertEquals(outer, LockOwner.current());
+            try (LockOwner.Scope nested = LockOwner.bind(inner)) {
+                assertEquals(inner, LockOwner.current());
+            }
+            assertEquals(outer, LockOwner.current());
+        }
+        assertEquals(threadId, LockOwner.current());
+    }
+
+    @Test
+    void threadIdCannotBeBound() {
+        assertThrows(IllegalArgumentException.class, () -> LockOwner.bind(Thread.currentThread().getId()));
+    }
+
+    @Test
+    void encodedOwnerIncludesClientId() {
+        assertEquals(LockOwner.CLIENT_ID + ":42", LockOwner.encode(42));
+        // 同一线程重复编码同一个持有者时复用结果
+        assertSame(LockOwner.encode(42), LockOwner.encode(42));
+        assertEquals(LockOwner.CLIENT_ID + ":-7", LockOwner.encode(-7));
+    }
+
+    @Test
+    void tokenLockCanBeReleasedOnAnotherThread() throws Exception {
+        PLock lock = new TestPLock("token", resource);
+        long token = LockOwner.newToken();
+        try (LockOwner.Scope ignored = LockOwner.bind(token)) {
+            lock.lock();
+        }
+        // 没有绑定令牌的线程不是持有者
+        assertFalse(lock.tryLock());
+
+        executor.submit(() -> {
+            try (LockOwner.Scope ignored = LockOwner.bind(token)) {
+                lock.unlock();
+            }
+        }).get(5, TimeUnit.SECONDS);
+        assertFalse(resource.isHeld("token"));
+    }
+}
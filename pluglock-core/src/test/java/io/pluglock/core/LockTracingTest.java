@@ -0,0 +1,128 @@
+package io.pluglock.core;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.pluglock.core.otel.LockTracing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 加锁和解锁的span：加锁span记录往返次数和结果，解锁span通过link关联回加锁span
+ */
+class LockTracingTest {
+
+    private static final AttributeKey<String> LOCK_NAME = AttributeKey.stringKey("pluglock.lock.name");
+    private static final AttributeKey<Long> ROUND_TRIPS = AttributeKey.longKey("pluglock.round_trips");
+    private static final AttributeKey<Boolean> ACQUIRED = AttributeKey.booleanKey("pluglock.acquired");
+    private static final AttributeKey<Boolean> RELEASED = AttributeKey.booleanKey("pluglock.released");
+    private static final AttributeKey<Long> HOLD = AttributeKey.longKey("pluglock.hold_ms");
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+    private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+    private SdkTracerProvider tracerProvider;
+
+    @BeforeAll
+    static void requireOpenTelemetry() {
+        assumeTrue(LockTracing.ENABLED, "OpenTelemetry is not available");
+    }
+
+    @BeforeEach
+    void setUp() {
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(new Collector()).build();
+        LockTracing.setOpenTelemetry(OpenTelemetrySdk.builder().setTracerProvider(tracerProvider).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        LockTracing.setOpenTelemetry(OpenTelemetry.noop());
+        tracerProvider.close();
+    }
+
+    @Test
+    void releaseSpanLinksToAcquireSpan() {
+        PLock lock = new TestPLock("traced", resource);
+        lock.lock();
+        lock.unlock();
+
+        assertEquals(2, spans.size());
+        SpanData acquire = spans.get(0);
+        assertEquals("PLock.lock", acquire.getName());
+        assertEquals("traced", acquire.getAttributes().get(LOCK_NAME));
+        assertEquals(1L, acquire.getAttributes().get(ROUND_TRIPS));
+        assertEquals(true, acquire.getAttributes().get(ACQUIRED));
+
+        SpanData release = spans.get(1);
+        assertEquals("PLock.unlock", release.getName());
+        assertEquals(true, release.getAttributes().get(RELEASED));
+        assertNotNull(release.getAttributes().get(HOLD));
+        assertEquals(1, release.getLinks().size());
+        assertEquals(acquire.getSpanContext(), release.getLinks().get(0).getSpanContext());
+    }
+
+    @Test
+    void reentrantReleasesLinkInnermostAcquireFirst() {
+        PLock lock = new TestPLock("nested", resource);
+        lock.lock();
+        lock.lock();
+        lock.unlock();
+        lock.unlock();
+
+        assertEquals(4, spans.size());
+        assertEquals(spans.get(1).getSpanContext(), spans.get(2).getLinks().get(0).getSpanContext());
+        assertEquals(spans.get(0).getSpanContext(), spans.get(3).getLinks().get(0).getSpanContext());
+    }
+
+    @Test
+    void failedTryLockEndsSpanUnacquired() {
+        PLock lock = new TestPLock("busy", resource);
+        resource.holdBy("busy", LockOwner.newToken(), 60_000);
+        assertFalse(lock.tryLock());
+
+        assertEquals(1, spans.size());
+        SpanData acquire = spans.get(0);
+        assertEquals("PLock.tryLock", acquire.getName());
+        assertEquals(false, acquire.getAttributes().get(ACQUIRED));
+        assertEquals(1L, acquire.getAttributes().get(ROUND_TRIPS));
+    }
+
+    /**
+     * 收集结束的span
+     */
+    private final class Collector implements SpanProcessor {
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return false;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            spans.add(span.toSpanData());
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockTrackerTest {
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+    private final LockTracker tracker = new LockTracker();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void reentrantHoldIsRecordedOnce() {
+        PLock lock = tracker.track(new TestPLock("reentrant", resource));
+        lock.lock();
+        lock.lock();
+        assertEquals(1, tracker.getHoldCount());
+        LockTracker.Hold hold = tracker.getHolds().get(0);
+        assertEquals("reentrant", hold.getName());
+        assertEquals(Thread.currentThread().getId(), hold.getThreadId());
+        assertEquals(2, hold.getHoldCount());
+        assertEquals(-1, hold.getLeaseDeadline());
+
+        lock.unlock();
+        assertEquals(1, tracker.getHoldCount());
+        lock.unlock();
+        assertEquals(0, tracker.getHoldCount());
+    }
+
+    @Test
+    void leaseTimeSetsDeadline() throws Exception {
+        PLock lock = tracker.track(new TestPLock("lease", resource));
+        long before = System.currentTimeMillis();
+        lock.lock(10, TimeUnit.SECONDS);
+        try {
+            long deadline = tracker.getHolds().get(0).getLeaseDeadline();
+            assertTrue(deadline >= before + 10_000 && deadline <= System.currentTimeMillis() + 10_000);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    void blockedThreadIsRecordedAsWaiter() throws Exception {
+        PLock lock = tracker.track(new TestPLock("contended", resource));
+        lock.lock();
+        Future<?> waiter = executor.submit(() -> {
+            lock.lock();
+            lock.unlock();
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tracker.getWaiterCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(Collections.singletonMap("contended", 1), tracker.getWaiterCounts());
+        assertNotEquals(Thread.currentThread().getId(), tracker.getWaiters().get(0).getThreadId());
+
+        lock.unlock();
+        waiter.get(5, TimeUnit.SECONDS);
+        assertEquals(0, tracker.getWaiterCount());
+        assertEquals(0, tracker.getHoldCount());
+    }
+
+    @Test
+    void failedTryLockLeavesNoRecord() throws Exception {
+        PLock lock = tracker.track(new TestPLock("busy", resource));
+        lock.lock();
+        try {
+            assertFalse(executor.submit(() -> lock.tryLock()).get(5, TimeUnit.SECONDS));
+            assertFalse(executor.submit(() -> lock.tryLock(20, TimeUnit.MILLISECONDS)).get(5, TimeUnit.SECONDS));
+            assertEquals(0, tracker.getWaiterCount());
+            assertEquals(1, tracker.getHoldCount());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    void failedUnlockStillRemovesHold() {
+        PLock lock = tracker.track(new TestPLock("expired", resource));
+        lock.lock();
+        // 模拟租约过期后锁被其他持有者拿走
+        resource.holdBy("expired", LockOwner.newToken(), 60_000);
+        assertThrows(IllegalMonitorStateException.class, lock::unlock);
+        assertEquals(0, tracker.getHoldCount());
+    }
+}
@@ -0,0 +1,70 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PLockRegistryTest {
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+    private final CountingLockFactory factory = new CountingLockFactory();
+
+    @Test
+    void locksAreCachedByName() {
+        PLockRegistry registry = new PLockRegistry(factory, new LockConfig());
+        PLock lock = registry.getLock("cached");
+        assertSame(lock, registry.getLock("cached"));
+        assertEquals(1, factory.created.get());
+    }
+
+    @Test
+    void handleCacheCanBeDisabled() {
+        LockConfig config = new LockConfig();
+        config.setProperty(PLockRegistry.HANDLE_CACHE, "false");
+        PLockRegistry registry = new PLockRegistry(factory, config);
+        assertNotSame(registry.getLock("fresh"), registry.getLock("fresh"));
+        assertEquals(2, factory.created.get());
+    }
+
+    @Test
+    void trackedLocksAreCachedWithTheirDecoration() {
+        LockTracker tracker = new LockTracker();
+        PLockRegistry registry = new PLockRegistry(factory, new LockConfig(), tracker);
+        PLock lock = registry.getLock("tracked");
+        assertSame(lock, registry.getLock("tracked"));
+        lock.lock();
+        try {
+            assertEquals(1, tracker.getHoldCount());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    void configIsFrozenAtCreation() {
+        LockConfig config = new LockConfig();
+        PLockRegistry registry = new PLockRegistry(factory, config);
+        assertThrows(UnsupportedOperationException.class,
+                () -> registry.getLockConfig().setProperty("lock.any", "1"));
+    }
+
+    private final class CountingLockFactory implements LockFactory {
+        final AtomicInteger created = new AtomicInteger();
+
+        @Override
+        public PLock createLock(String name, LockConfig config) {
+            created.incrementAndGet();
+            return new TestPLock(name, resource);
+        }
+
+        @Override
+        public String getName() {
+            return "counting";
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PReentrantLockTest {
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+
+    @Test
+    void tryLockReportsWhetherLockWasAcquired() {
+        TestPLock lock = new TestPLock("try", resource);
+        assertTrue(lock.tryLock());
+        assertTrue(resource.isHeld("try"));
+        lock.unlock();
+
+        resource.holdBy("try", -1, 10_000);
+        assertFalse(lock.tryLock());
+    }
+
+    @Test
+    void tryLockIsRenewedByWatchdog() {
+        TestPLock lock = new TestPLock("watchdog", resource);
+        assertTrue(lock.tryLock());
+        // 与lock()一样使用内部租约并交给看门狗续期，而不是固定30秒后过期
+        assertEquals(1, resource.watchdogStarts.get());
+        assertEquals(LockWatchdog.DEFAULT_LEASE_MILLIS, resource.lastLeaseMillis);
+        lock.unlock();
+    }
+
+    @Test
+    void subscribeWaitIsBoundedByRemainingWaitTime() throws InterruptedException {
+        TestPLock lock = new TestPLock("budget", resource);
+        resource.holdBy("budget", -1, 10_000);
+        assertFalse(lock.tryLock(200, TimeUnit.MILLISECONDS));
+        // 等待订阅确认的时间不超过tryLock剩余的等待时间
+        assertEquals(1, resource.subscribeCalls.get());
+        assertTrue(resource.lastSubscribeTimeout >= 0 && resource.lastSubscribeTimeout <= 200);
+    }
+}
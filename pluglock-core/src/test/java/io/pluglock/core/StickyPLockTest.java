@@ -0,0 +1,101 @@
+package io.pluglock.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * lock.sticky.linger：释放后继续持有后端锁，逗留到期或收到其他节点的需求时才还给后端
+ */
+class StickyPLockTest {
+
+    private final InMemoryPLockResource resource = new InMemoryPLockResource();
+    private final CohortRegistry registry = new CohortRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static LockConfig linger(long millis) {
+        LockConfig config = new LockConfig();
+        config.setProperty(CohortRegistry.LINGER, String.valueOf(millis));
+        return config;
+    }
+
+    @Test
+    void relockWithinLingerStaysLocal() throws Exception {
+        PLock lock = registry.apply(new TestPLock("reuse", resource), linger(60_000));
+        lock.lock();
+        lock.unlock();
+        assertTrue(resource.isHeld("reuse"));
+        assertEquals(0, resource.releaseCalls.get());
+
+        // 其他本地线程同样不访问后端
+        executor.submit(() -> {
+            lock.lock();
+            lock.unlock();
+        }).get(5, TimeUnit.SECONDS);
+        assertTrue(lock.tryLock());
+        lock.unlock();
+        assertEquals(1, resource.acquireCalls.get());
+        assertEquals(0, resource.releaseCalls.get());
+    }
+
+    @Test
+    void expiredLingerReleasesBackendLock() throws Exception {
+        PLock lock = registry.apply(new TestPLock("expire", resource), linger(100));
+        lock.lock();
+        lock.unlock();
+        assertTrue(resource.isHeld("expire"));
+
+        awaitReleased("expire");
+        assertEquals(1, resource.releaseCalls.get());
+    }
+
+    @Test
+    void demandFromOtherNodeReleasesLingeringLock() throws Exception {
+        PLock lock = registry.apply(new TestPLock("demand", resource), linger(60_000));
+        lock.lock();
+        lock.unlock();
+
+        // 另一个节点：不同的注册表，持有者标识不同
+        CohortRegistry otherNode = new CohortRegistry();
+        PLock other = otherNode.apply(new TestPLock("demand", resource), linger(60_000));
+        assertTrue(executor.submit(() -> {
+            boolean acquired = other.tryLock(5, TimeUnit.SECONDS);
+            if (acquired) {
+                other.unlock();
+            }
+            return acquired;
+        }).get(10, TimeUnit.SECONDS));
+        assertEquals(1, resource.releaseCalls.get());
+    }
+
+    @Test
+    void holdWithLeaseTimeIsReleasedImmediately() throws Exception {
+        PLock lock = registry.apply(new TestPLock("lease", resource), linger(60_000));
+        lock.lock(10, TimeUnit.SECONDS);
+        lock.unlock();
+        assertFalse(resource.isHeld("lease"));
+        assertEquals(0, registry.size());
+    }
+
+    private void awaitReleased(String name) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((resource.isHeld(name) || registry.size() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(resource.isHeld(name));
+        // 逗留结束后注册表不再保留这个名称
+        assertEquals(0, registry.size());
+    }
+}
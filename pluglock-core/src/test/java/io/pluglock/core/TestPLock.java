@@ -0,0 +1,12 @@
+package io.pluglock.core;
+
+/**
+ * 测试用的可重入锁，直接使用传入的锁资源
+ */
+class TestPLock extends PReentrantLock {
+
+    TestPLock(String lockName, PLockResource lockResource) {
+        super(lockName);
+        this.lockResource = lockResource;
+    }
+}
@@ -0,0 +1,97 @@
+package io.pluglock.core.wait;
+
+import io.pluglock.core.LockConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitStrategiesTest {
+
+    @Test
+    void defaultNameIsUsedWithoutStrategyProperty() {
+        WaitStrategies strategies = new WaitStrategies();
+        assertEquals(NotifyWaitStrategy.NAME, strategies.get(new LockConfig(), NotifyWaitStrategy.NAME).getName());
+
+        LockConfig config = new LockConfig();
+        config.setProperty(WaitStrategies.STRATEGY, "ADAPTIVE");
+        assertEquals(AdaptiveWaitStrategy.NAME, strategies.get(config, NotifyWaitStrategy.NAME).getName());
+    }
+
+    @Test
+    void sameSettingsShareOneInstance() {
+        WaitStrategies strategies = new WaitStrategies();
+        LockConfig first = adaptive("500").freeze();
+        LockConfig second = adaptive("500");
+        WaitStrategy strategy = strategies.get(first, NotifyWaitStrategy.NAME);
+        assertSame(strategy, strategies.get(first, NotifyWaitStrategy.NAME));
+        assertSame(strategy, strategies.get(second, NotifyWaitStrategy.NAME));
+        assertNotSame(strategy, strategies.get(adaptive("2000"), NotifyWaitStrategy.NAME));
+    }
+
+    @Test
+    void unknownStrategyIsRejected() {
+        LockConfig config = new LockConfig();
+        config.setProperty(WaitStrategies.STRATEGY, "missing");
+        assertThrows(IllegalArgumentException.class, () -> new WaitStrategies().get(config, NotifyWaitStrategy.NAME));
+    }
+
+    @Test
+    void notifyParksOnFirstFailure() {
+        WaitStrategy.Waiter waiter = new NotifyWaitStrategy().newWaiter("notify");
+        assertEquals(WaitStrategy.PARK, waiter.nextDelay(1000));
+    }
+
+    @Test
+    void adaptiveParksStraightAwayForLongHeldLock() {
+        AdaptiveWaitStrategy strategy = (AdaptiveWaitStrategy) WaitStrategies.create(AdaptiveWaitStrategy.NAME, adaptive("1000"));
+        // 还没有观察到时先在上限内重试
+        WaitStrategy.Waiter first = strategy.newWaiter("long");
+        assertTrue(first.nextDelay(1000) > 0);
+        first.acquired();
+        assertTrue(strategy.getEstimateNanos("long") > 0);
+
+        for (int i = 0; i < 20; i++) {
+            WaitStrategy.Waiter waiter = strategy.newWaiter("long");
+            busyWait(TimeUnit.MILLISECONDS.toNanos(3));
+            waiter.acquired();
+        }
+        // 预估超过自旋上限后直接订阅
+        assertEquals(WaitStrategy.PARK, strategy.newWaiter("long").nextDelay(1000));
+    }
+
+    @Test
+    void backoffStaysWithinCeilingAndTtl() {
+        LockConfig config = new LockConfig();
+        config.setProperty("lock.wait.backoff.base", "100");
+        config.setProperty("lock.wait.backoff.max", "400");
+        WaitStrategy.Waiter waiter = WaitStrategies.create(BackoffWaitStrategy.NAME, config).newWaiter("backoff");
+        for (int i = 0; i < 10; i++) {
+            long delay = waiter.nextDelay(0);
+            assertTrue(delay > 0 && delay <= TimeUnit.MICROSECONDS.toNanos(400));
+        }
+        assertTrue(waiter.nextDelay(1) <= TimeUnit.MILLISECONDS.toNanos(1));
+
+        config.setProperty("lock.wait.backoff.max", "50");
+        assertThrows(IllegalArgumentException.class, () -> WaitStrategies.create(BackoffWaitStrategy.NAME, config));
+    }
+
+    private static LockConfig adaptive(String spinMax) {
+        LockConfig config = new LockConfig();
+        config.setProperty(WaitStrategies.STRATEGY, AdaptiveWaitStrategy.NAME);
+        config.setProperty("lock.wait.spin.max", spinMax);
+        return config;
+    }
+
+    private static void busyWait(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        while (System.nanoTime() < deadline) {
+            // 模拟持有者持有锁的时间
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.pluglock.hazelcast;
+
+import com.hazelcast.cp.lock.FencedLock;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Hazelcast CP子系统FencedLock的锁实现
+ *
+ * FencedLock的生命周期与CP会话绑定，成员宕机后会话超时即自动释放，因此不使用租约时间；
+ * 每次获取锁都会得到单调递增的防护令牌
+ */
+public class HazelcastFencedPLock extends HazelcastPLock {
+
+    private final FencedLock fencedLock;
+
+    public HazelcastFencedPLock(String lockName, FencedLock fencedLock, ConcurrentMap<String, Hold> holds) {
+        super(lockName, holds);
+        this.fencedLock = fencedLock;
+    }
+
+    @Override
+    protected long doLock(long leaseTime, TimeUnit unit) {
+        return fencedLock.lockAndGetFence();
+    }
+
+    @Override
+    protected long doLockInterruptibly() throws InterruptedException {
+        fencedLock.lockInterruptibly();
+        return fencedLock.getFence();
+    }
+
+    @Override
+    protected long doTryLock() {
+        long fence = fencedLock.tryLockAndGetFence();
+        return fence == FencedLock.INVALID_FENCE ? NOT_ACQUIRED : fence;
+    }
+
+    @Override
+    protected long doTryLock(long waitTime, long leaseTime, TimeUnit unit) {
+        long fence = fencedLock.tryLockAndGetFence(waitTime, unit);
+        return fence == FencedLock.INVALID_FENCE ? NOT_ACQUIRED : fence;
+    }
+
+    @Override
+    protected void doUnlock() {
+        fencedLock.unlock();
+    }
+}
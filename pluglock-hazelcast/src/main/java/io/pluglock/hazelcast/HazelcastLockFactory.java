@@ -0,0 +1,98 @@
+package io.pluglock.hazelcast;
+
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.LockFactory;
+import io.pluglock.core.PLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hazelcast分布式锁工厂实现
+ *
+ * 优先复用应用中已经存在的Hazelcast成员，找不到时才启动一个内嵌成员
+ */
+public class HazelcastLockFactory implements LockFactory {
+    private static final Logger logger = LoggerFactory.getLogger(HazelcastLockFactory.class);
+
+    private volatile HazelcastInstance hazelcastInstance;
+    private volatile boolean ownsInstance;
+
+    // 按锁类型分开的本地持有记录，IMap锁再按map名称分开，不同map中的同名锁互不影响
+    private final ConcurrentMap<String, HazelcastPLock.Hold> fencedHolds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, HazelcastPLock.Hold>> mapHolds = new ConcurrentHashMap<>();
+
+    public HazelcastLockFactory() {
+    }
+
+    public HazelcastLockFactory(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+    }
+
+    @Override
+    public PLock createLock(String name, LockConfig config) {
+        HazelcastInstance instance = getInstance(config);
+        // cp: CP子系统的FencedLock，强一致；map: IMap键锁，支持租约时间
+        String mode = config.getProperty("hazelcast.lock.mode", "map");
+        if ("cp".equalsIgnoreCase(mode)) {
+            return new HazelcastFencedPLock(name, instance.getCPSubsystem().getLock(name), fencedHolds);
+        }
+        String mapName = config.getProperty("hazelcast.lock.map", "pluglock");
+        return new HazelcastMapPLock(name, instance.getMap(mapName),
+                mapHolds.computeIfAbsent(mapName, k -> new ConcurrentHashMap<>()));
+    }
+
+    private HazelcastInstance getInstance(LockConfig config) {
+        HazelcastInstance instance = hazelcastInstance;
+        if (instance != null) {
+            return instance;
+        }
+        synchronized (this) {
+            if (hazelcastInstance == null) {
+                hazelcastInstance = lookupInstance(config.getProperty("hazelcast.instance.name"));
+            }
+            return hazelcastInstance;
+        }
+    }
+
+    private HazelcastInstance lookupInstance(String instanceName) {
+        if (instanceName != null) {
+            HazelcastInstance instance = Hazelcast.getHazelcastInstanceByName(instanceName);
+            if (instance == null) {
+                throw new IllegalStateException("No Hazelcast instance named: " + instanceName);
+            }
+            return instance;
+        }
+        Iterator<HazelcastInstance> running = Hazelcast.getAllHazelcastInstances().iterator();
+        if (running.hasNext()) {
+            HazelcastInstance instance = running.next();
+            logger.info("Using running Hazelcast instance: {}", instance.getName());
+            return instance;
+        }
+        logger.info("No running Hazelcast instance found, starting an embedded member");
+        ownsInstance = true;
+        return Hazelcast.newHazelcastInstance();
+    }
+
+    /**
+     * 关闭工厂，只有由工厂自己启动的内嵌成员才会被关闭
+     */
+    @Override
+    public synchronized void close() {
+        if (ownsInstance && hazelcastInstance != null) {
+            hazelcastInstance.shutdown();
+        }
+        hazelcastInstance = null;
+        ownsInstance = false;
+    }
+
+    @Override
+    public String getName() {
+        return "hazelcast";
+    }
+}
@@ -0,0 +1,59 @@
+package io.pluglock.hazelcast;
+
+import com.hazelcast.map.IMap;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Hazelcast IMap键锁的租约锁实现
+ *
+ * 锁保存在键所在分区的主副本上，支持租约时间，到期后由集群自动释放
+ */
+public class HazelcastMapPLock extends HazelcastPLock {
+
+    private final IMap<String, Object> lockMap;
+
+    public HazelcastMapPLock(String lockName, IMap<String, Object> lockMap, ConcurrentMap<String, Hold> holds) {
+        super(lockName, holds);
+        this.lockMap = lockMap;
+    }
+
+    @Override
+    protected long doLock(long leaseTime, TimeUnit unit) {
+        if (leaseTime == -1) {
+            lockMap.lock(lockName);
+        } else {
+            lockMap.lock(lockName, leaseTime, unit);
+        }
+        return NO_FENCE;
+    }
+
+    @Override
+    protected long doLockInterruptibly() throws InterruptedException {
+        while (!lockMap.tryLock(lockName, 1, TimeUnit.MINUTES)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return NO_FENCE;
+    }
+
+    @Override
+    protected long doTryLock() {
+        return lockMap.tryLock(lockName) ? NO_FENCE : NOT_ACQUIRED;
+    }
+
+    @Override
+    protected long doTryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        boolean acquired = leaseTime == -1
+                ? lockMap.tryLock(lockName, waitTime, unit)
+                : lockMap.tryLock(lockName, waitTime, unit, leaseTime, unit);
+        return acquired ? NO_FENCE : NOT_ACQUIRED;
+    }
+
+    @Override
+    protected void doUnlock() {
+        lockMap.unlock(lockName);
+    }
+}
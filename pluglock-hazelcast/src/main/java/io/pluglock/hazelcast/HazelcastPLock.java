@@ -0,0 +1,193 @@
+package io.pluglock.hazelcast;
+
+import io.pluglock.core.AbstractPLock;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Hazelcast锁的抽象基类
+ *
+ * 锁的持有情况在本地记录一份：重入只在本地计数，不再访问集群；
+ * 持有者判断和非持有者解锁的检查也直接在本地完成，不产生网络往返
+ */
+public abstract class HazelcastPLock extends AbstractPLock {
+
+    /**
+     * 获取失败时的返回值
+     */
+    protected static final long NOT_ACQUIRED = Long.MIN_VALUE;
+
+    /**
+     * 实现不提供防护令牌时使用的值
+     */
+    public static final long NO_FENCE = 0L;
+
+    /**
+     * 同一个工厂内共享的本地持有记录，key为锁名称
+     */
+    private final ConcurrentMap<String, Hold> holds;
+
+    protected HazelcastPLock(String lockName, ConcurrentMap<String, Hold> holds) {
+        super(lockName);
+        this.holds = holds;
+    }
+
+    @Override
+    public void lock() {
+        if (reenter()) {
+            return;
+        }
+        hold(doLock(-1, null), 0);
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) throws InterruptedException {
+        if (reenter()) {
+            return;
+        }
+        long fence = doLock(leaseTime, unit);
+        hold(fence, leaseTime == -1 ? 0 : System.currentTimeMillis() + unit.toMillis(leaseTime));
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (reenter()) {
+            return;
+        }
+        hold(doLockInterruptibly(), 0);
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (reenter()) {
+            return true;
+        }
+        long fence = doTryLock();
+        if (fence == NOT_ACQUIRED) {
+            return false;
+        }
+        hold(fence, 0);
+        return true;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return tryLock(time, -1, unit);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        if (reenter()) {
+            return true;
+        }
+        long fence = doTryLock(waitTime, leaseTime, unit);
+        if (fence == NOT_ACQUIRED) {
+            return false;
+        }
+        hold(fence, leaseTime == -1 ? 0 : System.currentTimeMillis() + unit.toMillis(leaseTime));
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        Hold hold = holds.get(lockName);
+        if (hold == null || hold.owner != Thread.currentThread()) {
+            throw new IllegalMonitorStateException("You do not own the lock: " + lockName);
+        }
+        if (--hold.count > 0) {
+            return;
+        }
+        // 先清除本地记录，再释放集群上的锁，避免覆盖下一个持有者的记录
+        holds.remove(lockName, hold);
+        doUnlock();
+    }
+
+    /**
+     * 当前线程是否持有锁，只查询本地记录
+     *
+     * @return 是否持有
+     */
+    public boolean isHeldByCurrentThread() {
+        Hold hold = holds.get(lockName);
+        return hold != null && hold.owner == Thread.currentThread();
+    }
+
+    /**
+     * 获取当前持有的防护令牌（fencing token），没有令牌的实现返回 {@link #NO_FENCE}
+     *
+     * @return 防护令牌
+     */
+    public long getFence() {
+        Hold hold = holds.get(lockName);
+        if (hold == null || hold.owner != Thread.currentThread()) {
+            throw new IllegalMonitorStateException("You do not own the lock: " + lockName);
+        }
+        return hold.fence;
+    }
+
+    private boolean reenter() {
+        Hold hold = holds.get(lockName);
+        if (hold == null || hold.owner != Thread.currentThread()) {
+            return false;
+        }
+        if (hold.leaseDeadline != 0 && hold.leaseDeadline <= System.currentTimeMillis()) {
+            // 租约已到期，集群上的锁可能已被他人获取，丢弃本地记录重新加锁
+            holds.remove(lockName, hold);
+            return false;
+        }
+        hold.count++;
+        return true;
+    }
+
+    private void hold(long fence, long leaseDeadline) {
+        holds.put(lockName, new Hold(Thread.currentThread(), fence, leaseDeadline));
+    }
+
+    /**
+     * 阻塞获取集群上的锁
+     *
+     * @param leaseTime 租约时间，-1表示不自动过期
+     * @param unit      时间单位
+     * @return 防护令牌
+     */
+    protected abstract long doLock(long leaseTime, TimeUnit unit);
+
+    protected abstract long doLockInterruptibly() throws InterruptedException;
+
+    protected abstract long doTryLock();
+
+    /**
+     * 在等待时间内获取集群上的锁
+     *
+     * @param waitTime  最长等待时间
+     * @param leaseTime 租约时间，-1表示不自动过期
+     * @param unit      时间单位
+     * @return 防护令牌，获取失败时为 {@link #NOT_ACQUIRED}
+     */
+    protected abstract long doTryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException;
+
+    protected abstract void doUnlock();
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("Hazelcast lock does not support Condition");
+    }
+
+    /**
+     * 本地持有记录，只由持有线程修改
+     */
+    static final class Hold {
+        private final Thread owner;
+        private final long fence;
+        private final long leaseDeadline;
+        private int count = 1;
+
+        Hold(Thread owner, long fence, long leaseDeadline) {
+            this.owner = owner;
+            this.fence = fence;
+            this.leaseDeadline = leaseDeadline;
+        }
+    }
+}
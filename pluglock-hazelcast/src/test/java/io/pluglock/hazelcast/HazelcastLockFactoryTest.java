@@ -0,0 +1,169 @@
+package io.pluglock.hazelcast;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.PLock;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HazelcastLockFactoryTest {
+
+    private static HazelcastInstance member1;
+    private static HazelcastInstance member2;
+    private static HazelcastLockFactory factory1;
+    private static HazelcastLockFactory factory2;
+    private static ExecutorService executor;
+
+    @BeforeAll
+    static void startMembers() {
+        String clusterName = "pluglock-test-" + UUID.randomUUID();
+        member1 = Hazelcast.newHazelcastInstance(memberConfig(clusterName));
+        member2 = Hazelcast.newHazelcastInstance(memberConfig(clusterName));
+        factory1 = new HazelcastLockFactory(member1);
+        factory2 = new HazelcastLockFactory(member2);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterAll
+    static void stopMembers() {
+        executor.shutdownNow();
+        factory1.close();
+        factory2.close();
+        member1.shutdown();
+        member2.shutdown();
+    }
+
+    private static Config memberConfig(String clusterName) {
+        Config config = new Config();
+        config.setClusterName(clusterName);
+        config.setProperty("hazelcast.logging.type", "slf4j");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getAutoDetectionConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        return config;
+    }
+
+    private static LockConfig lockConfig(String mapName) {
+        LockConfig config = new LockConfig();
+        config.setProperty("hazelcast.lock.map", mapName);
+        return config;
+    }
+
+    @Test
+    void mapLockIsExclusiveAcrossMembers() throws Exception {
+        PLock lock = factory1.createLock("exclusive", lockConfig("locks"));
+        lock.lock();
+        try {
+            PLock other = factory2.createLock("exclusive", lockConfig("locks"));
+            assertFalse(executor.submit(() -> other.tryLock()).get());
+        } finally {
+            lock.unlock();
+        }
+        PLock other = factory2.createLock("exclusive", lockConfig("locks"));
+        assertTrue(executor.submit(() -> acquireAndRelease(other)).get());
+    }
+
+    @Test
+    void reentrantHoldIsReleasedOnLastUnlock() throws Exception {
+        HazelcastPLock lock = (HazelcastPLock) factory1.createLock("reentrant", lockConfig("locks"));
+        lock.lock();
+        assertTrue(lock.tryLock());
+        lock.unlock();
+        assertTrue(lock.isHeldByCurrentThread());
+        PLock other = factory2.createLock("reentrant", lockConfig("locks"));
+        assertFalse(executor.submit(() -> other.tryLock()).get());
+
+        lock.unlock();
+        assertFalse(lock.isHeldByCurrentThread());
+        assertTrue(executor.submit(() -> acquireAndRelease(other)).get());
+    }
+
+    @Test
+    void leaseExpiresOnCluster() throws Exception {
+        PLock lock = factory1.createLock("lease", lockConfig("locks"));
+        lock.lock(200, TimeUnit.MILLISECONDS);
+        PLock other = factory2.createLock("lease", lockConfig("locks"));
+        assertTrue(executor.submit(() -> {
+            boolean acquired = other.tryLock(10, TimeUnit.SECONDS);
+            if (acquired) {
+                other.unlock();
+            }
+            return acquired;
+        }).get());
+    }
+
+    @Test
+    void tryLockLeaseExpiresOnCluster() throws Exception {
+        PLock lock = factory1.createLock("trylock-lease", lockConfig("locks"));
+        assertTrue(lock.tryLock(1000, 200, TimeUnit.MILLISECONDS));
+        PLock other = factory2.createLock("trylock-lease", lockConfig("locks"));
+        assertTrue(executor.submit(() -> {
+            boolean acquired = other.tryLock(10, TimeUnit.SECONDS);
+            if (acquired) {
+                other.unlock();
+            }
+            return acquired;
+        }).get());
+    }
+
+    @Test
+    void sameNameInDifferentMapsIsNotReentered() throws Exception {
+        PLock first = factory1.createLock("job", lockConfig("first"));
+        PLock second = factory1.createLock("job", lockConfig("second"));
+        first.lock();
+        try {
+            // 另一个map中的同名锁需要真正在集群上加锁
+            assertTrue(second.tryLock());
+            try {
+                PLock other = factory2.createLock("job", lockConfig("second"));
+                assertFalse(executor.submit(() -> other.tryLock()).get());
+            } finally {
+                second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    @Test
+    void fencedLockReturnsIncreasingFence() throws Exception {
+        LockConfig config = new LockConfig();
+        config.setProperty("hazelcast.lock.mode", "cp");
+        HazelcastPLock lock = (HazelcastPLock) factory1.createLock("fenced", config);
+        lock.lock();
+        long fence = lock.getFence();
+        lock.unlock();
+
+        HazelcastPLock other = (HazelcastPLock) factory2.createLock("fenced", config);
+        long next = executor.submit(() -> {
+            other.lock();
+            try {
+                return other.getFence();
+            } finally {
+                other.unlock();
+            }
+        }).get();
+        assertTrue(next > fence);
+    }
+
+    private static boolean acquireAndRelease(PLock lock) {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        lock.unlock();
+        return true;
+    }
+}
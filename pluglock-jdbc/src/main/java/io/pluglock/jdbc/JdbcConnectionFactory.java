@@ -6,6 +6,7 @@ import com.zaxxer.hikari.HikariDataSource;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.function.LongConsumer;
 
 /**
  * JDBC连接工厂
@@ -13,6 +14,10 @@ import java.sql.SQLException;
 public class JdbcConnectionFactory {
     
     private final DataSource dataSource;
+    // 外部传入的数据源由其创建者负责关闭
+    private final boolean ownsDataSource;
+    // 借用连接的等待时间监听器
+    private volatile LongConsumer borrowListener;
     
     public JdbcConnectionFactory(String url, String username, String password) {
         HikariConfig config = new HikariConfig();
@@ -21,10 +26,28 @@ public class JdbcConnectionFactory {
         config.setPassword(password);
         config.setMaximumPoolSize(10);
         this.dataSource = new HikariDataSource(config);
+        this.ownsDataSource = true;
+    }
+    
+    /**
+     * 复用应用中已有的数据源
+     * 
+     * @param dataSource 数据源，关闭工厂时不会关闭
+     */
+    public JdbcConnectionFactory(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.ownsDataSource = false;
     }
     
     public Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        LongConsumer listener = borrowListener;
+        if (listener == null) {
+            return dataSource.getConnection();
+        }
+        long start = System.nanoTime();
+        Connection connection = dataSource.getConnection();
+        listener.accept(System.nanoTime() - start);
+        return connection;
     }
     
     public void releaseConnection(Connection connection) {
@@ -36,4 +59,24 @@ public class JdbcConnectionFactory {
             }
         }
     }
+    
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * 设置借用连接等待时间的监听器，参数为纳秒，为null时不计时
+     */
+    public void setBorrowListener(LongConsumer borrowListener) {
+        this.borrowListener = borrowListener;
+    }
+    
+    /**
+     * 关闭连接池
+     */
+    public void close() {
+        if (ownsDataSource && dataSource instanceof HikariDataSource) {
+            ((HikariDataSource) dataSource).close();
+        }
+    }
 }
\ No newline at end of file
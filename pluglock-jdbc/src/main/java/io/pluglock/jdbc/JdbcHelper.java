@@ -2,11 +2,14 @@ package io.pluglock.jdbc;
 
 import io.pluglock.core.StorageCallback;
 import io.pluglock.core.StorageOperation;
+import io.pluglock.core.jfr.BackendRoundTripEvent;
+import io.pluglock.core.jfr.LockEvents;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  * JDBC操作助手类
@@ -14,30 +17,70 @@ import java.sql.SQLException;
 public class JdbcHelper implements StorageOperation<Connection> {
     
     private final JdbcConnectionFactory connectionFactory;
+    private final LockTableRouter tableRouter;
+    
+    // 按表预先拼好的SQL，下标与 LockTableRouter#indexFor 一致
+    private final String[] checkSqls;
+    private final String[] insertSqls;
+    private final String[] deleteSqls;
+    private final String[] expireSqls;
     
     public JdbcHelper(JdbcConnectionFactory connectionFactory) {
+        this(connectionFactory, new LockTableRouter());
+    }
+    
+    public JdbcHelper(JdbcConnectionFactory connectionFactory, LockTableRouter tableRouter) {
         this.connectionFactory = connectionFactory;
+        this.tableRouter = tableRouter;
+        List<String> tableNames = tableRouter.getTableNames();
+        this.checkSqls = new String[tableNames.size()];
+        this.insertSqls = new String[tableNames.size()];
+        this.deleteSqls = new String[tableNames.size()];
+        this.expireSqls = new String[tableNames.size()];
+        for (int i = 0; i < tableNames.size(); i++) {
+            String table = tableNames.get(i);
+            checkSqls[i] = "SELECT COUNT(*) FROM " + table + " WHERE lock_key = ? AND expire_time > ?";
+            insertSqls[i] = "INSERT INTO " + table + " (lock_key, lock_value, expire_time) VALUES (?, ?, ?)";
+            deleteSqls[i] = "DELETE FROM " + table + " WHERE lock_key = ? AND lock_value = ?";
+            expireSqls[i] = "DELETE FROM " + table + " WHERE lock_key = ? AND expire_time <= ?";
+        }
     }
     
     @Override
     public <R> R execute(StorageCallback<Connection, R> callback) {
+        return execute("execute", null, callback);
+    }
+    
+    /**
+     * @param operation 操作名称，用于诊断事件
+     * @param key       锁名称，用于诊断事件
+     */
+    private <R> R execute(String operation, String key, StorageCallback<Connection, R> callback) {
+        BackendRoundTripEvent event = LockEvents.ENABLED ? BackendRoundTripEvent.start() : null;
+        boolean success = false;
         Connection connection = null;
         try {
             connection = connectionFactory.getConnection();
-            return callback.doInStorage(connection);
+            R result = callback.doInStorage(connection);
+            success = true;
+            return result;
         } catch (SQLException e) {
             throw new RuntimeException("Error executing JDBC operation", e);
         } finally {
             connectionFactory.releaseConnection(connection);
+            if (event != null) {
+                event.finish("jdbc", operation, key, success);
+            }
         }
     }
     
     @Override
     public boolean tryAcquireLock(String key, String value, int expireSeconds) {
-        return execute(connection -> {
+        int index = tableRouter.indexFor(key);
+        return execute("acquire", key, connection -> {
             try {
                 // 检查锁是否已存在
-                String checkSql = "SELECT COUNT(*) FROM distributed_lock WHERE lock_key = ? AND expire_time > ?";
+                String checkSql = checkSqls[index];
                 PreparedStatement checkStmt = connection.prepareStatement(checkSql);
                 checkStmt.setString(1, key);
                 checkStmt.setLong(2, System.currentTimeMillis());
@@ -51,8 +94,15 @@ public class JdbcHelper implements StorageOperation<Connection> {
                     return false; // 锁已被占用
                 }
                 
+                // 删除已过期的锁记录，否则插入会违反主键约束
+                PreparedStatement expireStmt = connection.prepareStatement(expireSqls[index]);
+                expireStmt.setString(1, key);
+                expireStmt.setLong(2, System.currentTimeMillis());
+                expireStmt.executeUpdate();
+                expireStmt.close();
+                
                 // 插入新锁
-                String insertSql = "INSERT INTO distributed_lock (lock_key, lock_value, expire_time) VALUES (?, ?, ?)";
+                String insertSql = insertSqls[index];
                 PreparedStatement insertStmt = connection.prepareStatement(insertSql);
                 insertStmt.setString(1, key);
                 insertStmt.setString(2, value);
@@ -62,6 +112,9 @@ public class JdbcHelper implements StorageOperation<Connection> {
                 
                 return result > 0;
             } catch (SQLException e) {
+                if (isConstraintViolation(e)) {
+                    return false; // 其他持有者同时插入了锁记录
+                }
                 throw new RuntimeException("Error acquiring lock", e);
             }
         });
@@ -69,9 +122,10 @@ public class JdbcHelper implements StorageOperation<Connection> {
     
     @Override
     public boolean releaseLock(String key, String value) {
-        return execute(connection -> {
+        int index = tableRouter.indexFor(key);
+        return execute("release", key, connection -> {
             try {
-                String sql = "DELETE FROM distributed_lock WHERE lock_key = ? AND lock_value = ?";
+                String sql = deleteSqls[index];
                 PreparedStatement stmt = connection.prepareStatement(sql);
                 stmt.setString(1, key);
                 stmt.setString(2, value);
@@ -86,9 +140,10 @@ public class JdbcHelper implements StorageOperation<Connection> {
     
     @Override
     public boolean isLocked(String key) {
-        return execute(connection -> {
+        int index = tableRouter.indexFor(key);
+        return execute("check", key, connection -> {
             try {
-                String sql = "SELECT COUNT(*) FROM distributed_lock WHERE lock_key = ? AND expire_time > ?";
+                String sql = checkSqls[index];
                 PreparedStatement stmt = connection.prepareStatement(sql);
                 stmt.setString(1, key);
                 stmt.setLong(2, System.currentTimeMillis());
@@ -103,4 +158,20 @@ public class JdbcHelper implements StorageOperation<Connection> {
             }
         });
     }
+    
+    /**
+     * SQLState以23开头表示违反完整性约束
+     */
+    private static boolean isConstraintViolation(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("23");
+    }
+    
+    /**
+     * 获取锁表路由器
+     * 
+     * @return 锁表路由器
+     */
+    public LockTableRouter getTableRouter() {
+        return tableRouter;
+    }
 }
\ No newline at end of file
@@ -1,35 +1,136 @@
 package io.pluglock.jdbc;
 
+import io.pluglock.core.CohortRegistry;
 import io.pluglock.core.PLock;
 import io.pluglock.core.LockConfig;
 import io.pluglock.core.LockFactory;
+import io.pluglock.core.wait.BackoffWaitStrategy;
+import io.pluglock.core.wait.WaitStrategies;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * JDBC分布式锁工厂实现
+ *
+ * 同一个数据库的所有锁共享一个连接池
  */
 public class JdbcLockFactory implements LockFactory {
-    
+
+    // 外部传入的连接工厂，由其创建者负责关闭
+    private final JdbcConnectionFactory connectionFactory;
+
+    // 按配置创建的连接工厂，key为数据库地址和用户名
+    private final ConcurrentMap<String, JdbcConnectionFactory> connectionFactories = new ConcurrentHashMap<>();
+
+    // 每种锁表配置共享一个JdbcHelper
+    private final ConcurrentMap<String, JdbcHelper> helpers = new ConcurrentHashMap<>();
+
+    // 每个库和锁表组合的自动建表状态，避免每次创建锁都执行DDL
+    private final ConcurrentMap<String, SchemaInitializer> schemas = new ConcurrentHashMap<>();
+
+    // 可重入锁的等待策略，JDBC没有释放通知，默认退避重试
+    private final WaitStrategies waitStrategies = new WaitStrategies();
+
+    // lock.cohort.enabled时同一锁表的可重入锁在本地排队
+    private final ConcurrentMap<JdbcHelper, CohortRegistry> cohorts = new ConcurrentHashMap<>();
+
+    public JdbcLockFactory() {
+        this.connectionFactory = null;
+    }
+
+    public JdbcLockFactory(JdbcConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
     @Override
     public PLock createLock(String name, LockConfig config) {
-        // 创建JDBC连接工厂
-        String url = config.getProperty("jdbc.url");
-        String username = config.getProperty("jdbc.username");
-        String password = config.getProperty("jdbc.password");
-        
-        JdbcConnectionFactory connectionFactory = new JdbcConnectionFactory(url, username, password);
-        JdbcHelper jdbcHelper = new JdbcHelper(connectionFactory);
-        
+        JdbcHelper jdbcHelper = getJdbcHelper(config);
+
         // 根据配置决定锁的类型
         String lockType = config.getProperty("jdbc.lock.type", "basic");
         if ("reentrant".equalsIgnoreCase(lockType)) {
-            return new JdbcPReentrantLock(name, jdbcHelper);
+            JdbcPReentrantLock lock = new JdbcPReentrantLock(name, jdbcHelper,
+                    waitStrategies.get(config, BackoffWaitStrategy.NAME));
+            return cohorts.computeIfAbsent(jdbcHelper, h -> new CohortRegistry()).apply(lock, config);
         } else {
             return new JdbcPLock(name, jdbcHelper);
         }
     }
-    
+
+    private JdbcHelper getJdbcHelper(LockConfig config) {
+        // 锁表分区配置
+        String tableName = config.getProperty("jdbc.table.name", LockTableRouter.DEFAULT_TABLE_NAME);
+        int partitions = config.getInt("jdbc.table.partitions", 1);
+        String partitionMode = config.getProperty("jdbc.table.partition.mode", "tables").toUpperCase();
+        String databaseKey = connectionFactory != null ? "" : config.getProperty("jdbc.url") + "#" + config.getProperty("jdbc.username");
+        String key = databaseKey + "#" + tableName + "#" + partitions + "#" + partitionMode;
+        JdbcHelper helper = helpers.get(key);
+        if (helper != null) {
+            return helper;
+        }
+        // 建表是阻塞的DDL，在helpers.computeIfAbsent之外执行，不占用ConcurrentHashMap的桶锁
+        JdbcConnectionFactory factory = getConnectionFactory(config);
+        LockTableRouter tableRouter = new LockTableRouter(tableName, partitions,
+                LockTableRouter.PartitionMode.valueOf(partitionMode));
+        if (config.getBoolean("jdbc.schema.create", false)) {
+            schemas.computeIfAbsent(databaseKey + "#" + tableRouter.getTableNames(), k -> new SchemaInitializer())
+                    .createTables(factory, tableRouter);
+        }
+        JdbcHelper created = new JdbcHelper(factory, tableRouter);
+        helper = helpers.putIfAbsent(key, created);
+        return helper != null ? helper : created;
+    }
+
+    private JdbcConnectionFactory getConnectionFactory(LockConfig config) {
+        if (connectionFactory != null) {
+            return connectionFactory;
+        }
+        // 创建JDBC连接工厂
+        String url = config.getProperty("jdbc.url");
+        String username = config.getProperty("jdbc.username");
+        String password = config.getProperty("jdbc.password");
+        return connectionFactories.computeIfAbsent(url + "#" + username,
+                k -> new JdbcConnectionFactory(url, username, password));
+    }
+
+    /**
+     * 关闭由工厂自己创建的连接池
+     */
+    @Override
+    public void close() {
+        connectionFactories.values().forEach(JdbcConnectionFactory::close);
+        connectionFactories.clear();
+        helpers.clear();
+        cohorts.clear();
+    }
+
     @Override
     public String getName() {
         return "jdbc";
     }
-}
\ No newline at end of file
+
+    /**
+     * 一组锁表的自动建表，同一组表并发创建锁时只执行一次DDL，其他线程等它完成；失败后下次创建锁时重试
+     */
+    private static final class SchemaInitializer {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile boolean created;
+
+        void createTables(JdbcConnectionFactory factory, LockTableRouter tableRouter) {
+            if (created) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (!created) {
+                    new JdbcSchemaManager(factory, tableRouter).createTablesIfNecessary();
+                    created = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.pluglock.jdbc;
 
 import io.pluglock.core.AbstractPLock;
+import io.pluglock.core.LockOwner;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -11,7 +12,6 @@ import java.util.concurrent.locks.Condition;
 public class JdbcPLock extends AbstractPLock {
     
     private final JdbcHelper jdbcHelper;
-    private final String lockValue;
     private final int expireTimeSeconds;
     
     public JdbcPLock(String lockName, JdbcHelper jdbcHelper) {
@@ -21,7 +21,6 @@ public class JdbcPLock extends AbstractPLock {
     public JdbcPLock(String lockName, JdbcHelper jdbcHelper, int expireTimeSeconds) {
         super(lockName);
         this.jdbcHelper = jdbcHelper;
-        this.lockValue = "locked-by-" + Thread.currentThread().getName();
         this.expireTimeSeconds = expireTimeSeconds;
     }
     
@@ -54,24 +53,44 @@ public class JdbcPLock extends AbstractPLock {
     
     @Override
     public boolean tryLock() {
-        return jdbcHelper.tryAcquireLock(lockName, lockValue, expireTimeSeconds);
+        return jdbcHelper.tryAcquireLock(lockName, lockValue(), expireTimeSeconds);
     }
     
     @Override
     public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
-        long endTime = System.currentTimeMillis() + unit.toMillis(time);
-        while (System.currentTimeMillis() < endTime) {
-            if (tryLock()) {
+        return tryLock(time, -1, unit);
+    }
+    
+    /**
+     * 租约时间作为锁记录的过期时间，向上取整到秒；-1时使用默认的过期时间
+     */
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        int expireSeconds = leaseTime == -1 ? expireTimeSeconds
+                : (int) Math.max(1, (unit.toMillis(leaseTime) + 999) / 1000);
+        long endTime = System.currentTimeMillis() + unit.toMillis(waitTime);
+        while (true) {
+            if (jdbcHelper.tryAcquireLock(lockName, lockValue(), expireSeconds)) {
                 return true;
             }
-            Thread.sleep(100); // 等待100毫秒后重试
+            long remaining = endTime - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            Thread.sleep(Math.min(100, remaining)); // 最多等待100毫秒后重试
         }
-        return false;
     }
     
     @Override
     public void unlock() {
-        jdbcHelper.releaseLock(lockName, lockValue);
+        jdbcHelper.releaseLock(lockName, lockValue());
+    }
+    
+    /**
+     * 按当前持有者计算，同一个锁实例可以被多个线程共用
+     */
+    private static String lockValue() {
+        return "locked-by-" + LockOwner.encode(LockOwner.current());
     }
     
     @Override
@@ -1,7 +1,9 @@
 package io.pluglock.jdbc;
 
+import io.pluglock.core.LockOwner;
 import io.pluglock.core.PLockEntry;
 import io.pluglock.core.PReentrantLock;
+import io.pluglock.core.wait.WaitStrategy;
 
 import java.util.concurrent.TimeUnit;
 
@@ -25,6 +27,14 @@ public class JdbcPReentrantLock extends PReentrantLock {
         this.lockResource = new JdbcPLockResource(jdbcHelper);
     }
 
+    /**
+     * @param waitStrategy 两次尝试之间的等待策略，JDBC没有释放通知，应使用不订阅的策略
+     */
+    public JdbcPReentrantLock(String lockName, JdbcHelper jdbcHelper, WaitStrategy waitStrategy) {
+        this(lockName, jdbcHelper);
+        this.waitStrategy = waitStrategy;
+    }
+
     /**
      * JDBC锁资源实现
      */
@@ -38,7 +48,7 @@ public class JdbcPReentrantLock extends PReentrantLock {
         @Override
         public Long tryAcquireResource(String name, long threadId, long leaseTime) {
             // 修正方法调用，使用正确的API
-            boolean acquired = jdbcHelper.tryAcquireLock(name, String.valueOf(threadId), (int) TimeUnit.MILLISECONDS.toSeconds(leaseTime));
+            boolean acquired = jdbcHelper.tryAcquireLock(name, LockOwner.encode(threadId), (int) TimeUnit.MILLISECONDS.toSeconds(leaseTime));
             return acquired ? null : 0L;
         }
 
@@ -55,12 +65,17 @@ public class JdbcPReentrantLock extends PReentrantLock {
 
         @Override
         public void releaseResource(String name, long threadId) {
-            jdbcHelper.releaseLock(name, String.valueOf(threadId));
+            jdbcHelper.releaseLock(name, LockOwner.encode(threadId));
         }
 
         @Override
         protected void startWatchDog(String name, long threadId, long leaseMillis, Long ttl) {
             // JDBC实现暂不支持看门狗机制
         }
+
+        @Override
+        public String getBackend() {
+            return "jdbc";
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package io.pluglock.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 锁表结构管理，负责自动建表以及从单表迁移到分区表
+ *
+ * DDL按MySQL语法编写
+ */
+public class JdbcSchemaManager {
+
+    private final JdbcConnectionFactory connectionFactory;
+    private final LockTableRouter tableRouter;
+
+    public JdbcSchemaManager(JdbcConnectionFactory connectionFactory, LockTableRouter tableRouter) {
+        this.connectionFactory = connectionFactory;
+        this.tableRouter = tableRouter;
+    }
+
+    /**
+     * 创建路由器用到的全部锁表，已存在的表保持不变
+     */
+    public void createTablesIfNecessary() {
+        execute(connection -> {
+            try (Statement stmt = connection.createStatement()) {
+                for (String table : tableRouter.getTableNames()) {
+                    stmt.executeUpdate(createTableSql(table));
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 把单表 {@code distributed_lock} 中的锁迁移到分区表
+     *
+     * 拆表模式下逐行按哈希搬到对应的分表后从原表删除，整个过程在一个事务内完成；
+     * 原生分区模式下直接对原表执行 ALTER TABLE ... PARTITION BY KEY
+     *
+     * 迁移期间不能有节点在加锁或释放：迁移不与持有者协调，原表中的锁搬走后，仍按单表访问的节点看不到它们。
+     * 可以重复执行，分表中已有同名锁时保留分表中的记录，只从原表删除
+     *
+     * @return 从原表移走的行数
+     */
+    public int migrate() {
+        if (tableRouter.getMode() == LockTableRouter.PartitionMode.NATIVE) {
+            if (tableRouter.getPartitions() > 1) {
+                execute(connection -> {
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.executeUpdate("ALTER TABLE " + tableRouter.getBaseTableName()
+                                + " PARTITION BY KEY(lock_key) PARTITIONS " + tableRouter.getPartitions());
+                    }
+                    return null;
+                });
+            }
+            return 0;
+        }
+        if (!tableRouter.isSplitIntoTables()) {
+            return 0;
+        }
+        createTablesIfNecessary();
+        return execute(this::moveRows);
+    }
+
+    private int moveRows(Connection connection) throws SQLException {
+        String source = tableRouter.getBaseTableName();
+        List<String> tables = tableRouter.getTableNames();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            List<PreparedStatement> inserts = new ArrayList<>(tables.size());
+            int moved = 0;
+            try (Statement select = connection.createStatement();
+                 PreparedStatement delete = connection.prepareStatement(
+                         "DELETE FROM " + source + " WHERE lock_key = ?")) {
+                for (String table : tables) {
+                    // 分表中已有时不覆盖，重复迁移不会因主键冲突失败
+                    inserts.add(connection.prepareStatement(
+                            "INSERT INTO " + table + " (lock_key, lock_value, expire_time) VALUES (?, ?, ?)"
+                                    + " ON DUPLICATE KEY UPDATE lock_key = lock_key"));
+                }
+                try (ResultSet rs = select.executeQuery(
+                        "SELECT lock_key, lock_value, expire_time FROM " + source + " FOR UPDATE")) {
+                    while (rs.next()) {
+                        String key = rs.getString(1);
+                        PreparedStatement insert = inserts.get(tableRouter.indexFor(key));
+                        insert.setString(1, key);
+                        insert.setString(2, rs.getString(2));
+                        insert.setLong(3, rs.getLong(3));
+                        insert.addBatch();
+                        delete.setString(1, key);
+                        delete.addBatch();
+                        moved++;
+                    }
+                }
+                for (PreparedStatement insert : inserts) {
+                    insert.executeBatch();
+                }
+                delete.executeBatch();
+            } finally {
+                for (PreparedStatement insert : inserts) {
+                    insert.close();
+                }
+            }
+            connection.commit();
+            return moved;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private String createTableSql(String table) {
+        StringBuilder sql = new StringBuilder()
+                .append("CREATE TABLE IF NOT EXISTS ").append(table).append(" (")
+                .append("lock_key VARCHAR(255) NOT NULL, ")
+                .append("lock_value VARCHAR(255) NOT NULL, ")
+                .append("expire_time BIGINT NOT NULL, ")
+                .append("PRIMARY KEY (lock_key))");
+        if (tableRouter.getMode() == LockTableRouter.PartitionMode.NATIVE && tableRouter.getPartitions() > 1) {
+            sql.append(" PARTITION BY KEY(lock_key) PARTITIONS ").append(tableRouter.getPartitions());
+        }
+        return sql.toString();
+    }
+
+    private <R> R execute(SqlCallback<R> callback) {
+        Connection connection = null;
+        try {
+            connection = connectionFactory.getConnection();
+            return callback.doInConnection(connection);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error executing lock table DDL", e);
+        } finally {
+            connectionFactory.releaseConnection(connection);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlCallback<R> {
+        R doInConnection(Connection connection) throws SQLException;
+    }
+}
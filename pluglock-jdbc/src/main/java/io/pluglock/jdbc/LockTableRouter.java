@@ -0,0 +1,129 @@
+package io.pluglock.jdbc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 锁表路由器，按lock_key的稳定哈希把锁分散到N张表（或同一张表的N个分区）
+ *
+ * 哈希使用UTF-8字节上的CRC32，与MySQL内置的CRC32()函数结果一致，
+ * 便于在数据库侧核对某个锁落在哪张表上
+ */
+public class LockTableRouter {
+
+    /**
+     * 默认锁表名
+     */
+    public static final String DEFAULT_TABLE_NAME = "distributed_lock";
+
+    /**
+     * 分区方式
+     */
+    public enum PartitionMode {
+        /**
+         * 拆分为多张物理表：distributed_lock_0 ... distributed_lock_{N-1}
+         */
+        TABLES,
+        /**
+         * 单张表，使用数据库原生分区（MySQL PARTITION BY KEY）
+         */
+        NATIVE
+    }
+
+    private final String baseTableName;
+    private final int partitions;
+    private final PartitionMode mode;
+    private final String[] tableNames;
+
+    public LockTableRouter() {
+        this(DEFAULT_TABLE_NAME, 1, PartitionMode.TABLES);
+    }
+
+    public LockTableRouter(String baseTableName, int partitions, PartitionMode mode) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partitions must be positive: " + partitions);
+        }
+        this.baseTableName = baseTableName;
+        this.partitions = partitions;
+        this.mode = mode;
+        if (isSplitIntoTables()) {
+            this.tableNames = new String[partitions];
+            for (int i = 0; i < partitions; i++) {
+                tableNames[i] = baseTableName + "_" + i;
+            }
+        } else {
+            this.tableNames = new String[]{baseTableName};
+        }
+    }
+
+    /**
+     * 计算锁所在的表下标
+     *
+     * @param lockKey 锁的键名
+     * @return 表下标，对应 {@link #getTableNames()} 中的位置
+     */
+    public int indexFor(String lockKey) {
+        if (tableNames.length == 1) {
+            return 0;
+        }
+        return partitionOf(lockKey, partitions);
+    }
+
+    /**
+     * 获取锁所在的表名
+     *
+     * @param lockKey 锁的键名
+     * @return 表名
+     */
+    public String tableFor(String lockKey) {
+        return tableNames[indexFor(lockKey)];
+    }
+
+    /**
+     * 计算锁键的分区号
+     *
+     * @param lockKey    锁的键名
+     * @param partitions 分区数量
+     * @return 分区号
+     */
+    public static int partitionOf(String lockKey, int partitions) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(lockKey.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc32.getValue() % partitions);
+    }
+
+    /**
+     * 是否拆分为多张物理表
+     *
+     * @return 是否拆分
+     */
+    public boolean isSplitIntoTables() {
+        return mode == PartitionMode.TABLES && partitions > 1;
+    }
+
+    /**
+     * 获取所有物理表名
+     *
+     * @return 表名列表
+     */
+    public List<String> getTableNames() {
+        List<String> names = new ArrayList<>(tableNames.length);
+        Collections.addAll(names, tableNames);
+        return names;
+    }
+
+    public String getBaseTableName() {
+        return baseTableName;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public PartitionMode getMode() {
+        return mode;
+    }
+}
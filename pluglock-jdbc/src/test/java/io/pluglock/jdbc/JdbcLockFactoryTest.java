@@ -0,0 +1,126 @@
+package io.pluglock.jdbc;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.PLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 自动建表：DDL不在helpers的computeIfAbsent中执行，同一组表只建一次，失败后重试
+ */
+class JdbcLockFactoryTest {
+
+    private ControlledConnectionFactory connectionFactory;
+    private JdbcLockFactory factory;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new ControlledConnectionFactory("jdbc:h2:mem:factory;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        factory = new JdbcLockFactory(connectionFactory);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        executor.shutdownNow();
+        factory.close();
+        try (Connection connection = connectionFactory.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP ALL OBJECTS");
+        }
+        connectionFactory.close();
+    }
+
+    private static LockConfig config(String tableName) {
+        LockConfig config = new LockConfig();
+        config.setProperty("jdbc.schema.create", "true");
+        config.setProperty("jdbc.table.name", tableName);
+        return config;
+    }
+
+    @Test
+    void concurrentCallersWaitForSchemaCreationOfTheirTables() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        connectionFactory.blockNext(entered, proceed);
+
+        Future<PLock> creating = executor.submit(() -> factory.createLock("a", config("slow_lock")));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        // 同一组表等待建表完成，不会在表还不存在时返回
+        Future<PLock> waiting = executor.submit(() -> factory.createLock("b", config("slow_lock")));
+        assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+        // 其他锁表不受影响
+        PLock other = executor.submit(() -> factory.createLock("c", config("fast_lock"))).get(5, TimeUnit.SECONDS);
+        assertTrue(other.tryLock());
+        other.unlock();
+
+        proceed.countDown();
+        creating.get(5, TimeUnit.SECONDS);
+        PLock lock = waiting.get(5, TimeUnit.SECONDS);
+        assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+
+    @Test
+    void failedSchemaCreationIsRetried() {
+        connectionFactory.failures.set(1);
+        assertThrows(RuntimeException.class, () -> factory.createLock("a", config("retry_lock")));
+
+        PLock lock = factory.createLock("a", config("retry_lock"));
+        assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+
+    /**
+     * 可以让下一次获取连接失败或阻塞的连接工厂
+     */
+    private static final class ControlledConnectionFactory extends JdbcConnectionFactory {
+        final AtomicInteger failures = new AtomicInteger();
+        private volatile CountDownLatch entered;
+        private volatile CountDownLatch proceed;
+
+        ControlledConnectionFactory(String url) {
+            super(url, "sa", "");
+        }
+
+        void blockNext(CountDownLatch entered, CountDownLatch proceed) {
+            this.proceed = proceed;
+            this.entered = entered;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new SQLException("Database unavailable");
+            }
+            CountDownLatch blocked = entered;
+            if (blocked != null) {
+                entered = null;
+                blocked.countDown();
+                try {
+                    proceed.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException(e);
+                }
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.pluglock.jdbc;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.PLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 指定租约的tryLock：租约作为锁记录的过期时间
+ */
+class JdbcPLockTest {
+
+    private JdbcConnectionFactory connectionFactory;
+    private JdbcLockFactory factory;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new JdbcConnectionFactory(
+                "jdbc:h2:mem:trylock;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        factory = new JdbcLockFactory(connectionFactory);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        executor.shutdownNow();
+        factory.close();
+        try (Connection connection = connectionFactory.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP ALL OBJECTS");
+        }
+        connectionFactory.close();
+    }
+
+    private static LockConfig config(String type) {
+        LockConfig config = new LockConfig();
+        config.setProperty("jdbc.schema.create", "true");
+        config.setProperty("jdbc.lock.type", type);
+        return config;
+    }
+
+    @Test
+    void basicLockLeaseExpires() throws Exception {
+        assertLeaseExpires("basic");
+    }
+
+    @Test
+    void reentrantLockLeaseExpires() throws Exception {
+        assertLeaseExpires("reentrant");
+    }
+
+    private void assertLeaseExpires(String type) throws Exception {
+        String name = type + "-lease";
+        PLock lock = factory.createLock(name, config(type));
+        assertTrue(lock.tryLock(0, 1, TimeUnit.SECONDS));
+        PLock other = factory.createLock(name, config(type));
+        assertFalse(executor.submit(() -> other.tryLock()).get(5, TimeUnit.SECONDS));
+        // 租约到期后其他持有者可以获取
+        assertTrue(executor.submit(() -> {
+            boolean acquired = other.tryLock(10, TimeUnit.SECONDS);
+            if (acquired) {
+                other.unlock();
+            }
+            return acquired;
+        }).get(15, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,89 @@
+package io.pluglock.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JdbcSchemaManagerTest {
+
+    private JdbcConnectionFactory connectionFactory;
+    private LockTableRouter router;
+    private JdbcSchemaManager schemaManager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connectionFactory = new JdbcConnectionFactory(
+                "jdbc:h2:mem:schema;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        router = new LockTableRouter(LockTableRouter.DEFAULT_TABLE_NAME, 4, LockTableRouter.PartitionMode.TABLES);
+        schemaManager = new JdbcSchemaManager(connectionFactory, router);
+        update("CREATE TABLE distributed_lock (lock_key VARCHAR(255) NOT NULL, "
+                + "lock_value VARCHAR(255) NOT NULL, expire_time BIGINT NOT NULL, PRIMARY KEY (lock_key))");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        update("DROP ALL OBJECTS");
+        connectionFactory.close();
+    }
+
+    @Test
+    void migrateMovesRowsIntoPartitionTables() throws SQLException {
+        for (int i = 0; i < 20; i++) {
+            update("INSERT INTO distributed_lock VALUES ('lock-" + i + "', 'owner', 100)");
+        }
+
+        assertEquals(20, schemaManager.migrate());
+
+        assertEquals(0, count("distributed_lock"));
+        int total = 0;
+        for (String table : router.getTableNames()) {
+            total += count(table);
+        }
+        assertEquals(20, total);
+        assertEquals(1, count(router.tableFor("lock-7") + " WHERE lock_key = 'lock-7'"));
+    }
+
+    @Test
+    void migrateCanBeRepeated() throws SQLException {
+        update("INSERT INTO distributed_lock VALUES ('a', 'owner', 100)");
+        assertEquals(1, schemaManager.migrate());
+
+        assertEquals(0, schemaManager.migrate());
+        assertEquals(1, count(router.tableFor("a")));
+    }
+
+    @Test
+    void migrateKeepsLockAlreadyInPartitionTable() throws SQLException {
+        schemaManager.createTablesIfNecessary();
+        update("INSERT INTO " + router.tableFor("a") + " VALUES ('a', 'new-owner', 200)");
+        update("INSERT INTO distributed_lock VALUES ('a', 'old-owner', 100)");
+
+        assertEquals(1, schemaManager.migrate());
+
+        assertEquals(0, count("distributed_lock"));
+        assertEquals(1, count(router.tableFor("a") + " WHERE lock_value = 'new-owner'"));
+    }
+
+    private void update(String sql) throws SQLException {
+        try (Connection connection = connectionFactory.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private int count(String tableAndCondition) throws SQLException {
+        try (Connection connection = connectionFactory.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + tableAndCondition)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
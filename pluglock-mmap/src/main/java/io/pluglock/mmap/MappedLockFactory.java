@@ -0,0 +1,81 @@
+package io.pluglock.mmap;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.LockFactory;
+import io.pluglock.core.PLock;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 共享内存锁工厂实现，锁只在映射同一文件的进程之间互斥
+ */
+public class MappedLockFactory implements LockFactory {
+
+    private static final String DEFAULT_FILE_NAME = "pluglock.locks";
+
+    // 每个文件只映射一次
+    private final ConcurrentMap<String, MappedLockTable> tables = new ConcurrentHashMap<>();
+
+    @Override
+    public PLock createLock(String name, LockConfig config) {
+        return new MappedPLock(name, getTable(config));
+    }
+
+    /**
+     * 获取配置对应的锁表
+     *
+     * @param config 锁的配置参数
+     * @return 锁表
+     */
+    protected MappedLockTable getTable(LockConfig config) {
+        File file = new File(config.getProperty("mmap.file", defaultFile().getPath()));
+        int slots = Integer.parseInt(config.getProperty("mmap.slots", "4096"));
+        String path;
+        try {
+            path = file.getCanonicalPath();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to resolve lock table file: " + file, e);
+        }
+        return tables.computeIfAbsent(path, p -> {
+            try {
+                return new MappedLockTable(new File(p), slots);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open lock table: " + p, e);
+            }
+        });
+    }
+
+    /**
+     * 优先放在/dev/shm（tmpfs），避免脏页回写磁盘
+     */
+    private static File defaultFile() {
+        File shm = new File("/dev/shm");
+        if (shm.isDirectory() && shm.canWrite()) {
+            return new File(shm, DEFAULT_FILE_NAME);
+        }
+        return new File(System.getProperty("java.io.tmpdir"), DEFAULT_FILE_NAME);
+    }
+
+    /**
+     * 关闭所有锁表，关闭后本进程持有的锁要等其他进程探测到或租约到期才会被回收
+     */
+    @Override
+    public void close() {
+        for (MappedLockTable table : tables.values()) {
+            try {
+                table.close();
+            } catch (IOException ignored) {
+                // 关闭失败不影响其他锁表
+            }
+        }
+        tables.clear();
+    }
+
+    @Override
+    public String getName() {
+        return "mmap";
+    }
+}
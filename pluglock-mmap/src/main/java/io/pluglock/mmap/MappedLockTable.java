@@ -0,0 +1,361 @@
+package io.pluglock.mmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存映射文件中的定长开放寻址锁表，供同一主机上的多个进程共享
+ *
+ * 文件布局：64字节文件头，之后是slotCount个64字节的槽位（每个槽位独占一条缓存行）
+ * <pre>
+ * 槽位  0: long keyHash    锁名称的64位哈希，0表示空槽；一旦写入不再回收
+ *       8: long owner      持有者，(进程纪元 &lt;&lt; 32) | threadId，0表示未被持有，加锁即对它做CAS
+ *      16: long deadline   租约截止时间（毫秒），0表示刚加锁尚未写入，-1表示正在被回收或释放
+ *      24: int  holdCount  重入次数，只由持有者修改
+ *      32: long heartbeat  持有者进程最近一次心跳的时间（毫秒）
+ * </pre>
+ * 正常的加锁解锁全部是对映射内存的CAS，不进入内核；
+ * 持有者进程每秒刷新所持槽位的心跳，心跳超时或租约到期后，其他进程通过CAS把锁抢过来。
+ * 进程纪元是启动时生成的随机数，不依赖pid，位于不同PID命名空间的容器共享锁表时也不会混淆。
+ * FileChannel.lock只在建表和崩溃恢复时使用
+ */
+public class MappedLockTable {
+
+    private static final long MAGIC = 0x504C4F434B544231L;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 64;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 8;
+    private static final int OFFSET_SLOT_COUNT = 12;
+
+    private static final int OFFSET_KEY_HASH = 0;
+    private static final int OFFSET_OWNER = 8;
+    private static final int OFFSET_DEADLINE = 16;
+    private static final int OFFSET_HOLD_COUNT = 24;
+    private static final int OFFSET_HEARTBEAT = 32;
+
+    /**
+     * 不过期的租约
+     */
+    static final long NO_LEASE = Long.MAX_VALUE;
+
+    /**
+     * 心跳超过该时间未刷新即认为持有者进程已退出
+     */
+    static final long HEARTBEAT_TIMEOUT_MILLIS = 10_000;
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 1_000;
+
+    private static final long DEADLINE_PENDING = 0L;
+    private static final long DEADLINE_LOCKED = -1L;
+
+    // 本进程的随机纪元，作为持有者标识的高32位
+    private static final int EPOCH = newEpoch();
+
+    private final File file;
+    private final FileChannel channel;
+    private final SharedMemory memory;
+    private final int slotCount;
+    private final int slotMask;
+    private final ScheduledExecutorService heartbeat;
+
+    public MappedLockTable(File file, int requestedSlots) throws IOException {
+        if (Integer.bitCount(requestedSlots) != 1) {
+            throw new IllegalArgumentException("Slot count must be a power of two: " + requestedSlots);
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int slots;
+        try (FileLock ignored = channel.lock()) {
+            slots = initialize(requestedSlots);
+            this.memory = new SharedMemory(
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * SLOT_SIZE));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.slotCount = slots;
+        this.slotMask = slots - 1;
+        recover();
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pluglock-mmap-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::beat, HEARTBEAT_INTERVAL_MILLIS, HEARTBEAT_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在文件锁保护下初始化文件头，文件已存在时沿用其中的槽位数
+     */
+    private int initialize(int requestedSlots) throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (header.getLong(OFFSET_MAGIC) == MAGIC) {
+            if (header.getInt(OFFSET_VERSION) != VERSION) {
+                throw new IllegalStateException("Unsupported lock table version in " + file);
+            }
+            return header.getInt(OFFSET_SLOT_COUNT);
+        }
+        // 新文件或上次初始化中途失败，重新格式化；映射区域初始内容为0
+        channel.truncate(0);
+        MappedByteBuffer formatted = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) requestedSlots * SLOT_SIZE);
+        formatted.putInt(OFFSET_VERSION, VERSION);
+        formatted.putInt(OFFSET_SLOT_COUNT, requestedSlots);
+        formatted.force();
+        // 最后写入魔数，标志初始化完成
+        formatted.putLong(OFFSET_MAGIC, MAGIC);
+        formatted.force();
+        return requestedSlots;
+    }
+
+    /**
+     * 查找或占用锁名称对应的槽位
+     *
+     * @param name 锁名称
+     * @return 槽位下标
+     */
+    public int slotFor(String name) {
+        long keyHash = hash(name);
+        int index = (int) (keyHash ^ (keyHash >>> 32)) & slotMask;
+        for (int probe = 0; probe < slotCount; probe++) {
+            int offset = slotOffset(index) + OFFSET_KEY_HASH;
+            long current = memory.getLongVolatile(offset);
+            if (current == keyHash) {
+                return index;
+            }
+            if (current == 0) {
+                if (memory.compareAndSetLong(offset, 0, keyHash) || memory.getLongVolatile(offset) == keyHash) {
+                    return index;
+                }
+            }
+            index = (index + 1) & slotMask;
+        }
+        throw new IllegalStateException("Lock table is full, increase mmap.slots: " + file);
+    }
+
+    /**
+     * 尝试获取槽位上的锁
+     *
+     * @param slot        槽位下标
+     * @param owner       持有者
+     * @param leaseMillis 租约时间，-1表示不过期
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(int slot, long owner, long leaseMillis) {
+        int slotOffset = slotOffset(slot);
+        int ownerOffset = slotOffset + OFFSET_OWNER;
+        int deadlineOffset = slotOffset + OFFSET_DEADLINE;
+        long current = memory.getLongVolatile(ownerOffset);
+        if (current == owner) {
+            // 重入，同时续期；续期失败说明租约到期后已被他人回收
+            long deadline = memory.getLongVolatile(deadlineOffset);
+            if (deadline == DEADLINE_LOCKED
+                    || !memory.compareAndSetLong(deadlineOffset, deadline, deadlineFor(leaseMillis))) {
+                return false;
+            }
+            int holdCountOffset = slotOffset + OFFSET_HOLD_COUNT;
+            memory.putIntVolatile(holdCountOffset, memory.getIntVolatile(holdCountOffset) + 1);
+            return true;
+        }
+        if (current == 0) {
+            // 先刷新心跳再CAS持有者，刚加锁的槽位不会因为上一个持有者留下的旧心跳被误判为失效
+            memory.putLongVolatile(slotOffset + OFFSET_HEARTBEAT, System.currentTimeMillis());
+            if (!memory.compareAndSetLong(ownerOffset, 0, owner)) {
+                return false;
+            }
+            memory.putIntVolatile(slotOffset + OFFSET_HOLD_COUNT, 1);
+            memory.putLongVolatile(deadlineOffset, deadlineFor(leaseMillis));
+            return true;
+        }
+        long deadline = memory.getLongVolatile(deadlineOffset);
+        return isStale(slotOffset, current, deadline) && steal(slotOffset, current, deadline, owner, leaseMillis);
+    }
+
+    /**
+     * 租约已到期或持有者进程的心跳已超时
+     */
+    private boolean isStale(int slotOffset, long owner, long deadline) {
+        if (deadline == DEADLINE_LOCKED) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (deadline != DEADLINE_PENDING && deadline <= now) {
+            return true;
+        }
+        if (epochOf(owner) == EPOCH) {
+            // 本进程的锁只依赖租约
+            return false;
+        }
+        return now - memory.getLongVolatile(slotOffset + OFFSET_HEARTBEAT) > HEARTBEAT_TIMEOUT_MILLIS;
+    }
+
+    /**
+     * 回收失效的锁：先把截止时间从观察到的值CAS为锁定状态，保证只有一个回收者且期间没有续期和释放，再CAS持有者
+     */
+    private boolean steal(int slotOffset, long staleOwner, long staleDeadline, long owner, long leaseMillis) {
+        int deadlineOffset = slotOffset + OFFSET_DEADLINE;
+        if (!memory.compareAndSetLong(deadlineOffset, staleDeadline, DEADLINE_LOCKED)) {
+            return false;
+        }
+        memory.putLongVolatile(slotOffset + OFFSET_HEARTBEAT, System.currentTimeMillis());
+        if (!memory.compareAndSetLong(slotOffset + OFFSET_OWNER, staleOwner, owner)) {
+            // 观察到截止时间之后持有者已经换人
+            memory.compareAndSetLong(deadlineOffset, DEADLINE_LOCKED, DEADLINE_PENDING);
+            return false;
+        }
+        memory.putIntVolatile(slotOffset + OFFSET_HOLD_COUNT, 1);
+        memory.putLongVolatile(deadlineOffset, deadlineFor(leaseMillis));
+        return true;
+    }
+
+    /**
+     * 释放槽位上的锁
+     *
+     * 与回收一样先把截止时间CAS为锁定状态，成功后槽位不会再被回收者改写，再清除重入计数和持有者
+     *
+     * @param slot  槽位下标
+     * @param owner 持有者
+     * @return 是否已完全释放（重入计数归零）
+     */
+    public boolean release(int slot, long owner) {
+        int slotOffset = slotOffset(slot);
+        int ownerOffset = slotOffset + OFFSET_OWNER;
+        if (memory.getLongVolatile(ownerOffset) != owner) {
+            throw new IllegalMonitorStateException("Lock is not held by current thread");
+        }
+        int holdCountOffset = slotOffset + OFFSET_HOLD_COUNT;
+        int holdCount = memory.getIntVolatile(holdCountOffset) - 1;
+        if (holdCount > 0) {
+            memory.putIntVolatile(holdCountOffset, holdCount);
+            return false;
+        }
+        int deadlineOffset = slotOffset + OFFSET_DEADLINE;
+        long deadline = memory.getLongVolatile(deadlineOffset);
+        if (deadline == DEADLINE_LOCKED || !memory.compareAndSetLong(deadlineOffset, deadline, DEADLINE_LOCKED)
+                || !memory.compareAndSetLong(ownerOffset, owner, 0)) {
+            throw new IllegalMonitorStateException("Lock lease expired and was taken over by another owner");
+        }
+        // 下一个持有者会覆盖截止时间，这里只在它写入之前恢复
+        memory.compareAndSetLong(deadlineOffset, DEADLINE_LOCKED, DEADLINE_PENDING);
+        return true;
+    }
+
+    /**
+     * 槽位上的锁是否由指定持有者持有
+     */
+    public boolean isHeldBy(int slot, long owner) {
+        return memory.getLongVolatile(slotOffset(slot) + OFFSET_OWNER) == owner;
+    }
+
+    /**
+     * 崩溃恢复：在文件锁保护下清理租约已到期或心跳已超时的锁
+     *
+     * 打开锁表时自动执行一次，也可以由运维工具在任意时刻调用
+     *
+     * @return 清理的锁数量
+     */
+    public synchronized int recover() throws IOException {
+        int recovered = 0;
+        try (FileLock ignored = channel.lock()) {
+            for (int slot = 0; slot < slotCount; slot++) {
+                int slotOffset = slotOffset(slot);
+                long owner = memory.getLongVolatile(slotOffset + OFFSET_OWNER);
+                int deadlineOffset = slotOffset + OFFSET_DEADLINE;
+                long deadline = memory.getLongVolatile(deadlineOffset);
+                if (owner == 0 || !isStale(slotOffset, owner, deadline)
+                        || !memory.compareAndSetLong(deadlineOffset, deadline, DEADLINE_LOCKED)) {
+                    continue;
+                }
+                // 重入计数由下一个持有者重置，这里不写，以免覆盖
+                if (memory.compareAndSetLong(slotOffset + OFFSET_OWNER, owner, 0)) {
+                    recovered++;
+                }
+                memory.compareAndSetLong(deadlineOffset, DEADLINE_LOCKED, DEADLINE_PENDING);
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * 刷新本进程持有的所有槽位的心跳
+     */
+    private void beat() {
+        long now = System.currentTimeMillis();
+        for (int slot = 0; slot < slotCount; slot++) {
+            int slotOffset = slotOffset(slot);
+            long owner = memory.getLongVolatile(slotOffset + OFFSET_OWNER);
+            if (owner != 0 && epochOf(owner) == EPOCH) {
+                memory.putLongVolatile(slotOffset + OFFSET_HEARTBEAT, now);
+            }
+        }
+    }
+
+    /**
+     * 当前线程在锁表中的持有者标识
+     */
+    public static long ownerOf(Thread thread) {
+        return ((long) EPOCH << 32) | (thread.getId() & 0xFFFFFFFFL);
+    }
+
+    public void close() throws IOException {
+        heartbeat.shutdownNow();
+        channel.close();
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static long deadlineFor(long leaseMillis) {
+        return leaseMillis < 0 ? NO_LEASE : System.currentTimeMillis() + leaseMillis;
+    }
+
+    /**
+     * FNV-1a 64位哈希，0保留给空槽
+     */
+    static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static int epochOf(long owner) {
+        return (int) (owner >>> 32);
+    }
+
+    /**
+     * 生成本进程的随机纪元，0保留给未被持有的槽位
+     */
+    private static int newEpoch() {
+        SecureRandom random = new SecureRandom();
+        int epoch;
+        do {
+            epoch = random.nextInt();
+        } while (epoch == 0);
+        return epoch;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+}
@@ -0,0 +1,117 @@
+package io.pluglock.mmap;
+
+import io.pluglock.core.AbstractPLock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于共享内存锁表的可重入锁，只在同一主机的进程之间有效
+ *
+ * 等待时先短暂自旋，再以指数退避的方式park，进程之间没有通知机制
+ */
+public class MappedPLock extends AbstractPLock {
+
+    private static final int SPIN_TRIES = 64;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MappedLockTable table;
+    private final int slot;
+
+    public MappedPLock(String lockName, MappedLockTable table) {
+        super(lockName);
+        this.table = table;
+        this.slot = table.slotFor(lockName);
+    }
+
+    @Override
+    public void lock() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                acquire(-1, -1, false);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) throws InterruptedException {
+        acquire(leaseTime == -1 ? -1 : unit.toMillis(leaseTime), -1, true);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        acquire(-1, -1, true);
+    }
+
+    @Override
+    public boolean tryLock() {
+        return table.tryAcquire(slot, MappedLockTable.ownerOf(Thread.currentThread()), -1);
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return acquire(-1, unit.toNanos(time), true);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        return acquire(leaseTime == -1 ? -1 : unit.toMillis(leaseTime), Math.max(0, unit.toNanos(waitTime)), true);
+    }
+
+    /**
+     * 自旋加退避等待获取锁
+     *
+     * @param leaseMillis   租约时间，-1表示不过期
+     * @param waitNanos     最长等待时间，小于0表示一直等待
+     * @param interruptible 是否响应中断
+     * @return 是否获取成功
+     */
+    private boolean acquire(long leaseMillis, long waitNanos, boolean interruptible) throws InterruptedException {
+        long owner = MappedLockTable.ownerOf(Thread.currentThread());
+        long deadline = waitNanos < 0 ? 0 : System.nanoTime() + waitNanos;
+        long parkNanos = MIN_PARK_NANOS;
+        int tries = 0;
+        while (!table.tryAcquire(slot, owner, leaseMillis)) {
+            if (waitNanos >= 0 && deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            if (++tries < SPIN_TRIES) {
+                continue;
+            }
+            LockSupport.parkNanos(this, parkNanos);
+            parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+            if (Thread.interrupted() && interruptible) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        table.release(slot, MappedLockTable.ownerOf(Thread.currentThread()));
+    }
+
+    /**
+     * 当前线程是否持有锁
+     *
+     * @return 是否持有
+     */
+    public boolean isHeldByCurrentThread() {
+        return table.isHeldBy(slot, MappedLockTable.ownerOf(Thread.currentThread()));
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("Shared memory lock does not support Condition");
+    }
+}
@@ -0,0 +1,59 @@
+package io.pluglock.mmap;
+
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * 映射内存上的原子操作，偏移量相对于映射起点，按本机字节序读写
+ *
+ * Java 8 只能通过Unsafe按地址访问；Java 9及以上使用 META-INF/versions/9 中基于VarHandle的实现。
+ * 对映射内存执行的CAS是CPU级别的原子指令，映射同一文件的多个进程之间同样有效
+ */
+final class SharedMemory {
+
+    private static final Unsafe UNSAFE;
+    private static final long ADDRESS_OFFSET;
+
+    static {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (Unsafe) field.get(null);
+            ADDRESS_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // 保持引用，防止映射被回收
+    private final MappedByteBuffer buffer;
+    private final long address;
+
+    SharedMemory(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.address = UNSAFE.getLong(buffer, ADDRESS_OFFSET);
+    }
+
+    long getLongVolatile(int offset) {
+        return UNSAFE.getLongVolatile(null, address + offset);
+    }
+
+    void putLongVolatile(int offset, long value) {
+        UNSAFE.putLongVolatile(null, address + offset, value);
+    }
+
+    boolean compareAndSetLong(int offset, long expected, long value) {
+        return UNSAFE.compareAndSwapLong(null, address + offset, expected, value);
+    }
+
+    int getIntVolatile(int offset) {
+        return UNSAFE.getIntVolatile(null, address + offset);
+    }
+
+    void putIntVolatile(int offset, int value) {
+        UNSAFE.putIntVolatile(null, address + offset, value);
+    }
+}
@@ -0,0 +1,44 @@
+package io.pluglock.mmap;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+
+/**
+ * 映射内存上的原子操作，偏移量相对于映射起点，按本机字节序读写
+ *
+ * Java 9及以上的实现，通过ByteBuffer视图的VarHandle访问，不依赖Unsafe；
+ * 与Java 8的实现字节序一致，两种进程可以共用同一个锁表
+ */
+final class SharedMemory {
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final MappedByteBuffer buffer;
+
+    SharedMemory(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    long getLongVolatile(int offset) {
+        return (long) LONG.getVolatile(buffer, offset);
+    }
+
+    void putLongVolatile(int offset, long value) {
+        LONG.setVolatile(buffer, offset, value);
+    }
+
+    boolean compareAndSetLong(int offset, long expected, long value) {
+        return LONG.compareAndSet(buffer, offset, expected, value);
+    }
+
+    int getIntVolatile(int offset) {
+        return (int) INT.getVolatile(buffer, offset);
+    }
+
+    void putIntVolatile(int offset, int value) {
+        INT.setVolatile(buffer, offset, value);
+    }
+}
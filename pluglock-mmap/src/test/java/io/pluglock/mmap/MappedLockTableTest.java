@@ -0,0 +1,164 @@
+package io.pluglock.mmap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedLockTableTest {
+
+    private static final int SLOTS = 64;
+
+    @TempDir
+    File dir;
+
+    private File file;
+    private MappedLockTable table;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = new File(dir, "locks");
+        table = new MappedLockTable(file, SLOTS);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        table.close();
+    }
+
+    @Test
+    void reentrantAcquireAndRelease() {
+        int slot = table.slotFor("a");
+        long owner = MappedLockTable.ownerOf(Thread.currentThread());
+        assertTrue(table.tryAcquire(slot, owner, -1));
+        assertTrue(table.tryAcquire(slot, owner, -1));
+        assertFalse(table.tryAcquire(slot, owner + 1, -1));
+
+        assertFalse(table.release(slot, owner));
+        assertTrue(table.isHeldBy(slot, owner));
+        assertTrue(table.release(slot, owner));
+        assertTrue(table.tryAcquire(slot, owner + 1, -1));
+        assertThrows(IllegalMonitorStateException.class, () -> table.release(slot, owner));
+    }
+
+    @Test
+    void releaseAfterLeaseWasTakenOverKeepsNewOwner() throws Exception {
+        int slot = table.slotFor("lease");
+        long owner = MappedLockTable.ownerOf(Thread.currentThread());
+        long other = owner + 1;
+        assertTrue(table.tryAcquire(slot, owner, 1));
+        Thread.sleep(5);
+        assertTrue(table.tryAcquire(slot, other, -1));
+        assertTrue(table.tryAcquire(slot, other, -1));
+
+        assertThrows(IllegalMonitorStateException.class, () -> table.release(slot, owner));
+        // 原持有者的释放不能改写新持有者的重入计数和截止时间
+        assertFalse(table.release(slot, other));
+        assertTrue(table.release(slot, other));
+    }
+
+    @Test
+    void lockOfOwnerWithStaleHeartbeatIsTakenOver() throws IOException {
+        int slot = table.slotFor("crashed");
+        // 模拟另一个进程持有锁，心跳已超时
+        writeSlot(slot, foreignOwner(), System.currentTimeMillis() - MappedLockTable.HEARTBEAT_TIMEOUT_MILLIS - 1000);
+        long owner = MappedLockTable.ownerOf(Thread.currentThread());
+        assertTrue(table.tryAcquire(slot, owner, -1));
+        assertTrue(table.release(slot, owner));
+    }
+
+    @Test
+    void lockOfOwnerWithFreshHeartbeatIsNotTakenOver() throws IOException {
+        int slot = table.slotFor("alive");
+        writeSlot(slot, foreignOwner(), System.currentTimeMillis());
+        assertFalse(table.tryAcquire(slot, MappedLockTable.ownerOf(Thread.currentThread()), -1));
+        assertEquals(0, table.recover());
+    }
+
+    @Test
+    void recoverClearsLockOfOwnerWithStaleHeartbeat() throws IOException {
+        int slot = table.slotFor("recover");
+        writeSlot(slot, foreignOwner(), System.currentTimeMillis() - MappedLockTable.HEARTBEAT_TIMEOUT_MILLIS - 1000);
+        assertEquals(1, table.recover());
+        assertFalse(table.isHeldBy(slot, foreignOwner()));
+    }
+
+    @Test
+    void heartbeatKeepsOwnLockAlive() throws Exception {
+        int slot = table.slotFor("beat");
+        long owner = MappedLockTable.ownerOf(Thread.currentThread());
+        assertTrue(table.tryAcquire(slot, owner, -1));
+        long before = readHeartbeat(slot);
+        Thread.sleep(1500);
+        assertTrue(readHeartbeat(slot) > before);
+        table.release(slot, owner);
+    }
+
+    @Test
+    void lockIsMutuallyExclusiveAcrossThreads() throws Exception {
+        MappedPLock lock = new MappedPLock("counter", table);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    lock.lock();
+                    try {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        inside.decrementAndGet();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        assertEquals(1, maxInside.get());
+    }
+
+    private static long foreignOwner() {
+        // 高32位与本进程的纪元不同
+        return (MappedLockTable.ownerOf(Thread.currentThread()) ^ (0x5A5A5A5AL << 32)) | 1;
+    }
+
+    private void writeSlot(int slot, long owner, long heartbeat) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, 64 + SLOTS * 64);
+            buffer.order(ByteOrder.nativeOrder());
+            int offset = 64 + slot * 64;
+            buffer.putLong(offset + 8, owner);
+            buffer.putLong(offset + 16, MappedLockTable.NO_LEASE);
+            buffer.putInt(offset + 24, 1);
+            buffer.putLong(offset + 32, heartbeat);
+        }
+    }
+
+    private long readHeartbeat(int slot) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, 64 + SLOTS * 64);
+            buffer.order(ByteOrder.nativeOrder());
+            return buffer.getLong(64 + slot * 64 + 32);
+        }
+    }
+}
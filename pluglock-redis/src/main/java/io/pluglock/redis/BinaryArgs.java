@@ -0,0 +1,100 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.LockOwner;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 线程内复用的二进制脚本参数
+ *
+ * 锁名称及其释放频道、等待者计数键、持有者标识和租约时间编码一次后缓存，同一线程反复加锁释放时不再重新编码；
+ * 参数数组在每次执行脚本前填充，只能在当前线程的一次调用期间使用。
+ * 客户端发送命令和解析结果仍有分配，加锁失败时的剩余时间也由客户端装箱，见测试中的RedisEvalBenchmark
+ */
+final class BinaryArgs {
+
+    private static final ThreadLocal<BinaryArgs> LOCAL = ThreadLocal.withInitial(BinaryArgs::new);
+
+    // 按名称哈希直接映射的槽位数，必须是2的幂
+    private static final int SLOTS = 16;
+
+    private final String[] names = new String[SLOTS];
+    private final byte[][] encodedNames = new byte[SLOTS][];
+    private final byte[][] channels = new byte[SLOTS][];
+    private final byte[][] waiters = new byte[SLOTS][];
+
+    // 最近编码的持有者和租约时间，同一线程通常不变
+    private long ownerId;
+    private byte[] encodedOwner;
+    private long leaseMillis;
+    private byte[] encodedLease;
+
+    final byte[][] keys1 = new byte[1][];
+    final byte[][] keys2 = new byte[2][];
+    final byte[][] keys3 = new byte[3][];
+    final byte[][] args1 = new byte[1][];
+    final byte[][] args2 = new byte[2][];
+    final byte[][] args3 = new byte[3][];
+    final byte[][] args4 = new byte[4][];
+    final byte[][] args5 = new byte[5][];
+
+    static BinaryArgs get() {
+        return LOCAL.get();
+    }
+
+    static byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return 锁名称的编码
+     */
+    byte[] name(String name) {
+        return encodedNames[slot(name)];
+    }
+
+    /**
+     * @return 锁释放频道名称的编码
+     */
+    byte[] channel(String name) {
+        return channels[slot(name)];
+    }
+
+    /**
+     * @return 锁的等待者计数键的编码
+     */
+    byte[] waiters(String name) {
+        return waiters[slot(name)];
+    }
+
+    /**
+     * @return 后端记录的持有者的编码，见 {@link LockOwner#encode(long)}
+     */
+    byte[] owner(long ownerId) {
+        if (encodedOwner == null || this.ownerId != ownerId) {
+            encodedOwner = encode(LockOwner.encode(ownerId));
+            this.ownerId = ownerId;
+        }
+        return encodedOwner;
+    }
+
+    byte[] lease(long millis) {
+        if (encodedLease == null || leaseMillis != millis) {
+            encodedLease = encode(Long.toString(millis));
+            leaseMillis = millis;
+        }
+        return encodedLease;
+    }
+
+    private int slot(String name) {
+        int h = name.hashCode();
+        int slot = (h ^ (h >>> 16)) & (SLOTS - 1);
+        if (!name.equals(names[slot])) {
+            names[slot] = name;
+            encodedNames[slot] = encode(name);
+            channels[slot] = encode("lock:" + name + ":channel");
+            waiters[slot] = encode(RedisPLockResource.waitersKey(name));
+        }
+        return slot;
+    }
+}
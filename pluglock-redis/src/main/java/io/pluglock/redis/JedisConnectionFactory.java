@@ -4,6 +4,8 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 
+import java.util.function.LongConsumer;
+
 /**
  * Jedis连接工厂实现
  */
@@ -12,6 +14,10 @@ public class JedisConnectionFactory implements RedisConnectionFactory {
     private JedisPool jedisPool;
     private final String host;
     private final int port;
+    // 外部传入的连接池由其创建者负责关闭
+    private final boolean ownsPool;
+    // 借用连接的等待时间监听器
+    private volatile LongConsumer borrowListener;
     
     public JedisConnectionFactory(String host, int port) {
         this(new JedisPoolConfig(), host, port, 2000);
@@ -21,11 +27,31 @@ public class JedisConnectionFactory implements RedisConnectionFactory {
         this.host = host;
         this.port = port;
         this.jedisPool = new JedisPool(poolConfig, host, port, timeout);
+        this.ownsPool = true;
+    }
+    
+    /**
+     * 复用应用中已有的连接池
+     * 
+     * @param jedisPool 连接池，销毁工厂时不会关闭
+     */
+    public JedisConnectionFactory(JedisPool jedisPool) {
+        this.jedisPool = jedisPool;
+        this.host = null;
+        this.port = -1;
+        this.ownsPool = false;
     }
     
     @Override
     public RedisConnection<Jedis> getConnection() {
-        return new JedisConnection(jedisPool.getResource());
+        LongConsumer listener = borrowListener;
+        if (listener == null) {
+            return new JedisConnection(jedisPool.getResource());
+        }
+        long start = System.nanoTime();
+        Jedis jedis = jedisPool.getResource();
+        listener.accept(System.nanoTime() - start);
+        return new JedisConnection(jedis);
     }
     
     @Override
@@ -37,7 +63,7 @@ public class JedisConnectionFactory implements RedisConnectionFactory {
     
     @Override
     public void destroy() {
-        if (jedisPool != null) {
+        if (ownsPool && jedisPool != null) {
             jedisPool.close();
         }
     }
@@ -54,4 +80,15 @@ public class JedisConnectionFactory implements RedisConnectionFactory {
     public int getPort() {
         return port;
     }
+    
+    public JedisPool getJedisPool() {
+        return jedisPool;
+    }
+
+    /**
+     * 设置借用连接等待时间的监听器，参数为纳秒，为null时不计时
+     */
+    public void setBorrowListener(LongConsumer borrowListener) {
+        this.borrowListener = borrowListener;
+    }
 }
\ No newline at end of file
@@ -1,110 +1,246 @@
 package io.pluglock.redis;
 
+import io.pluglock.core.LockExecutors;
+import io.pluglock.core.LockWatchdog;
 import io.pluglock.redis.command.RedisCommandExecutor;
 import io.pluglock.redis.command.jedis.JedisCommandExecutor;
 import io.pluglock.redis.listener.LockReleaseListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPubSub;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 基于Jedis的Redis锁资源实现
+ *
+ * 所有锁共享一条订阅连接：第一次订阅时从连接工厂取出一条连接专门用于订阅，
+ * 在后台线程中阻塞订阅一个常驻频道，之后的锁频道都在这条连接上追加订阅
  */
 public class JedisPLockResource extends RedisPLockResource {
     private static final Logger logger = LoggerFactory.getLogger(JedisPLockResource.class);
-    
+
+    /**
+     * 常驻频道，保证订阅连接上始终至少有一个频道，阻塞订阅不会因为频道全部退订而返回
+     */
+    private static final String SUBSCRIBER_CHANNEL = "pluglock:subscriber";
+
     // 订阅连接和监听器
-    private volatile Jedis subscribeJedis;
+    private volatile RedisConnection<Jedis> subscribeConnection;
     private volatile LockReleaseListener listener;
-    private String host;
-    private int port;
-    
+    private volatile boolean subscriberRunning;
+    // 订阅连接开始建立的时间（System.nanoTime），超过SUBSCRIBE_TIMEOUT_MILLIS仍未建立时放弃
+    private volatile long subscriberStarted;
+
+    // 建立和关闭订阅连接，不用监视器锁，阻塞时不会钉住虚拟线程
+    private final ReentrantLock subscriberLock = new ReentrantLock();
+
+    // JedisPubSub直接向订阅连接写命令，不是线程安全的，多个线程追加或退订需要串行
+    private final ReentrantLock commandLock = new ReentrantLock();
+
     public JedisPLockResource() {
         super();
-        initHostPort();
     }
-    
+
     public JedisPLockResource(RedisConnectionFactory connectionFactory) {
         super(connectionFactory);
-        initHostPort();
     }
-    
-    private void initHostPort() {
-        if (getCommandExecutor().getConnectionFactory() instanceof JedisConnectionFactory) {
-            JedisConnectionFactory factory = (JedisConnectionFactory) getCommandExecutor().getConnectionFactory();
-            this.host = factory.getHost();
-            this.port = factory.getPort();
-        } else {
-            // 默认值
-            this.host = "localhost";
-            this.port = 6379;
-        }
+
+    public JedisPLockResource(RedisConnectionFactory connectionFactory, LockWatchdog watchdog) {
+        super(connectionFactory, watchdog);
     }
-    
+
     @Override
     protected RedisCommandExecutor createCommandExecutor(RedisConnectionFactory connectionFactory) {
         return new JedisCommandExecutor(connectionFactory);
     }
-    
+
+    /**
+     * 在订阅连接上追加频道，JedisPubSub只写出命令，确认由订阅线程通过监听器回调
+     */
     @Override
     protected void doSubscribe(String name) {
+        doSubscribe(name, SUBSCRIBE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * 订阅连接还在建立时最多等待timeoutMillis，超时抛出异常，等待者不带订阅按剩余时间重试
+     */
+    @Override
+    protected void doSubscribe(String name, long timeoutMillis) {
         String channelName = getChannelName(name);
-        
-        // 初始化订阅连接和监听器
-        if (subscribeJedis == null) {
-            synchronized (this) {
-                if (subscribeJedis == null) {
-                    subscribeJedis = new Jedis(host, port);
-                    listener = new LockReleaseListener(this);
+        LockReleaseListener current;
+        try {
+            current = getListener(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while establishing Redis subscription", e);
+        }
+        commandLock.lock();
+        try {
+            if (isKeyspaceNotifications()) {
+                current.subscribe(channelName, getKeyspaceChannel(name));
+            } else {
+                current.subscribe(channelName);
+            }
+        } finally {
+            commandLock.unlock();
+        }
+        logger.debug("Subscribing to lock release notifications for: {} on channel: {}", name, channelName);
+    }
+
+    /**
+     * 获取已建立订阅的监听器，订阅连接不存在或已断开时重新建立。
+     * 调用方最多等待timeoutMillis，超时后正在建立的订阅连接留给之后的调用者，不重复建立
+     */
+    private LockReleaseListener getListener(long timeoutMillis) throws InterruptedException {
+        LockReleaseListener current = listener;
+        if (current == null || !subscriberRunning) {
+            subscriberLock.lock();
+            try {
+                if (listener == null || !subscriberRunning) {
+                    startSubscriber();
                 }
+                current = listener;
+            } finally {
+                subscriberLock.unlock();
             }
         }
-        
-        try {
-            // 在单独的线程中执行订阅，因为subscribe方法是阻塞的
-            CompletableFuture.runAsync(() -> {
+        if (!current.isSubscribed()) {
+            awaitEstablished(current, timeoutMillis);
+        }
+        return current;
+    }
+
+    private void startSubscriber() {
+        closeSubscriber();
+        RedisConnection<Jedis> connection = getCommandExecutor().getConnectionFactory().getConnection();
+        LockReleaseListener newListener = new LockReleaseListener(this);
+        Thread thread = LockExecutors.newThread("pluglock-jedis-subscriber", () -> {
+            try {
+                connection.getNativeConnection().subscribe(newListener, SUBSCRIBER_CHANNEL);
+            } catch (Exception e) {
+                if (listener == newListener) {
+                    logger.warn("Lock release subscriber stopped", e);
+                }
+            } finally {
+                // 已被替换的订阅线程退出时不影响新的订阅连接
+                if (listener == newListener) {
+                    subscriberRunning = false;
+                }
+            }
+        });
+        subscribeConnection = connection;
+        listener = newListener;
+        subscriberStarted = System.nanoTime();
+        subscriberRunning = true;
+        thread.start();
+    }
+
+    /**
+     * 订阅建立之后才能在同一连接上追加频道
+     */
+    private void awaitEstablished(LockReleaseListener current, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long abandonAt = subscriberStarted + TimeUnit.MILLISECONDS.toNanos(SUBSCRIBE_TIMEOUT_MILLIS);
+        while (!current.isSubscribed()) {
+            long now = System.nanoTime();
+            if (!subscriberRunning || now - abandonAt > 0) {
+                subscriberLock.lock();
                 try {
-                    subscribeJedis.subscribe(listener, channelName);
-                } catch (Exception e) {
-                    logger.error("Failed to subscribe to channel: {}", channelName, e);
+                    if (listener == current) {
+                        doCloseSubscriber();
+                    }
+                } finally {
+                    subscriberLock.unlock();
                 }
-            });
-            
-            logger.debug("Subscribed to lock release notifications for: {} on channel: {}", name, channelName);
-        } catch (Exception e) {
-            logger.error("Error subscribing to lock release notifications for: {}", name, e);
+                throw new IllegalStateException("Failed to establish Redis subscription");
+            }
+            if (now - deadline > 0) {
+                throw new IllegalStateException("Redis subscription was not established within " + timeoutMillis + " ms");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    @Override
+    protected int getDatabase() {
+        RedisConnectionFactory connectionFactory = getCommandExecutor().getConnectionFactory();
+        RedisConnection<Jedis> connection = connectionFactory.getConnection();
+        try {
+            return connection.getNativeConnection().getDB();
+        } finally {
+            connectionFactory.releaseConnection(connection);
         }
     }
-    
+
     @Override
     protected void doUnsubscribe(String name) {
         String channelName = getChannelName(name);
-        
-        if (subscribeJedis != null && listener != null) {
+        LockReleaseListener current = listener;
+        // 还在建立的订阅连接上没有锁频道
+        if (current != null && subscriberRunning && current.isSubscribed()) {
+            commandLock.lock();
             try {
-                listener.unsubscribe(channelName);
-                logger.debug("Unsubscribed from lock release notifications for: {} on channel: {}", name, channelName);
-            } catch (Exception e) {
-                logger.error("Error unsubscribing from lock release notifications for: {}", name, e);
+                if (isKeyspaceNotifications()) {
+                    current.unsubscribe(channelName, getKeyspaceChannel(name));
+                } else {
+                    current.unsubscribe(channelName);
+                }
+            } finally {
+                commandLock.unlock();
             }
+            logger.debug("Unsubscribed from lock release notifications for: {} on channel: {}", name, channelName);
         }
     }
 
     @Override
-    public Long tryAcquireResource(String name, long threadId, long leaseTime) {
-        return 0L;
+    protected void closeSubscriber() {
+        subscriberLock.lock();
+        try {
+            doCloseSubscriber();
+        } finally {
+            subscriberLock.unlock();
+        }
+    }
+
+    private void doCloseSubscriber() {
+        LockReleaseListener current = listener;
+        listener = null;
+        failPendingSubscriptions();
+        if (current != null && subscriberRunning) {
+            try {
+                commandLock.lock();
+                try {
+                    current.unsubscribe();
+                } finally {
+                    commandLock.unlock();
+                }
+            } catch (Exception e) {
+                logger.debug("Error unsubscribing lock release subscriber", e);
+            }
+        }
+        RedisConnection<Jedis> connection = subscribeConnection;
+        subscribeConnection = null;
+        if (connection != null) {
+            // 订阅过的连接不能再归还给连接池复用
+            try {
+                connection.getNativeConnection().disconnect();
+            } catch (Exception e) {
+                logger.debug("Error disconnecting lock release subscriber", e);
+            }
+            connection.close();
+        }
     }
-    
+
     /**
      * 获取通道名称
-     * 
+     *
      * @param lockName 锁名称
      * @return 通道名称
      */
     private String getChannelName(String lockName) {
         return "lock:" + lockName + ":channel";
     }
-}
\ No newline at end of file
+}
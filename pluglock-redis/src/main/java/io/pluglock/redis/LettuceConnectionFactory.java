@@ -3,39 +3,78 @@ package io.pluglock.redis;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.api.StatefulRedisConnection;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Lettuce连接工厂实现
+ * 
+ * Lettuce连接是线程安全的，所有命令共享一条连接，不需要连接池
  */
 public class LettuceConnectionFactory implements RedisConnectionFactory {
     
     private final RedisClient redisClient;
-    private final String redisUri;
     private final String host;
     private final int port;
+    // 外部传入的客户端由其创建者负责关闭
+    private final boolean ownsClient;
+    private volatile LettuceConnection sharedConnection;
+    // 建立共享连接时不用监视器锁，阻塞时不会钉住虚拟线程
+    private final ReentrantLock connectLock = new ReentrantLock();
     
     public LettuceConnectionFactory(String host, int port) {
         this.host = host;
         this.port = port;
-        this.redisUri = "redis://" + host + ":" + port;
-        this.redisClient = RedisClient.create(this.redisUri);
+        this.redisClient = RedisClient.create("redis://" + host + ":" + port);
+        this.ownsClient = true;
+    }
+    
+    /**
+     * 复用应用中已有的客户端
+     * 
+     * @param redisClient 客户端，销毁工厂时不会关闭
+     */
+    public LettuceConnectionFactory(RedisClient redisClient) {
+        this.host = null;
+        this.port = -1;
+        this.redisClient = redisClient;
+        this.ownsClient = false;
     }
     
     @Override
     public RedisConnection<StatefulRedisConnection<String, String>> getConnection() {
-        return new LettuceConnection(redisClient.connect());
+        LettuceConnection connection = sharedConnection;
+        if (connection != null && connection.getNativeConnection().isOpen()) {
+            return connection;
+        }
+        connectLock.lock();
+        try {
+            if (sharedConnection == null || !sharedConnection.getNativeConnection().isOpen()) {
+                sharedConnection = new LettuceConnection(redisClient.connect());
+            }
+            return sharedConnection;
+        } finally {
+            connectLock.unlock();
+        }
     }
     
     @Override
     public void releaseConnection(RedisConnection<?> connection) {
-        if (connection instanceof LettuceConnection) {
-            connection.close();
-        }
+        // 共享连接不在每次使用后关闭
     }
     
     @Override
     public void destroy() {
-        if (redisClient != null) {
-            redisClient.shutdown();
+        connectLock.lock();
+        try {
+            if (sharedConnection != null) {
+                sharedConnection.close();
+                sharedConnection = null;
+            }
+            if (ownsClient && redisClient != null) {
+                redisClient.shutdown();
+            }
+        } finally {
+            connectLock.unlock();
         }
     }
     
@@ -51,4 +90,8 @@ public class LettuceConnectionFactory implements RedisConnectionFactory {
     public int getPort() {
         return port;
     }
-}
\ No newline at end of file
+    
+    public RedisClient getRedisClient() {
+        return redisClient;
+    }
+}
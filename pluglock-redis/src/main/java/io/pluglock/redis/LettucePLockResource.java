@@ -1,17 +1,19 @@
 package io.pluglock.redis;
 
 import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
 import io.lettuce.core.pubsub.RedisPubSubAdapter;
 import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
-import io.lettuce.core.pubsub.api.sync.RedisPubSubCommands;
-import io.pluglock.core.PLockEntry;
+import io.lettuce.core.pubsub.api.async.RedisPubSubAsyncCommands;
+import io.pluglock.core.LockWatchdog;
 import io.pluglock.redis.command.RedisCommandExecutor;
 import io.pluglock.redis.command.lettuce.LettuceCommandExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 基于Lettuce的Redis锁资源实现
@@ -19,32 +21,36 @@ import java.util.concurrent.Semaphore;
 public class LettucePLockResource extends RedisPLockResource {
     private static final Logger logger = LoggerFactory.getLogger(LettucePLockResource.class);
     
-    // 订阅连接和命令
+    // 订阅连接和异步命令
     private volatile StatefulRedisPubSubConnection<String, String> pubSubConnection;
-    private volatile RedisPubSubCommands<String, String> pubSubCommands;
-    private String host;
-    private int port;
+    private volatile RedisPubSubAsyncCommands<String, String> pubSubAsyncCommands;
+    // 连接工厂无法提供RedisClient时自己创建的客户端
+    private RedisClient ownedClient;
+    // 建立和关闭订阅连接，不用监视器锁，阻塞时不会钉住虚拟线程
+    private final ReentrantLock subscriberLock = new ReentrantLock();
     
     public LettucePLockResource() {
         super();
-        initHostPort();
     }
     
     public LettucePLockResource(RedisConnectionFactory connectionFactory) {
         super(connectionFactory);
-        initHostPort();
     }
     
-    private void initHostPort() {
-        if (getCommandExecutor().getConnectionFactory() instanceof LettuceConnectionFactory) {
-            LettuceConnectionFactory factory = (LettuceConnectionFactory) getCommandExecutor().getConnectionFactory();
-            this.host = factory.getHost();
-            this.port = factory.getPort();
-        } else {
-            // 默认值
-            this.host = "localhost";
-            this.port = 6379;
+    public LettucePLockResource(RedisConnectionFactory connectionFactory, LockWatchdog watchdog) {
+        super(connectionFactory, watchdog);
+    }
+    
+    /**
+     * 订阅连接使用的客户端，优先复用连接工厂中的RedisClient
+     */
+    private RedisClient resolveRedisClient() {
+        RedisClient client = LettuceCommandExecutor.getRedisClient(getCommandExecutor().getConnectionFactory());
+        if (client != null) {
+            return client;
         }
+        ownedClient = RedisClient.create("redis://localhost:6379");
+        return ownedClient;
     }
     
     @Override
@@ -58,75 +64,144 @@ public class LettucePLockResource extends RedisPLockResource {
         
         // 初始化订阅连接
         if (pubSubConnection == null) {
-            synchronized (this) {
+            subscriberLock.lock();
+            try {
                 if (pubSubConnection == null) {
-                    // 创建一个新的Redis客户端用于订阅
-                    RedisClient redisClient = RedisClient.create(
-                        "redis://" + host + ":" + port
-                    );
-                    pubSubConnection = redisClient.connectPubSub();
-                    pubSubCommands = pubSubConnection.sync();
+                    StatefulRedisPubSubConnection<String, String> connection = resolveRedisClient().connectPubSub();
                     
                     // 注册消息监听器
-                    pubSubConnection.addListener(new RedisPubSubAdapter<String, String>() {
+                    connection.addListener(new RedisPubSubAdapter<String, String>() {
                         @Override
                         public void message(String channel, String message) {
                             logger.debug("Received lock release message on channel: {}, message: {}", channel, message);
                             
+                            String keyspacePrefix = getKeyspaceChannelPrefix();
+                            if (keyspacePrefix != null && channel.startsWith(keyspacePrefix)) {
+                                onKeyspaceEvent(channel.substring(keyspacePrefix.length()), message);
+                                return;
+                            }
                             // 从通道名解析出锁名称
                             String lockName = parseLockNameFromChannel(channel);
                             if (lockName != null) {
-                                PLockEntry entry = getLockEntries().get(lockName);
-                                if (entry != null) {
-                                    Semaphore latch = entry.getLatch();
-                                    if (latch != null) {
-                                        // 释放信号量，唤醒等待的线程
-                                        latch.release();
-                                        logger.debug("Released semaphore for lock: {}", lockName);
-                                    }
-                                }
+                                onMessage(lockName, message);
                             }
                         }
                         
                         @Override
                         public void subscribed(String channel, long count) {
                             logger.debug("Subscribed to channel: {}, total channels: {}", channel, count);
+                            String lockName = parseLockNameFromChannel(channel);
+                            if (lockName != null) {
+                                onSubscribed(lockName);
+                            }
                         }
                         
                         @Override
                         public void unsubscribed(String channel, long count) {
                             logger.debug("Unsubscribed from channel: {}, total channels: {}", channel, count);
+                            String lockName = parseLockNameFromChannel(channel);
+                            if (lockName != null) {
+                                onUnsubscribed(lockName);
+                            }
                         }
                     });
+                    pubSubAsyncCommands = connection.async();
+                    pubSubConnection = connection;
                 }
+            } finally {
+                subscriberLock.unlock();
             }
         }
         
-        try {
-            pubSubCommands.subscribe(channelName);
-            logger.debug("Subscribed to lock release notifications for: {} on channel: {}", name, channelName);
-        } catch (Exception e) {
-            logger.error("Error subscribing to lock release notifications for: {}", name, e);
+        RedisPubSubAsyncCommands<String, String> commands = pubSubAsyncCommands;
+        if (commands == null) {
+            throw new IllegalStateException("Redis subscriber connection is closed");
         }
+        // 异步发出，确认由监听器回调；不在发出命令时等待服务端
+        RedisFuture<Void> future = isKeyspaceNotifications()
+                ? commands.subscribe(channelName, getKeyspaceChannel(name))
+                : commands.subscribe(channelName);
+        future.whenComplete((v, e) -> {
+            if (e != null) {
+                logger.error("Error subscribing to lock release notifications for: {}", name, e);
+                onSubscribeFailed(name, e);
+            }
+        });
+        logger.debug("Subscribing to lock release notifications for: {} on channel: {}", name, channelName);
     }
     
     @Override
     protected void doUnsubscribe(String name) {
         String channelName = getChannelName(name);
-        
-        if (pubSubCommands != null) {
-            try {
-                pubSubCommands.unsubscribe(channelName);
-                logger.debug("Unsubscribed from lock release notifications for: {} on channel: {}", name, channelName);
-            } catch (Exception e) {
-                logger.error("Error unsubscribing from lock release notifications for: {}", name, e);
-            }
+        RedisPubSubAsyncCommands<String, String> commands = pubSubAsyncCommands;
+        if (commands != null) {
+            RedisFuture<Void> future = isKeyspaceNotifications()
+                    ? commands.unsubscribe(channelName, getKeyspaceChannel(name))
+                    : commands.unsubscribe(channelName);
+            future.whenComplete((v, e) -> {
+                if (e != null) {
+                    logger.error("Error unsubscribing from lock release notifications for: {}", name, e);
+                }
+            });
+            logger.debug("Unsubscribing from lock release notifications for: {} on channel: {}", name, channelName);
         }
     }
 
+    /**
+     * Lettuce连接不记录当前数据库，在CLIENT LIST中按连接ID查找
+     */
     @Override
-    public Long tryAcquireResource(String name, long threadId, long leaseTime) {
-        return null;
+    protected int getDatabase() {
+        RedisConnectionFactory connectionFactory = getCommandExecutor().getConnectionFactory();
+        RedisConnection<StatefulRedisConnection<String, String>> connection = connectionFactory.getConnection();
+        try {
+            RedisCommands<String, String> commands = connection.getNativeConnection().sync();
+            String id = "id=" + commands.clientId() + " ";
+            for (String client : commands.clientList().split("\n")) {
+                if (client.startsWith(id)) {
+                    return parseDatabase(client);
+                }
+            }
+            return 0;
+        } finally {
+            connectionFactory.releaseConnection(connection);
+        }
+    }
+    
+    /**
+     * 从CLIENT LIST的一行中解析db字段
+     */
+    static int parseDatabase(String client) {
+        int start = client.indexOf(" db=");
+        if (start < 0) {
+            return 0;
+        }
+        start += 4;
+        int end = start;
+        while (end < client.length() && Character.isDigit(client.charAt(end))) {
+            end++;
+        }
+        return Integer.parseInt(client.substring(start, end));
+    }
+    
+    @Override
+    protected void closeSubscriber() {
+        subscriberLock.lock();
+        try {
+            StatefulRedisPubSubConnection<String, String> connection = pubSubConnection;
+            pubSubConnection = null;
+            pubSubAsyncCommands = null;
+            failPendingSubscriptions();
+            if (connection != null) {
+                connection.close();
+            }
+            if (ownedClient != null) {
+                ownedClient.shutdown();
+                ownedClient = null;
+            }
+        } finally {
+            subscriberLock.unlock();
+        }
     }
     
     /**
@@ -0,0 +1,169 @@
+package io.pluglock.redis;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * tryLock()的否定结果缓存，按锁名称记录其他持有者的过期时刻
+ *
+ * 第一次加锁失败时登记并订阅释放频道，订阅确认之后开始的尝试失败时才记录过期时刻，
+ * 订阅建立前发出的释放通知收不到，之前的结果不可信。释放通知到达时清除过期时刻，订阅保留给之后的失败使用；
+ * 频道被退订时整个条目作废。本资源持有的锁不使用缓存，持有者重入时仍访问后端
+ */
+class NegativeCache {
+
+    // 订阅一直没有确认的条目超过这个时间后可以清理
+    private static final long SUBSCRIBE_GRACE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    // 已满时两次清理的最小间隔，避免每次失败都遍历
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxSize;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // 本资源持有的锁名称和持有次数
+    private final ConcurrentMap<String, Integer> holds = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+    NegativeCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return 持有者的剩余时间（毫秒），null表示需要访问后端
+     */
+    Long get(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.expiresAt == 0 || holds.containsKey(name)) {
+            return null;
+        }
+        long remaining = entry.expiresAt - System.nanoTime();
+        return remaining > 0 ? TimeUnit.NANOSECONDS.toMillis(remaining) : null;
+    }
+
+    /**
+     * 记录一次失败的尝试
+     *
+     * @param ttl   持有者的剩余时间（毫秒）
+     * @param start 这次尝试开始的时刻（System.nanoTime）
+     * @return 是否是新登记的名称，需要订阅释放频道
+     */
+    boolean failed(String name, long ttl, long start) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            if (entries.size() >= maxSize) {
+                return false;
+            }
+            return entries.putIfAbsent(name, new Entry(start)) == null;
+        }
+        long armedAt = entry.armedAt;
+        // 尝试开始之后收到的释放通知可能晚于这次结果，不记录
+        if (ttl > 0 && armedAt != 0 && armedAt - start <= 0 && entry.releasedAt - start < 0) {
+            entry.expiresAt = start + TimeUnit.MILLISECONDS.toNanos(ttl);
+        }
+        return false;
+    }
+
+    /**
+     * 释放频道订阅已确认
+     */
+    void subscribed(String name) {
+        Entry entry = entries.get(name);
+        if (entry != null && entry.armedAt == 0) {
+            entry.armedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * 收到释放通知
+     */
+    void released(String name) {
+        Entry entry = entries.get(name);
+        if (entry != null) {
+            entry.releasedAt = System.nanoTime();
+            entry.expiresAt = 0;
+        }
+    }
+
+    /**
+     * 释放频道已退订，之后的释放通知收不到
+     */
+    void unsubscribed(String name) {
+        entries.remove(name);
+    }
+
+    boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * 已满时清理没有有效记录的条目：持有者已释放或过期，或者一直没有订阅成功
+     *
+     * @return 被清理的名称，需要退订
+     */
+    List<String> sweep() {
+        List<String> removed = new ArrayList<>();
+        long now = System.nanoTime();
+        long next = nextSweep.get();
+        if (entries.size() < maxSize || now - next < 0 || !nextSweep.compareAndSet(next, now + SWEEP_INTERVAL_NANOS)) {
+            return removed;
+        }
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Entry> e = it.next();
+            Entry entry = e.getValue();
+            long deadline = entry.armedAt == 0 ? entry.createdAt + SUBSCRIBE_GRACE_NANOS : entry.expiresAt;
+            if (deadline - now < 0) {
+                it.remove();
+                removed.add(e.getKey());
+            }
+        }
+        return removed;
+    }
+
+    void acquired(String name) {
+        holds.merge(name, 1, Integer::sum);
+    }
+
+    void releasedLocally(String name) {
+        holds.computeIfPresent(name, (k, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * @return 被清除的名称
+     */
+    List<String> clear() {
+        List<String> removed = new ArrayList<>(entries.keySet());
+        entries.clear();
+        holds.clear();
+        return removed;
+    }
+
+    private static final class Entry {
+        final long createdAt;
+
+        // 订阅确认的时刻，0表示还没有确认
+        volatile long armedAt;
+
+        // 持有者的过期时刻，0表示还没有可信的记录
+        volatile long expiresAt;
+
+        // 最近一次收到释放通知的时刻
+        volatile long releasedAt;
+
+        Entry(long createdAt) {
+            this.createdAt = createdAt;
+            this.releasedAt = createdAt - 1;
+        }
+    }
+}
@@ -1,34 +1,219 @@
 package io.pluglock.redis;
 
+import io.pluglock.core.CohortRegistry;
 import io.pluglock.core.LockConfig;
 import io.pluglock.core.LockFactory;
+import io.pluglock.core.LockWatchdog;
 import io.pluglock.core.PLock;
 import io.pluglock.core.PReentrantLock;
 import io.pluglock.core.PLockResource;
+import io.pluglock.core.wait.NotifyWaitStrategy;
+import io.pluglock.core.wait.WaitStrategies;
+import io.pluglock.core.wait.WaitStrategy;
+import io.pluglock.redis.spi.ConnectionFactoryLoader;
+import io.pluglock.redis.spi.LettuceConnectionFactoryImpl;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Redis分布式锁工厂实现
+ *
+ * 同一个Redis地址、资源级配置相同的锁共享一个锁资源，即共享连接池、订阅连接和看门狗。
+ * 资源级配置（会话模式、keyspace通知、tryLock()否定缓存）作用于锁资源上的所有锁，配置不同的锁使用不同的锁资源
  */
 public class RedisLockFactory implements LockFactory {
+
+    // 外部传入的锁资源，由其创建者负责关闭
+    private final RedisPLockResource lockResource;
+
+    // 外部传入的锁资源的资源级配置，由第一个锁确定，之后配置不同的锁被拒绝
+    private final AtomicReference<ResourceSettings> externalSettings = new AtomicReference<>();
+
+    // 按配置创建的锁资源，key为Redis地址和资源级配置
+    private final ConcurrentMap<String, RedisPLockResource> resources = new ConcurrentHashMap<>();
+
+    // 按lock.wait.strategy选择的等待策略，默认第一次失败就订阅释放通知，adaptive需要显式配置
+    private final WaitStrategies waitStrategies = new WaitStrategies();
+
+    // redis.lock.type=simple时使用的非重入锁资源，key为共享的锁资源
+    private final ConcurrentMap<RedisPLockResource, SimpleRedisPLockResource> simpleResources = new ConcurrentHashMap<>();
+
+    // 快照上缓存资源级配置
+    private static final String SETTINGS = RedisLockFactory.class.getName();
+
+    // lock.cohort.enabled时同一锁资源的锁在本地排队，key为锁资源
+    private final ConcurrentMap<RedisPLockResource, CohortRegistry> cohorts = new ConcurrentHashMap<>();
+
+    public RedisLockFactory() {
+        this.lockResource = null;
+    }
+
+    public RedisLockFactory(RedisPLockResource lockResource) {
+        this.lockResource = lockResource;
+    }
+
     @Override
     public PLock createLock(String name, LockConfig config) {
-        // 默认使用Jedis实现，也可以根据配置选择Lettuce实现
-        PLockResource lockResource = new JedisPLockResource();
-        return new RedisLock(name, lockResource);
+        RedisPLockResource resource = getLockResource(config);
+        // simple: 非重入锁，只用SET NX PX加锁；默认reentrant
+        PLockResource lockResource = "simple".equalsIgnoreCase(config.getProperty("redis.lock.type", "reentrant"))
+                ? simpleResources.computeIfAbsent(resource, SimpleRedisPLockResource::new) : resource;
+        RedisLock lock = new RedisLock(name, lockResource, waitStrategies.get(config, NotifyWaitStrategy.NAME));
+        lock.setNegativeCache(resource.isNegativeCache());
+        return cohorts.computeIfAbsent(resource, r -> new CohortRegistry()).apply(lock, config);
+    }
+
+    /**
+     * 获取配置对应的共享锁资源，资源级配置在创建锁资源时应用
+     *
+     * @param config 锁的配置参数
+     * @return 锁资源
+     * @throws IllegalArgumentException 外部传入的锁资源已经用于资源级配置不同的锁
+     */
+    protected RedisPLockResource getLockResource(LockConfig config) {
+        ResourceSettings settings = config.resolve(SETTINGS, ResourceSettings::new);
+        if (lockResource != null) {
+            ResourceSettings current = externalSettings.updateAndGet(s -> s == null ? settings : s);
+            if (!current.equals(settings)) {
+                throw new IllegalArgumentException("Redis lock settings " + settings
+                        + " conflict with " + current + " already used by the shared lock resource");
+            }
+            settings.applyTo(lockResource);
+            return lockResource;
+        }
+        String host = config.getProperty("redis.host");
+        String key = (host == null ? "default"
+                : config.getProperty("redis.client", "jedis") + "://" + host + ":" + config.getProperty("redis.port", "6379"))
+                + settings;
+        return resources.computeIfAbsent(key, k -> {
+            RedisPLockResource resource = createLockResource(createConnectionFactory(config), null);
+            settings.applyTo(resource);
+            return resource;
+        });
+    }
+
+    /**
+     * 根据配置创建连接工厂，未配置redis.host时通过SPI加载
+     *
+     * @param config 锁的配置参数
+     * @return 连接工厂
+     */
+    public static RedisConnectionFactory createConnectionFactory(LockConfig config) {
+        String host = config.getProperty("redis.host");
+        if (host == null) {
+            return ConnectionFactoryLoader.loadConnectionFactory();
+        }
+        int port = Integer.parseInt(config.getProperty("redis.port", "6379"));
+        if ("lettuce".equalsIgnoreCase(config.getProperty("redis.client", "jedis"))) {
+            return new LettuceConnectionFactory(host, port);
+        }
+        return new JedisConnectionFactory(host, port);
+    }
+
+    /**
+     * 根据连接工厂的客户端类型创建锁资源
+     *
+     * @param connectionFactory 连接工厂
+     * @param watchdog          共享的看门狗，为null时锁资源自己创建
+     * @return 锁资源
+     */
+    public static RedisPLockResource createLockResource(RedisConnectionFactory connectionFactory, LockWatchdog watchdog) {
+        RedisConnectionFactory actual = connectionFactory;
+        if (actual instanceof DynamicRedisConnectionFactory) {
+            actual = ((DynamicRedisConnectionFactory) actual).getDelegate();
+        }
+        if (actual instanceof LettuceConnectionFactory || actual instanceof LettuceConnectionFactoryImpl) {
+            return new LettucePLockResource(connectionFactory, watchdog);
+        }
+        return new JedisPLockResource(connectionFactory, watchdog);
+    }
+
+    /**
+     * 关闭由工厂自己创建的锁资源和连接工厂
+     */
+    @Override
+    public void close() {
+        for (RedisPLockResource resource : resources.values()) {
+            resource.close();
+            resource.getCommandExecutor().getConnectionFactory().destroy();
+        }
+        resources.clear();
+        simpleResources.clear();
+        cohorts.clear();
+        externalSettings.set(null);
     }
 
     @Override
     public String getName() {
         return "redis";
     }
-    
+
+    /**
+     * 作用于整个锁资源的配置，快照上解析一次
+     */
+    private static final class ResourceSettings {
+        // 会话键的过期时间，0表示不使用会话模式
+        final long sessionTtl;
+        final boolean keyspace;
+        // 否定缓存最多缓存的锁名称数量，0表示不缓存
+        final int negativeCacheSize;
+
+        ResourceSettings(LockConfig config) {
+            this.sessionTtl = config.getBoolean("redis.session.enabled", false)
+                    ? config.getLong("redis.session.ttl", 10000) : 0;
+            this.keyspace = config.getBoolean("redis.keyspace.enabled", false);
+            this.negativeCacheSize = config.getBoolean("lock.trylock.cache", false)
+                    ? config.getInt("lock.trylock.cache.size", 10000) : 0;
+        }
+
+        void applyTo(RedisPLockResource resource) {
+            if (sessionTtl > 0) {
+                resource.enableSession(sessionTtl);
+            }
+            if (keyspace) {
+                resource.enableKeyspaceNotifications();
+            }
+            if (negativeCacheSize > 0) {
+                resource.enableNegativeCache(negativeCacheSize);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ResourceSettings)) {
+                return false;
+            }
+            ResourceSettings other = (ResourceSettings) o;
+            return sessionTtl == other.sessionTtl && keyspace == other.keyspace
+                    && negativeCacheSize == other.negativeCacheSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sessionTtl, keyspace, negativeCacheSize);
+        }
+
+        @Override
+        public String toString() {
+            return "{session=" + sessionTtl + ", keyspace=" + keyspace + ", trylock.cache=" + negativeCacheSize + "}";
+        }
+    }
+
     /**
      * 基于Redis的具体锁实现
      */
     private static class RedisLock extends PReentrantLock {
-        public RedisLock(String lockName, PLockResource lockResource) {
+        public RedisLock(String lockName, PLockResource lockResource, WaitStrategy waitStrategy) {
             super(lockName);
             this.lockResource = lockResource;
+            this.waitStrategy = waitStrategy;
+        }
+
+        void setNegativeCache(boolean negativeCache) {
+            this.negativeCache = negativeCache;
         }
     }
-}
\ No newline at end of file
+}
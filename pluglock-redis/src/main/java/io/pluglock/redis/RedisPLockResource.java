@@ -1,6 +1,7 @@
 package io.pluglock.redis;
 
 import io.pluglock.core.AbstractPLockResource;
+import io.pluglock.core.LockWatchdog;
 import io.pluglock.core.PLockEntry;
 import io.pluglock.redis.command.RedisCommandExecutor;
 import io.pluglock.redis.spi.ConnectionFactoryLoader;
@@ -10,8 +11,12 @@ import org.slf4j.LoggerFactory;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Redis锁资源抽象基类
@@ -21,10 +26,56 @@ public abstract class RedisPLockResource extends AbstractPLockResource {
     
     protected final RedisCommandExecutor commandExecutor;
     
+    // 续期看门狗，可以由多个锁资源共享
+    protected final LockWatchdog watchdog;
+    private final boolean ownsWatchdog;
+    
     // 存储锁条目映射
     protected final Map<String, PLockEntry> lockEntries = new ConcurrentHashMap<>();
     
-    // 定义获取锁的Lua脚本
+    // 锁频道已发出还没有确认的订阅，确认全部到达后移除
+    private final ConcurrentMap<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    
+    // 订阅和退订命令按顺序发出：判断频道是否仍在使用和发出退订之间不会插入同名的订阅；
+    // 只在发出命令时持有，不等待服务端确认
+    private final ReentrantLock subscriptionLock = new ReentrantLock();
+    
+    // 逗留持有者监听的加锁需求
+    private final Map<String, Runnable> demandListeners = new ConcurrentHashMap<>();
+    
+    // tryLock()的否定结果缓存，有锁开启lock.trylock.cache后创建
+    private volatile NegativeCache negativeCache;
+    
+    // 会话模式，开启后未指定租约的锁随会话失效，只按兜底过期时间低频续期
+    private volatile RedisSession session;
+    
+    // 锁键的keyspace通知频道前缀，开启keyspace通知后才有值，锁过期或被逐出时立即唤醒等待的线程
+    private volatile String keyspaceChannelPrefix;
+    
+    /**
+     * 锁完全释放时发布的消息
+     */
+    public static final String RELEASE_MESSAGE = "1";
+    
+    /**
+     * 等待者发出的加锁需求，与释放消息共用频道
+     */
+    public static final String DEMAND_MESSAGE = "demand";
+    
+    // 等待者计数的最短过期时间，本JVM有等待者时每次加锁失败都会延长
+    static final long WAITERS_TTL_MILLIS = 30000;
+    
+    // 本JVM在等待时对等待者计数的保活：ttl为锁的剩余时间，计数至少保留到锁过期之后WAITERS_TTL_MILLIS；
+    // 计数已过期时重新登记一个等待者
+    private static String refreshWaiters(String flag) {
+        return "if (" + flag + " == '1') then " +
+            "local expire = math.max(ttl, 0) + " + WAITERS_TTL_MILLIS + "; " +
+            "if (redis.call('exists', KEYS[2]) == 0) then redis.call('set', KEYS[2], 1, 'px', expire); " +
+            "elseif (redis.call('pttl', KEYS[2]) < expire) then redis.call('pexpire', KEYS[2], expire); end; " +
+            "end; ";
+    }
+    
+    // 定义获取锁的Lua脚本，KEYS[2]为等待者计数，ARGV[3]为1时本JVM有等待者，加锁失败时延长计数的过期时间
     protected static final String ACQUIRE_SCRIPT = 
         "if (redis.call('exists', KEYS[1]) == 0) then " +
         "redis.call('hset', KEYS[1], ARGV[2], 1); " +
@@ -36,7 +87,42 @@ public abstract class RedisPLockResource extends AbstractPLockResource {
         "redis.call('pexpire', KEYS[1], ARGV[1]); " +
         "return nil; " +
         "end; " +
-        "return redis.call('pttl', KEYS[1]);";
+        "local ttl = redis.call('pttl', KEYS[1]); " +
+        refreshWaiters("ARGV[3]") +
+        "return ttl;";
+        
+    // 会话模式下获取锁的Lua脚本：KEYS[3]为ARGV[4]这个会话的会话键，ARGV[3]为本资源的会话；
+    // 锁属于其他会话而不是ARGV[4]时返回-3减去持有者的会话ID，调用方带上持有者的会话键重试；
+    // 持有者会话键已过期的锁视为空闲，其中由同一持有者在本资源旧会话下持有的锁已丢失，返回-3。
+    // ARGV[1]为租约，未指定租约时为兜底的过期时间；等待者计数同ACQUIRE_SCRIPT，标志在ARGV[5]；
+    // 加锁失败时返回锁和持有者会话中较短的剩余时间
+    protected static final String SESSION_ACQUIRE_SCRIPT =
+        "local session = redis.call('hget', KEYS[1], 'session'); " +
+        "if (session and session ~= ARGV[3]) then " +
+        "if (session ~= ARGV[4]) then return -3 - tonumber(session); end; " +
+        "if (redis.call('exists', KEYS[3]) == 0) then " +
+        "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then return -3; end; " +
+        "redis.call('del', KEYS[1]); " +
+        "session = false; " +
+        "end; " +
+        "end; " +
+        "if (redis.call('exists', KEYS[1]) == 0) then " +
+        "redis.call('hset', KEYS[1], ARGV[2], 1, 'session', ARGV[3]); " +
+        "redis.call('pexpire', KEYS[1], ARGV[1]); " +
+        "return nil; " +
+        "end; " +
+        "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1 and (not session or session == ARGV[3])) then " +
+        "redis.call('hincrby', KEYS[1], ARGV[2], 1); " +
+        "redis.call('pexpire', KEYS[1], ARGV[1]); " +
+        "return nil; " +
+        "end; " +
+        "local ttl = redis.call('pttl', KEYS[1]); " +
+        "if (session == ARGV[4]) then " +
+        "local remaining = redis.call('pttl', KEYS[3]); " +
+        "if (remaining >= 0 and (ttl < 0 or remaining < ttl)) then ttl = remaining; end; " +
+        "end; " +
+        refreshWaiters("ARGV[5]") +
+        "return ttl;";
         
     // 定义尝试获取锁的Lua脚本
     protected static final String TRY_ACQUIRE_SCRIPT =
@@ -52,28 +138,135 @@ public abstract class RedisPLockResource extends AbstractPLockResource {
         "end; " +
         "return redis.call('pttl', KEYS[1]);";
         
-    // 定义释放锁的Lua脚本
+    // 定义释放锁的Lua脚本，完全释放时只有等待者计数（KEYS[3]）大于0才发布释放消息
     protected static final String RELEASE_SCRIPT =
         "if (redis.call('hexists', KEYS[1], ARGV[2]) == 0) then " +
         "return nil;" +
         "end; " +
         "local counter = redis.call('hincrby', KEYS[1], ARGV[2], -1); " +
         "if (counter > 0) then " +
-        "redis.call('pexpire', KEYS[1], ARGV[1]); " +
+        "if (tonumber(ARGV[1]) > 0) then redis.call('pexpire', KEYS[1], ARGV[1]); end; " +
         "return 0; " +
         "else " +
         "redis.call('del', KEYS[1]); " +
-        "redis.call('publish', KEYS[2], ARGV[3]); " +
+        "if (tonumber(redis.call('get', KEYS[3]) or 0) > 0) then redis.call('publish', KEYS[2], ARGV[3]); end; " +
         "return 1; " +
         "end; " +
         "return nil;";
+    
+    // 会话模式下释放锁：锁的会话不是本资源当前会话（ARGV[4]）时不释放，由该持有者持有时锁已随旧会话丢失，返回-1，
+    // 残留的记录由其他节点加锁时删除；其余同RELEASE_SCRIPT
+    protected static final String SESSION_RELEASE_SCRIPT =
+        "local session = redis.call('hget', KEYS[1], 'session'); " +
+        "if (session and session ~= ARGV[4]) then " +
+        "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then return -1; end; " +
+        "return nil; " +
+        "end; " +
+        RELEASE_SCRIPT;
+    
+    // 定义续期的Lua脚本，只有仍由该持有者持有时才续期
+    protected static final String RENEW_SCRIPT =
+        "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then " +
+        "redis.call('pexpire', KEYS[1], ARGV[1]); " +
+        "return 1; " +
+        "end; " +
+        "return 0;";
+
+    // 锁被其他持有者持有时发布加锁需求
+    protected static final String DEMAND_SCRIPT =
+        "if (redis.call('exists', KEYS[1]) == 1) then " +
+        "return redis.call('publish', KEYS[2], ARGV[1]); " +
+        "end; " +
+        "return 0;";
+
+    // 非重入锁加锁失败后查询剩余时间，锁已由该持有者持有时返回-3；等待者计数同ACQUIRE_SCRIPT，标志在ARGV[2]
+    protected static final String SIMPLE_TTL_SCRIPT =
+        "if (redis.call('get', KEYS[1]) == ARGV[1]) then " +
+        "return -3; " +
+        "end; " +
+        "local ttl = redis.call('pttl', KEYS[1]); " +
+        refreshWaiters("ARGV[2]") +
+        "return ttl;";
+
+    // 非重入锁的释放：值仍为该持有者时删除，等待者计数大于0时发布释放消息
+    protected static final String SIMPLE_RELEASE_SCRIPT =
+        "if (redis.call('get', KEYS[1]) == ARGV[1]) then " +
+        "redis.call('del', KEYS[1]); " +
+        "if (tonumber(redis.call('get', KEYS[3]) or 0) > 0) then redis.call('publish', KEYS[2], ARGV[2]); end; " +
+        "return 1; " +
+        "end; " +
+        "return nil;";
+
+    // 非重入锁的续期，只有仍由该持有者持有时才续期
+    protected static final String SIMPLE_RENEW_SCRIPT =
+        "if (redis.call('get', KEYS[1]) == ARGV[2]) then " +
+        "redis.call('pexpire', KEYS[1], ARGV[1]); " +
+        "return 1; " +
+        "end; " +
+        "return 0;";
+
+    // 登记一个等待者，计数至少保留WAITERS_TTL_MILLIS
+    protected static final String WAITER_REGISTER_SCRIPT =
+        "local count = redis.call('incr', KEYS[1]); " +
+        "if (redis.call('pttl', KEYS[1]) < tonumber(ARGV[1])) then redis.call('pexpire', KEYS[1], ARGV[1]); end; " +
+        "return count;";
+
+    // 注销一个等待者，计数归零时删除
+    protected static final String WAITER_UNREGISTER_SCRIPT =
+        "if (redis.call('exists', KEYS[1]) == 0) then return 0; end; " +
+        "local count = redis.call('decr', KEYS[1]); " +
+        "if (count <= 0) then redis.call('del', KEYS[1]); end; " +
+        "return count;";
+
+    // SIMPLE_TTL_SCRIPT表示锁已由该持有者持有的返回值
+    private static final long HELD_BY_OWNER = -3L;
+
+    // SESSION_ACQUIRE_SCRIPT表示锁已随旧会话丢失的返回值，更小的值表示要带上持有者的会话键重试
+    private static final long SESSION_LOST = -3L;
+
+    /**
+     * 会话模式下未指定租约的锁的兜底过期时间，持有期间由看门狗低频续期；
+     * 锁的存活仍由会话键决定，兜底过期时间只防止会话失效后无人竞争的锁记录一直留在Redis中
+     */
+    static final long SESSION_LOCK_TTL_MILLIS = 10 * 60 * 1000;
+
+    // 预先编码的脚本和消息，热路径上以二进制参数执行
+    private static final byte[] ACQUIRE = BinaryArgs.encode(ACQUIRE_SCRIPT);
+    private static final byte[] SESSION_ACQUIRE = BinaryArgs.encode(SESSION_ACQUIRE_SCRIPT);
+    private static final byte[] RELEASE = BinaryArgs.encode(RELEASE_SCRIPT);
+    private static final byte[] SESSION_RELEASE = BinaryArgs.encode(SESSION_RELEASE_SCRIPT);
+    private static final byte[] RENEW = BinaryArgs.encode(RENEW_SCRIPT);
+    private static final byte[] DEMAND = BinaryArgs.encode(DEMAND_SCRIPT);
+    private static final byte[] SIMPLE_TTL = BinaryArgs.encode(SIMPLE_TTL_SCRIPT);
+    private static final byte[] SIMPLE_RELEASE = BinaryArgs.encode(SIMPLE_RELEASE_SCRIPT);
+    private static final byte[] SIMPLE_RENEW = BinaryArgs.encode(SIMPLE_RENEW_SCRIPT);
+    private static final byte[] WAITER_REGISTER = BinaryArgs.encode(WAITER_REGISTER_SCRIPT);
+    private static final byte[] WAITER_UNREGISTER = BinaryArgs.encode(WAITER_UNREGISTER_SCRIPT);
+    private static final byte[] WAITERS_TTL = BinaryArgs.encode(Long.toString(WAITERS_TTL_MILLIS));
+    private static final byte[] WAITING = BinaryArgs.encode("1");
+    private static final byte[] NOT_WAITING = BinaryArgs.encode("0");
+    private static final byte[] RELEASE_MESSAGE_BYTES = BinaryArgs.encode(RELEASE_MESSAGE);
+    private static final byte[] DEMAND_MESSAGE_BYTES = BinaryArgs.encode(DEMAND_MESSAGE);
+
+    // 等待服务端确认订阅的最长时间，超过后等待者按剩余时间重试；调用方剩余的等待时间更短时以它为准
+    static final long SUBSCRIBE_TIMEOUT_MILLIS = 5000;
 
     public RedisPLockResource() {
-        this.commandExecutor = createCommandExecutor(ConnectionFactoryLoader.loadConnectionFactory());
+        this(ConnectionFactoryLoader.loadConnectionFactory());
     }
     
     public RedisPLockResource(RedisConnectionFactory connectionFactory) {
+        this(connectionFactory, null);
+    }
+    
+    /**
+     * @param connectionFactory 连接工厂
+     * @param watchdog          共享的看门狗，为null时创建自己的看门狗并在关闭时一起关闭
+     */
+    public RedisPLockResource(RedisConnectionFactory connectionFactory, LockWatchdog watchdog) {
         this.commandExecutor = createCommandExecutor(connectionFactory);
+        this.ownsWatchdog = watchdog == null;
+        this.watchdog = watchdog == null ? new LockWatchdog() : watchdog;
     }
     
     /**
@@ -84,49 +277,446 @@ public abstract class RedisPLockResource extends AbstractPLockResource {
      */
     protected abstract RedisCommandExecutor createCommandExecutor(RedisConnectionFactory connectionFactory);
     
+    /**
+     * 同名锁在本JVM内的等待者共用一个条目：第一个等待者创建条目并订阅，最后一个等待者退订时移除条目并退订；
+     * 每条释放通知只唤醒其中一个等待者。lockEntries.compute中只创建条目和计数，订阅和退订命令在compute之外发出，
+     * 所有等待者都等到服务端确认订阅之后才返回，之后发布的释放通知不会漏掉
+     */
     @Override
-    public Long acquireResource(String name, long leaseTime, TimeUnit unit, long threadId) {
+    public PLockEntry subscribe(String name) {
+        return subscribe(name, SUBSCRIBE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * 与 {@link #subscribe(String)} 相同，最多等待timeoutMillis，超时后等待者不带订阅按剩余时间重试
+     */
+    @Override
+    public PLockEntry subscribe(String name, long timeoutMillis) {
+        long timeout = Math.min(timeoutMillis, SUBSCRIBE_TIMEOUT_MILLIS);
+        boolean[] created = new boolean[1];
+        LockEntry entry = (LockEntry) lockEntries.compute(name, (k, current) -> {
+            if (current == null) {
+                current = new LockEntry();
+                created[0] = true;
+            }
+            current.incrementWaiters();
+            return current;
+        });
+        if (created[0]) {
+            registerWaiter(name);
+            subscribeChannel(name, timeout).whenComplete((v, e) -> entry.subscribed.complete(null));
+        }
+        awaitSubscribed(entry.subscribed, name, timeout);
+        return entry;
+    }
+    
+    /**
+     * 执行订阅操作，只发出命令，服务端确认后调用 {@link #onSubscribed(String)}
+     * 
+     * @param name 锁名称
+     */
+    protected abstract void doSubscribe(String name);
+
+    /**
+     * 执行订阅操作，需要先建立订阅连接的实现最多等待timeoutMillis
+     *
+     * @param name          锁名称
+     * @param timeoutMillis 最多等待的时间（毫秒）
+     */
+    protected void doSubscribe(String name, long timeoutMillis) {
+        doSubscribe(name);
+    }
+    
+    @Override
+    public void unsubscribe(String name) {
+        boolean[] removed = new boolean[1];
+        lockEntries.computeIfPresent(name, (k, entry) -> {
+            if (entry.decrementWaiters() > 0) {
+                return entry;
+            }
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            unregisterWaiter(name);
+            unsubscribeIfUnused(name);
+        }
+    }
+    
+    /**
+     * 锁的等待者计数键，释放时计数大于0才发布释放消息
+     *
+     * @param name 锁名称
+     */
+    static String waitersKey(String name) {
+        return "lock:" + name + ":waiters";
+    }
+    
+    /**
+     * 本JVM开始等待一把锁：第一个等待者创建锁条目或否定缓存登记名称时计数加1。
+     * 计数带过期时间，本JVM崩溃后留下的计数最迟在过期后清除，之前最多让释放多发布几次
+     */
+    private void registerWaiter(String name) {
         try {
-            return doAcquireResource(name, leaseTime, unit, threadId);
+            BinaryArgs args = BinaryArgs.get();
+            args.keys1[0] = args.waiters(name);
+            args.args1[0] = WAITERS_TTL;
+            commandExecutor.executeEval(WAITER_REGISTER, args.keys1, args.args1);
         } catch (Exception e) {
-            logger.error("Failed to acquire Redis lock: {}", name, e);
-            throw new RuntimeException("Failed to acquire Redis lock", e);
+            // 没有登记时释放不发布，等待者仍按剩余时间重试
+            logger.warn("Failed to register waiter for Redis lock: {}", name, e);
         }
     }
     
-    private Long doAcquireResource(String name, long leaseTime, TimeUnit unit, long threadId) {
-        return (Long) commandExecutor.executeEval(ACQUIRE_SCRIPT, new String[]{name}, 
-                           String.valueOf(unit.toMillis(leaseTime)), String.valueOf(threadId));
+    /**
+     * 本JVM不再等待一把锁：最后一个等待者退出（包括超时）或否定缓存清理名称时计数减1
+     */
+    private void unregisterWaiter(String name) {
+        try {
+            BinaryArgs args = BinaryArgs.get();
+            args.keys1[0] = args.waiters(name);
+            commandExecutor.executeEval(WAITER_UNREGISTER, args.keys1);
+        } catch (Exception e) {
+            // 计数过期前释放最多多发布几次
+            logger.warn("Failed to unregister waiter for Redis lock: {}", name, e);
+        }
     }
     
-    @Override
-    public PLockEntry subscribe(String name) {
-        PLockEntry entry = new PLockEntry();
-        lockEntries.put(name, entry);
-        
-        // 启动异步订阅任务
-        CompletableFuture.runAsync(() -> {
-            try {
-                doSubscribe(name);
-            } catch (Exception e) {
-                logger.error("Failed to subscribe to lock release notifications for: {}", name, e);
+    /**
+     * 发出锁频道的订阅
+     *
+     * @return 服务端确认之前发出的所有同名订阅后完成的future
+     */
+    private CompletableFuture<Void> subscribeChannel(String name) {
+        return subscribeChannel(name, SUBSCRIBE_TIMEOUT_MILLIS);
+    }
+
+    private CompletableFuture<Void> subscribeChannel(String name, long timeoutMillis) {
+        Subscription subscription = subscriptions.compute(name, (k, current) -> {
+            if (current == null) {
+                current = new Subscription();
             }
+            current.pending++;
+            return current;
         });
-        
-        return entry;
+        subscriptionLock.lock();
+        try {
+            doSubscribe(name, timeoutMillis);
+        } catch (Exception e) {
+            logger.error("Failed to subscribe to lock release notifications for: {}", name, e);
+            onSubscribeFailed(name, e);
+        } finally {
+            subscriptionLock.unlock();
+        }
+        return subscription.confirmed;
     }
     
     /**
-     * 执行订阅操作
-     * 
+     * 等待订阅确认，超时或失败时等待者仍按剩余时间重试
+     */
+    private static void awaitSubscribed(CompletableFuture<Void> confirmed, String name, long timeoutMillis) {
+        try {
+            confirmed.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            // 由之后的等待响应中断
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            if (timeoutMillis < SUBSCRIBE_TIMEOUT_MILLIS) {
+                // 调用方的等待时间先用完，不是订阅出了问题
+                logger.debug("Subscription to lock release notifications was not confirmed in time for: {}", name);
+            } else {
+                logger.warn("Subscription to lock release notifications was not confirmed for: {}", name, e);
+            }
+        } catch (ExecutionException e) {
+            logger.warn("Subscription to lock release notifications was not confirmed for: {}", name, e);
+        }
+    }
+    
+    /**
+     * 没有等待者、加锁需求监听和否定缓存使用频道时退订，与订阅命令按顺序发出
+     */
+    private void unsubscribeIfUnused(String name) {
+        subscriptionLock.lock();
+        try {
+            if (!isChannelInUse(name)) {
+                doUnsubscribe(name);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to unsubscribe from lock release notifications for: {}", name, e);
+        } finally {
+            subscriptionLock.unlock();
+        }
+    }
+    
+    private boolean isChannelInUse(String name) {
+        return lockEntries.containsKey(name) || isChannelWatched(name);
+    }
+    
+    private boolean isChannelWatched(String name) {
+        NegativeCache cache = negativeCache;
+        return demandListeners.containsKey(name) || (cache != null && cache.contains(name));
+    }
+    
+    @Override
+    public void signalDemand(String name) {
+        try {
+            BinaryArgs args = BinaryArgs.get();
+            args.keys2[0] = args.name(name);
+            args.keys2[1] = args.channel(name);
+            args.args1[0] = DEMAND_MESSAGE_BYTES;
+            commandExecutor.executeEval(DEMAND, args.keys2, args.args1);
+        } catch (Exception e) {
+            // 需求丢失时持有者在逗留到期后释放
+            logger.warn("Failed to signal demand for Redis lock: {}", name, e);
+        }
+    }
+    
+    @Override
+    public boolean watchDemand(String name, Runnable listener) {
+        demandListeners.put(name, listener);
+        // 等到订阅确认，加锁返回之后发出的需求都能收到
+        awaitSubscribed(subscribeChannel(name), name, SUBSCRIBE_TIMEOUT_MILLIS);
+        return true;
+    }
+    
+    @Override
+    public void unwatchDemand(String name) {
+        demandListeners.remove(name);
+        unsubscribeIfUnused(name);
+    }
+    
+    /**
+     * 开启tryLock()的否定结果缓存，以相同的大小重复开启时忽略。缓存作用于锁资源上的所有锁
+     *
+     * @param maxSize 最多缓存的锁名称数量，每个名称占用一个频道订阅
+     * @throws IllegalStateException 已经以不同的大小开启
+     */
+    public synchronized void enableNegativeCache(int maxSize) {
+        if (negativeCache == null) {
+            negativeCache = new NegativeCache(maxSize);
+        } else if (negativeCache.getMaxSize() != maxSize) {
+            throw new IllegalStateException("Negative cache already enabled with size " + negativeCache.getMaxSize());
+        }
+    }
+    
+    /**
+     * @return 是否开启了tryLock()的否定结果缓存
+     */
+    public boolean isNegativeCache() {
+        return negativeCache != null;
+    }
+    
+    /**
+     * 开启会话模式，以相同的过期时间重复开启时忽略
+     *
+     * 之后锁资源上未指定租约时间的锁只设兜底的过期时间 {@link #SESSION_LOCK_TTL_MILLIS}，在哈希中记录会话ID，
+     * 看门狗按心跳频率只续期会话键；会话键过期后其他节点可以获取这些锁，本资源在旧会话下持有的锁视为丢失。
+     * 竞争同一把锁的节点需要都使用会话模式
+     *
+     * @param ttlMillis 会话键的过期时间，每隔三分之一心跳一次
+     * @throws IllegalStateException 已经以不同的过期时间开启
+     */
+    public synchronized void enableSession(long ttlMillis) {
+        if (session == null) {
+            session = new RedisSession(commandExecutor, ttlMillis);
+        } else if (session.getTtlMillis() != ttlMillis) {
+            throw new IllegalStateException("Redis session already enabled with ttl " + session.getTtlMillis());
+        }
+    }
+    
+    /**
+     * 开启keyspace通知，已开启时忽略：订阅释放频道时同时订阅锁键的keyspace频道，锁过期（expired）或被逐出（evicted）时
+     * 唤醒等待的线程，持有者崩溃后不必等到加锁失败时得到的剩余时间。正常释放已经发布释放消息，不监听del。
+     * 需要Redis配置notify-keyspace-events包含Kxe，否则收不到通知，等待的线程仍按剩余时间重试
+     */
+    public synchronized void enableKeyspaceNotifications() {
+        if (keyspaceChannelPrefix == null) {
+            keyspaceChannelPrefix = "__keyspace@" + getDatabase() + "__:";
+        }
+    }
+    
+    /**
+     * @return 是否开启了keyspace通知
+     */
+    public boolean isKeyspaceNotifications() {
+        return keyspaceChannelPrefix != null;
+    }
+    
+    /**
+     * @return 锁键的keyspace通知频道前缀，包含命令连接所在的数据库编号；未开启keyspace通知时为null
+     */
+    public String getKeyspaceChannelPrefix() {
+        return keyspaceChannelPrefix;
+    }
+    
+    /**
+     * 锁键的keyspace通知频道
+     *
      * @param name 锁名称
      */
-    protected abstract void doSubscribe(String name);
+    protected String getKeyspaceChannel(String name) {
+        return keyspaceChannelPrefix + name;
+    }
+    
+    /**
+     * 命令连接所在的数据库编号，锁键都在这个数据库中
+     *
+     * @return 数据库编号
+     */
+    protected abstract int getDatabase();
     
     @Override
-    public void unsubscribe(String name) {
-        lockEntries.remove(name);
-        doUnsubscribe(name);
+    public Long acquireResource(String name, long leaseTime, TimeUnit unit, long threadId) {
+        RedisSession current = session;
+        if (current == null) {
+            return super.acquireResource(name, leaseTime, unit, threadId);
+        }
+        // 未指定租约时设置兜底的过期时间，看门狗按这个时间低频续期
+        long leaseMillis = leaseTime == -1 ? SESSION_LOCK_TTL_MILLIS : unit.toMillis(leaseTime);
+        RedisSession.Id sessionId = current.start(watchdog, getBackend());
+        BinaryArgs args = BinaryArgs.get();
+        // 先假定锁空闲或属于本会话，检查本会话的会话键
+        args.keys3[2] = sessionId.key;
+        args.args5[0] = args.lease(leaseMillis);
+        args.args5[1] = args.owner(threadId);
+        args.args5[2] = sessionId.encoded;
+        args.args5[3] = sessionId.encoded;
+        args.args5[4] = waiting(name);
+        Long ttl = acquire(SESSION_ACQUIRE, name, args, args.keys3, args.args5);
+        if (ttl == null) {
+            if (leaseTime == -1) {
+                watchdog.watch(name, threadId, getBackend(), leaseMillis, this::renewResource);
+            }
+        } else if (ttl == SESSION_LOST) {
+            throw new IllegalMonitorStateException("Redis lock " + name + " was lost with its expired session");
+        }
+        return ttl;
+    }
+    
+    @Override
+    public Long cachedTtl(String name) {
+        NegativeCache cache = negativeCache;
+        return cache == null ? null : cache.get(name);
+    }
+    
+    /**
+     * 锁频道的订阅已确认
+     *
+     * @param name 锁名称
+     */
+    public void onSubscribed(String name) {
+        NegativeCache cache = negativeCache;
+        if (cache != null) {
+            cache.subscribed(name);
+        }
+        confirmed(name, null);
+    }
+    
+    /**
+     * 订阅命令没有发出或服务端返回错误，不会再有确认
+     *
+     * @param name  锁名称
+     * @param cause 失败原因
+     */
+    protected void onSubscribeFailed(String name, Throwable cause) {
+        confirmed(name, cause);
+    }
+    
+    /**
+     * 一个订阅有了结果，同名的订阅都有结果后完成future；同一连接上的确认按命令顺序到达，
+     * 之前发出的订阅的确认不会提前完成之后的订阅
+     */
+    private void confirmed(String name, Throwable cause) {
+        Subscription[] done = new Subscription[1];
+        subscriptions.computeIfPresent(name, (k, subscription) -> {
+            if (cause != null && subscription.failure == null) {
+                subscription.failure = cause;
+            }
+            if (--subscription.pending > 0) {
+                return subscription;
+            }
+            done[0] = subscription;
+            return null;
+        });
+        Subscription subscription = done[0];
+        if (subscription != null) {
+            if (subscription.failure == null) {
+                subscription.confirmed.complete(null);
+            } else {
+                subscription.confirmed.completeExceptionally(subscription.failure);
+            }
+        }
+    }
+    
+    /**
+     * 订阅连接断开或关闭，还没有确认的订阅都不会再有确认
+     */
+    protected void failPendingSubscriptions() {
+        IllegalStateException cause = new IllegalStateException("Redis subscriber connection closed");
+        for (String name : subscriptions.keySet()) {
+            Subscription subscription = subscriptions.remove(name);
+            if (subscription != null) {
+                subscription.confirmed.completeExceptionally(cause);
+            }
+        }
+    }
+    
+    /**
+     * 锁频道已退订
+     *
+     * @param name 锁名称
+     */
+    public void onUnsubscribed(String name) {
+        NegativeCache cache = negativeCache;
+        if (cache != null) {
+            cache.unsubscribed(name);
+        }
+    }
+    
+    /**
+     * 处理锁频道上的消息：释放消息唤醒等待的线程，加锁需求交给逗留的持有者
+     *
+     * @param name    锁名称
+     * @param message 消息内容
+     */
+    public void onMessage(String name, String message) {
+        if (DEMAND_MESSAGE.equals(message)) {
+            Runnable listener = demandListeners.get(name);
+            if (listener != null) {
+                listener.run();
+            }
+            return;
+        }
+        released(name);
+    }
+    
+    /**
+     * 处理锁键的keyspace通知：锁过期或被逐出时与释放消息一样唤醒等待的线程；
+     * del已经有释放消息，续期等其他事件同样忽略，每次释放只唤醒一个等待者
+     *
+     * @param name  锁名称
+     * @param event 事件名称
+     */
+    public void onKeyspaceEvent(String name, String event) {
+        if ("expired".equals(event) || "evicted".equals(event)) {
+            released(name);
+        }
+    }
+    
+    private void released(String name) {
+        NegativeCache cache = negativeCache;
+        if (cache != null) {
+            cache.released(name);
+        }
+        PLockEntry entry = lockEntries.get(name);
+        if (entry != null) {
+            Semaphore latch = entry.getLatch();
+            if (latch != null) {
+                // 释放信号量，唤醒等待的线程
+                latch.release();
+                logger.debug("Released semaphore for lock: {}", name);
+            }
+        }
     }
     
     /**
@@ -136,24 +726,77 @@ public abstract class RedisPLockResource extends AbstractPLockResource {
      */
     protected abstract void doUnsubscribe(String name);
     
-    public Long tryAcquireResource(String name, long threadId) {
+    @Override
+    public Long tryAcquireResource(String name, long threadId, long leaseTime) {
+        BinaryArgs args = BinaryArgs.get();
+        args.args3[0] = args.lease(leaseTime);
+        args.args3[1] = args.owner(threadId);
+        args.args3[2] = waiting(name);
+        return acquire(ACQUIRE, name, args, args.args3);
+    }
+    
+    /**
+     * 本JVM在等待这把锁时（有锁条目或否定缓存登记了名称），加锁失败要延长等待者计数的过期时间，
+     * 计数至少保留到当前持有者过期之后，长时间的等待不会让计数先过期
+     */
+    private byte[] waiting(String name) {
+        NegativeCache cache = negativeCache;
+        return lockEntries.containsKey(name) || (cache != null && cache.contains(name)) ? WAITING : NOT_WAITING;
+    }
+    
+    private Long acquire(byte[] script, String name, BinaryArgs args, byte[][] scriptArgs) {
+        return acquire(script, name, args, args.keys2, scriptArgs);
+    }
+    
+    /**
+     * @param keys 前两个键为锁和等待者计数，在这里填充；会话模式下第三个键为要检查的会话键
+     */
+    private Long acquire(byte[] script, String name, BinaryArgs args, byte[][] keys, byte[][] scriptArgs) {
         try {
-            return doTryAcquireResource(name, threadId);
+            NegativeCache cache = negativeCache;
+            long start = cache == null ? 0 : System.nanoTime();
+            keys[0] = args.name(name);
+            keys[1] = args.waiters(name);
+            Long ttl = (Long) commandExecutor.executeEval(script, keys, scriptArgs);
+            while (ttl != null && ttl < SESSION_LOST) {
+                // 锁属于其他会话，带上持有者的会话键重试，持有者在两次执行之间换了会话时再重试一次
+                RedisSession.Id holder = new RedisSession.Id(SESSION_LOST - ttl);
+                keys[2] = holder.key;
+                scriptArgs[3] = holder.encoded;
+                ttl = (Long) commandExecutor.executeEval(script, keys, scriptArgs);
+            }
+            if (cache != null) {
+                cached(cache, name, ttl, start);
+            }
+            return ttl;
         } catch (Exception e) {
             logger.error("Failed to try acquire Redis lock: {}", name, e);
             throw new RuntimeException("Failed to try acquire Redis lock", e);
         }
     }
     
-    private Long doTryAcquireResource(String name, long threadId) {
-        return (Long) commandExecutor.executeEval(TRY_ACQUIRE_SCRIPT, new String[]{name}, 
-                           String.valueOf(30000), String.valueOf(threadId));
+    private void cached(NegativeCache cache, String name, Long ttl, long start) {
+        if (ttl == null) {
+            cache.acquired(name);
+            return;
+        }
+        for (String stale : cache.sweep()) {
+            unregisterWaiter(stale);
+            unsubscribeIfUnused(stale);
+        }
+        if (cache.failed(name, ttl, start)) {
+            // 订阅确认之后的失败结果才会缓存，这里不等待确认
+            registerWaiter(name);
+            subscribeChannel(name);
+        }
     }
     
     @Override
     public void releaseResource(String name, long threadId) {
         try {
             doReleaseResource(name, threadId);
+        } catch (IllegalMonitorStateException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to release Redis lock: {}", name, e);
             throw new RuntimeException("Failed to release Redis lock", e);
@@ -161,19 +804,177 @@ public abstract class RedisPLockResource extends AbstractPLockResource {
     }
     
     private void doReleaseResource(String name, long threadId) {
-        String channelName = getChannelName(name);
-        commandExecutor.executeEval(RELEASE_SCRIPT, new String[]{name, channelName}, 
-                     String.valueOf(30000), String.valueOf(threadId), "1");
+        BinaryArgs args = BinaryArgs.get();
+        args.keys3[0] = args.name(name);
+        args.keys3[1] = args.channel(name);
+        args.keys3[2] = args.waiters(name);
+        RedisSession current = session;
+        Object released;
+        if (current == null) {
+            args.args3[0] = args.lease(getInternalLeaseMillis());
+            args.args3[1] = args.owner(threadId);
+            args.args3[2] = RELEASE_MESSAGE_BYTES;
+            released = commandExecutor.executeEval(RELEASE, args.keys3, args.args3);
+        } else {
+            // 会话模式下部分释放不改变过期时间
+            args.args4[0] = args.lease(0);
+            args.args4[1] = args.owner(threadId);
+            args.args4[2] = RELEASE_MESSAGE_BYTES;
+            args.args4[3] = current.getId().encoded;
+            released = commandExecutor.executeEval(SESSION_RELEASE, args.keys3, args.args4);
+        }
+        // 1: 已完全释放；null: 锁已不属于该线程；-1: 锁已随旧会话丢失，三种情况都不再续期
+        if (released == null || ((Long) released) == 1L || ((Long) released) == -1L) {
+            watchdog.unwatch(name, threadId);
+        }
+        NegativeCache cache = negativeCache;
+        if (cache != null) {
+            cache.releasedLocally(name);
+        }
+        if (released != null && ((Long) released) == -1L) {
+            throw new IllegalMonitorStateException("Redis lock " + name + " was lost with its expired session");
+        }
     }
     
-    private String getChannelName(String lockName) {
-        return "lock:" + lockName + ":channel";
+    /**
+     * 非重入锁加锁：只执行一次SET NX PX，失败时再查询剩余时间
+     *
+     * @return null表示加锁成功，否则为锁的剩余时间
+     * @throws IllegalStateException 锁已由该持有者持有
+     */
+    Long tryAcquireSimple(String name, long threadId, long leaseTime) {
+        try {
+            NegativeCache cache = negativeCache;
+            long start = cache == null ? 0 : System.nanoTime();
+            BinaryArgs args = BinaryArgs.get();
+            byte[] key = args.name(name);
+            byte[] owner = args.owner(threadId);
+            Long ttl = null;
+            if (!commandExecutor.executeSetIfAbsent(key, owner, leaseTime)) {
+                args.keys2[0] = key;
+                args.keys2[1] = args.waiters(name);
+                args.args2[0] = owner;
+                args.args2[1] = waiting(name);
+                ttl = (Long) commandExecutor.executeEval(SIMPLE_TTL, args.keys2, args.args2);
+                if (ttl == HELD_BY_OWNER) {
+                    throw new IllegalStateException("Non-reentrant Redis lock is already held by the current owner: " + name);
+                }
+                // 查询前锁已过期或被释放，立即重试
+                ttl = Math.max(ttl, 0L);
+            }
+            if (cache != null) {
+                cached(cache, name, ttl, start);
+            }
+            return ttl;
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to try acquire Redis lock: {}", name, e);
+            throw new RuntimeException("Failed to try acquire Redis lock", e);
+        }
+    }
+    
+    /**
+     * 非重入锁释放：值仍为该持有者时删除，有等待者时发布释放消息
+     */
+    void releaseSimple(String name, long threadId) {
+        try {
+            BinaryArgs args = BinaryArgs.get();
+            args.keys3[0] = args.name(name);
+            args.keys3[1] = args.channel(name);
+            args.keys3[2] = args.waiters(name);
+            args.args2[0] = args.owner(threadId);
+            args.args2[1] = RELEASE_MESSAGE_BYTES;
+            commandExecutor.executeEval(SIMPLE_RELEASE, args.keys3, args.args2);
+        } catch (Exception e) {
+            logger.error("Failed to release Redis lock: {}", name, e);
+            throw new RuntimeException("Failed to release Redis lock", e);
+        }
+        // 不可重入，释放一次后不再续期
+        watchdog.unwatch(name, threadId);
+        NegativeCache cache = negativeCache;
+        if (cache != null) {
+            cache.releasedLocally(name);
+        }
+    }
+    
+    /**
+     * 续期非重入锁
+     *
+     * @return 是否仍由该持有者持有
+     */
+    boolean renewSimple(String name, long threadId, long leaseMillis) {
+        BinaryArgs args = BinaryArgs.get();
+        args.keys1[0] = args.name(name);
+        args.args2[0] = args.lease(leaseMillis);
+        args.args2[1] = args.owner(threadId);
+        Object renewed = commandExecutor.executeEval(SIMPLE_RENEW, args.keys1, args.args2);
+        return renewed != null && ((Long) renewed) == 1L;
     }
     
     @Override
     protected void startWatchDog(String name, long threadId, long millis, Long ttl) {
-        // TODO: 实现看门狗逻辑
-        logger.debug("Starting watchdog for lock: {}, threadId: {}", name, threadId);
+        watchdog.watch(name, threadId, getBackend(), this::renewResource);
+    }
+    
+    /**
+     * 续期锁资源
+     *
+     * @return 是否仍由该线程持有
+     */
+    protected boolean renewResource(String name, long threadId, long leaseMillis) {
+        BinaryArgs args = BinaryArgs.get();
+        args.keys1[0] = args.name(name);
+        args.args2[0] = args.lease(leaseMillis);
+        args.args2[1] = args.owner(threadId);
+        Object renewed = commandExecutor.executeEval(RENEW, args.keys1, args.args2);
+        return renewed != null && ((Long) renewed) == 1L;
+    }
+    
+    @Override
+    protected long getInternalLeaseMillis() {
+        return watchdog.getLeaseMillis();
+    }
+    
+    /**
+     * 关闭锁资源：删除会话键，注销本JVM的等待者，关闭订阅连接和执行器自己的连接，自己创建的看门狗一起关闭；连接工厂由创建者负责销毁
+     */
+    public void close() {
+        RedisSession current = session;
+        if (current != null) {
+            current.close(watchdog);
+        }
+        for (String name : lockEntries.keySet()) {
+            unregisterWaiter(name);
+        }
+        lockEntries.clear();
+        demandListeners.clear();
+        failPendingSubscriptions();
+        NegativeCache cache = negativeCache;
+        if (cache != null) {
+            for (String name : cache.clear()) {
+                unregisterWaiter(name);
+            }
+        }
+        closeSubscriber();
+        commandExecutor.close();
+        if (ownsWatchdog) {
+            watchdog.close();
+        }
+    }
+    
+    /**
+     * 关闭订阅连接
+     */
+    protected abstract void closeSubscriber();
+    
+    @Override
+    public String getBackend() {
+        return "redis";
+    }
+    
+    public LockWatchdog getWatchdog() {
+        return watchdog;
     }
     
     /**
@@ -191,4 +992,20 @@ public abstract class RedisPLockResource extends AbstractPLockResource {
     public Map<String, PLockEntry> getLockEntries() {
         return lockEntries;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 等待者共用的锁条目，订阅确认或失败后完成subscribed
+     */
+    private static final class LockEntry extends PLockEntry {
+        final CompletableFuture<Void> subscribed = new CompletableFuture<>();
+    }
+    
+    /**
+     * 锁频道上还没有确认的订阅，在subscriptions.compute中读写
+     */
+    private static final class Subscription {
+        final CompletableFuture<Void> confirmed = new CompletableFuture<>();
+        int pending;
+        Throwable failure;
+    }
+}
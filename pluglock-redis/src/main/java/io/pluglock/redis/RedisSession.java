@@ -0,0 +1,145 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.LockWatchdog;
+import io.pluglock.redis.command.RedisCommandExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Redis会话，类似ZooKeeper会话
+ *
+ * 每个锁资源注册一个带过期时间的会话键，看门狗只续期这一个键；锁的哈希记录所属会话，
+ * 会话键过期后加锁脚本把锁视为空闲。续期开销与持有的锁数量无关
+ *
+ * 会话ID是小于2^52的正整数，Lua脚本可以把它作为整数返回，调用方据此把持有者的会话键放进KEYS
+ */
+class RedisSession {
+    private static final Logger logger = LoggerFactory.getLogger(RedisSession.class);
+
+    /**
+     * 会话键前缀，后接会话ID
+     */
+    static final String KEY_PREFIX = "pluglock:session:";
+
+    // 会话ID的取值范围，Lua的数字是双精度浮点数，2^53以内的整数没有精度损失
+    private static final long ID_MASK = (1L << 52) - 1;
+
+    // 创建会话键
+    private static final String CREATE_SCRIPT =
+        "redis.call('set', KEYS[1], 1, 'px', ARGV[1]); " +
+        "return 1;";
+
+    // 续期会话键，已过期时返回0
+    private static final String HEARTBEAT_SCRIPT =
+        "return redis.call('pexpire', KEYS[1], ARGV[1]);";
+
+    private final RedisCommandExecutor commandExecutor;
+    private final long ttlMillis;
+    private volatile Id id;
+    private volatile boolean started;
+    private final ReentrantLock startLock = new ReentrantLock();
+
+    // 在看门狗中登记的名称，取第一个会话ID，换会话后不变
+    private final String watchName;
+
+    RedisSession(RedisCommandExecutor commandExecutor, long ttlMillis) {
+        this.commandExecutor = commandExecutor;
+        this.ttlMillis = ttlMillis;
+        this.id = new Id(newId());
+        this.watchName = key(id.value);
+    }
+
+    /**
+     * @return 会话ID对应的会话键
+     */
+    static String key(long id) {
+        return KEY_PREFIX + id;
+    }
+
+    private static long newId() {
+        return Math.max(1, UUID.randomUUID().getLeastSignificantBits() & ID_MASK);
+    }
+
+    /**
+     * 第一次加锁前创建会话键并开始心跳
+     *
+     * @return 当前会话ID
+     */
+    Id start(LockWatchdog watchdog, String backend) {
+        if (!started) {
+            startLock.lock();
+            try {
+                if (!started) {
+                    create(id.value);
+                    watchdog.watch(watchName, 0, backend, ttlMillis, (name, ownerId, leaseMillis) -> heartbeat());
+                    started = true;
+                }
+            } finally {
+                startLock.unlock();
+            }
+        }
+        return id;
+    }
+
+    private void create(long id) {
+        commandExecutor.executeEval(CREATE_SCRIPT, new String[]{key(id)}, String.valueOf(ttlMillis));
+    }
+
+    /**
+     * 心跳。会话已过期时旧会话的锁视为丢失：之后持有者重入和解锁时都抛出
+     * {@link IllegalMonitorStateException}，见 {@link RedisPLockResource#SESSION_ACQUIRE_SCRIPT}；
+     * 新的加锁使用新会话
+     */
+    private boolean heartbeat() {
+        long current = id.value;
+        Object renewed = commandExecutor.executeEval(HEARTBEAT_SCRIPT, new String[]{key(current)},
+                String.valueOf(ttlMillis));
+        if (renewed == null || ((Long) renewed) != 1L) {
+            logger.error("Redis lock session {} expired, locks held by it are lost", current);
+            long next = newId();
+            create(next);
+            id = new Id(next);
+        }
+        return true;
+    }
+
+    /**
+     * 停止心跳并删除会话键，会话的锁立即视为空闲
+     */
+    void close(LockWatchdog watchdog) {
+        if (started) {
+            watchdog.unwatch(watchName, 0);
+            try {
+                commandExecutor.executeEval("return redis.call('del', KEYS[1]);", new String[]{key(id.value)});
+            } catch (Exception e) {
+                logger.debug("Failed to delete Redis lock session {}", id.value, e);
+            }
+        }
+    }
+
+    Id getId() {
+        return id;
+    }
+
+    long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * 会话ID及其预先编码的脚本参数
+     */
+    static final class Id {
+        final long value;
+        final byte[] encoded;
+        final byte[] key;
+
+        Id(long value) {
+            this.value = value;
+            this.encoded = BinaryArgs.encode(Long.toString(value));
+            this.key = BinaryArgs.encode(key(value));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.AbstractPLockResource;
+import io.pluglock.core.PLockEntry;
+
+/**
+ * 非重入锁使用的锁资源，与 {@link RedisPLockResource} 共享连接、订阅和看门狗
+ *
+ * 锁是普通的字符串键，值为持有者：加锁只执行一次SET NX PX，不经过Lua脚本；释放时比较持有者后删除。
+ * 同一持有者再次加锁时抛出 {@link IllegalStateException}。不使用会话模式，未指定租约时由看门狗续期。
+ * 同名的锁在所有节点上都要使用同一种锁类型
+ */
+final class SimpleRedisPLockResource extends AbstractPLockResource {
+
+    private final RedisPLockResource resource;
+
+    SimpleRedisPLockResource(RedisPLockResource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    public Long tryAcquireResource(String name, long threadId, long leaseTime) {
+        return resource.tryAcquireSimple(name, threadId, leaseTime);
+    }
+
+    @Override
+    public void releaseResource(String name, long threadId) {
+        resource.releaseSimple(name, threadId);
+    }
+
+    @Override
+    protected void startWatchDog(String name, long threadId, long leaseMillis, Long ttl) {
+        resource.getWatchdog().watch(name, threadId, getBackend(), resource::renewSimple);
+    }
+
+    @Override
+    protected long getInternalLeaseMillis() {
+        return resource.getInternalLeaseMillis();
+    }
+
+    @Override
+    public PLockEntry subscribe(String name) {
+        return resource.subscribe(name);
+    }
+
+    @Override
+    public PLockEntry subscribe(String name, long timeoutMillis) {
+        return resource.subscribe(name, timeoutMillis);
+    }
+
+    @Override
+    public void unsubscribe(String name) {
+        resource.unsubscribe(name);
+    }
+
+    @Override
+    public void signalDemand(String name) {
+        resource.signalDemand(name);
+    }
+
+    @Override
+    public boolean watchDemand(String name, Runnable listener) {
+        return resource.watchDemand(name, listener);
+    }
+
+    @Override
+    public void unwatchDemand(String name) {
+        resource.unwatchDemand(name);
+    }
+
+    @Override
+    public Long cachedTtl(String name) {
+        return resource.cachedTtl(name);
+    }
+
+    @Override
+    public String getBackend() {
+        return resource.getBackend();
+    }
+}
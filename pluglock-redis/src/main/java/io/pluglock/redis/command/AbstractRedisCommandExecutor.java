@@ -1,10 +1,14 @@
 package io.pluglock.redis.command;
 
+import io.pluglock.core.jfr.BackendRoundTripEvent;
+import io.pluglock.core.jfr.LockEvents;
 import io.pluglock.redis.RedisConnection;
 import io.pluglock.redis.RedisConnectionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Redis命令执行器抽象基类
  */
@@ -20,10 +24,43 @@ public abstract class AbstractRedisCommandExecutor implements RedisCommandExecut
     
     @Override
     public Object executeEval(String script, String[] keys, String... args) {
+        BackendRoundTripEvent event = LockEvents.ENABLED ? BackendRoundTripEvent.start() : null;
+        boolean success = false;
         RedisConnection<?> connection = null;
         try {
             connection = connectionFactory.getConnection();
-            return doExecuteEval(connection, script, keys, args);
+            Object result = doExecuteEval(connection, script, keys, args);
+            success = true;
+            return result;
+        } catch (Exception e) {
+            logger.error("Failed to execute Redis script", e);
+            throw new RuntimeException("Failed to execute Redis script", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionFactory.releaseConnection(connection);
+                } catch (Exception e) {
+                    logger.warn("Failed to release Redis connection", e);
+                }
+            }
+            if (event != null) {
+                event.finish("redis", "eval", keys.length > 0 ? keys[0] : null, success);
+            }
+        }
+    }
+    
+    @Override
+    public Object executeEval(byte[] script, byte[][] keys, byte[]... args) {
+        BackendRoundTripEvent event = LockEvents.ENABLED ? BackendRoundTripEvent.start() : null;
+        boolean success = false;
+        RedisConnection<?> connection = null;
+        try {
+            if (isPooledConnectionRequired()) {
+                connection = connectionFactory.getConnection();
+            }
+            Object result = doExecuteEval(connection, script, keys, args);
+            success = true;
+            return result;
         } catch (Exception e) {
             logger.error("Failed to execute Redis script", e);
             throw new RuntimeException("Failed to execute Redis script", e);
@@ -35,9 +72,50 @@ public abstract class AbstractRedisCommandExecutor implements RedisCommandExecut
                     logger.warn("Failed to release Redis connection", e);
                 }
             }
+            if (event != null) {
+                event.finish("redis", "eval", keys.length > 0 ? new String(keys[0], StandardCharsets.UTF_8) : null, success);
+            }
         }
     }
     
+    @Override
+    public boolean executeSetIfAbsent(byte[] key, byte[] value, long millis) {
+        BackendRoundTripEvent event = LockEvents.ENABLED ? BackendRoundTripEvent.start() : null;
+        boolean success = false;
+        RedisConnection<?> connection = null;
+        try {
+            if (isPooledConnectionRequired()) {
+                connection = connectionFactory.getConnection();
+            }
+            boolean result = doSetIfAbsent(connection, key, value, millis);
+            success = true;
+            return result;
+        } catch (Exception e) {
+            logger.error("Failed to execute Redis SET NX", e);
+            throw new RuntimeException("Failed to execute Redis SET NX", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionFactory.releaseConnection(connection);
+                } catch (Exception e) {
+                    logger.warn("Failed to release Redis connection", e);
+                }
+            }
+            if (event != null) {
+                event.finish("redis", "set", new String(key, StandardCharsets.UTF_8), success);
+            }
+        }
+    }
+    
+    /**
+     * 二进制参数的命令是否需要从连接工厂借出连接
+     *
+     * @return false时doExecuteEval(byte[]...)和doSetIfAbsent收到的连接为null
+     */
+    protected boolean isPooledConnectionRequired() {
+        return true;
+    }
+    
     /**
      * 执行EVAL命令的具体实现，由子类提供
      * 
@@ -49,6 +127,28 @@ public abstract class AbstractRedisCommandExecutor implements RedisCommandExecut
      */
     protected abstract Object doExecuteEval(RedisConnection<?> connection, String script, String[] keys, String[] args);
     
+    /**
+     * 以二进制参数执行EVAL命令的具体实现，由子类提供
+     * 
+     * @param connection Redis连接
+     * @param script UTF-8编码的Lua脚本
+     * @param keys 键数组
+     * @param args 参数数组
+     * @return 执行结果
+     */
+    protected abstract Object doExecuteEval(RedisConnection<?> connection, byte[] script, byte[][] keys, byte[][] args);
+    
+    /**
+     * 执行SET key value NX PX的具体实现，由子类提供
+     * 
+     * @param connection Redis连接
+     * @param key 键
+     * @param value 值
+     * @param millis 过期时间（毫秒）
+     * @return 是否设置成功
+     */
+    protected abstract boolean doSetIfAbsent(RedisConnection<?> connection, byte[] key, byte[] value, long millis);
+    
     @Override
     public RedisConnectionFactory getConnectionFactory() {
         return connectionFactory;
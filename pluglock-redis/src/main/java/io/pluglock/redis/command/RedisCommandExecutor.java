@@ -18,10 +18,38 @@ public interface RedisCommandExecutor {
      */
     Object executeEval(String script, String[] keys, String... args);
     
+    /**
+     * 以二进制参数执行EVAL命令，键和参数不再经过字符串编码
+     * 
+     * 数组只在调用期间使用，返回后调用方可以复用
+     * 
+     * @param script UTF-8编码的Lua脚本
+     * @param keys 键数组
+     * @param args 参数数组
+     * @return 执行结果
+     */
+    Object executeEval(byte[] script, byte[][] keys, byte[]... args);
+    
+    /**
+     * 执行SET key value NX PX，键不存在时设置值和过期时间
+     * 
+     * @param key 键
+     * @param value 值
+     * @param millis 过期时间（毫秒）
+     * @return 是否设置成功
+     */
+    boolean executeSetIfAbsent(byte[] key, byte[] value, long millis);
+    
     /**
      * 获取连接工厂
      * 
      * @return Redis连接工厂
      */
     RedisConnectionFactory getConnectionFactory();
+    
+    /**
+     * 关闭执行器自己创建的连接，连接工厂由创建者负责销毁
+     */
+    default void close() {
+    }
 }
\ No newline at end of file
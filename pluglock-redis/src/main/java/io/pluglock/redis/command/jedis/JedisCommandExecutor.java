@@ -5,12 +5,16 @@ import io.pluglock.redis.RedisConnection;
 import io.pluglock.redis.RedisConnectionFactory;
 import io.pluglock.redis.command.AbstractRedisCommandExecutor;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.params.SetParams;
 
 /**
  * Jedis命令执行器
  */
 public class JedisCommandExecutor extends AbstractRedisCommandExecutor {
     
+    // 按长度复用的合并参数数组，Jedis同步发送，返回后即可复用
+    private static final ThreadLocal<byte[][][]> PARAMS = ThreadLocal.withInitial(() -> new byte[8][][]);
+    
     public JedisCommandExecutor(RedisConnectionFactory connectionFactory) {
         super(connectionFactory);
     }
@@ -25,6 +29,41 @@ public class JedisCommandExecutor extends AbstractRedisCommandExecutor {
         return jedis.eval(script, keys.length, mergeArrays(keys, args));
     }
     
+    @Override
+    protected Object doExecuteEval(RedisConnection<?> connection, byte[] script, byte[][] keys, byte[][] args) {
+        if (!(connection instanceof JedisConnection)) {
+            throw new IllegalArgumentException("Connection must be an instance of JedisConnection");
+        }
+        
+        Jedis jedis = ((JedisConnection) connection).getNativeConnection();
+        return jedis.eval(script, keys.length, mergeArrays(keys, args));
+    }
+    
+    @Override
+    protected boolean doSetIfAbsent(RedisConnection<?> connection, byte[] key, byte[] value, long millis) {
+        if (!(connection instanceof JedisConnection)) {
+            throw new IllegalArgumentException("Connection must be an instance of JedisConnection");
+        }
+        
+        Jedis jedis = ((JedisConnection) connection).getNativeConnection();
+        return jedis.set(key, value, SetParams.setParams().nx().px(millis)) != null;
+    }
+    
+    private static byte[][] mergeArrays(byte[][] keys, byte[][] args) {
+        int length = keys.length + args.length;
+        byte[][][] cache = PARAMS.get();
+        byte[][] result = length < cache.length ? cache[length] : null;
+        if (result == null) {
+            result = new byte[length][];
+            if (length < cache.length) {
+                cache[length] = result;
+            }
+        }
+        System.arraycopy(keys, 0, result, 0, keys.length);
+        System.arraycopy(args, 0, result, keys.length, args.length);
+        return result;
+    }
+    
     private static String[] mergeArrays(String[] keys, String[] args) {
         String[] result = new String[keys.length + args.length];
         System.arraycopy(keys, 0, result, 0, keys.length);
@@ -1,30 +1,136 @@
 package io.pluglock.redis.command.lettuce;
 
+import io.lettuce.core.RedisClient;
 import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import io.pluglock.redis.DynamicRedisConnectionFactory;
 import io.pluglock.redis.LettuceConnection;
+import io.pluglock.redis.LettuceConnectionFactory;
 import io.pluglock.redis.RedisConnection;
 import io.pluglock.redis.RedisConnectionFactory;
 import io.pluglock.redis.command.AbstractRedisCommandExecutor;
+import io.pluglock.redis.spi.LettuceConnectionFactoryImpl;
+
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Lettuce命令执行器
+ *
+ * 二进制参数的命令走执行器自己的ByteArrayCodec共享连接；连接工厂无法提供RedisClient时在池中的字符串连接上
+ * 直接发送原始字节，同样不经过字符串编解码
  */
 public class LettuceCommandExecutor extends AbstractRedisCommandExecutor {
     
+    private final RedisClient redisClient;
+    private volatile StatefulRedisConnection<byte[], byte[]> binaryConnection;
+    private final ReentrantLock connectLock = new ReentrantLock();
+    
     public LettuceCommandExecutor(RedisConnectionFactory connectionFactory) {
         super(connectionFactory);
+        this.redisClient = getRedisClient(connectionFactory);
+    }
+    
+    /**
+     * 连接工厂使用的RedisClient
+     *
+     * @param connectionFactory 连接工厂
+     * @return RedisClient，工厂不是Lettuce实现时为null
+     */
+    public static RedisClient getRedisClient(RedisConnectionFactory connectionFactory) {
+        RedisConnectionFactory factory = connectionFactory;
+        if (factory instanceof DynamicRedisConnectionFactory) {
+            factory = ((DynamicRedisConnectionFactory) factory).getDelegate();
+        }
+        if (factory instanceof LettuceConnectionFactory) {
+            return ((LettuceConnectionFactory) factory).getRedisClient();
+        }
+        if (factory instanceof LettuceConnectionFactoryImpl) {
+            return ((LettuceConnectionFactoryImpl) factory).getRedisClient();
+        }
+        return null;
     }
     
     @Override
     protected Object doExecuteEval(RedisConnection<?> connection, String script, String[] keys, String[] args) {
+        RedisCommands<String, String> commands = nativeConnection(connection).sync();
+        return commands.eval(script, ScriptOutputType.INTEGER, keys, args);
+    }
+    
+    /**
+     * 有RedisClient时二进制命令只用自己的共享连接，不从池中借出连接
+     */
+    @Override
+    protected boolean isPooledConnectionRequired() {
+        return redisClient == null;
+    }
+    
+    @Override
+    protected Object doExecuteEval(RedisConnection<?> connection, byte[] script, byte[][] keys, byte[][] args) {
+        if (redisClient != null) {
+            return getBinaryConnection().sync().eval(script, ScriptOutputType.INTEGER, keys, args);
+        }
+        CommandArgs<String, String> commandArgs = new CommandArgs<>(StringCodec.UTF8).add(script).add(keys.length);
+        for (byte[] key : keys) {
+            commandArgs.add(key);
+        }
+        for (byte[] arg : args) {
+            commandArgs.add(arg);
+        }
+        return nativeConnection(connection).sync().dispatch(CommandType.EVAL, new IntegerOutput<>(StringCodec.UTF8), commandArgs);
+    }
+    
+    @Override
+    protected boolean doSetIfAbsent(RedisConnection<?> connection, byte[] key, byte[] value, long millis) {
+        SetArgs setArgs = SetArgs.Builder.nx().px(millis);
+        if (redisClient != null) {
+            return getBinaryConnection().sync().set(key, value, setArgs) != null;
+        }
+        CommandArgs<String, String> commandArgs = new CommandArgs<>(StringCodec.UTF8).add(key).add(value);
+        setArgs.build(commandArgs);
+        return nativeConnection(connection).sync().dispatch(CommandType.SET, new StatusOutput<>(StringCodec.UTF8), commandArgs) != null;
+    }
+    
+    private static StatefulRedisConnection<String, String> nativeConnection(RedisConnection<?> connection) {
         if (!(connection instanceof LettuceConnection)) {
             throw new IllegalArgumentException("Connection must be an instance of LettuceConnection");
         }
-        
-        StatefulRedisConnection<String, String> lettuceConnection = ((LettuceConnection) connection).getNativeConnection();
-        RedisCommands<String, String> commands = lettuceConnection.sync();
-        return commands.eval(script, ScriptOutputType.INTEGER, keys, args);
+        return ((LettuceConnection) connection).getNativeConnection();
+    }
+    
+    private StatefulRedisConnection<byte[], byte[]> getBinaryConnection() {
+        StatefulRedisConnection<byte[], byte[]> connection = binaryConnection;
+        if (connection != null && connection.isOpen()) {
+            return connection;
+        }
+        connectLock.lock();
+        try {
+            if (binaryConnection == null || !binaryConnection.isOpen()) {
+                binaryConnection = redisClient.connect(ByteArrayCodec.INSTANCE);
+            }
+            return binaryConnection;
+        } finally {
+            connectLock.unlock();
+        }
+    }
+    
+    @Override
+    public void close() {
+        connectLock.lock();
+        try {
+            if (binaryConnection != null) {
+                binaryConnection.close();
+                binaryConnection = null;
+            }
+        } finally {
+            connectLock.unlock();
+        }
     }
-}
\ No newline at end of file
+}
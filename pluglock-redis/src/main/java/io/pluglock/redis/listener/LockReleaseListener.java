@@ -1,17 +1,13 @@
 package io.pluglock.redis.listener;
 
-import io.pluglock.core.PLockEntry;
 import io.pluglock.redis.RedisPLockResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.JedisPubSub;
 
-import java.util.Map;
-import java.util.concurrent.Semaphore;
-
 /**
  * 锁释放监听器
- * 监听Redis发布的锁释放消息，并通知等待的线程
+ * 监听Redis发布的锁释放消息、加锁需求和锁键的keyspace通知，交给锁资源处理
  */
 public class LockReleaseListener extends JedisPubSub {
     
@@ -27,30 +23,35 @@ public class LockReleaseListener extends JedisPubSub {
     public void onMessage(String channel, String message) {
         logger.debug("Received lock release message on channel: {}, message: {}", channel, message);
         
+        String keyspacePrefix = lockResource.getKeyspaceChannelPrefix();
+        if (keyspacePrefix != null && channel.startsWith(keyspacePrefix)) {
+            lockResource.onKeyspaceEvent(channel.substring(keyspacePrefix.length()), message);
+            return;
+        }
+        
         // 从通道名解析出锁名称
         String lockName = parseLockNameFromChannel(channel);
         if (lockName != null) {
-            Map<String, PLockEntry> lockEntries = lockResource.getLockEntries();
-            PLockEntry entry = lockEntries.get(lockName);
-            if (entry != null) {
-                Semaphore latch = entry.getLatch();
-                if (latch != null) {
-                    // 释放信号量，唤醒等待的线程
-                    latch.release();
-                    logger.debug("Released semaphore for lock: {}", lockName);
-                }
-            }
+            lockResource.onMessage(lockName, message);
         }
     }
     
     @Override
     public void onSubscribe(String channel, int subscribedChannels) {
         logger.debug("Subscribed to channel: {}, total channels: {}", channel, subscribedChannels);
+        String lockName = parseLockNameFromChannel(channel);
+        if (lockName != null) {
+            lockResource.onSubscribed(lockName);
+        }
     }
     
     @Override
     public void onUnsubscribe(String channel, int subscribedChannels) {
         logger.debug("Unsubscribed from channel: {}, total channels: {}", channel, subscribedChannels);
+        String lockName = parseLockNameFromChannel(channel);
+        if (lockName != null) {
+            lockResource.onUnsubscribed(lockName);
+        }
     }
     
     /**
@@ -11,6 +11,8 @@ import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.LongConsumer;
+
 /**
  * Lettuce连接工厂SPI实现
  */
@@ -19,6 +21,8 @@ public class LettuceConnectionFactoryImpl implements RedisConnectionFactory {
     
     private final RedisClient redisClient;
     private final GenericObjectPool<StatefulRedisConnection<String, String>> connectionPool;
+    // 借用连接的等待时间监听器
+    private volatile LongConsumer borrowListener;
     
     public LettuceConnectionFactoryImpl() {
         this("localhost", 6379);
@@ -58,7 +62,14 @@ public class LettuceConnectionFactoryImpl implements RedisConnectionFactory {
             if (connectionPool == null) {
                 throw new IllegalStateException("Connection pool not initialized");
             }
-            return new LettuceConnection(connectionPool.borrowObject());
+            LongConsumer listener = borrowListener;
+            if (listener == null) {
+                return new LettuceConnection(connectionPool.borrowObject());
+            }
+            long start = System.nanoTime();
+            StatefulRedisConnection<String, String> connection = connectionPool.borrowObject();
+            listener.accept(System.nanoTime() - start);
+            return new LettuceConnection(connection);
         } catch (Exception e) {
             throw new RuntimeException("Failed to borrow connection from pool", e);
         }
@@ -91,6 +102,21 @@ public class LettuceConnectionFactoryImpl implements RedisConnectionFactory {
         return "lettuce";
     }
     
+    public RedisClient getRedisClient() {
+        return redisClient;
+    }
+    
+    public GenericObjectPool<StatefulRedisConnection<String, String>> getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * 设置借用连接等待时间的监听器，参数为纳秒，为null时不计时
+     */
+    public void setBorrowListener(LongConsumer borrowListener) {
+        this.borrowListener = borrowListener;
+    }
+    
     /**
      * 检查当前环境是否支持Lettuce
      * @return 是否支持Lettuce
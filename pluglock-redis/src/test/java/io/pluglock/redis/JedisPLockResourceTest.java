@@ -0,0 +1,98 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.PLockEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JedisPLockResourceTest {
+
+    private JedisConnectionFactory connectionFactory;
+    private JedisPLockResource resource;
+    private ExecutorService executor;
+
+    @BeforeAll
+    static void requireRedis() {
+        RedisTestSupport.assumeRedis();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new JedisConnectionFactory(RedisTestSupport.HOST, RedisTestSupport.PORT);
+        resource = new JedisPLockResource(connectionFactory);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        resource.close();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void concurrentSubscribesShareOneEntryWithoutBlockingCallers() throws Exception {
+        String name = "jedis-subscribe-" + System.nanoTime();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PLockEntry>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return resource.subscribe(name);
+            }));
+        }
+        start.countDown();
+        // 阻塞订阅在后台线程中进行，调用方不会一直卡在订阅连接上
+        PLockEntry entry = futures.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<PLockEntry> future : futures) {
+            assertSame(entry, future.get(5, TimeUnit.SECONDS));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            resource.unsubscribe(name);
+        }
+        assertFalse(resource.getLockEntries().containsKey(name));
+    }
+
+    @Test
+    void releaseMessageOnChannelWakesWaiter() throws Exception {
+        String name = "jedis-release-" + System.nanoTime();
+        PLockEntry entry = resource.subscribe(name);
+        try {
+            // 订阅确认之前发布的消息会丢失，重复发布直到收到
+            RedisTestSupport.awaitSubscribed(entry, name);
+        } finally {
+            resource.unsubscribe(name);
+        }
+    }
+
+    @Test
+    void releasePublishedRightAfterSubscribeIsReceived() throws Exception {
+        try (Jedis publisher = new Jedis(RedisTestSupport.HOST, RedisTestSupport.PORT)) {
+            for (int i = 0; i < 20; i++) {
+                String name = "jedis-confirmed-" + System.nanoTime();
+                // subscribe()在服务端确认订阅后才返回，之后只发布一次也不会丢失
+                PLockEntry entry = resource.subscribe(name);
+                try {
+                    publisher.publish("lock:" + name + ":channel", RedisPLockResource.RELEASE_MESSAGE);
+                    assertTrue(entry.getLatch().tryAcquire(5, TimeUnit.SECONDS));
+                } finally {
+                    resource.unsubscribe(name);
+                }
+            }
+        }
+    }
+}
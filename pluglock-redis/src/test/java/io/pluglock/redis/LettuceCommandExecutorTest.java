@@ -0,0 +1,76 @@
+package io.pluglock.redis;
+
+import io.pluglock.redis.command.lettuce.LettuceCommandExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 二进制命令按原样发送字节，连接工厂不提供RedisClient时也不经过字符串编解码
+ */
+class LettuceCommandExecutorTest {
+
+    private static final byte[] TTL_SCRIPT = BinaryArgs.encode("return redis.call('pttl', KEYS[1])");
+    private static final byte[] DEL_SCRIPT = BinaryArgs.encode("redis.call('del', KEYS[1]); return nil");
+
+    private LettuceConnectionFactory connectionFactory;
+    private Jedis jedis;
+
+    @BeforeAll
+    static void requireRedis() {
+        RedisTestSupport.assumeRedis();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(RedisTestSupport.HOST, RedisTestSupport.PORT);
+        jedis = new Jedis(RedisTestSupport.HOST, RedisTestSupport.PORT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jedis.close();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void binaryCommandsOnSharedConnection() {
+        LettuceCommandExecutor executor = new LettuceCommandExecutor(connectionFactory);
+        try {
+            assertBinaryRoundTrip(executor);
+        } finally {
+            executor.close();
+        }
+    }
+
+    @Test
+    void binaryCommandsOnPooledStringConnection() {
+        RedisConnectionFactory pooled = RedisEvalBenchmark.withoutRedisClient(connectionFactory);
+        assertNull(LettuceCommandExecutor.getRedisClient(pooled));
+        assertBinaryRoundTrip(new LettuceCommandExecutor(pooled));
+    }
+
+    private void assertBinaryRoundTrip(LettuceCommandExecutor executor) {
+        // 不是合法UTF-8的键和值，经过字符串转换会被替换
+        byte[] key = ("binary-" + System.nanoTime() + "-ÿ").getBytes(StandardCharsets.ISO_8859_1);
+        byte[] value = {(byte) 0xc3, (byte) 0x28, (byte) 0xff, 1};
+        assertTrue(executor.executeSetIfAbsent(key, value, 10000));
+        assertFalse(executor.executeSetIfAbsent(key, value, 10000));
+        assertArrayEquals(value, jedis.get(key));
+
+        Object ttl = executor.executeEval(TTL_SCRIPT, new byte[][]{key});
+        assertTrue(ttl instanceof Long && (Long) ttl > 0);
+        assertNull(executor.executeEval(DEL_SCRIPT, new byte[][]{key}));
+        assertEquals(-2L, executor.executeEval(TTL_SCRIPT, new byte[][]{key}));
+    }
+}
@@ -0,0 +1,63 @@
+package io.pluglock.redis;
+
+import io.lettuce.core.RedisClient;
+import io.pluglock.core.PLockEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LettucePLockResourceTest {
+
+    private static final int DATABASE = 2;
+
+    private RedisClient client;
+    private LettucePLockResource resource;
+
+    @BeforeAll
+    static void requireRedis() {
+        RedisTestSupport.assumeRedis();
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = RedisClient.create("redis://" + RedisTestSupport.HOST + ":" + RedisTestSupport.PORT + "/" + DATABASE);
+        resource = new LettucePLockResource(new LettuceConnectionFactory(client));
+    }
+
+    @AfterEach
+    void tearDown() {
+        resource.close();
+        resource.getCommandExecutor().getConnectionFactory().destroy();
+        client.shutdown();
+    }
+
+    @Test
+    void releasePublishedRightAfterSubscribeIsReceived() throws Exception {
+        try (Jedis publisher = new Jedis(RedisTestSupport.HOST, RedisTestSupport.PORT)) {
+            for (int i = 0; i < 20; i++) {
+                String name = "lettuce-confirmed-" + System.nanoTime();
+                PLockEntry entry = resource.subscribe(name);
+                try {
+                    publisher.publish("lock:" + name + ":channel", RedisPLockResource.RELEASE_MESSAGE);
+                    assertTrue(entry.getLatch().tryAcquire(5, TimeUnit.SECONDS));
+                } finally {
+                    resource.unsubscribe(name);
+                }
+            }
+        }
+    }
+
+    @Test
+    void keyspaceChannelUsesDatabaseOfClient() {
+        resource.enableKeyspaceNotifications();
+        assertEquals("__keyspace@" + DATABASE + "__:", resource.getKeyspaceChannelPrefix());
+        assertEquals(7, LettucePLockResource.parseDatabase("id=5 addr=127.0.0.1:5000 name= db=7 sub=0"));
+    }
+}
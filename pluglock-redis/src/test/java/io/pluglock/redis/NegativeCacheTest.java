@@ -0,0 +1,78 @@
+package io.pluglock.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NegativeCacheTest {
+
+    private final NegativeCache cache = new NegativeCache(2);
+
+    @Test
+    void failureIsCachedOnlyAfterSubscriptionIsConfirmed() {
+        assertTrue(cache.failed("a", 10_000, System.nanoTime()));
+        assertFalse(cache.failed("a", 10_000, System.nanoTime()));
+        // 订阅确认之前收不到释放通知，结果不可信
+        assertNull(cache.get("a"));
+
+        cache.subscribed("a");
+        cache.failed("a", 10_000, System.nanoTime());
+        Long ttl = cache.get("a");
+        assertNotNull(ttl);
+        assertTrue(ttl > 0 && ttl <= 10_000);
+    }
+
+    @Test
+    void releaseNotificationClearsCachedResult() {
+        cache.failed("a", 10_000, System.nanoTime());
+        cache.subscribed("a");
+        long start = System.nanoTime();
+        cache.released("a");
+        // 尝试开始之前收到的释放通知不影响之后的结果
+        cache.failed("a", 10_000, System.nanoTime());
+        assertNotNull(cache.get("a"));
+
+        cache.released("a");
+        assertNull(cache.get("a"));
+        // 释放通知晚于尝试开始，这次失败结果可能已经过时
+        cache.failed("a", 10_000, start);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void locksHeldLocallyBypassCache() {
+        cache.failed("a", 10_000, System.nanoTime());
+        cache.subscribed("a");
+        cache.failed("a", 10_000, System.nanoTime());
+        cache.acquired("a");
+        assertNull(cache.get("a"));
+        cache.releasedLocally("a");
+        assertNotNull(cache.get("a"));
+    }
+
+    @Test
+    void fullCacheDoesNotRegisterMoreNames() {
+        assertTrue(cache.failed("a", 10_000, System.nanoTime()));
+        assertTrue(cache.failed("b", 10_000, System.nanoTime()));
+        assertFalse(cache.failed("c", 10_000, System.nanoTime()));
+        assertFalse(cache.contains("c"));
+        // 条目都还在订阅宽限期内，不清理
+        assertEquals(Collections.emptyList(), cache.sweep());
+    }
+
+    @Test
+    void unsubscribedAndClearedNamesAreDropped() {
+        cache.failed("a", 10_000, System.nanoTime());
+        cache.failed("b", 10_000, System.nanoTime());
+        cache.unsubscribed("a");
+        assertFalse(cache.contains("a"));
+        assertEquals(Collections.singletonList("b"), cache.clear());
+        assertFalse(cache.contains("b"));
+    }
+}
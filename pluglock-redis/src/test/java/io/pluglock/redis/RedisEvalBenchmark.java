@@ -0,0 +1,118 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.LockOwner;
+import io.pluglock.redis.command.RedisCommandExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 无竞争加锁和释放的分配对比：binary为锁资源使用的二进制参数路径，strings为每次编码字符串参数的路径
+ *
+ * 需要localhost:6379上的Redis，用 -prof gc 查看每次操作的分配字节数（gc.alloc.rate.norm）。
+ * client为lettuce-pool时连接工厂不提供RedisClient，二进制命令在池中的字符串连接上发送。运行方式：
+ * <pre>
+ * mvn -pl pluglock-redis -am test-compile
+ * java -cp pluglock-redis/target/test-classes:&lt;test classpath&gt; io.pluglock.redis.RedisEvalBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RedisEvalBenchmark {
+
+    private static final long LEASE_MILLIS = 30000;
+
+    @Param({"jedis", "lettuce", "lettuce-pool"})
+    private String client;
+
+    private RedisConnectionFactory connectionFactory;
+    private RedisPLockResource resource;
+    private String name;
+    private long owner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("jedis".equals(client)) {
+            connectionFactory = new JedisConnectionFactory("localhost", 6379);
+            resource = new JedisPLockResource(connectionFactory);
+        } else {
+            LettuceConnectionFactory lettuce = new LettuceConnectionFactory("localhost", 6379);
+            connectionFactory = "lettuce".equals(client) ? lettuce : withoutRedisClient(lettuce);
+            resource = new LettucePLockResource(connectionFactory);
+        }
+        name = "bench-eval-" + client;
+        owner = LockOwner.newToken();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        resource.close();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public Long binary() {
+        Long ttl = resource.tryAcquireResource(name, owner, LEASE_MILLIS);
+        resource.releaseResource(name, owner);
+        return ttl;
+    }
+
+    @Benchmark
+    public Object strings() {
+        RedisCommandExecutor executor = resource.getCommandExecutor();
+        String waiters = RedisPLockResource.waitersKey(name);
+        Object ttl = executor.executeEval(RedisPLockResource.ACQUIRE_SCRIPT, new String[]{name, waiters},
+                String.valueOf(LEASE_MILLIS), LockOwner.encode(owner), "0");
+        executor.executeEval(RedisPLockResource.RELEASE_SCRIPT, new String[]{name, "lock:" + name + ":channel", waiters},
+                String.valueOf(LEASE_MILLIS), LockOwner.encode(owner), RedisPLockResource.RELEASE_MESSAGE);
+        return ttl;
+    }
+
+    /**
+     * 不暴露RedisClient的连接工厂，模拟自定义的Lettuce连接池
+     */
+    static RedisConnectionFactory withoutRedisClient(RedisConnectionFactory delegate) {
+        return new RedisConnectionFactory() {
+            @Override
+            public <T> RedisConnection<T> getConnection() {
+                return delegate.getConnection();
+            }
+
+            @Override
+            public void releaseConnection(RedisConnection<?> connection) {
+                delegate.releaseConnection(connection);
+            }
+
+            @Override
+            public void destroy() {
+                delegate.destroy();
+            }
+
+            @Override
+            public String getName() {
+                return delegate.getName();
+            }
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        org.openjdk.jmh.Main.main(args.length == 0 ? new String[]{RedisEvalBenchmark.class.getSimpleName()} : args);
+    }
+}
@@ -0,0 +1,91 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.PLockEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisKeyspaceNotificationTest {
+
+    // 锁键放在非0号数据库，keyspace频道的编号要取自连接
+    private static final int DATABASE = 3;
+
+    private JedisPool pool;
+    private JedisPLockResource resource;
+    private String previousEvents;
+
+    @BeforeAll
+    static void requireRedis() {
+        RedisTestSupport.assumeRedis();
+    }
+
+    @BeforeEach
+    void setUp() {
+        pool = new JedisPool(new JedisPoolConfig(), RedisTestSupport.HOST, RedisTestSupport.PORT, 2000, null, DATABASE);
+        try (Jedis jedis = pool.getResource()) {
+            List<String> events = jedis.configGet("notify-keyspace-events");
+            previousEvents = events.size() > 1 ? events.get(1) : "";
+            // 包含g，服务端也会发出del通知，由锁资源忽略
+            jedis.configSet("notify-keyspace-events", "Kgxe");
+        }
+        resource = new JedisPLockResource(new JedisConnectionFactory(pool));
+        resource.enableKeyspaceNotifications();
+    }
+
+    @AfterEach
+    void tearDown() {
+        resource.close();
+        try (Jedis jedis = pool.getResource()) {
+            jedis.configSet("notify-keyspace-events", previousEvents);
+        }
+        pool.close();
+    }
+
+    @Test
+    void keyspaceChannelUsesDatabaseOfConnection() {
+        assertEquals("__keyspace@" + DATABASE + "__:", resource.getKeyspaceChannelPrefix());
+        assertEquals("__keyspace@" + DATABASE + "__:job", resource.getKeyspaceChannel("job"));
+    }
+
+    @Test
+    void expiredLockWakesWaiter() throws Exception {
+        String name = "keyspace-expired-" + System.nanoTime();
+        PLockEntry entry = resource.subscribe(name);
+        try {
+            RedisTestSupport.awaitSubscribed(entry, name);
+            // 持有者崩溃，不会发布释放消息
+            assertNull(resource.tryAcquireResource(name, 1, 200));
+            assertTrue(entry.getLatch().tryAcquire(5, TimeUnit.SECONDS));
+        } finally {
+            resource.unsubscribe(name);
+        }
+    }
+
+    @Test
+    void releaseWakesOnlyOneWaiter() throws Exception {
+        String name = "keyspace-release-" + System.nanoTime();
+        PLockEntry entry = resource.subscribe(name);
+        try {
+            RedisTestSupport.awaitSubscribed(entry, name);
+            assertNull(resource.tryAcquireResource(name, 1, 30000));
+            resource.releaseResource(name, 1);
+            assertTrue(entry.getLatch().tryAcquire(5, TimeUnit.SECONDS));
+            // del的keyspace通知不能再发一个信号
+            assertFalse(entry.getLatch().tryAcquire(300, TimeUnit.MILLISECONDS));
+        } finally {
+            resource.unsubscribe(name);
+        }
+    }
+}
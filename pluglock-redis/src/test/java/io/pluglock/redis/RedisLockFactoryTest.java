@@ -0,0 +1,150 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.LockOwner;
+import io.pluglock.core.PLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 资源级配置（会话模式、keyspace通知、否定缓存）只作用于配置相同的锁
+ */
+class RedisLockFactoryTest {
+
+    private static final long HOLDER = LockOwner.newToken();
+
+    private RedisLockFactory factory;
+    private Jedis jedis;
+
+    @BeforeAll
+    static void requireRedis() {
+        RedisTestSupport.assumeRedis();
+    }
+
+    @BeforeEach
+    void setUp() {
+        factory = new RedisLockFactory();
+        jedis = new Jedis(RedisTestSupport.HOST, RedisTestSupport.PORT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jedis.close();
+        factory.close();
+    }
+
+    private static LockConfig config() {
+        LockConfig config = new LockConfig();
+        config.setProperty("redis.host", RedisTestSupport.HOST);
+        config.setProperty("redis.port", String.valueOf(RedisTestSupport.PORT));
+        return config;
+    }
+
+    private static LockConfig sessionConfig() {
+        LockConfig config = config();
+        config.setProperty("redis.session.enabled", "true");
+        return config;
+    }
+
+    @Test
+    void sessionModeDoesNotLeakToLocksWithoutIt() {
+        String sessionName = "factory-session-" + System.nanoTime();
+        String plainName = "factory-plain-" + System.nanoTime();
+        // 先创建会话模式的锁，之后未开启会话模式的锁仍要设置过期时间
+        PLock sessionLock = factory.createLock(sessionName, sessionConfig());
+        PLock plainLock = factory.createLock(plainName, config());
+        assertNotSame(factory.getLockResource(sessionConfig()), factory.getLockResource(config()));
+
+        sessionLock.lock();
+        plainLock.lock();
+        try {
+            // 会话模式下只有兜底的过期时间，长于会话键
+            long pttl = jedis.pttl(sessionName);
+            assertTrue(pttl > 10000 && pttl <= RedisPLockResource.SESSION_LOCK_TTL_MILLIS);
+            assertNotNull(jedis.hget(sessionName, "session"));
+            assertTrue(jedis.pttl(plainName) > 0);
+            assertNull(jedis.hget(plainName, "session"));
+        } finally {
+            plainLock.unlock();
+            sessionLock.unlock();
+        }
+    }
+
+    @Test
+    void sameSettingsShareResource() {
+        LockConfig frozen = config().freeze();
+        assertSame(factory.getLockResource(frozen), factory.getLockResource(config()));
+        assertFalse(factory.getLockResource(config()).isNegativeCache());
+    }
+
+    @Test
+    void sharedResourceRejectsMixedSettings() {
+        RedisPLockResource resource = factory.getLockResource(config());
+        RedisLockFactory shared = new RedisLockFactory(resource);
+        shared.createLock("mixed-a", config());
+        shared.createLock("mixed-b", config());
+        assertThrows(IllegalArgumentException.class, () -> shared.createLock("mixed-c", sessionConfig()));
+        assertThrows(IllegalStateException.class, () -> {
+            resource.enableSession(1000);
+            resource.enableSession(2000);
+        });
+    }
+
+    @Test
+    void negativeCacheAnswersUntilReleaseNotification() throws Exception {
+        LockConfig config = config();
+        config.setProperty("lock.trylock.cache", "true");
+        String name = "factory-cache-" + System.nanoTime();
+        RedisPLockResource resource = factory.getLockResource(config);
+        assertTrue(resource.isNegativeCache());
+        assertFalse(factory.getLockResource(config()).isNegativeCache());
+
+        // 持有者在另一个节点上，本资源持有的锁不使用缓存
+        JedisConnectionFactory connectionFactory = new JedisConnectionFactory(RedisTestSupport.HOST, RedisTestSupport.PORT);
+        JedisPLockResource holder = new JedisPLockResource(connectionFactory);
+        try {
+            assertNull(holder.tryAcquireResource(name, HOLDER, 30000));
+            assertCachedUntilReleased(factory.createLock(name, config), resource, holder, name);
+        } finally {
+            holder.close();
+            connectionFactory.destroy();
+        }
+    }
+
+    private void assertCachedUntilReleased(PLock lock, RedisPLockResource resource, RedisPLockResource holder, String name)
+            throws InterruptedException {
+        // 订阅确认之后的失败结果才会缓存
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (resource.cachedTtl(name) == null && System.nanoTime() < deadline) {
+            assertFalse(lock.tryLock());
+            Thread.sleep(10);
+        }
+        assertNotNull(resource.cachedTtl(name));
+        assertEquals("1", jedis.get(RedisPLockResource.waitersKey(name)));
+
+        // 缓存的名称计入等待者，释放时发布消息并清除缓存的结果
+        holder.releaseResource(name, HOLDER);
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        boolean acquired = false;
+        while (!acquired && System.nanoTime() < deadline) {
+            acquired = lock.tryLock();
+            Thread.sleep(10);
+        }
+        assertTrue(acquired);
+        lock.unlock();
+    }
+}
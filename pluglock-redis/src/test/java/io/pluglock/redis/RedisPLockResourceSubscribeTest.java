@@ -0,0 +1,187 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.PLockEntry;
+import io.pluglock.redis.command.RedisCommandExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订阅和退订的顺序与确认，不连接Redis，订阅确认由测试手动发出
+ */
+class RedisPLockResourceSubscribeTest {
+
+    private RecordingResource resource;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        resource = new RecordingResource();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void waitersReturnOnlyAfterServerConfirmsSubscription() throws Exception {
+        Future<PLockEntry> first = executor.submit(() -> resource.subscribe("a"));
+        Future<PLockEntry> second = executor.submit(() -> resource.subscribe("a"));
+        assertThrows(TimeoutException.class, () -> first.get(200, TimeUnit.MILLISECONDS));
+        assertFalse(second.isDone());
+        // 同名的等待者只发出一次订阅
+        assertEquals(1, resource.count("subscribe:a"));
+
+        resource.onSubscribed("a");
+        PLockEntry entry = first.get(5, TimeUnit.SECONDS);
+        assertSame(entry, second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, entry.getWaiters());
+    }
+
+    @Test
+    void pendingSubscriptionDoesNotBlockOtherNames() throws Exception {
+        Future<PLockEntry> pending = executor.submit(() -> resource.subscribe("slow"));
+        Future<PLockEntry> other = executor.submit(() -> resource.subscribe("fast"));
+        // 等待确认时不持有lockEntries的锁，其他名称可以订阅和退订
+        awaitCommand("subscribe:fast");
+        resource.onSubscribed("fast");
+        other.get(5, TimeUnit.SECONDS);
+        resource.unsubscribe("fast");
+        assertEquals(1, resource.count("unsubscribe:fast"));
+        assertFalse(pending.isDone());
+
+        resource.onSubscribed("slow");
+        pending.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void lastWaiterUnsubscribes() throws Exception {
+        resource.autoConfirm = true;
+        PLockEntry entry = resource.subscribe("b");
+        assertSame(entry, resource.subscribe("b"));
+        resource.unsubscribe("b");
+        assertEquals(0, resource.count("unsubscribe:b"));
+        resource.unsubscribe("b");
+        assertEquals(1, resource.count("unsubscribe:b"));
+        assertFalse(resource.getLockEntries().containsKey("b"));
+
+        // 重新订阅创建新的条目
+        PLockEntry next = resource.subscribe("b");
+        assertTrue(next != entry);
+        assertEquals(2, resource.count("subscribe:b"));
+    }
+
+    @Test
+    void earlierConfirmationDoesNotCompleteLaterSubscription() throws Exception {
+        // 加锁需求监听和等待者各自发出订阅，第一个确认只属于先发出的订阅
+        Future<Boolean> watching = executor.submit(() -> resource.watchDemand("c", () -> { }));
+        awaitCommand("subscribe:c", 1);
+        Future<PLockEntry> waiter = executor.submit(() -> resource.subscribe("c"));
+        awaitCommand("subscribe:c", 2);
+
+        resource.onSubscribed("c");
+        assertThrows(TimeoutException.class, () -> waiter.get(200, TimeUnit.MILLISECONDS));
+        resource.onSubscribed("c");
+        waiter.get(5, TimeUnit.SECONDS);
+        assertTrue(watching.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void subscribeWaitIsBoundedByCallerTimeout() {
+        long start = System.nanoTime();
+        PLockEntry entry = resource.subscribe("e", 100);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 没有确认时按调用方的剩余时间返回，而不是固定等待SUBSCRIBE_TIMEOUT_MILLIS
+        assertTrue(elapsedMillis >= 100 && elapsedMillis < RedisPLockResource.SUBSCRIBE_TIMEOUT_MILLIS,
+                "Waited " + elapsedMillis + " ms");
+        assertEquals(1, resource.count("subscribe:e"));
+        assertEquals(1, entry.getWaiters());
+        resource.unsubscribe("e");
+        assertEquals(1, resource.count("unsubscribe:e"));
+    }
+
+    @Test
+    void failedSubscriptionReleasesWaiters() throws Exception {
+        resource.failSubscribe = true;
+        PLockEntry entry = resource.subscribe("d");
+        assertEquals(1, entry.getWaiters());
+        resource.unsubscribe("d");
+        assertFalse(resource.getLockEntries().containsKey("d"));
+    }
+
+    private void awaitCommand(String command) throws InterruptedException {
+        awaitCommand(command, 1);
+    }
+
+    private void awaitCommand(String command, int times) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (resource.count(command) < times) {
+            assertTrue(System.nanoTime() < deadline, "Command not sent: " + command);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * 记录发出的订阅和退订命令，不连接Redis
+     */
+    private static final class RecordingResource extends RedisPLockResource {
+
+        final List<String> commands = new CopyOnWriteArrayList<>();
+        volatile boolean autoConfirm;
+        volatile boolean failSubscribe;
+
+        RecordingResource() {
+            super(null);
+        }
+
+        @Override
+        protected RedisCommandExecutor createCommandExecutor(RedisConnectionFactory connectionFactory) {
+            return null;
+        }
+
+        @Override
+        protected void doSubscribe(String name) {
+            if (failSubscribe) {
+                throw new IllegalStateException("Subscriber unavailable");
+            }
+            commands.add("subscribe:" + name);
+            if (autoConfirm) {
+                onSubscribed(name);
+            }
+        }
+
+        @Override
+        protected void doUnsubscribe(String name) {
+            commands.add("unsubscribe:" + name);
+        }
+
+        @Override
+        protected int getDatabase() {
+            return 0;
+        }
+
+        @Override
+        protected void closeSubscriber() {
+        }
+
+        long count(String command) {
+            return commands.stream().filter(command::equals).count();
+        }
+    }
+}
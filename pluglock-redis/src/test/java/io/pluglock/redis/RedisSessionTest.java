@@ -0,0 +1,124 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.LockOwner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 会话模式：锁随会话键失效，会话过期后本节点在旧会话下持有的锁视为丢失
+ */
+class RedisSessionTest {
+
+    private static final long SESSION_TTL = 300;
+    private static final long HOLDER = LockOwner.newToken();
+    private static final long OTHER = LockOwner.newToken();
+
+    private JedisConnectionFactory connectionFactory;
+    private JedisPLockResource resource;
+    private JedisPLockResource other;
+    private Jedis jedis;
+
+    @BeforeAll
+    static void requireRedis() {
+        RedisTestSupport.assumeRedis();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new JedisConnectionFactory(RedisTestSupport.HOST, RedisTestSupport.PORT);
+        resource = new JedisPLockResource(connectionFactory);
+        resource.enableSession(SESSION_TTL);
+        other = new JedisPLockResource(connectionFactory);
+        other.enableSession(SESSION_TTL);
+        jedis = new Jedis(RedisTestSupport.HOST, RedisTestSupport.PORT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jedis.close();
+        other.close();
+        resource.close();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void lockHashKeepsSafetyExpiryAndIsRenewedByWatchdog() {
+        String name = "session-ttl-" + System.nanoTime();
+        assertNull(resource.acquireResource(name, -1, TimeUnit.MILLISECONDS, HOLDER));
+        try {
+            long pttl = jedis.pttl(name);
+            assertTrue(pttl > SESSION_TTL && pttl <= RedisPLockResource.SESSION_LOCK_TTL_MILLIS);
+            assertTrue(resource.renewResource(name, HOLDER, RedisPLockResource.SESSION_LOCK_TTL_MILLIS));
+        } finally {
+            resource.releaseResource(name, HOLDER);
+        }
+        assertFalse(jedis.exists(name));
+    }
+
+    @Test
+    void lockOfAnotherSessionIsFreeOnceItsSessionKeyIsGone() {
+        String name = "session-holder-" + System.nanoTime();
+        assertNull(resource.acquireResource(name, -1, TimeUnit.MILLISECONDS, HOLDER));
+        String holderSession = jedis.hget(name, "session");
+
+        // 持有者会话存活时返回不超过会话键的剩余时间
+        Long ttl = other.acquireResource(name, -1, TimeUnit.MILLISECONDS, OTHER);
+        assertNotNull(ttl);
+        assertTrue(ttl >= 0 && ttl <= SESSION_TTL);
+
+        // 模拟持有者崩溃：会话键消失后其他会话可以获取
+        jedis.del(RedisSession.key(Long.parseLong(holderSession)));
+        assertNull(other.acquireResource(name, -1, TimeUnit.MILLISECONDS, OTHER));
+        assertNotEquals(holderSession, jedis.hget(name, "session"));
+        other.releaseResource(name, OTHER);
+    }
+
+    @Test
+    void locksHeldByExpiredSessionAreLost() throws Exception {
+        String name = "session-lost-" + System.nanoTime();
+        assertNull(resource.acquireResource(name, -1, TimeUnit.MILLISECONDS, HOLDER));
+        long expired = Long.parseLong(jedis.hget(name, "session"));
+
+        // 模拟长时间停顿后会话键过期，等心跳换成新会话
+        jedis.del(RedisSession.key(expired));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (currentSession() == expired && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNotEquals(expired, currentSession());
+
+        // 重入和解锁都失败，不会在新会话下从计数1重新开始
+        assertThrows(IllegalMonitorStateException.class,
+                () -> resource.acquireResource(name, -1, TimeUnit.MILLISECONDS, HOLDER));
+        assertThrows(IllegalMonitorStateException.class, () -> resource.releaseResource(name, HOLDER));
+
+        // 残留的记录不妨碍其他会话获取
+        assertNull(other.acquireResource(name, -1, TimeUnit.MILLISECONDS, OTHER));
+        other.releaseResource(name, OTHER);
+    }
+
+    /**
+     * 加锁再释放一把探测锁，读出本资源当前的会话ID
+     */
+    private long currentSession() {
+        String probe = "session-probe-" + System.nanoTime();
+        assertNull(resource.acquireResource(probe, -1, TimeUnit.MILLISECONDS, HOLDER));
+        try {
+            return Long.parseLong(jedis.hget(probe, "session"));
+        } finally {
+            resource.releaseResource(probe, HOLDER);
+        }
+    }
+}
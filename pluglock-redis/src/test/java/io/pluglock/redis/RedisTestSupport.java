@@ -0,0 +1,49 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.PLockEntry;
+import org.junit.jupiter.api.Assumptions;
+import redis.clients.jedis.Jedis;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Redis测试的公共方法，本机没有Redis时跳过测试
+ */
+final class RedisTestSupport {
+
+    static final String HOST = "localhost";
+    static final int PORT = 6379;
+
+    private RedisTestSupport() {
+    }
+
+    static void assumeRedis() {
+        boolean available;
+        try (Jedis jedis = new Jedis(HOST, PORT)) {
+            available = "PONG".equals(jedis.ping());
+        } catch (Exception e) {
+            available = false;
+        }
+        Assumptions.assumeTrue(available, "Redis is not available on " + HOST + ":" + PORT);
+    }
+
+    /**
+     * 重复发布释放消息直到条目收到，确认订阅已经生效，之后清空收到的信号
+     */
+    static void awaitSubscribed(PLockEntry entry, String name) throws InterruptedException {
+        try (Jedis publisher = new Jedis(HOST, PORT)) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            boolean woken = false;
+            while (!woken && System.nanoTime() < deadline) {
+                publisher.publish("lock:" + name + ":channel", RedisPLockResource.RELEASE_MESSAGE);
+                woken = entry.getLatch().tryAcquire(50, TimeUnit.MILLISECONDS);
+            }
+            assertTrue(woken, "Subscription was not established for " + name);
+        }
+        // 等待在途的探测消息
+        Thread.sleep(100);
+        entry.getLatch().drainPermits();
+    }
+}
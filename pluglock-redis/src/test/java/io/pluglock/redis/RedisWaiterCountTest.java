@@ -0,0 +1,176 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.AbstractPLockResource;
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.LockOwner;
+import io.pluglock.core.PLock;
+import io.pluglock.core.PLockEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 等待者计数键：订阅时加1、退订或超时时减1，带过期时间；释放时只有计数大于0才发布
+ */
+class RedisWaiterCountTest {
+
+    private static final long HOLDER = LockOwner.newToken();
+    private static final long WAITER = LockOwner.newToken();
+    private static final String MARKER = "marker";
+
+    private JedisConnectionFactory connectionFactory;
+    private JedisPLockResource resource;
+    private Jedis jedis;
+
+    @BeforeAll
+    static void requireRedis() {
+        RedisTestSupport.assumeRedis();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new JedisConnectionFactory(RedisTestSupport.HOST, RedisTestSupport.PORT);
+        resource = new JedisPLockResource(connectionFactory);
+        jedis = new Jedis(RedisTestSupport.HOST, RedisTestSupport.PORT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jedis.close();
+        resource.close();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void counterFollowsSubscribeAndUnsubscribe() {
+        String name = "waiters-count-" + System.nanoTime();
+        String key = RedisPLockResource.waitersKey(name);
+        resource.subscribe(name);
+        resource.subscribe(name);
+        // 同一JVM内同名锁的等待者共用一个条目，只计一次
+        assertEquals("1", jedis.get(key));
+        long ttl = jedis.pttl(key);
+        assertTrue(ttl > 0 && ttl <= RedisPLockResource.WAITERS_TTL_MILLIS);
+
+        resource.unsubscribe(name);
+        assertEquals("1", jedis.get(key));
+        resource.unsubscribe(name);
+        assertFalse(jedis.exists(key));
+    }
+
+    @Test
+    void failedAttemptOfWaiterExtendsCounterBeyondHolder() {
+        String name = "waiters-extend-" + System.nanoTime();
+        String key = RedisPLockResource.waitersKey(name);
+        assertNull(resource.tryAcquireResource(name, HOLDER, 120000));
+        resource.subscribe(name);
+        try {
+            Long ttl = resource.tryAcquireResource(name, WAITER, 30000);
+            assertTrue(ttl != null && ttl > 0);
+            assertTrue(jedis.pttl(key) > 120000);
+            // 加锁失败不改变计数，也不在锁的哈希中写入其他字段
+            assertEquals("1", jedis.get(key));
+            assertEquals(1L, (long) jedis.hlen(name));
+        } finally {
+            resource.unsubscribe(name);
+            resource.releaseResource(name, HOLDER);
+        }
+    }
+
+    @Test
+    void timedOutWaiterIsUnregistered() throws Exception {
+        String name = "waiters-timeout-" + System.nanoTime();
+        assertNull(resource.tryAcquireResource(name, HOLDER, 30000));
+        try {
+            PLock lock = new RedisLockFactory(resource).createLock(name, new LockConfig());
+            assertFalse(lock.tryLock(200, TimeUnit.MILLISECONDS));
+            assertFalse(jedis.exists(RedisPLockResource.waitersKey(name)));
+        } finally {
+            resource.releaseResource(name, HOLDER);
+        }
+    }
+
+    @Test
+    void uncontendedReleaseDoesNotPublish() throws Exception {
+        String name = "waiters-none-" + System.nanoTime();
+        assertNoReleaseMessage(name, resource);
+        assertNoReleaseMessage(name, new SimpleRedisPLockResource(resource));
+    }
+
+    @Test
+    void releaseWithWaiterPublishes() throws Exception {
+        String name = "waiters-some-" + System.nanoTime();
+        assertReleaseWakesWaiter(name, resource);
+        assertReleaseWakesWaiter(name, new SimpleRedisPLockResource(resource));
+    }
+
+    private void assertNoReleaseMessage(String name, AbstractPLockResource lockResource) throws Exception {
+        String channel = "lock:" + name + ":channel";
+        try (Listener listener = new Listener(channel)) {
+            assertNull(lockResource.tryAcquireResource(name, HOLDER, 30000));
+            lockResource.releaseResource(name, HOLDER);
+            // 标记消息之前没有释放消息，说明释放没有发布
+            jedis.publish(channel, MARKER);
+            assertEquals(MARKER, listener.messages.poll(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private void assertReleaseWakesWaiter(String name, AbstractPLockResource lockResource) throws Exception {
+        assertNull(lockResource.tryAcquireResource(name, HOLDER, 30000));
+        PLockEntry entry = lockResource.subscribe(name);
+        try {
+            lockResource.releaseResource(name, HOLDER);
+            assertTrue(entry.getLatch().tryAcquire(5, TimeUnit.SECONDS));
+        } finally {
+            lockResource.unsubscribe(name);
+        }
+    }
+
+    /**
+     * 直接订阅释放频道，记录收到的消息
+     */
+    private static final class Listener extends JedisPubSub implements AutoCloseable {
+        final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        private final CountDownLatch subscribed = new CountDownLatch(1);
+        private final Thread thread;
+
+        Listener(String channel) throws InterruptedException {
+            thread = new Thread(() -> {
+                try (Jedis subscriber = new Jedis(RedisTestSupport.HOST, RedisTestSupport.PORT)) {
+                    subscriber.subscribe(this, channel);
+                }
+            });
+            thread.start();
+            assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+        }
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onMessage(String channel, String message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            unsubscribe();
+            thread.join(5000);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.pluglock.redis;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.LockOwner;
+import io.pluglock.core.PLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * redis.lock.type=simple：普通字符串键，SET NX PX加锁，不可重入
+ */
+class SimpleRedisLockTest {
+
+    private static final long HOLDER = LockOwner.newToken();
+    private static final long OTHER = LockOwner.newToken();
+
+    private JedisConnectionFactory connectionFactory;
+    private JedisPLockResource resource;
+    private SimpleRedisPLockResource simpleResource;
+    private RedisLockFactory factory;
+    private Jedis jedis;
+    private ExecutorService executor;
+
+    @BeforeAll
+    static void requireRedis() {
+        RedisTestSupport.assumeRedis();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new JedisConnectionFactory(RedisTestSupport.HOST, RedisTestSupport.PORT);
+        resource = new JedisPLockResource(connectionFactory);
+        simpleResource = new SimpleRedisPLockResource(resource);
+        factory = new RedisLockFactory(resource);
+        jedis = new Jedis(RedisTestSupport.HOST, RedisTestSupport.PORT);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        jedis.close();
+        resource.close();
+        connectionFactory.destroy();
+    }
+
+    private PLock simpleLock(String name) {
+        LockConfig config = new LockConfig();
+        config.setProperty("redis.lock.type", "simple");
+        return factory.createLock(name, config);
+    }
+
+    @Test
+    void lockIsPlainStringKeyRenewedByWatchdog() {
+        String name = "simple-string-" + System.nanoTime();
+        PLock lock = simpleLock(name);
+        lock.lock();
+        try {
+            assertEquals("string", jedis.type(name));
+            assertEquals(LockOwner.encode(Thread.currentThread().getId()), jedis.get(name));
+            assertTrue(jedis.pttl(name) > 0);
+        } finally {
+            lock.unlock();
+        }
+        assertFalse(jedis.exists(name));
+    }
+
+    @Test
+    void reentryByOwnerThrows() {
+        String name = "simple-reentry-" + System.nanoTime();
+        PLock lock = simpleLock(name);
+        lock.lock();
+        try {
+            assertThrows(IllegalStateException.class, lock::tryLock);
+            // 失败的重入不影响已经持有的锁
+            assertEquals(LockOwner.encode(Thread.currentThread().getId()), jedis.get(name));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    void leaseTimeSetsExpiry() throws Exception {
+        String name = "simple-lease-" + System.nanoTime();
+        PLock lock = simpleLock(name);
+        lock.lock(2, TimeUnit.SECONDS);
+        try {
+            long ttl = jedis.pttl(name);
+            assertTrue(ttl > 0 && ttl <= 2000);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    void releaseByOtherOwnerKeepsLock() {
+        String name = "simple-owner-" + System.nanoTime();
+        assertNull(simpleResource.tryAcquireResource(name, HOLDER, 30000));
+        try {
+            Long ttl = simpleResource.tryAcquireResource(name, OTHER, 30000);
+            assertTrue(ttl != null && ttl > 0);
+            simpleResource.releaseResource(name, OTHER);
+            assertEquals(LockOwner.encode(HOLDER), jedis.get(name));
+        } finally {
+            simpleResource.releaseResource(name, HOLDER);
+        }
+        assertFalse(jedis.exists(name));
+    }
+
+    @Test
+    void waiterAcquiresAfterRelease() throws Exception {
+        String name = "simple-wait-" + System.nanoTime();
+        PLock lock = simpleLock(name);
+        assertNull(simpleResource.tryAcquireResource(name, HOLDER, 30000));
+        Future<Boolean> waiter = executor.submit(() -> {
+            boolean acquired = lock.tryLock(10, TimeUnit.SECONDS);
+            if (acquired) {
+                lock.unlock();
+            }
+            return acquired;
+        });
+        Thread.sleep(100);
+        simpleResource.releaseResource(name, HOLDER);
+        assertTrue(waiter.get(10, TimeUnit.SECONDS));
+        assertFalse(jedis.exists(name));
+    }
+}
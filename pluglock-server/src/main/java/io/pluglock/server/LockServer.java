@@ -0,0 +1,114 @@
+package io.pluglock.server;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.pluglock.server.protocol.LockMessageCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 独立的轻量锁服务器
+ *
+ * 锁状态只保存在内存中，服务器重启后所有锁都被释放；
+ * 客户端连接即会话，连接断开或超过会话超时时间没有心跳时，会话持有的锁自动释放
+ */
+public class LockServer {
+    private static final Logger logger = LoggerFactory.getLogger(LockServer.class);
+
+    public static final int DEFAULT_PORT = 7690;
+
+    private final int port;
+    private final long sessionTimeoutMillis;
+    private final LockTable lockTable;
+
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private Channel serverChannel;
+
+    public LockServer(int port) {
+        this(port, 64, 30000);
+    }
+
+    /**
+     * @param port                 监听端口，0表示随机端口
+     * @param shardCount           锁表分片数，必须是2的幂
+     * @param sessionTimeoutMillis 会话超时时间
+     */
+    public LockServer(int port, int shardCount, long sessionTimeoutMillis) {
+        this.port = port;
+        this.sessionTimeoutMillis = sessionTimeoutMillis;
+        this.lockTable = new LockTable(shardCount);
+    }
+
+    public synchronized void start() throws InterruptedException {
+        bossGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("pluglock-boss"));
+        workerGroup = new NioEventLoopGroup(0, new DefaultThreadFactory("pluglock-worker"));
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.SO_KEEPALIVE, true)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new FlushConsolidationHandler(256, true));
+                        ch.pipeline().addLast(new IdleStateHandler(sessionTimeoutMillis, 0, 0, TimeUnit.MILLISECONDS));
+                        LockMessageCodec.install(ch.pipeline());
+                        ch.pipeline().addLast(new LockServerHandler(lockTable));
+                    }
+                });
+        serverChannel = bootstrap.bind(port).sync().channel();
+        logger.info("Lock server started on {}", serverChannel.localAddress());
+    }
+
+    public synchronized void stop() {
+        if (serverChannel != null) {
+            serverChannel.close().syncUninterruptibly();
+            serverChannel = null;
+        }
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS).syncUninterruptibly();
+            workerGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS).syncUninterruptibly();
+            bossGroup = null;
+            workerGroup = null;
+        }
+        lockTable.close();
+    }
+
+    /**
+     * 实际监听的端口
+     */
+    public int getPort() {
+        return ((InetSocketAddress) serverChannel.localAddress()).getPort();
+    }
+
+    public LockTable getLockTable() {
+        return lockTable;
+    }
+
+    /**
+     * 启动锁服务器
+     *
+     * 用法：LockServer [port] [shards] [sessionTimeoutMillis]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int shards = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        long sessionTimeout = args.length > 2 ? Long.parseLong(args[2]) : 30000;
+        LockServer server = new LockServer(port, shards, sessionTimeout);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "pluglock-server-shutdown"));
+        server.start();
+    }
+}
@@ -0,0 +1,86 @@
+package io.pluglock.server;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.pluglock.server.protocol.LockMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 处理单个连接上的请求，每个连接一个实例
+ *
+ * 同一批读取到的请求的响应只写入缓冲区，读完后统一flush，流水线请求的响应合并成一次系统调用
+ */
+class LockServerHandler extends SimpleChannelInboundHandler<LockMessage> {
+    private static final Logger logger = LoggerFactory.getLogger(LockServerHandler.class);
+
+    private final LockTable lockTable;
+    private Session session;
+
+    LockServerHandler(LockTable lockTable) {
+        this.lockTable = lockTable;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        session = new Session(ctx.channel());
+        super.channelActive(ctx);
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, LockMessage request) {
+        LockMessage response;
+        switch (request.getType()) {
+            case LockMessage.ACQUIRE:
+                response = lockTable.acquire(session, request);
+                break;
+            case LockMessage.RELEASE:
+                response = lockTable.release(session, request);
+                break;
+            case LockMessage.CANCEL:
+                response = lockTable.cancel(session, request.getRequestId());
+                break;
+            case LockMessage.PING:
+                response = LockMessage.response(LockMessage.PONG, request.getRequestId(), 0);
+                break;
+            default:
+                logger.warn("Unexpected message from {}: {}", ctx.channel().remoteAddress(), request);
+                ctx.close();
+                return;
+        }
+        if (response != null) {
+            ctx.write(response, ctx.voidPromise());
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        ctx.flush();
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            // 客户端在会话超时时间内没有任何请求或心跳，视为客户端已失效
+            logger.info("Session timed out: {}", ctx.channel().remoteAddress());
+            ctx.close();
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (session != null) {
+            lockTable.closeSession(session);
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        logger.error("Error on connection: {}", ctx.channel().remoteAddress(), cause);
+        ctx.close();
+    }
+}
@@ -0,0 +1,219 @@
+package io.pluglock.server;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.pluglock.server.protocol.LockMessage;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 锁表的一个分片，分片内的所有操作由分片自身的监视器串行化
+ *
+ * 解锁时直接把锁交给队首的等待者并推送GRANTED，等待者不需要再次请求，也没有广播和惊群
+ */
+final class LockShard {
+
+    private final Map<String, LockState> locks = new HashMap<>();
+    private final Timer timer;
+
+    LockShard(Timer timer) {
+        this.timer = timer;
+    }
+
+    /**
+     * 加锁，立即有结果时返回响应，进入排队时返回null，轮到时再推送
+     */
+    synchronized LockMessage acquire(Session session, LockMessage request) {
+        String name = request.getName();
+        LockState state = locks.get(name);
+        if (state == null) {
+            state = new LockState(name);
+            locks.put(name, state);
+        }
+        if (state.owner == null) {
+            if (!grant(state, session, request.getThreadId(), request.getLeaseMillis())) {
+                locks.remove(name);
+                return null;
+            }
+            return LockMessage.response(LockMessage.GRANTED, request.getRequestId(), 1);
+        }
+        if (state.owner == session && state.ownerThread == request.getThreadId()) {
+            // 重入，按本次请求的租约时间续期
+            state.holdCount++;
+            scheduleLease(state, request.getLeaseMillis());
+            return LockMessage.response(LockMessage.GRANTED, request.getRequestId(), state.holdCount);
+        }
+        if (request.getWaitMillis() == 0) {
+            return LockMessage.response(LockMessage.DENIED, request.getRequestId(), ttl(state));
+        }
+        Waiter waiter = new Waiter(session, request.getRequestId(), name,
+                request.getThreadId(), request.getLeaseMillis());
+        if (!session.addWaiter(waiter)) {
+            return null;
+        }
+        state.waiters.addLast(waiter);
+        if (request.getWaitMillis() > 0) {
+            waiter.timeout = timer.newTimeout(t -> expireWaiter(waiter), request.getWaitMillis(), TimeUnit.MILLISECONDS);
+        }
+        return null;
+    }
+
+    synchronized LockMessage release(Session session, LockMessage request) {
+        LockState state = locks.get(request.getName());
+        if (state == null || state.owner != session || state.ownerThread != request.getThreadId()) {
+            return LockMessage.response(LockMessage.NOT_OWNER, request.getRequestId(), 0);
+        }
+        if (--state.holdCount > 0) {
+            return LockMessage.response(LockMessage.RELEASED, request.getRequestId(), state.holdCount);
+        }
+        releaseFully(state);
+        return LockMessage.response(LockMessage.RELEASED, request.getRequestId(), 0);
+    }
+
+    /**
+     * 取消排队中的请求，已经获取到锁时返回null
+     */
+    synchronized LockMessage cancel(Waiter waiter) {
+        LockState state = locks.get(waiter.name);
+        if (state == null || !state.waiters.remove(waiter)) {
+            return null;
+        }
+        if (waiter.timeout != null) {
+            waiter.timeout.cancel();
+        }
+        return LockMessage.response(LockMessage.DENIED, waiter.requestId, ttl(state));
+    }
+
+    /**
+     * 会话关闭时释放它持有的锁
+     */
+    synchronized void releaseOwnedBy(Session session, String name) {
+        LockState state = locks.get(name);
+        if (state != null && state.owner == session) {
+            releaseFully(state);
+        }
+    }
+
+    /**
+     * 会话关闭时移除它排队的请求
+     */
+    synchronized void removeWaiter(Waiter waiter) {
+        LockState state = locks.get(waiter.name);
+        if (state != null && state.waiters.remove(waiter) && waiter.timeout != null) {
+            waiter.timeout.cancel();
+        }
+    }
+
+    synchronized int size() {
+        return locks.size();
+    }
+
+    private synchronized void expireWaiter(Waiter waiter) {
+        LockState state = locks.get(waiter.name);
+        if (state == null || !state.waiters.remove(waiter)) {
+            return;
+        }
+        waiter.session.removeWaiter(waiter.requestId);
+        waiter.session.push(LockMessage.response(LockMessage.DENIED, waiter.requestId, ttl(state)));
+    }
+
+    private synchronized void expireLease(LockState state, Timeout timeout) {
+        // 租约已续期或锁已释放时，旧的定时任务作废
+        if (state.leaseTimeout == timeout && state.owner != null) {
+            releaseFully(state);
+        }
+    }
+
+    private boolean grant(LockState state, Session session, long threadId, long leaseMillis) {
+        if (!session.addHeld(state.name)) {
+            return false;
+        }
+        state.owner = session;
+        state.ownerThread = threadId;
+        state.holdCount = 1;
+        scheduleLease(state, leaseMillis);
+        return true;
+    }
+
+    private void releaseFully(LockState state) {
+        cancelLease(state);
+        state.owner.removeHeld(state.name);
+        state.owner = null;
+        state.holdCount = 0;
+        Waiter waiter;
+        while ((waiter = state.waiters.pollFirst()) != null) {
+            waiter.session.removeWaiter(waiter.requestId);
+            if (waiter.timeout != null) {
+                waiter.timeout.cancel();
+            }
+            if (!waiter.session.isClosed() && grant(state, waiter.session, waiter.threadId, waiter.leaseMillis)) {
+                waiter.session.push(LockMessage.response(LockMessage.GRANTED, waiter.requestId, 1));
+                return;
+            }
+        }
+        locks.remove(state.name);
+    }
+
+    private void scheduleLease(LockState state, long leaseMillis) {
+        cancelLease(state);
+        if (leaseMillis > 0) {
+            state.leaseDeadline = System.currentTimeMillis() + leaseMillis;
+            state.leaseTimeout = timer.newTimeout(t -> expireLease(state, t), leaseMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void cancelLease(LockState state) {
+        if (state.leaseTimeout != null) {
+            state.leaseTimeout.cancel();
+            state.leaseTimeout = null;
+        }
+        state.leaseDeadline = 0;
+    }
+
+    /**
+     * 锁的剩余租约时间，没有租约时返回-1
+     */
+    private static long ttl(LockState state) {
+        if (state.leaseDeadline == 0) {
+            return -1;
+        }
+        return Math.max(0, state.leaseDeadline - System.currentTimeMillis());
+    }
+
+    private static final class LockState {
+        private final String name;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>(2);
+        private Session owner;
+        private long ownerThread;
+        private int holdCount;
+        private long leaseDeadline;
+        private Timeout leaseTimeout;
+
+        LockState(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * 排队中的加锁请求
+     */
+    static final class Waiter {
+        final Session session;
+        final long requestId;
+        final String name;
+        final long threadId;
+        final long leaseMillis;
+        Timeout timeout;
+
+        Waiter(Session session, long requestId, String name, long threadId, long leaseMillis) {
+            this.session = session;
+            this.requestId = requestId;
+            this.name = name;
+            this.threadId = threadId;
+            this.leaseMillis = leaseMillis;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.pluglock.server;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.pluglock.server.protocol.LockMessage;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存中的分片锁表
+ *
+ * 锁名称按哈希分到固定数量的分片，不同分片之间没有竞争；
+ * 租约到期和等待超时都由同一个时间轮处理，不为每个锁创建定时任务线程
+ */
+public class LockTable {
+
+    private final LockShard[] shards;
+    private final int mask;
+    private final HashedWheelTimer timer;
+
+    public LockTable(int shardCount) {
+        if (Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("Shard count must be a power of two: " + shardCount);
+        }
+        this.timer = new HashedWheelTimer(new DefaultThreadFactory("pluglock-timer", true),
+                10, TimeUnit.MILLISECONDS, 512);
+        this.shards = new LockShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LockShard(timer);
+        }
+        this.mask = shardCount - 1;
+    }
+
+    LockMessage acquire(Session session, LockMessage request) {
+        return shardFor(request.getName()).acquire(session, request);
+    }
+
+    LockMessage release(Session session, LockMessage request) {
+        return shardFor(request.getName()).release(session, request);
+    }
+
+    /**
+     * 取消会话中排队的请求，请求已不在排队时返回null
+     */
+    LockMessage cancel(Session session, long requestId) {
+        LockShard.Waiter waiter = session.removeWaiter(requestId);
+        if (waiter == null) {
+            return null;
+        }
+        return shardFor(waiter.name).cancel(waiter);
+    }
+
+    /**
+     * 关闭会话：释放会话持有的所有锁，移除会话排队的所有请求
+     */
+    void closeSession(Session session) {
+        session.close();
+        for (LockShard.Waiter waiter : new ArrayList<>(session.getWaiters().values())) {
+            shardFor(waiter.name).removeWaiter(waiter);
+        }
+        for (String name : new ArrayList<>(session.getHeldNames())) {
+            shardFor(name).releaseOwnedBy(session, name);
+        }
+    }
+
+    /**
+     * 当前锁表中的锁数量，包括只有等待者的锁
+     */
+    public int size() {
+        int size = 0;
+        for (LockShard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    public void close() {
+        timer.stop();
+    }
+
+    private LockShard shardFor(String name) {
+        int h = name.hashCode();
+        return shards[(h ^ (h >>> 16)) & mask];
+    }
+}
@@ -0,0 +1,80 @@
+package io.pluglock.server;
+
+import io.netty.channel.Channel;
+import io.pluglock.server.protocol.LockMessage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 客户端会话，一个连接对应一个会话
+ *
+ * 持有者由会话和客户端线程ID共同确定；连接断开时会话持有的锁全部释放，排队的请求全部移除
+ */
+final class Session {
+
+    private final Channel channel;
+    // 由各分片在自己的锁内修改，会话关闭时遍历
+    private final Set<String> heldNames = ConcurrentHashMap.newKeySet();
+    private final Map<Long, LockShard.Waiter> waiters = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    Session(Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * 主动推送消息，可以在任意线程调用
+     */
+    void push(LockMessage message) {
+        channel.writeAndFlush(message, channel.voidPromise());
+    }
+
+    /**
+     * 登记持有的锁，返回false说明会话已关闭，调用方需要撤销
+     *
+     * 先登记再检查关闭标志，与{@link #close()}先置标志再遍历的顺序配合，保证登记不会被遗漏
+     */
+    boolean addHeld(String name) {
+        heldNames.add(name);
+        if (closed) {
+            heldNames.remove(name);
+            return false;
+        }
+        return true;
+    }
+
+    void removeHeld(String name) {
+        heldNames.remove(name);
+    }
+
+    boolean addWaiter(LockShard.Waiter waiter) {
+        waiters.put(waiter.requestId, waiter);
+        if (closed) {
+            waiters.remove(waiter.requestId);
+            return false;
+        }
+        return true;
+    }
+
+    LockShard.Waiter removeWaiter(long requestId) {
+        return waiters.remove(requestId);
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    Set<String> getHeldNames() {
+        return heldNames;
+    }
+
+    Map<Long, LockShard.Waiter> getWaiters() {
+        return waiters;
+    }
+}
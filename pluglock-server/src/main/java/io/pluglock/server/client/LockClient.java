@@ -0,0 +1,155 @@
+package io.pluglock.server.client;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.pluglock.server.protocol.LockMessage;
+import io.pluglock.server.protocol.LockMessageCodec;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 锁服务器客户端，所有锁共享一个连接，请求以流水线方式发送
+ *
+ * 连接就是服务端的会话：连接断开后服务端会释放该连接上持有的所有锁，
+ * 客户端在下一次请求时重新建立连接
+ */
+public class LockClient {
+
+    private final String host;
+    private final int port;
+    private final int connectTimeoutMillis;
+    private final long heartbeatMillis;
+    private final EventLoopGroup group;
+    private final AtomicLong requestIds = new AtomicLong();
+    private final Map<Long, CompletableFuture<LockMessage>> pending = new ConcurrentHashMap<>();
+
+    private volatile Channel channel;
+
+    public LockClient(String host, int port, int connectTimeoutMillis, long heartbeatMillis) {
+        this.host = host;
+        this.port = port;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.group = new NioEventLoopGroup(1, new DefaultThreadFactory("pluglock-client", true));
+    }
+
+    long nextRequestId() {
+        return requestIds.incrementAndGet();
+    }
+
+    /**
+     * 发送请求，返回的Future在收到同一请求ID的响应时完成
+     */
+    CompletableFuture<LockMessage> send(LockMessage request) {
+        CompletableFuture<LockMessage> future = new CompletableFuture<>();
+        Channel ch;
+        try {
+            ch = getChannel();
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        pending.put(request.getRequestId(), future);
+        ch.writeAndFlush(request).addListener(f -> {
+            if (!f.isSuccess()) {
+                fail(request.getRequestId(), f.cause());
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 发送不需要响应的请求
+     */
+    void sendOneWay(LockMessage request) {
+        Channel ch = channel;
+        if (ch != null && ch.isActive()) {
+            ch.writeAndFlush(request, ch.voidPromise());
+        }
+    }
+
+    void complete(LockMessage response) {
+        CompletableFuture<LockMessage> future = pending.remove(response.getRequestId());
+        if (future != null) {
+            future.complete(response);
+        }
+    }
+
+    void fail(long requestId, Throwable cause) {
+        CompletableFuture<LockMessage> future = pending.remove(requestId);
+        if (future != null) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * 连接断开，所有未完成的请求失败
+     */
+    void connectionLost(Channel lost) {
+        if (channel == lost) {
+            channel = null;
+        }
+        IOException cause = new IOException("Connection to lock server lost: " + host + ":" + port);
+        for (Long requestId : pending.keySet()) {
+            fail(requestId, cause);
+        }
+    }
+
+    private Channel getChannel() throws IOException {
+        Channel ch = channel;
+        if (ch != null && ch.isActive()) {
+            return ch;
+        }
+        synchronized (this) {
+            if (channel == null || !channel.isActive()) {
+                channel = connect();
+            }
+            return channel;
+        }
+    }
+
+    private Channel connect() throws IOException {
+        Bootstrap bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new FlushConsolidationHandler(256, true));
+                        ch.pipeline().addLast(new IdleStateHandler(0, heartbeatMillis, 0, TimeUnit.MILLISECONDS));
+                        LockMessageCodec.install(ch.pipeline());
+                        ch.pipeline().addLast(new LockClientHandler(LockClient.this));
+                    }
+                });
+        ChannelFuture future = bootstrap.connect(host, port).awaitUninterruptibly();
+        if (!future.isSuccess()) {
+            throw new IOException("Failed to connect to lock server: " + host + ":" + port, future.cause());
+        }
+        return future.channel();
+    }
+
+    public void close() {
+        Channel ch = channel;
+        if (ch != null) {
+            ch.close().syncUninterruptibly();
+        }
+        group.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+    }
+}
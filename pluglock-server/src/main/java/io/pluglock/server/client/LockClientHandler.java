@@ -0,0 +1,49 @@
+package io.pluglock.server.client;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.pluglock.server.protocol.LockMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 把服务端的响应和推送交给对应请求的Future，空闲时发送心跳维持会话
+ */
+class LockClientHandler extends SimpleChannelInboundHandler<LockMessage> {
+    private static final Logger logger = LoggerFactory.getLogger(LockClientHandler.class);
+
+    private final LockClient client;
+
+    LockClientHandler(LockClient client) {
+        this.client = client;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, LockMessage response) {
+        if (response.getType() != LockMessage.PONG) {
+            client.complete(response);
+        }
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            ctx.writeAndFlush(LockMessage.ping(0), ctx.voidPromise());
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        client.connectionLost(ctx.channel());
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        logger.error("Error on lock server connection: {}", ctx.channel().remoteAddress(), cause);
+        ctx.close();
+    }
+}
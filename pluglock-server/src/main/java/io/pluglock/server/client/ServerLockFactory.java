@@ -0,0 +1,55 @@
+package io.pluglock.server.client;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.LockFactory;
+import io.pluglock.core.PLock;
+import io.pluglock.server.LockServer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 锁服务器的客户端工厂实现
+ */
+public class ServerLockFactory implements LockFactory {
+
+    // 每个服务器地址共享一个连接
+    private final ConcurrentMap<String, LockClient> clients = new ConcurrentHashMap<>();
+
+    @Override
+    public PLock createLock(String name, LockConfig config) {
+        return new ServerPLock(name, getClient(config));
+    }
+
+    /**
+     * 获取配置对应的客户端
+     *
+     * @param config 锁的配置参数
+     * @return 客户端
+     */
+    protected LockClient getClient(LockConfig config) {
+        String address = config.getProperty("server.address", "localhost:" + LockServer.DEFAULT_PORT);
+        return clients.computeIfAbsent(address, a -> {
+            int index = a.lastIndexOf(':');
+            String host = index < 0 ? a : a.substring(0, index);
+            int port = index < 0 ? LockServer.DEFAULT_PORT : Integer.parseInt(a.substring(index + 1));
+            return new LockClient(host, port,
+                    Integer.parseInt(config.getProperty("server.connect.timeout", "3000")),
+                    Long.parseLong(config.getProperty("server.heartbeat.interval", "10000")));
+        });
+    }
+
+    /**
+     * 关闭所有连接，连接上持有的锁由服务端释放
+     */
+    @Override
+    public void close() {
+        clients.values().forEach(LockClient::close);
+        clients.clear();
+    }
+
+    @Override
+    public String getName() {
+        return "server";
+    }
+}
@@ -0,0 +1,163 @@
+package io.pluglock.server.client;
+
+import io.pluglock.core.AbstractPLock;
+import io.pluglock.server.protocol.LockMessage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * 基于锁服务器的可重入锁
+ *
+ * 等待由服务端完成：加锁请求在服务端排队，轮到时服务端主动推送结果，
+ * 客户端只阻塞在请求的Future上，不需要轮询或订阅释放消息
+ */
+public class ServerPLock extends AbstractPLock {
+
+    private final LockClient client;
+
+    public ServerPLock(String lockName, LockClient client) {
+        super(lockName);
+        this.client = client;
+    }
+
+    @Override
+    public void lock() {
+        try {
+            acquire(-1, -1, false);
+        } catch (InterruptedException e) {
+            // 不响应中断时不会抛出
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) throws InterruptedException {
+        acquire(leaseTime == -1 ? -1 : toMillis(leaseTime, unit), -1, true);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        acquire(-1, -1, true);
+    }
+
+    @Override
+    public boolean tryLock() {
+        try {
+            return acquire(-1, 0, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return acquire(-1, toMillis(time, unit), true);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        return acquire(leaseTime == -1 ? -1 : toMillis(leaseTime, unit), toMillis(waitTime, unit), true);
+    }
+
+    /**
+     * 协议以毫秒为单位，不足一毫秒的部分向上取整，避免短等待变成不等待、短租约变成不过期
+     */
+    static long toMillis(long time, TimeUnit unit) {
+        if (time <= 0) {
+            return 0;
+        }
+        long millis = unit.toMillis(time);
+        return unit.toNanos(time) > TimeUnit.MILLISECONDS.toNanos(millis) ? millis + 1 : millis;
+    }
+
+    /**
+     * @param leaseMillis   租约时间，-1表示持有到解锁或会话结束
+     * @param waitMillis    最长等待时间，0表示不等待，-1表示一直等待
+     * @param interruptible 是否响应中断
+     * @return 是否获取成功
+     */
+    private boolean acquire(long leaseMillis, long waitMillis, boolean interruptible) throws InterruptedException {
+        long requestId = client.nextRequestId();
+        CompletableFuture<LockMessage> future = client.send(
+                LockMessage.acquire(requestId, lockName, Thread.currentThread().getId(), leaseMillis, waitMillis));
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get().getType() == LockMessage.GRANTED;
+                } catch (InterruptedException e) {
+                    if (interruptible) {
+                        cancel(requestId, future);
+                        throw e;
+                    }
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Failed to acquire lock: " + lockName, e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 取消排队中的请求；如果服务端已经先一步授予了锁，则把锁释放掉
+     */
+    private void cancel(long requestId, CompletableFuture<LockMessage> future) {
+        client.sendOneWay(LockMessage.cancel(requestId));
+        LockMessage response = getUninterruptibly(future);
+        if (response != null && response.getType() == LockMessage.GRANTED) {
+            unlock();
+        }
+    }
+
+    @Override
+    public void unlock() {
+        CompletableFuture<LockMessage> future = client.send(
+                LockMessage.release(client.nextRequestId(), lockName, Thread.currentThread().getId()));
+        LockMessage response;
+        try {
+            response = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to release lock: " + lockName, e.getCause());
+        }
+        if (response != null && response.getType() == LockMessage.NOT_OWNER) {
+            throw new IllegalMonitorStateException("You do not own the lock: " + lockName);
+        }
+    }
+
+    private static LockMessage getUninterruptibly(CompletableFuture<LockMessage> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    // 连接已断开，服务端会随会话一起释放锁
+                    return null;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("Lock server lock does not support Condition");
+    }
+}
@@ -0,0 +1,118 @@
+package io.pluglock.server.protocol;
+
+/**
+ * 锁服务的协议消息，请求和响应共用一个类型，按消息类型使用不同的字段
+ *
+ * 每个请求带一个连接内唯一的请求ID，响应通过请求ID与请求对应，
+ * 因此同一连接上可以连续发送多个请求而不必等待响应
+ */
+public final class LockMessage {
+
+    // 客户端 -> 服务端
+    public static final byte ACQUIRE = 1;
+    public static final byte RELEASE = 2;
+    public static final byte CANCEL = 3;
+    public static final byte PING = 4;
+
+    // 服务端 -> 客户端
+    /**
+     * 已获取锁，排队的请求在轮到时由服务端主动推送
+     */
+    public static final byte GRANTED = 16;
+    /**
+     * 未获取锁，value为锁的剩余租约时间，-1表示没有租约
+     */
+    public static final byte DENIED = 17;
+    /**
+     * 已解锁，value为剩余的重入次数
+     */
+    public static final byte RELEASED = 18;
+    /**
+     * 解锁者不是持有者
+     */
+    public static final byte NOT_OWNER = 19;
+    public static final byte PONG = 20;
+
+    private final byte type;
+    private final long requestId;
+    private final String name;
+    private final long threadId;
+    private final long leaseMillis;
+    private final long waitMillis;
+    private final long value;
+
+    private LockMessage(byte type, long requestId, String name, long threadId,
+                        long leaseMillis, long waitMillis, long value) {
+        this.type = type;
+        this.requestId = requestId;
+        this.name = name;
+        this.threadId = threadId;
+        this.leaseMillis = leaseMillis;
+        this.waitMillis = waitMillis;
+        this.value = value;
+    }
+
+    /**
+     * 加锁请求
+     *
+     * @param leaseMillis 租约时间，-1表示持有到解锁或连接断开
+     * @param waitMillis  最长等待时间，0表示不等待，-1表示一直等待
+     */
+    public static LockMessage acquire(long requestId, String name, long threadId, long leaseMillis, long waitMillis) {
+        return new LockMessage(ACQUIRE, requestId, name, threadId, leaseMillis, waitMillis, 0);
+    }
+
+    public static LockMessage release(long requestId, String name, long threadId) {
+        return new LockMessage(RELEASE, requestId, name, threadId, 0, 0, 0);
+    }
+
+    /**
+     * 取消排队中的加锁请求，服务端对原请求ID响应DENIED；已经获取到的锁不受影响
+     *
+     * @param requestId 要取消的加锁请求ID
+     */
+    public static LockMessage cancel(long requestId) {
+        return new LockMessage(CANCEL, requestId, null, 0, 0, 0, 0);
+    }
+
+    public static LockMessage ping(long requestId) {
+        return new LockMessage(PING, requestId, null, 0, 0, 0, 0);
+    }
+
+    public static LockMessage response(byte type, long requestId, long value) {
+        return new LockMessage(type, requestId, null, 0, 0, 0, value);
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public long getRequestId() {
+        return requestId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+
+    public long getLeaseMillis() {
+        return leaseMillis;
+    }
+
+    public long getWaitMillis() {
+        return waitMillis;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "LockMessage{type=" + type + ", requestId=" + requestId + ", name=" + name + ", value=" + value + "}";
+    }
+}
@@ -0,0 +1,113 @@
+package io.pluglock.server.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageCodec;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 锁服务的二进制编解码器
+ *
+ * 帧格式：int 帧长度 | byte 类型 | long 请求ID | 各类型的定长字段 | 锁名称（short 长度 + UTF-8）
+ * <pre>
+ * ACQUIRE  threadId leaseMillis waitMillis name
+ * RELEASE  threadId name
+ * CANCEL / PING    无
+ * 响应     long value
+ * </pre>
+ */
+public class LockMessageCodec extends ByteToMessageCodec<LockMessage> {
+
+    public static final int MAX_FRAME_LENGTH = 64 * 1024;
+    private static final int MAX_NAME_LENGTH = 0xFFFF;
+
+    /**
+     * 在管道中添加分帧器和编解码器
+     */
+    public static void install(ChannelPipeline pipeline) {
+        pipeline.addLast("frameDecoder", new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH, 0, 4, 0, 4));
+        pipeline.addLast("codec", new LockMessageCodec());
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, LockMessage msg, ByteBuf out) {
+        int lengthIndex = out.writerIndex();
+        out.writeInt(0);
+        out.writeByte(msg.getType());
+        out.writeLong(msg.getRequestId());
+        switch (msg.getType()) {
+            case LockMessage.ACQUIRE:
+                out.writeLong(msg.getThreadId());
+                out.writeLong(msg.getLeaseMillis());
+                out.writeLong(msg.getWaitMillis());
+                writeName(out, msg.getName());
+                break;
+            case LockMessage.RELEASE:
+                out.writeLong(msg.getThreadId());
+                writeName(out, msg.getName());
+                break;
+            case LockMessage.CANCEL:
+            case LockMessage.PING:
+                break;
+            default:
+                out.writeLong(msg.getValue());
+        }
+        out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+    }
+
+    private static void writeName(ByteBuf out, String name) {
+        int lengthIndex = out.writerIndex();
+        out.writeShort(0);
+        int length = out.writeCharSequence(name, StandardCharsets.UTF_8);
+        if (length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Lock name is too long: " + length + " bytes");
+        }
+        out.setShort(lengthIndex, length);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        // 分帧器已经保证in是一个完整的帧
+        byte type = in.readByte();
+        long requestId = in.readLong();
+        switch (type) {
+            case LockMessage.ACQUIRE: {
+                long threadId = in.readLong();
+                long leaseMillis = in.readLong();
+                long waitMillis = in.readLong();
+                out.add(LockMessage.acquire(requestId, readName(in), threadId, leaseMillis, waitMillis));
+                break;
+            }
+            case LockMessage.RELEASE: {
+                long threadId = in.readLong();
+                out.add(LockMessage.release(requestId, readName(in), threadId));
+                break;
+            }
+            case LockMessage.CANCEL:
+                out.add(LockMessage.cancel(requestId));
+                break;
+            case LockMessage.PING:
+                out.add(LockMessage.ping(requestId));
+                break;
+            case LockMessage.GRANTED:
+            case LockMessage.DENIED:
+            case LockMessage.RELEASED:
+            case LockMessage.NOT_OWNER:
+            case LockMessage.PONG:
+                out.add(LockMessage.response(type, requestId, in.readLong()));
+                break;
+            default:
+                throw new CorruptedFrameException("Unknown message type: " + type);
+        }
+    }
+
+    private static String readName(ByteBuf in) {
+        int length = in.readUnsignedShort();
+        return in.readCharSequence(length, StandardCharsets.UTF_8).toString();
+    }
+}
@@ -0,0 +1,96 @@
+package io.pluglock.server.bench;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.LockFactory;
+import io.pluglock.core.LockManager;
+import io.pluglock.core.PLock;
+import io.pluglock.server.LockServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 锁服务器与Redis后端的吞吐量、延迟对比，对两者执行相同的 lock/unlock 循环
+ *
+ * 未配置server.address时在进程内启动一个锁服务器；Redis默认连接localhost:6379，
+ * 后端配置通过系统属性传入，例如 -Dredis.host=10.0.0.1。运行方式：
+ * <pre>
+ * mvn -pl pluglock-server -am test-compile
+ * java -cp pluglock-server/target/test-classes:&lt;test classpath&gt; io.pluglock.server.bench.LockBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(16)
+@Fork(1)
+public class LockBenchmark {
+
+    @Param({"server", "redis"})
+    private String backend;
+
+    @Param("1024")
+    private int keys;
+
+    private LockServer server;
+    private LockManager lockManager;
+    private PLock[] locks;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        LockConfig config = new LockConfig(System.getProperties());
+        if ("server".equals(backend) && config.getProperty("server.address") == null) {
+            server = new LockServer(0);
+            server.start();
+            config.setProperty("server.address", "localhost:" + server.getPort());
+        }
+        if ("redis".equals(backend) && config.getProperty("redis.host") == null) {
+            config.setProperty("redis.host", "localhost");
+        }
+        lockManager = new LockManager();
+        LockFactory factory = lockManager.getFactory(backend);
+        if (factory == null) {
+            throw new IllegalStateException("No lock factory on the classpath for: " + backend);
+        }
+        locks = new PLock[keys];
+        for (int i = 0; i < keys; i++) {
+            locks[i] = factory.createLock("bench-" + i, config);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        lockManager.close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public void lockUnlock() {
+        PLock lock = locks[ThreadLocalRandom.current().nextInt(locks.length)];
+        lock.lock();
+        lock.unlock();
+    }
+
+    public static void main(String[] args) throws IOException {
+        org.openjdk.jmh.Main.main(args.length == 0 ? new String[]{LockBenchmark.class.getSimpleName()} : args);
+    }
+}
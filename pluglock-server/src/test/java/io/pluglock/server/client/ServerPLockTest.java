@@ -0,0 +1,88 @@
+package io.pluglock.server.client;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.PLock;
+import io.pluglock.server.LockServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerPLockTest {
+
+    private LockServer server;
+    private ServerLockFactory factory;
+    private LockConfig config;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        server = new LockServer(0);
+        server.start();
+        factory = new ServerLockFactory();
+        config = new LockConfig();
+        config.setProperty("server.address", "localhost:" + server.getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        factory.close();
+        server.stop();
+    }
+
+    @Test
+    void subMillisecondTimesRoundUp() {
+        assertEquals(0, ServerPLock.toMillis(0, TimeUnit.NANOSECONDS));
+        assertEquals(0, ServerPLock.toMillis(-1, TimeUnit.MILLISECONDS));
+        assertEquals(1, ServerPLock.toMillis(500, TimeUnit.MICROSECONDS));
+        assertEquals(2, ServerPLock.toMillis(1001, TimeUnit.MICROSECONDS));
+        assertEquals(3000, ServerPLock.toMillis(3, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void lockKeepsInterruptFlag() {
+        PLock lock = factory.createLock("interrupt", config);
+        Thread.currentThread().interrupt();
+        lock.lock();
+        assertTrue(Thread.interrupted());
+        lock.unlock();
+
+        Thread.currentThread().interrupt();
+        assertTrue(lock.tryLock());
+        assertTrue(Thread.interrupted());
+        lock.unlock();
+    }
+
+    @Test
+    void subMillisecondWaitStillWaits() throws Exception {
+        PLock lock = factory.createLock("short-wait", config);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            lock.lock();
+            locked.countDown();
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+        holder.start();
+        locked.await();
+        try {
+            long start = System.nanoTime();
+            assertFalse(lock.tryLock(500, TimeUnit.MICROSECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MICROSECONDS.toNanos(500));
+        } finally {
+            done.countDown();
+            holder.join();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.pluglock.starter;
+
+import io.pluglock.core.PLockRegistry;
+import io.pluglock.starter.aop.DistributedLockInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.core.Ordered;
+
+/**
+ * {@link io.pluglock.starter.annotation.DistributedLock} 注解的配置
+ *
+ * Advisor声明为基础设施bean，没有引入AspectJ时Spring Boot默认的自动代理同样会应用它
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "pluglock.annotation", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+class DistributedLockConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static DistributedLockInterceptor distributedLockInterceptor(BeanFactory beanFactory) {
+        // 注册中心在第一次调用时才获取，避免后处理器阶段提前创建锁后端
+        return new DistributedLockInterceptor(() -> beanFactory.getBean(PLockRegistry.class),
+                new BeanFactoryResolver(beanFactory));
+    }
+
+    /**
+     * 顺序在事务之前，锁覆盖整个事务，事务提交之后才释放锁
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor distributedLockAdvisor(DistributedLockInterceptor interceptor) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(interceptor.getPointcut(), interceptor);
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+}
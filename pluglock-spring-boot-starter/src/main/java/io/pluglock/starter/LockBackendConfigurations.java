@@ -0,0 +1,145 @@
+package io.pluglock.starter;
+
+import io.lettuce.core.RedisClient;
+import io.pluglock.core.LockFactory;
+import io.pluglock.core.LockWatchdog;
+import io.pluglock.jdbc.JdbcConnectionFactory;
+import io.pluglock.jdbc.JdbcLockFactory;
+import io.pluglock.redis.JedisConnectionFactory;
+import io.pluglock.redis.LettuceConnectionFactory;
+import io.pluglock.redis.RedisConnectionFactory;
+import io.pluglock.redis.RedisLockFactory;
+import io.pluglock.redis.RedisPLockResource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import javax.sql.DataSource;
+import java.util.ServiceLoader;
+
+/**
+ * 各锁后端的配置，由 {@link PlugLockAutoConfiguration} 按顺序导入，
+ * 前面的配置注册了LockFactory之后，后面的配置不再生效
+ */
+abstract class LockBackendConfigurations {
+
+    /**
+     * Jedis连接，优先复用应用中的JedisPool
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "redis.clients.jedis.JedisPool")
+    @ConditionalOnProperty(prefix = "pluglock.redis", name = "client", havingValue = "jedis", matchIfMissing = true)
+    static class Jedis {
+
+        @Bean(destroyMethod = "destroy")
+        @ConditionalOnMissingBean
+        RedisConnectionFactory plugLockRedisConnectionFactory(ObjectProvider<JedisPool> jedisPool,
+                                                              PlugLockProperties properties) {
+            JedisPool existing = jedisPool.getIfUnique();
+            if (existing != null) {
+                return new JedisConnectionFactory(existing);
+            }
+            PlugLockProperties.Redis redis = properties.getRedis();
+            JedisPoolConfig poolConfig = new JedisPoolConfig();
+            poolConfig.setMaxTotal(redis.getMaxTotal());
+            return new JedisConnectionFactory(poolConfig, redis.getHost(), redis.getPort(),
+                    (int) redis.getTimeout().toMillis());
+        }
+    }
+
+    /**
+     * Lettuce连接，优先复用应用中的RedisClient
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.lettuce.core.RedisClient")
+    @ConditionalOnProperty(prefix = "pluglock.redis", name = "client", havingValue = "lettuce", matchIfMissing = true)
+    static class Lettuce {
+
+        @Bean(destroyMethod = "destroy")
+        @ConditionalOnMissingBean
+        RedisConnectionFactory plugLockRedisConnectionFactory(ObjectProvider<RedisClient> redisClient,
+                                                              PlugLockProperties properties) {
+            RedisClient existing = redisClient.getIfUnique();
+            if (existing != null) {
+                return new LettuceConnectionFactory(existing);
+            }
+            return new LettuceConnectionFactory(properties.getRedis().getHost(), properties.getRedis().getPort());
+        }
+    }
+
+    /**
+     * Redis锁资源（共享的订阅连接）和锁工厂，连接工厂按Jedis、Lettuce的顺序选择
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.pluglock.redis.RedisLockFactory")
+    @ConditionalOnProperty(prefix = "pluglock", name = "type", havingValue = "redis", matchIfMissing = true)
+    @Import({Jedis.class, Lettuce.class})
+    static class Redis {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        RedisPLockResource plugLockRedisResource(RedisConnectionFactory connectionFactory, LockWatchdog watchdog) {
+            return RedisLockFactory.createLockResource(connectionFactory, watchdog);
+        }
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        LockFactory plugLockFactory(RedisPLockResource lockResource) {
+            return new RedisLockFactory(lockResource);
+        }
+    }
+
+    /**
+     * JDBC锁工厂，优先复用应用中的DataSource
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.pluglock.jdbc.JdbcLockFactory")
+    @ConditionalOnProperty(prefix = "pluglock", name = "type", havingValue = "jdbc")
+    static class Jdbc {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        JdbcConnectionFactory plugLockJdbcConnectionFactory(ObjectProvider<DataSource> dataSource,
+                                                            PlugLockProperties properties) {
+            DataSource existing = dataSource.getIfUnique();
+            if (existing != null) {
+                return new JdbcConnectionFactory(existing);
+            }
+            PlugLockProperties.Jdbc jdbc = properties.getJdbc();
+            if (jdbc.getUrl() == null) {
+                throw new IllegalStateException("No DataSource found, please configure pluglock.jdbc.url");
+            }
+            return new JdbcConnectionFactory(jdbc.getUrl(), jdbc.getUsername(), jdbc.getPassword());
+        }
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        LockFactory plugLockFactory(JdbcConnectionFactory connectionFactory) {
+            return new JdbcLockFactory(connectionFactory);
+        }
+    }
+
+    /**
+     * 其他后端，通过SPI按类型创建一个属于当前应用上下文的工厂实例
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class Generic {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        LockFactory plugLockFactory(PlugLockProperties properties) {
+            for (LockFactory factory : ServiceLoader.load(LockFactory.class)) {
+                if (factory.getName().equals(properties.getType())) {
+                    return factory;
+                }
+            }
+            throw new IllegalStateException("No lock factory found for type: " + properties.getType());
+        }
+    }
+}
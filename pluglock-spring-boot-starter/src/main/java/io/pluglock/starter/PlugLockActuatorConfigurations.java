@@ -0,0 +1,168 @@
+package io.pluglock.starter;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.pluglock.core.ContentionProfiler;
+import io.pluglock.core.LockFactory;
+import io.pluglock.core.LockTracker;
+import io.pluglock.jdbc.JdbcConnectionFactory;
+import io.pluglock.redis.DynamicRedisConnectionFactory;
+import io.pluglock.redis.JedisConnectionFactory;
+import io.pluglock.redis.RedisConnectionFactory;
+import io.pluglock.redis.RedisPLockResource;
+import io.pluglock.redis.spi.LettuceConnectionFactoryImpl;
+import io.pluglock.starter.actuate.ConnectionPoolMetrics;
+import io.pluglock.starter.actuate.PlugLockEndpoint;
+import io.pluglock.starter.actuate.PlugLockMetrics;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+import redis.clients.jedis.JedisPool;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Actuator端点和Micrometer指标的配置，应用引入了Actuator或Micrometer时才生效
+ */
+abstract class PlugLockActuatorConfigurations {
+
+    /**
+     * 后端的订阅数，目前只有Redis后端有订阅
+     */
+    static IntSupplier subscriptions(ObjectProvider<RedisPLockResource> redisResource) {
+        RedisPLockResource resource = redisResource.getIfAvailable();
+        return resource == null ? null : () -> resource.getLockEntries().size();
+    }
+
+    /**
+     * /actuator/pluglock 端点
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    @ConditionalOnProperty(prefix = "pluglock.tracker", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class Endpoint {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint(endpoint = PlugLockEndpoint.class)
+        PlugLockEndpoint plugLockEndpoint(LockTracker tracker, LockFactory lockFactory,
+                                          ObjectProvider<RedisPLockResource> redisResource,
+                                          ObjectProvider<ContentionProfiler> profiler) {
+            return new PlugLockEndpoint(tracker, lockFactory.getName(), subscriptions(redisResource),
+                    profiler.getIfAvailable());
+        }
+    }
+
+    /**
+     * 锁状态指标
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    @ConditionalOnProperty(prefix = "pluglock.tracker", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class LockMetrics {
+
+        @Bean
+        @ConditionalOnMissingBean
+        PlugLockMetrics plugLockMetrics(LockTracker tracker, LockFactory lockFactory,
+                                        ObjectProvider<RedisPLockResource> redisResource) {
+            return new PlugLockMetrics(tracker, lockFactory.getName(), subscriptions(redisResource));
+        }
+    }
+
+    /**
+     * 连接池指标，支持JedisPool、Lettuce的GenericObjectPool和JDBC数据源（Hikari时包含连接数）
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    static class PoolMetrics {
+
+        private static final boolean JEDIS_PRESENT = ClassUtils.isPresent("redis.clients.jedis.JedisPool",
+                PoolMetrics.class.getClassLoader());
+        private static final boolean COMMONS_POOL_PRESENT = ClassUtils.isPresent(
+                "org.apache.commons.pool2.impl.GenericObjectPool", PoolMetrics.class.getClassLoader());
+        private static final boolean HIKARI_PRESENT = ClassUtils.isPresent("com.zaxxer.hikari.HikariDataSource",
+                PoolMetrics.class.getClassLoader());
+
+        @Bean
+        MeterBinder plugLockPoolMetrics(ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+                                        ObjectProvider<JdbcConnectionFactory> jdbcConnectionFactory) {
+            return registry -> {
+                ConnectionPoolMetrics redis = redisPoolMetrics(redisConnectionFactory.getIfAvailable());
+                if (redis != null) {
+                    redis.bindTo(registry);
+                }
+                JdbcConnectionFactory jdbc = jdbcConnectionFactory.getIfAvailable();
+                if (jdbc != null) {
+                    jdbcPoolMetrics(jdbc).bindTo(registry);
+                }
+            };
+        }
+
+        private static ConnectionPoolMetrics redisPoolMetrics(RedisConnectionFactory factory) {
+            if (factory instanceof DynamicRedisConnectionFactory) {
+                factory = ((DynamicRedisConnectionFactory) factory).getDelegate();
+            }
+            if (JEDIS_PRESENT && factory instanceof JedisConnectionFactory) {
+                return JedisPools.metrics((JedisConnectionFactory) factory);
+            }
+            if (COMMONS_POOL_PRESENT && factory instanceof LettuceConnectionFactoryImpl) {
+                return CommonsPools.metrics((LettuceConnectionFactoryImpl) factory);
+            }
+            // 共享单连接的Lettuce连接工厂没有连接池
+            return null;
+        }
+
+        private static ConnectionPoolMetrics jdbcPoolMetrics(JdbcConnectionFactory factory) {
+            if (HIKARI_PRESENT && factory.getDataSource() instanceof HikariDataSource) {
+                return HikariPools.metrics(factory);
+            }
+            return new ConnectionPoolMetrics("jdbc", factory::setBorrowListener, null, null, null);
+        }
+    }
+
+    /**
+     * 以下几个类只在对应的连接池存在时加载
+     */
+    private static class JedisPools {
+        static ConnectionPoolMetrics metrics(JedisConnectionFactory factory) {
+            JedisPool pool = factory.getJedisPool();
+            return new ConnectionPoolMetrics("jedis", factory::setBorrowListener,
+                    pool::getNumActive, pool::getNumIdle, pool::getNumWaiters);
+        }
+    }
+
+    private static class CommonsPools {
+        static ConnectionPoolMetrics metrics(LettuceConnectionFactoryImpl factory) {
+            GenericObjectPool<?> pool = factory.getConnectionPool();
+            return new ConnectionPoolMetrics("lettuce", factory::setBorrowListener,
+                    pool::getNumActive, pool::getNumIdle, pool::getNumWaiters);
+        }
+    }
+
+    private static class HikariPools {
+        static ConnectionPoolMetrics metrics(JdbcConnectionFactory factory) {
+            HikariDataSource dataSource = (HikariDataSource) factory.getDataSource();
+            // 连接池未启动时连接数为0
+            return new ConnectionPoolMetrics("jdbc", factory::setBorrowListener,
+                    () -> {
+                        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+                        return pool == null ? 0 : pool.getActiveConnections();
+                    },
+                    () -> {
+                        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+                        return pool == null ? 0 : pool.getIdleConnections();
+                    },
+                    () -> {
+                        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+                        return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+                    });
+        }
+    }
+}
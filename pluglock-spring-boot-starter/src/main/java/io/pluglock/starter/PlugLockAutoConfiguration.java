@@ -1,11 +1,77 @@
 package io.pluglock.starter;
 
+import io.pluglock.core.ContentionProfiler;
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.LockFactory;
+import io.pluglock.core.LockTracker;
+import io.pluglock.core.LockWatchdog;
+import io.pluglock.core.PLockRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
 /**
  * PlugLock自动配置类
+ *
+ * 每个应用上下文只创建一套后端组件：连接工厂、订阅连接、看门狗和锁工厂，
+ * 所有锁共享它们；应用中已有DataSource、JedisPool或RedisClient时直接复用。
+ * 上下文关闭时按依赖的逆序关闭这些组件，复用的外部连接池由其创建者关闭
  */
-@Configuration
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(PlugLockProperties.class)
+@Import({LockBackendConfigurations.Redis.class, LockBackendConfigurations.Jdbc.class,
+        LockBackendConfigurations.Generic.class, DistributedLockConfiguration.class,
+        PlugLockActuatorConfigurations.Endpoint.class, PlugLockActuatorConfigurations.LockMetrics.class,
+        PlugLockActuatorConfigurations.PoolMetrics.class, PlugLockTracingConfiguration.class})
 public class PlugLockAutoConfiguration {
-    // TODO: 实现自动配置逻辑
-}
\ No newline at end of file
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public LockWatchdog plugLockWatchdog(PlugLockProperties properties) {
+        return new LockWatchdog(properties.getLeaseTime().toMillis());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LockConfig plugLockConfig(PlugLockProperties properties) {
+        return properties.toLockConfig();
+    }
+
+    /**
+     * 记录本JVM持有和等待的锁，供Actuator端点和指标使用
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "pluglock.tracker", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public LockTracker plugLockTracker() {
+        return new LockTracker();
+    }
+
+    /**
+     * 统计等待和持有时间最长的锁名称，内存占用与锁名称数量无关
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "pluglock.profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ContentionProfiler plugLockContentionProfiler(PlugLockProperties properties) {
+        PlugLockProperties.Profiler profiler = properties.getProfiler();
+        return new ContentionProfiler(profiler.getCapacity(), profiler.getWindow().toMillis(),
+                profiler.getWindowCount(), profiler.getSlowWait().toMillis(), profiler.getSlowHold().toMillis(),
+                profiler.getSlowLogInterval().toMillis());
+    }
+
+    /**
+     * 锁工厂由对应的bean负责关闭，这里不重复关闭
+     */
+    @Bean(destroyMethod = "")
+    @ConditionalOnMissingBean
+    public PLockRegistry plugLockRegistry(LockFactory lockFactory, LockConfig lockConfig,
+                                          ObjectProvider<LockTracker> tracker,
+                                          ObjectProvider<ContentionProfiler> profiler) {
+        return new PLockRegistry(lockFactory, lockConfig, tracker.getIfAvailable(), profiler.getIfAvailable());
+    }
+}
@@ -0,0 +1,402 @@
+package io.pluglock.starter;
+
+import io.pluglock.core.LockConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * PlugLock配置属性
+ */
+@ConfigurationProperties(prefix = "pluglock")
+public class PlugLockProperties {
+
+    /**
+     * 锁后端类型：redis、jdbc、zookeeper、hazelcast、mmap、server
+     */
+    private String type = "redis";
+
+    /**
+     * 未指定租约时间的锁使用的内部租约，持有期间由看门狗按三分之一周期续期
+     */
+    private Duration leaseTime = Duration.ofSeconds(30);
+
+    private final Redis redis = new Redis();
+
+    private final Jdbc jdbc = new Jdbc();
+
+    private final Zookeeper zookeeper = new Zookeeper();
+
+    private final Profiler profiler = new Profiler();
+
+    /**
+     * 直接传给锁工厂的其他配置项，例如 hazelcast.lock.mode、mmap.file
+     */
+    private Map<String, String> properties = new LinkedHashMap<>();
+
+    /**
+     * 转换为锁工厂使用的配置
+     */
+    public LockConfig toLockConfig() {
+        Properties config = new Properties();
+        config.setProperty("redis.host", redis.getHost());
+        config.setProperty("redis.port", String.valueOf(redis.getPort()));
+        if (redis.getClient() != null) {
+            config.setProperty("redis.client", redis.getClient());
+        }
+        if (jdbc.getUrl() != null) {
+            config.setProperty("jdbc.url", jdbc.getUrl());
+        }
+        if (jdbc.getUsername() != null) {
+            config.setProperty("jdbc.username", jdbc.getUsername());
+        }
+        if (jdbc.getPassword() != null) {
+            config.setProperty("jdbc.password", jdbc.getPassword());
+        }
+        config.setProperty("jdbc.table.name", jdbc.getTableName());
+        config.setProperty("jdbc.table.partitions", String.valueOf(jdbc.getPartitions()));
+        config.setProperty("jdbc.table.partition.mode", jdbc.getPartitionMode());
+        config.setProperty("jdbc.schema.create", String.valueOf(jdbc.isCreateSchema()));
+        config.setProperty("jdbc.lock.type", jdbc.getLockType());
+        config.setProperty("zookeeper.connect", zookeeper.getConnect());
+        config.setProperty("zookeeper.session.timeout", String.valueOf(zookeeper.getSessionTimeout().toMillis()));
+        config.setProperty("zookeeper.connection.timeout", String.valueOf(zookeeper.getConnectionTimeout().toMillis()));
+        config.setProperty("zookeeper.root", zookeeper.getRoot());
+        config.putAll(properties);
+        return new LockConfig(config);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Duration getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(Duration leaseTime) {
+        this.leaseTime = leaseTime;
+    }
+
+    public Redis getRedis() {
+        return redis;
+    }
+
+    public Jdbc getJdbc() {
+        return jdbc;
+    }
+
+    public Zookeeper getZookeeper() {
+        return zookeeper;
+    }
+
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public void setProperties(Map<String, String> properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Redis配置，应用中已有JedisPool或RedisClient时复用它们，不使用这里的地址
+     */
+    public static class Redis {
+
+        /**
+         * 客户端类型：jedis、lettuce，不配置时优先使用jedis
+         */
+        private String client;
+
+        private String host = "localhost";
+
+        private int port = 6379;
+
+        private Duration timeout = Duration.ofSeconds(2);
+
+        /**
+         * 连接池最大连接数，仅Jedis使用
+         */
+        private int maxTotal = 20;
+
+        public String getClient() {
+            return client;
+        }
+
+        public void setClient(String client) {
+            this.client = client;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getMaxTotal() {
+            return maxTotal;
+        }
+
+        public void setMaxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+        }
+    }
+
+    /**
+     * JDBC配置，应用中已有DataSource时复用它，不使用这里的地址
+     */
+    public static class Jdbc {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String tableName = "distributed_lock";
+
+        private int partitions = 1;
+
+        /**
+         * 分区方式：tables、native
+         */
+        private String partitionMode = "tables";
+
+        private boolean createSchema = false;
+
+        /**
+         * 锁类型：basic、reentrant
+         */
+        private String lockType = "basic";
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        public void setTableName(String tableName) {
+            this.tableName = tableName;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public void setPartitions(int partitions) {
+            this.partitions = partitions;
+        }
+
+        public String getPartitionMode() {
+            return partitionMode;
+        }
+
+        public void setPartitionMode(String partitionMode) {
+            this.partitionMode = partitionMode;
+        }
+
+        public boolean isCreateSchema() {
+            return createSchema;
+        }
+
+        public void setCreateSchema(boolean createSchema) {
+            this.createSchema = createSchema;
+        }
+
+        public String getLockType() {
+            return lockType;
+        }
+
+        public void setLockType(String lockType) {
+            this.lockType = lockType;
+        }
+    }
+
+    /**
+     * ZooKeeper配置
+     */
+    public static class Zookeeper {
+
+        private String connect = "localhost:2181";
+
+        private Duration sessionTimeout = Duration.ofSeconds(30);
+
+        private Duration connectionTimeout = Duration.ofSeconds(15);
+
+        private String root = "/pluglock";
+
+        public String getConnect() {
+            return connect;
+        }
+
+        public void setConnect(String connect) {
+            this.connect = connect;
+        }
+
+        public Duration getSessionTimeout() {
+            return sessionTimeout;
+        }
+
+        public void setSessionTimeout(Duration sessionTimeout) {
+            this.sessionTimeout = sessionTimeout;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        public String getRoot() {
+            return root;
+        }
+
+        public void setRoot(String root) {
+            this.root = root;
+        }
+    }
+
+    /**
+     * 竞争分析配置，统计滚动时间段内等待和持有时间最长的锁名称
+     */
+    public static class Profiler {
+
+        private boolean enabled = true;
+
+        /**
+         * 每个窗口保留的锁名称数量，内存占用只取决于它和窗口数量
+         */
+        private int capacity = 128;
+
+        private Duration window = Duration.ofMinutes(1);
+
+        /**
+         * 参与统计的窗口数量
+         */
+        private int windowCount = 5;
+
+        /**
+         * 等待超过这个时间时打印日志，为0时不打印
+         */
+        private Duration slowWait = Duration.ofSeconds(1);
+
+        /**
+         * 持有超过这个时间时打印日志，为0时不打印
+         */
+        private Duration slowHold = Duration.ofSeconds(10);
+
+        /**
+         * 慢锁日志的最小间隔，期间的其他慢锁只计数
+         */
+        private Duration slowLogInterval = Duration.ofSeconds(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getWindowCount() {
+            return windowCount;
+        }
+
+        public void setWindowCount(int windowCount) {
+            this.windowCount = windowCount;
+        }
+
+        public Duration getSlowWait() {
+            return slowWait;
+        }
+
+        public void setSlowWait(Duration slowWait) {
+            this.slowWait = slowWait;
+        }
+
+        public Duration getSlowHold() {
+            return slowHold;
+        }
+
+        public void setSlowHold(Duration slowHold) {
+            this.slowHold = slowHold;
+        }
+
+        public Duration getSlowLogInterval() {
+            return slowLogInterval;
+        }
+
+        public void setSlowLogInterval(Duration slowLogInterval) {
+            this.slowLogInterval = slowLogInterval;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.pluglock.starter;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.pluglock.core.otel.LockTracing;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 应用中有OpenTelemetry bean时，锁的span使用它而不是全局实例
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(name = "io.opentelemetry.api.OpenTelemetry")
+class PlugLockTracingConfiguration {
+
+    @Bean
+    static SmartInitializingSingleton plugLockTracingInitializer(ObjectProvider<OpenTelemetry> openTelemetry) {
+        return () -> openTelemetry.ifAvailable(LockTracing::setOpenTelemetry);
+    }
+}
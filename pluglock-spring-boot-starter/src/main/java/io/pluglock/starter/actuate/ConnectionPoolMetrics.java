@@ -0,0 +1,66 @@
+package io.pluglock.starter.actuate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * 锁后端连接池指标：借用连接的等待时间，以及活动、空闲、排队中的连接数
+ *
+ * 等待时间由连接工厂在借用连接时回调记录，只统计锁操作借用的连接；
+ * 连接数从连接池读取，复用应用的连接池时包含应用自己的使用
+ */
+public class ConnectionPoolMetrics implements MeterBinder {
+
+    private final String pool;
+    private final Consumer<LongConsumer> borrowListenerSetter;
+    private final IntSupplier active;
+    private final IntSupplier idle;
+    private final IntSupplier pending;
+
+    /**
+     * @param pool                 连接池名称，作为pool标签
+     * @param borrowListenerSetter 向连接工厂注册借用等待时间的监听器
+     * @param active               活动连接数，无法获取连接池状态时为null
+     * @param idle                 空闲连接数，无法获取连接池状态时为null
+     * @param pending              等待借用连接的线程数，无法获取连接池状态时为null
+     */
+    public ConnectionPoolMetrics(String pool, Consumer<LongConsumer> borrowListenerSetter,
+                                 IntSupplier active, IntSupplier idle, IntSupplier pending) {
+        this.pool = pool;
+        this.borrowListenerSetter = borrowListenerSetter;
+        this.active = active;
+        this.idle = idle;
+        this.pending = pending;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer borrow = Timer.builder("pluglock.pool.borrow")
+                .description("Time spent waiting to borrow a connection for a lock operation")
+                .tag("pool", pool)
+                .register(registry);
+        borrowListenerSetter.accept(nanos -> borrow.record(nanos, TimeUnit.NANOSECONDS));
+        registerConnections(registry, "active", active);
+        registerConnections(registry, "idle", idle);
+        registerConnections(registry, "pending", pending);
+    }
+
+    private void registerConnections(MeterRegistry registry, String state, IntSupplier value) {
+        if (value == null) {
+            return;
+        }
+        Gauge.builder("pluglock.pool.connections", value, IntSupplier::getAsInt)
+                .description("Connections of the lock backend pool")
+                .tag("pool", pool)
+                .tag("state", state)
+                .strongReference(true)
+                .register(registry);
+    }
+}
@@ -0,0 +1,176 @@
+package io.pluglock.starter.actuate;
+
+import io.pluglock.core.ContentionProfiler;
+import io.pluglock.core.LockTracker;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * /actuator/pluglock，列出本JVM当前持有和等待的锁，开启竞争分析时还包括最近一段时间竞争最多和持有最久的锁
+ */
+@Endpoint(id = "pluglock")
+public class PlugLockEndpoint {
+
+    /**
+     * 每项排行列出的锁数量
+     */
+    private static final int TOP = 10;
+
+    private final LockTracker tracker;
+    private final String backend;
+    private final IntSupplier subscriptions;
+    private final ContentionProfiler profiler;
+
+    /**
+     * @param subscriptions 后端当前的订阅数，后端没有订阅时为null
+     */
+    public PlugLockEndpoint(LockTracker tracker, String backend, IntSupplier subscriptions) {
+        this(tracker, backend, subscriptions, null);
+    }
+
+    /**
+     * @param profiler 竞争分析，未开启时为null
+     */
+    public PlugLockEndpoint(LockTracker tracker, String backend, IntSupplier subscriptions,
+                            ContentionProfiler profiler) {
+        this.tracker = tracker;
+        this.backend = backend;
+        this.subscriptions = subscriptions;
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public LocksDescriptor locks() {
+        Map<String, Integer> waiterCounts = tracker.getWaiterCounts();
+        long now = System.currentTimeMillis();
+        List<HoldDescriptor> holds = new ArrayList<>();
+        for (LockTracker.Hold hold : tracker.getHolds()) {
+            holds.add(new HoldDescriptor(hold, waiterCounts.getOrDefault(hold.getName(), 0), now));
+        }
+        holds.sort(Comparator.comparingLong(HoldDescriptor::getHeldMillis).reversed());
+        LocksDescriptor descriptor = new LocksDescriptor(backend, holds, waiterCounts,
+                subscriptions != null ? subscriptions.getAsInt() : null);
+        if (profiler != null) {
+            descriptor.contended = profiler.getTopContended(TOP);
+            descriptor.longestHeld = profiler.getTopHeld(TOP);
+        }
+        return descriptor;
+    }
+
+    public static final class LocksDescriptor {
+        private final String backend;
+        private final List<HoldDescriptor> holds;
+        private final Map<String, Integer> waiters;
+        private final Integer subscriptions;
+        private List<ContentionProfiler.HotLock> contended;
+        private List<ContentionProfiler.HotLock> longestHeld;
+
+        LocksDescriptor(String backend, List<HoldDescriptor> holds, Map<String, Integer> waiters,
+                        Integer subscriptions) {
+            this.backend = backend;
+            this.holds = holds;
+            this.waiters = waiters;
+            this.subscriptions = subscriptions;
+        }
+
+        public String getBackend() {
+            return backend;
+        }
+
+        /**
+         * @return 持有中的锁，持有时间长的在前
+         */
+        public List<HoldDescriptor> getHolds() {
+            return holds;
+        }
+
+        /**
+         * @return 每个锁名称的等待线程数
+         */
+        public Map<String, Integer> getWaiters() {
+            return waiters;
+        }
+
+        public Integer getSubscriptions() {
+            return subscriptions;
+        }
+
+        /**
+         * @return 最近一段时间累计等待时间最长的锁，未开启竞争分析时为null
+         */
+        public List<ContentionProfiler.HotLock> getContended() {
+            return contended;
+        }
+
+        /**
+         * @return 最近一段时间累计持有时间最长的锁，未开启竞争分析时为null
+         */
+        public List<ContentionProfiler.HotLock> getLongestHeld() {
+            return longestHeld;
+        }
+    }
+
+    public static final class HoldDescriptor {
+        private final String name;
+        private final String owner;
+        private final long threadId;
+        private final Instant acquiredAt;
+        private final Instant leaseDeadline;
+        private final long heldMillis;
+        private final int holdCount;
+        private final int waiters;
+
+        HoldDescriptor(LockTracker.Hold hold, int waiters, long now) {
+            this.name = hold.getName();
+            this.owner = hold.getOwner();
+            this.threadId = hold.getThreadId();
+            this.acquiredAt = Instant.ofEpochMilli(hold.getAcquiredAt());
+            this.leaseDeadline = hold.getLeaseDeadline() < 0 ? null : Instant.ofEpochMilli(hold.getLeaseDeadline());
+            this.heldMillis = now - hold.getAcquiredAt();
+            this.holdCount = hold.getHoldCount();
+            this.waiters = waiters;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        public Instant getAcquiredAt() {
+            return acquiredAt;
+        }
+
+        /**
+         * @return 租约到期时间，持有到解锁（由看门狗续期）时为null
+         */
+        public Instant getLeaseDeadline() {
+            return leaseDeadline;
+        }
+
+        public long getHeldMillis() {
+            return heldMillis;
+        }
+
+        public int getHoldCount() {
+            return holdCount;
+        }
+
+        public int getWaiters() {
+            return waiters;
+        }
+    }
+}
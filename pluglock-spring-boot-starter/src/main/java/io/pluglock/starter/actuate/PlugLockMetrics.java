@@ -0,0 +1,48 @@
+package io.pluglock.starter.actuate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.pluglock.core.LockTracker;
+
+import java.util.function.IntSupplier;
+
+/**
+ * 锁状态指标：本JVM持有的锁数、等待线程数和后端订阅数，按后端类型打标签
+ *
+ * 指标在采集时从 {@link LockTracker} 读取，不会给加锁解锁增加任何操作
+ */
+public class PlugLockMetrics implements MeterBinder {
+
+    private final LockTracker tracker;
+    private final String backend;
+    private final IntSupplier subscriptions;
+
+    /**
+     * @param subscriptions 后端当前的订阅数，后端没有订阅时为null
+     */
+    public PlugLockMetrics(LockTracker tracker, String backend, IntSupplier subscriptions) {
+        this.tracker = tracker;
+        this.backend = backend;
+        this.subscriptions = subscriptions;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("pluglock.holds.active", tracker, LockTracker::getHoldCount)
+                .description("Locks currently held by this JVM")
+                .tag("backend", backend)
+                .register(registry);
+        Gauge.builder("pluglock.waiters", tracker, LockTracker::getWaiterCount)
+                .description("Threads of this JVM waiting for a lock")
+                .tag("backend", backend)
+                .register(registry);
+        if (subscriptions != null) {
+            Gauge.builder("pluglock.subscriptions", subscriptions, IntSupplier::getAsInt)
+                    .description("Lock release subscriptions on the backend")
+                    .tag("backend", backend)
+                    .strongReference(true)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.pluglock.starter.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在方法执行期间持有分布式锁
+ *
+ * <pre>
+ * &#64;DistributedLock(name = "order", key = "#order.id", waitTime = 3000)
+ * public void pay(Order order) { ... }
+ *
+ * &#64;DistributedLock(name = "account", key = {"#from.id", "#to.id"})
+ * public void transfer(Account from, Account to, long amount) { ... }
+ * </pre>
+ *
+ * key中的SpEL表达式在方法第一次调用时解析并编译，之后每次调用只执行编译后的代码；
+ * 表达式中可以用参数名、#p0或#a0引用方法参数。
+ * 多个key或key的结果是集合、数组时使用组合锁，所有名称一起加锁
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface DistributedLock {
+
+    /**
+     * 锁名称前缀，与key之间用冒号连接；为空且没有key时使用类名加方法名
+     */
+    String name() default "";
+
+    /**
+     * 锁名称的SpEL表达式
+     */
+    String[] key() default {};
+
+    /**
+     * 最长等待时间，-1表示一直等待，0表示不等待；超时未获取到锁时抛出
+     * {@link io.pluglock.starter.aop.DistributedLockException}
+     */
+    long waitTime() default -1;
+
+    /**
+     * 租约时间，-1表示持有到方法结束，期间由看门狗续期
+     */
+    long leaseTime() default -1;
+
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
@@ -0,0 +1,15 @@
+package io.pluglock.starter.aop;
+
+/**
+ * {@link io.pluglock.starter.annotation.DistributedLock} 在等待时间内没有获取到锁
+ */
+public class DistributedLockException extends RuntimeException {
+
+    public DistributedLockException(String message) {
+        super(message);
+    }
+
+    public DistributedLockException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
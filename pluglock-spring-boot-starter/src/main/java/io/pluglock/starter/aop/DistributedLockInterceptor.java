@@ -0,0 +1,94 @@
+package io.pluglock.starter.aop;
+
+import io.pluglock.core.PLock;
+import io.pluglock.core.PLockRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.expression.BeanResolver;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * {@link io.pluglock.starter.annotation.DistributedLock} 的拦截器：方法执行前加锁，结束后解锁
+ */
+public class DistributedLockInterceptor implements MethodInterceptor {
+
+    private final Supplier<PLockRegistry> registrySupplier;
+    private final BeanResolver beanResolver;
+    private volatile PLockRegistry registry;
+    private final LockOperationSource operationSource = new LockOperationSource();
+
+    public DistributedLockInterceptor(PLockRegistry registry) {
+        this(() -> registry, null);
+    }
+
+    /**
+     * @param registrySupplier 锁注册中心，第一次调用被拦截的方法时才获取
+     * @param beanResolver     key表达式中@beanName引用使用的解析器，可以为null
+     */
+    public DistributedLockInterceptor(Supplier<PLockRegistry> registrySupplier, BeanResolver beanResolver) {
+        this.registrySupplier = registrySupplier;
+        this.beanResolver = beanResolver;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object target = invocation.getThis();
+        LockOperation operation = operationSource.getOperation(invocation.getMethod(),
+                target != null ? AopUtils.getTargetClass(target) : null);
+        if (operation == null) {
+            return invocation.proceed();
+        }
+        List<String> names = operation.resolveNames(invocation.getArguments(), beanResolver);
+        PLockRegistry registry = getRegistry();
+        PLock lock = names.size() == 1 ? registry.getLock(names.get(0)) : registry.getMultiLock(names);
+        acquire(lock, operation);
+        try {
+            return invocation.proceed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PLockRegistry getRegistry() {
+        PLockRegistry current = registry;
+        if (current == null) {
+            current = registrySupplier.get();
+            registry = current;
+        }
+        return current;
+    }
+
+    private void acquire(PLock lock, LockOperation operation) {
+        try {
+            if (operation.getWaitTime() < 0) {
+                if (operation.getLeaseTime() < 0) {
+                    lock.lock();
+                } else {
+                    lock.lock(operation.getLeaseTime(), operation.getUnit());
+                }
+            } else if (!lock.tryLock(operation.getWaitTime(), operation.getLeaseTime(), operation.getUnit())) {
+                throw new DistributedLockException("Failed to acquire lock: " + lock.getName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DistributedLockException("Interrupted while acquiring lock: " + lock.getName(), e);
+        }
+    }
+
+    /**
+     * 匹配带有注解的方法，结果同样来自解析缓存
+     */
+    public StaticMethodMatcherPointcut getPointcut() {
+        return new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return operationSource.getOperation(method, targetClass) != null;
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package io.pluglock.starter.aop;
+
+import io.pluglock.starter.annotation.DistributedLock;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个方法上 {@link DistributedLock} 的解析结果，每个方法只创建一次
+ *
+ * key表达式在这里一次性解析，并以MIXED模式编译：解释执行若干次收集类型信息后编译成字节码，
+ * 调用时不再解析表达式，也不再反射访问参数的属性；参数的实际类型与编译时不同（例如接口类型的参数换了实现类）
+ * 导致编译后的表达式失败时，退回解释执行并在之后重新编译
+ */
+class LockOperation {
+
+    private final String prefix;
+    private final Expression[] keys;
+    // 每个参数在表达式中可用的变量名：参数名、p{i}、a{i}
+    private final String[][] variableNames;
+    private final long waitTime;
+    private final long leaseTime;
+    private final TimeUnit unit;
+
+    /**
+     * @param parameterNames 方法参数名，编译时没有保留参数名时为null
+     */
+    LockOperation(DistributedLock annotation, String defaultName, int parameterCount, String[] parameterNames,
+                  ClassLoader classLoader) {
+        String name = annotation.name().isEmpty() && annotation.key().length == 0 ? defaultName : annotation.name();
+        this.prefix = name.isEmpty() ? "" : name + ":";
+        SpelExpressionParser parser = new SpelExpressionParser(
+                new SpelParserConfiguration(SpelCompilerMode.MIXED, classLoader));
+        this.keys = new Expression[annotation.key().length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = parser.parseExpression(annotation.key()[i]);
+        }
+        this.variableNames = new String[parameterCount][];
+        for (int i = 0; i < parameterCount; i++) {
+            variableNames[i] = parameterNames != null && parameterNames[i] != null
+                    ? new String[]{parameterNames[i], "p" + i, "a" + i}
+                    : new String[]{"p" + i, "a" + i};
+        }
+        this.waitTime = annotation.waitTime();
+        this.leaseTime = annotation.leaseTime();
+        this.unit = annotation.unit();
+    }
+
+    /**
+     * 计算本次调用要锁定的名称
+     *
+     * @param args         方法参数
+     * @param beanResolver 表达式中@beanName引用使用的解析器，可以为null
+     * @return 锁名称，多于一个时使用组合锁
+     */
+    List<String> resolveNames(Object[] args, BeanResolver beanResolver) {
+        if (keys.length == 0) {
+            return Collections.singletonList(prefix.substring(0, prefix.length() - 1));
+        }
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setBeanResolver(beanResolver);
+        for (int i = 0; i < args.length; i++) {
+            for (String variableName : variableNames[i]) {
+                context.setVariable(variableName, args[i]);
+            }
+        }
+        List<String> names = new ArrayList<>(keys.length);
+        for (Expression key : keys) {
+            addNames(names, key.getValue(context), key);
+        }
+        return names;
+    }
+
+    private void addNames(List<String> names, Object value, Expression key) {
+        if (value == null) {
+            throw new IllegalArgumentException("Lock key evaluated to null: " + key.getExpressionString());
+        }
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                addNames(names, element, key);
+            }
+        } else if (value.getClass().isArray()) {
+            for (int i = 0, length = Array.getLength(value); i < length; i++) {
+                addNames(names, Array.get(value, i), key);
+            }
+        } else {
+            names.add(prefix + value);
+        }
+    }
+
+    long getWaitTime() {
+        return waitTime;
+    }
+
+    long getLeaseTime() {
+        return leaseTime;
+    }
+
+    TimeUnit getUnit() {
+        return unit;
+    }
+}
@@ -0,0 +1,61 @@
+package io.pluglock.starter.aop;
+
+import io.pluglock.starter.annotation.DistributedLock;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 查找方法上的 {@link DistributedLock} 并缓存解析结果
+ */
+class LockOperationSource {
+
+    // 没有注解的方法也缓存下来，避免每次调用都查找注解
+    private static final Object NO_OPERATION = new Object();
+
+    private final Map<MethodClassKey, Object> cache = new ConcurrentHashMap<>();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    /**
+     * @return 方法的锁定义，方法和类上都没有注解时返回null
+     */
+    LockOperation getOperation(Method method, Class<?> targetClass) {
+        MethodClassKey key = new MethodClassKey(method, targetClass);
+        Object operation = cache.get(key);
+        if (operation == null) {
+            operation = cache.computeIfAbsent(key, k -> {
+                LockOperation parsed = parse(method, targetClass);
+                return parsed != null ? parsed : NO_OPERATION;
+            });
+        }
+        return operation != NO_OPERATION ? (LockOperation) operation : null;
+    }
+
+    private LockOperation parse(Method method, Class<?> targetClass) {
+        Class<?> userClass = targetClass != null ? ClassUtils.getUserClass(targetClass) : method.getDeclaringClass();
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, userClass);
+        DistributedLock annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, DistributedLock.class);
+        if (annotation == null && specificMethod != method) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method, DistributedLock.class);
+        }
+        // 类上的注解只作用于类自己的public方法
+        if (annotation == null && Modifier.isPublic(specificMethod.getModifiers())
+                && specificMethod.getDeclaringClass() != Object.class) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(userClass, DistributedLock.class);
+        }
+        if (annotation == null) {
+            return null;
+        }
+        return new LockOperation(annotation, userClass.getName() + "." + method.getName(),
+                specificMethod.getParameterCount(), parameterNameDiscoverer.getParameterNames(specificMethod),
+                userClass.getClassLoader());
+    }
+}
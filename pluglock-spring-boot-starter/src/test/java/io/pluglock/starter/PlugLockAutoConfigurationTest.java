@@ -0,0 +1,163 @@
+package io.pluglock.starter;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.LockFactory;
+import io.pluglock.core.PLock;
+import io.pluglock.core.PLockRegistry;
+import io.pluglock.jdbc.JdbcConnectionFactory;
+import io.pluglock.jdbc.JdbcLockFactory;
+import io.pluglock.redis.JedisConnectionFactory;
+import io.pluglock.redis.LettuceConnectionFactory;
+import io.pluglock.redis.RedisConnectionFactory;
+import io.pluglock.redis.RedisLockFactory;
+import io.pluglock.zookeeper.ZookeeperLockFactory;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 后端选择、复用应用中的连接池，以及注册中心bean
+ */
+class PlugLockAutoConfigurationTest {
+
+    private static final String REDIS_HOST = "localhost";
+    private static final int REDIS_PORT = 6379;
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(PlugLockAutoConfiguration.class));
+
+    private static void assumeRedis() {
+        boolean available;
+        try (Jedis jedis = new Jedis(REDIS_HOST, REDIS_PORT)) {
+            available = "PONG".equals(jedis.ping());
+        } catch (Exception e) {
+            available = false;
+        }
+        Assumptions.assumeTrue(available, "Redis is not available on " + REDIS_HOST + ":" + REDIS_PORT);
+    }
+
+    @Test
+    void redisWithJedisIsTheDefault() {
+        assumeRedis();
+        runner.run(context -> {
+            assertInstanceOf(RedisLockFactory.class, context.getBean(LockFactory.class));
+            assertInstanceOf(JedisConnectionFactory.class, context.getBean(RedisConnectionFactory.class));
+        });
+    }
+
+    @Test
+    void lettuceIsSelectedByProperty() {
+        assumeRedis();
+        runner.withPropertyValues("pluglock.redis.client=lettuce").run(context -> {
+            assertInstanceOf(RedisLockFactory.class, context.getBean(LockFactory.class));
+            assertInstanceOf(LettuceConnectionFactory.class, context.getBean(RedisConnectionFactory.class));
+        });
+    }
+
+    @Test
+    void otherTypesAreLoadedThroughServiceLoader() {
+        runner.withPropertyValues("pluglock.type=zookeeper").run(context -> {
+            assertInstanceOf(ZookeeperLockFactory.class, context.getBean(LockFactory.class));
+            assertFalse(context.containsBean("plugLockRedisResource"));
+        });
+        runner.withPropertyValues("pluglock.type=unknown").run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void existingJedisPoolIsReusedAndNotClosed() {
+        assumeRedis();
+        JedisPool pool = new JedisPool(REDIS_HOST, REDIS_PORT);
+        try {
+            runner.withBean(JedisPool.class, () -> pool, definition -> definition.setDestroyMethodName(""))
+                    .run(context -> assertSame(pool,
+                            ((JedisConnectionFactory) context.getBean(RedisConnectionFactory.class)).getJedisPool()));
+            assertFalse(pool.isClosed());
+            try (Jedis jedis = pool.getResource()) {
+                assertEquals("PONG", jedis.ping());
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void existingRedisClientIsReusedAndNotShutDown() {
+        assumeRedis();
+        RedisClient client = RedisClient.create("redis://" + REDIS_HOST + ":" + REDIS_PORT);
+        try {
+            runner.withPropertyValues("pluglock.redis.client=lettuce")
+                    .withBean(RedisClient.class, () -> client, definition -> definition.setDestroyMethodName(""))
+                    .run(context -> assertSame(client,
+                            ((LettuceConnectionFactory) context.getBean(RedisConnectionFactory.class)).getRedisClient()));
+            // 上下文关闭后客户端仍然可用
+            try (StatefulRedisConnection<String, String> connection = client.connect()) {
+                assertEquals("PONG", connection.sync().ping());
+            }
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    void existingDataSourceIsReusedAndNotClosed() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:starter;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try {
+            runner.withPropertyValues("pluglock.type=jdbc")
+                    .withBean(HikariDataSource.class, () -> dataSource, definition -> definition.setDestroyMethodName(""))
+                    .run(context -> {
+                        assertInstanceOf(JdbcLockFactory.class, context.getBean(LockFactory.class));
+                        assertSame(dataSource, context.getBean(JdbcConnectionFactory.class).getDataSource());
+                    });
+            assertFalse(dataSource.isClosed());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void registryUsesTheLockFactoryBean() {
+        runner.withPropertyValues("pluglock.type=jdbc", "pluglock.jdbc.url=jdbc:h2:mem:registry;MODE=MySQL",
+                "pluglock.jdbc.create-schema=true").run(context -> {
+            PLockRegistry registry = context.getBean(PLockRegistry.class);
+            assertSame(context.getBean(LockFactory.class), registry.getLockFactory());
+            PLock lock = registry.getLock("order");
+            assertEquals("order", lock.getName());
+            assertTrue(lock.tryLock());
+            lock.unlock();
+        });
+    }
+
+    @Test
+    void applicationBeansTakePrecedence() {
+        runner.withPropertyValues("pluglock.type=zookeeper")
+                .withUserConfiguration(CustomRegistry.class)
+                .run(context -> {
+                    assertSame(context.getBean("customRegistry"), context.getBean(PLockRegistry.class));
+                    assertEquals(1, context.getBeansOfType(PLockRegistry.class).size());
+                });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class CustomRegistry {
+        @Bean
+        PLockRegistry customRegistry(LockFactory lockFactory) {
+            return new PLockRegistry(lockFactory, new LockConfig());
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package io.pluglock.starter.aop;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.PLock;
+import io.pluglock.core.PLockRegistry;
+import io.pluglock.starter.annotation.DistributedLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.expression.BeanFactoryResolver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistributedLockInterceptorTest {
+
+    private final RecordingLockFactory factory = new RecordingLockFactory();
+    private final PLockRegistry registry = new PLockRegistry(factory, new LockConfig());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, DistributedLockInterceptor interceptor) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(interceptor.getPointcut(), interceptor));
+        return (T) proxyFactory.getProxy();
+    }
+
+    private LockedService proxy() {
+        return proxy(new LockedService(factory), new DistributedLockInterceptor(registry));
+    }
+
+    @Test
+    void keyReferencesParameterByNameAndIndex() {
+        LockedService service = proxy();
+        assertEquals(Collections.singleton("order:42"), service.pay("42"));
+        // 表达式编译之后换一个参数，结果同样正确
+        assertEquals(Collections.singleton("order:43"), service.pay("43"));
+        assertEquals(Collections.singleton("order:7"), service.payByIndex("7"));
+        assertEquals(Collections.singleton("order:8"), service.payByAlias("8"));
+        assertTrue(factory.held.isEmpty());
+    }
+
+    @Test
+    void multipleKeysAndCollectionsUseMultiLock() {
+        LockedService service = proxy();
+        assertEquals(new HashSet<>(Arrays.asList("account:a", "account:b")), service.transfer("a", "b"));
+        assertEquals(new HashSet<>(Arrays.asList("batch:1", "batch:2", "batch:3")),
+                service.batch(Arrays.asList("1", "2", "3")));
+        assertEquals(new HashSet<>(Arrays.asList("batch:x", "batch:y")), service.batchArray(new String[]{"x", "y"}));
+        assertTrue(factory.held.isEmpty());
+    }
+
+    @Test
+    void annotationWithoutNameAndKeyUsesClassAndMethodName() {
+        assertEquals(Collections.singleton(LockedService.class.getName() + ".defaultName"), proxy().defaultName());
+    }
+
+    @Test
+    void classLevelAnnotationAppliesToPublicMethods() {
+        ClassLockedService service = proxy(new ClassLockedService(factory), new DistributedLockInterceptor(registry));
+        assertEquals(Collections.singleton("class"), service.run());
+    }
+
+    @Test
+    void methodWithoutAnnotationIsNotLocked() {
+        assertTrue(proxy().plain().isEmpty());
+    }
+
+    @Test
+    void nullKeyIsRejected() {
+        LockedService service = proxy();
+        assertThrows(IllegalArgumentException.class, () -> service.pay(null));
+        assertTrue(factory.held.isEmpty());
+    }
+
+    @Test
+    void lockIsReleasedWhenMethodThrows() {
+        LockedService service = proxy();
+        assertThrows(IllegalStateException.class, () -> service.fail("1"));
+        assertTrue(factory.held.isEmpty());
+    }
+
+    @Test
+    void waitTimeElapsedThrowsDistributedLockException() throws Exception {
+        PLock holder = registry.getLock("order:busy");
+        executor.submit(() -> holder.lock()).get(5, TimeUnit.SECONDS);
+        try {
+            LockedService service = proxy();
+            assertThrows(DistributedLockException.class, () -> service.tryPay("busy"));
+            assertTrue(service.tryPay("free").contains("order:free"));
+        } finally {
+            executor.submit(() -> holder.unlock()).get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void leaseTimeIsPassedToLock() {
+        LockedService service = proxy();
+        service.lease("1");
+        assertEquals(5000L, factory.leases.get("lease:1"));
+        service.pay("1");
+        assertEquals(-1L, factory.leases.get("order:1"));
+    }
+
+    @Test
+    void keyResolvesBeanReferences() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("tenant", "acme");
+        AtomicInteger lookups = new AtomicInteger();
+        LockedService service = proxy(new LockedService(factory), new DistributedLockInterceptor(() -> {
+            lookups.incrementAndGet();
+            return registry;
+        }, new BeanFactoryResolver(beanFactory)));
+        assertEquals(Collections.singleton("tenant:acme:1"), service.tenant("1"));
+        assertEquals(Collections.singleton("tenant:acme:2"), service.tenant("2"));
+        // 注册中心只在第一次调用时获取
+        assertEquals(1, lookups.get());
+        assertFalse(factory.held.contains("tenant:acme:1"));
+    }
+
+    @Test
+    void compiledKeyHandlesDifferentImplementationsOfParameterType() {
+        LockedService service = proxy();
+        // 解释执行足够多次后表达式按第一种实现编译，之后换成另一种实现仍然正确
+        for (int i = 0; i < 300; i++) {
+            assertEquals(Collections.singleton("entity:order-" + i), service.entity(new Order("order-" + i)));
+        }
+        assertEquals(Collections.singleton("entity:user-1"), service.entity(new User("user-1")));
+        assertEquals(Collections.singleton("entity:order-x"), service.entity(new Order("order-x")));
+        assertTrue(factory.held.isEmpty());
+    }
+
+    public interface Entity {
+        String getId();
+    }
+
+    public static class Order implements Entity {
+        private final String id;
+
+        Order(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+    }
+
+    public static class User implements Entity {
+        private final String id;
+
+        User(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+    }
+
+    /**
+     * 被代理的服务，方法返回执行期间持有的锁名称
+     */
+    static class LockedService {
+        private final RecordingLockFactory factory;
+
+        LockedService(RecordingLockFactory factory) {
+            this.factory = factory;
+        }
+
+        Set<String> held() {
+            return new HashSet<>(factory.held);
+        }
+
+        @DistributedLock(name = "order", key = "#orderId")
+        public Set<String> pay(String orderId) {
+            return held();
+        }
+
+        @DistributedLock(name = "order", key = "#p0")
+        public Set<String> payByIndex(String orderId) {
+            return held();
+        }
+
+        @DistributedLock(name = "order", key = "#a0")
+        public Set<String> payByAlias(String orderId) {
+            return held();
+        }
+
+        @DistributedLock(name = "account", key = {"#from", "#to"})
+        public Set<String> transfer(String from, String to) {
+            return held();
+        }
+
+        @DistributedLock(name = "batch", key = "#ids")
+        public Set<String> batch(List<String> ids) {
+            return held();
+        }
+
+        @DistributedLock(name = "batch", key = "#ids")
+        public Set<String> batchArray(String[] ids) {
+            return held();
+        }
+
+        @DistributedLock
+        public Set<String> defaultName() {
+            return held();
+        }
+
+        @DistributedLock(name = "order", key = "#orderId", waitTime = 100)
+        public Set<String> tryPay(String orderId) {
+            return held();
+        }
+
+        @DistributedLock(name = "lease", key = "#id", leaseTime = 5, unit = TimeUnit.SECONDS)
+        public Set<String> lease(String id) {
+            return held();
+        }
+
+        @DistributedLock(name = "tenant", key = "@tenant + ':' + #id")
+        public Set<String> tenant(String id) {
+            return held();
+        }
+
+        @DistributedLock(name = "entity", key = "#entity.id")
+        public Set<String> entity(Entity entity) {
+            return held();
+        }
+
+        @DistributedLock(name = "fail", key = "#id")
+        public void fail(String id) {
+            throw new IllegalStateException(id);
+        }
+
+        public Set<String> plain() {
+            return held();
+        }
+    }
+
+    @DistributedLock(name = "class")
+    static class ClassLockedService {
+        private final RecordingLockFactory factory;
+
+        ClassLockedService(RecordingLockFactory factory) {
+            this.factory = factory;
+        }
+
+        public Set<String> run() {
+            return new HashSet<>(factory.held);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.pluglock.starter.aop;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.LockFactory;
+import io.pluglock.core.PLock;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 测试用的锁工厂：同名的锁共用一个JVM锁，记录当前持有的名称和加锁时的租约
+ */
+class RecordingLockFactory implements LockFactory {
+
+    final Set<String> held = ConcurrentHashMap.newKeySet();
+    final Map<String, Long> leases = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public PLock createLock(String name, LockConfig config) {
+        return new RecordingLock(name, locks.computeIfAbsent(name, k -> new ReentrantLock()));
+    }
+
+    @Override
+    public String getName() {
+        return "recording";
+    }
+
+    private class RecordingLock implements PLock {
+        private final String name;
+        private final ReentrantLock delegate;
+
+        RecordingLock(String name, ReentrantLock delegate) {
+            this.name = name;
+            this.delegate = delegate;
+        }
+
+        private boolean acquired(boolean acquired, long leaseTime, TimeUnit unit) {
+            if (acquired) {
+                held.add(name);
+                leases.put(name, leaseTime < 0 ? -1 : unit.toMillis(leaseTime));
+            }
+            return acquired;
+        }
+
+        @Override
+        public void lock() {
+            delegate.lock();
+            acquired(true, -1, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void lock(long leaseTime, TimeUnit unit) {
+            delegate.lock();
+            acquired(true, leaseTime, unit);
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            delegate.lockInterruptibly();
+            acquired(true, -1, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public boolean tryLock() {
+            return acquired(delegate.tryLock(), -1, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            return acquired(delegate.tryLock(time, unit), -1, unit);
+        }
+
+        @Override
+        public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+            return acquired(delegate.tryLock(waitTime, unit), leaseTime, unit);
+        }
+
+        @Override
+        public void unlock() {
+            if (delegate.getHoldCount() == 1) {
+                held.remove(name);
+            }
+            delegate.unlock();
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.pluglock.zookeeper;
+
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ZooKeeper会话封装，同一个工厂下的所有锁共享一个会话
+ *
+ * 会话过期后在下一次使用时自动重建，过期会话上的临时节点（即持有的锁）由服务端删除
+ */
+public class ZookeeperClient implements Watcher {
+    private static final Logger logger = LoggerFactory.getLogger(ZookeeperClient.class);
+
+    private final String connectString;
+    private final int sessionTimeoutMillis;
+    private final long connectionTimeoutMillis;
+
+    private volatile ZooKeeper zooKeeper;
+    private volatile CountDownLatch connectedLatch;
+    private volatile boolean closed;
+    // 建立会话时等待连接，不用监视器锁，不会钉住虚拟线程
+    private final ReentrantLock connectLock = new ReentrantLock();
+    // 会话内所有锁实例共享的本地持有记录，锁实例被回收后持有记录仍然保留
+    private final ConcurrentMap<ZookeeperPLock.HoldKey, ZookeeperPLock.LockData> holds = new ConcurrentHashMap<>();
+
+    public ZookeeperClient(String connectString, int sessionTimeoutMillis, long connectionTimeoutMillis) {
+        this.connectString = connectString;
+        this.sessionTimeoutMillis = sessionTimeoutMillis;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    /**
+     * 获取已连接的ZooKeeper客户端，必要时建立或重建会话
+     *
+     * @return ZooKeeper客户端
+     */
+    public ZooKeeper getZooKeeper() {
+        ZooKeeper current = zooKeeper;
+        if (current == null || !current.getState().isAlive()) {
+            connectLock.lock();
+            try {
+                current = zooKeeper;
+                if (current == null || !current.getState().isAlive()) {
+                    current = connect();
+                    zooKeeper = current;
+                }
+            } finally {
+                connectLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private ZooKeeper connect() {
+        if (closed) {
+            throw new IllegalStateException("ZooKeeper client already closed");
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        connectedLatch = latch;
+        ZooKeeper zk;
+        try {
+            zk = new ZooKeeper(connectString, sessionTimeoutMillis, this);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to connect to ZooKeeper: " + connectString, e);
+        }
+        try {
+            if (!latch.await(connectionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                closeQuietly(zk);
+                throw new IllegalStateException("Timed out connecting to ZooKeeper: " + connectString);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closeQuietly(zk);
+            throw new IllegalStateException("Interrupted while connecting to ZooKeeper", e);
+        }
+        logger.info("Connected to ZooKeeper: {}, sessionId: 0x{}", connectString, Long.toHexString(zk.getSessionId()));
+        return zk;
+    }
+
+    @Override
+    public void process(WatchedEvent event) {
+        if (event.getType() != Event.EventType.None) {
+            return;
+        }
+        switch (event.getState()) {
+            case SyncConnected:
+            case ConnectedReadOnly:
+                CountDownLatch latch = connectedLatch;
+                if (latch != null) {
+                    latch.countDown();
+                }
+                break;
+            case Expired:
+                logger.warn("ZooKeeper session expired, locks held by this session are lost");
+                break;
+            case Disconnected:
+                logger.debug("Disconnected from ZooKeeper, waiting for reconnection");
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 关闭会话，会话内的锁全部释放
+     */
+    public void close() {
+        connectLock.lock();
+        try {
+            closed = true;
+            holds.clear();
+            if (zooKeeper != null) {
+                closeQuietly(zooKeeper);
+                zooKeeper = null;
+            }
+        } finally {
+            connectLock.unlock();
+        }
+    }
+
+    private static void closeQuietly(ZooKeeper zk) {
+        try {
+            zk.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    ConcurrentMap<ZookeeperPLock.HoldKey, ZookeeperPLock.LockData> getHolds() {
+        return holds;
+    }
+
+    public String getConnectString() {
+        return connectString;
+    }
+}
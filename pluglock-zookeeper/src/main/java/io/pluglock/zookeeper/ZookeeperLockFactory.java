@@ -3,20 +3,83 @@ package io.pluglock.zookeeper;
 import io.pluglock.core.PLock;
 import io.pluglock.core.LockConfig;
 import io.pluglock.core.LockFactory;
+import io.pluglock.core.PReadWriteLock;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * ZooKeeper分布式锁工厂实现
  */
 public class ZookeeperLockFactory implements LockFactory {
-    
+
+    // 每个集群地址共享一个会话
+    private final ConcurrentMap<String, ZookeeperClient> clients = new ConcurrentHashMap<>();
+
     @Override
     public PLock createLock(String name, LockConfig config) {
-        // TODO: 实现ZooKeeper锁的创建逻辑
-        throw new UnsupportedOperationException("ZooKeeper lock not implemented yet");
+        return new ZookeeperPLock(name, new ZookeeperLockInternals(getClient(config), lockPath(name, config)));
+    }
+
+    @Override
+    public PReadWriteLock createReadWriteLock(String name, LockConfig config) {
+        return new ZookeeperReadWriteLock(name, getClient(config), lockPath(name, config));
+    }
+
+    @Override
+    public PLock createMultiLock(List<String> names, LockConfig config) {
+        ZookeeperClient client = getClient(config);
+        // 去重并排序，保证锁名称与节点顺序稳定
+        Set<String> sortedNames = new TreeSet<>(names);
+        List<ZookeeperLockInternals> internals = new ArrayList<>(sortedNames.size());
+        for (String name : sortedNames) {
+            internals.add(new ZookeeperLockInternals(client, lockPath(name, config)));
+        }
+        return new ZookeeperMultiLock(String.join(",", sortedNames), client, internals);
     }
-    
+
+    /**
+     * 获取配置对应的共享会话
+     *
+     * @param config 锁的配置参数
+     * @return ZooKeeper会话
+     */
+    protected ZookeeperClient getClient(LockConfig config) {
+        String connectString = config.getProperty("zookeeper.connect", "localhost:2181");
+        return clients.computeIfAbsent(connectString, cs -> new ZookeeperClient(cs,
+                Integer.parseInt(config.getProperty("zookeeper.session.timeout", "30000")),
+                Long.parseLong(config.getProperty("zookeeper.connection.timeout", "15000"))));
+    }
+
+    /**
+     * 锁名称对应的锁目录，名称经过URL编码以免包含'/'等非法字符
+     */
+    protected String lockPath(String name, LockConfig config) {
+        String root = config.getProperty("zookeeper.root", "/pluglock");
+        try {
+            return root + "/" + URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 关闭所有会话，会话内持有的锁全部释放
+     */
+    @Override
+    public void close() {
+        clients.values().forEach(ZookeeperClient::close);
+        clients.clear();
+    }
+
     @Override
     public String getName() {
         return "zookeeper";
     }
-}
\ No newline at end of file
+}
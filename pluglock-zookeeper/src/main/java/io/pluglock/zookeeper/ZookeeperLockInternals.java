@@ -0,0 +1,262 @@
+package io.pluglock.zookeeper;
+
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.Stat;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ZooKeeper锁的节点操作，实现标准的临时顺序节点算法
+ *
+ * 每个等待者在锁目录下创建一个临时顺序节点，序号最小者持有锁；
+ * 其余等待者只监听紧挨着自己的前一个节点，每次释放只唤醒一个等待者，没有羊群效应
+ */
+public class ZookeeperLockInternals {
+
+    /**
+     * 顺序节点名的序号长度
+     */
+    private static final int SEQUENCE_LENGTH = 10;
+
+    /**
+     * 节点名的保护前缀，用于在连接丢失后找回已经创建成功的节点
+     */
+    private static final String PROTECTED_PREFIX = "_c_";
+
+    static final Comparator<String> SEQUENCE_ORDER = Comparator.comparing(ZookeeperLockInternals::sequenceOf);
+
+    /**
+     * 选择需要监听的节点
+     */
+    @FunctionalInterface
+    public interface PredecessorSelector {
+        /**
+         * @param sortedChildren 按序号排序的锁节点
+         * @param ourIndex       自己节点的位置
+         * @return 需要监听的节点名，返回null表示已获得锁
+         */
+        String select(List<String> sortedChildren, int ourIndex);
+    }
+
+    /**
+     * 互斥锁：排在第一位即获得锁，否则监听前一个节点
+     */
+    public static final PredecessorSelector EXCLUSIVE = (children, ourIndex) ->
+            ourIndex == 0 ? null : children.get(ourIndex - 1);
+
+    private final ZookeeperClient client;
+    private final String basePath;
+    private final String nodePrefix;
+
+    public ZookeeperLockInternals(ZookeeperClient client, String basePath) {
+        this(client, basePath, "lock-");
+    }
+
+    public ZookeeperLockInternals(ZookeeperClient client, String basePath, String nodePrefix) {
+        this.client = client;
+        this.basePath = basePath;
+        this.nodePrefix = nodePrefix;
+    }
+
+    /**
+     * 尝试获取锁
+     *
+     * @param waitMillis    最长等待时间，小于0表示一直等待
+     * @param interruptible 等待是否响应中断
+     * @return 持有锁的节点路径，超时返回null
+     */
+    public String attemptLock(long waitMillis, boolean interruptible) throws InterruptedException {
+        return attemptLock(waitMillis, interruptible, EXCLUSIVE);
+    }
+
+    /**
+     * 尝试获取锁
+     *
+     * @param waitMillis    最长等待时间，小于0表示一直等待
+     * @param interruptible 等待是否响应中断
+     * @param selector      监听节点的选择策略
+     * @return 持有锁的节点路径，超时返回null
+     */
+    public String attemptLock(long waitMillis, boolean interruptible, PredecessorSelector selector)
+            throws InterruptedException {
+        long deadline = waitMillis < 0 ? 0 : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        String ourPath = null;
+        boolean acquired = false;
+        try {
+            ourPath = createNode();
+            acquired = waitForTurn(ourPath, selector, waitMillis < 0, deadline, interruptible);
+            return acquired ? ourPath : null;
+        } catch (KeeperException e) {
+            throw new RuntimeException("Failed to acquire ZooKeeper lock: " + basePath, e);
+        } finally {
+            if (!acquired && ourPath != null) {
+                deleteNode(ourPath);
+            }
+        }
+    }
+
+    /**
+     * 释放锁，删除持有锁的节点
+     *
+     * @param ourPath 节点路径
+     */
+    public void releaseLock(String ourPath) {
+        deleteNode(ourPath);
+    }
+
+    private String createNode() throws KeeperException, InterruptedException {
+        String protectedPrefix = newProtectedPrefix();
+        String path = basePath + "/" + protectedPrefix + nodePrefix;
+        while (true) {
+            ZooKeeper zk = client.getZooKeeper();
+            try {
+                return zk.create(path, new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL_SEQUENTIAL);
+            } catch (KeeperException.NoNodeException e) {
+                createParents(zk, basePath);
+            } catch (KeeperException.ConnectionLossException e) {
+                // 请求可能已经在服务端执行成功，按保护前缀找回节点
+                String existing = findProtectedNode(protectedPrefix);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+        }
+    }
+
+    /**
+     * 按保护前缀查找已创建的节点
+     *
+     * @param protectedPrefix 保护前缀
+     * @return 节点路径，不存在返回null
+     */
+    private String findProtectedNode(String protectedPrefix) throws InterruptedException {
+        while (true) {
+            try {
+                for (String child : client.getZooKeeper().getChildren(basePath, false)) {
+                    if (child.startsWith(protectedPrefix)) {
+                        return basePath + "/" + child;
+                    }
+                }
+                return null;
+            } catch (KeeperException.NoNodeException e) {
+                return null;
+            } catch (KeeperException.ConnectionLossException e) {
+                // 继续等待重连
+            } catch (KeeperException e) {
+                throw new RuntimeException("Failed to list ZooKeeper lock nodes: " + basePath, e);
+            }
+        }
+    }
+
+    /**
+     * 等待节点轮到持有锁
+     *
+     * @param ourPath       自己的节点路径
+     * @param selector      监听节点的选择策略
+     * @param waitForever   是否一直等待
+     * @param deadline      等待截止时间（System.nanoTime）
+     * @param interruptible 等待是否响应中断
+     * @return 是否获得锁
+     */
+    private boolean waitForTurn(String ourPath, PredecessorSelector selector, boolean waitForever, long deadline,
+                                boolean interruptible) throws KeeperException, InterruptedException {
+        String ourName = ourPath.substring(basePath.length() + 1);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                ZooKeeper zk = client.getZooKeeper();
+                List<String> children = zk.getChildren(basePath, false);
+                children.sort(SEQUENCE_ORDER);
+                int ourIndex = children.indexOf(ourName);
+                if (ourIndex < 0) {
+                    throw new IllegalStateException("Lock node lost, ZooKeeper session may have expired: " + ourPath);
+                }
+                String watchNode = selector.select(children, ourIndex);
+                if (watchNode == null) {
+                    return true;
+                }
+
+                // 只监听选出的一个节点
+                Semaphore signal = new Semaphore(0);
+                Stat stat = zk.exists(basePath + "/" + watchNode, event -> signal.release());
+                if (stat == null) {
+                    continue;
+                }
+                try {
+                    if (waitForever) {
+                        signal.acquire();
+                    } else {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0 || !signal.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                            return false;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    if (interruptible) {
+                        throw e;
+                    }
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void deleteNode(String path) {
+        try {
+            client.getZooKeeper().delete(path, -1);
+        } catch (KeeperException.NoNodeException | KeeperException.SessionExpiredException e) {
+            // 节点已随会话过期被删除
+        } catch (KeeperException e) {
+            throw new RuntimeException("Failed to release ZooKeeper lock: " + path, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while releasing ZooKeeper lock: " + path, e);
+        }
+    }
+
+    /**
+     * 逐级创建锁目录，使用容器节点以便目录为空时由服务端自动清理
+     */
+    private static void createParents(ZooKeeper zk, String path) throws KeeperException, InterruptedException {
+        StringBuilder current = new StringBuilder();
+        for (String part : path.substring(1).split("/")) {
+            current.append('/').append(part);
+            try {
+                zk.create(current.toString(), new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.CONTAINER);
+            } catch (KeeperException.NodeExistsException e) {
+                // 已存在
+            }
+        }
+    }
+
+    private static String newProtectedPrefix() {
+        return PROTECTED_PREFIX + UUID.randomUUID() + "-";
+    }
+
+    static String sequenceOf(String nodeName) {
+        return nodeName.length() <= SEQUENCE_LENGTH ? nodeName : nodeName.substring(nodeName.length() - SEQUENCE_LENGTH);
+    }
+
+    public String getBasePath() {
+        return basePath;
+    }
+
+    public String getNodePrefix() {
+        return nodePrefix;
+    }
+
+    public ZookeeperClient getClient() {
+        return client;
+    }
+}
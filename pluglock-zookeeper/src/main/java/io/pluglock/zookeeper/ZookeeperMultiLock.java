@@ -0,0 +1,152 @@
+package io.pluglock.zookeeper;
+
+import io.pluglock.core.AbstractPLock;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * 基于ZooKeeper的组合锁，同时锁定多个名称
+ *
+ * 按名称顺序逐个获取各目录的锁，拿到前一个之后才在下一个目录创建节点，
+ * 等待期间不会在后面的目录占位，所有调用方按同一顺序加锁时不会形成死锁；
+ * 超时或失败时删除已创建的节点。释放时在一个 multi() 事务中删除全部节点
+ */
+public class ZookeeperMultiLock extends AbstractPLock {
+
+    private final ZookeeperClient client;
+    private final List<ZookeeperLockInternals> internals;
+    private final ConcurrentMap<Thread, LockData> threadData = new ConcurrentHashMap<>();
+
+    public ZookeeperMultiLock(String lockName, ZookeeperClient client, List<ZookeeperLockInternals> internals) {
+        super(lockName);
+        this.client = client;
+        this.internals = internals;
+    }
+
+    @Override
+    public void lock() {
+        try {
+            acquire(-1, false);
+        } catch (InterruptedException e) {
+            // 非中断模式下不会抛出
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) throws InterruptedException {
+        // 临时节点随会话存在，忽略租约时间
+        acquire(-1, true);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        acquire(-1, true);
+    }
+
+    @Override
+    public boolean tryLock() {
+        try {
+            return acquire(0, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return acquire(unit.toMillis(time), true);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        // 临时节点随会话存在，忽略租约时间
+        return tryLock(waitTime, unit);
+    }
+
+    private boolean acquire(long waitMillis, boolean interruptible) throws InterruptedException {
+        Thread current = Thread.currentThread();
+        LockData data = threadData.get(current);
+        if (data != null) {
+            // 重入
+            data.holdCount++;
+            return true;
+        }
+        long deadline = waitMillis < 0 ? 0 : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        List<String> paths = new ArrayList<>(internals.size());
+        boolean acquired = false;
+        try {
+            // 按名称顺序逐个加锁，拿到前一个之后才在下一个目录排队
+            for (ZookeeperLockInternals lock : internals) {
+                long remaining = waitMillis < 0 ? -1
+                        : Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                String path = lock.attemptLock(remaining, interruptible);
+                if (path == null) {
+                    return false;
+                }
+                paths.add(path);
+            }
+            acquired = true;
+            threadData.put(current, new LockData(paths));
+            return true;
+        } finally {
+            if (!acquired && !paths.isEmpty()) {
+                deleteNodes(paths);
+            }
+        }
+    }
+
+    private void deleteNodes(List<String> paths) {
+        List<Op> ops = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            ops.add(Op.delete(path, -1));
+        }
+        try {
+            client.getZooKeeper().multi(ops);
+        } catch (KeeperException e) {
+            // 部分节点已随会话过期被删除，逐个删除剩下的
+            for (int i = 0; i < paths.size(); i++) {
+                internals.get(i).deleteNode(paths.get(i));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while releasing ZooKeeper multi lock: " + lockName, e);
+        }
+    }
+
+    @Override
+    public void unlock() {
+        Thread current = Thread.currentThread();
+        LockData data = threadData.get(current);
+        if (data == null) {
+            throw new IllegalMonitorStateException("You do not own the lock: " + lockName);
+        }
+        if (--data.holdCount > 0) {
+            return;
+        }
+        threadData.remove(current);
+        deleteNodes(data.paths);
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("ZooKeeper lock does not support Condition");
+    }
+
+    private static class LockData {
+        private final List<String> paths;
+        private int holdCount = 1;
+
+        LockData(List<String> paths) {
+            this.paths = paths;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package io.pluglock.zookeeper;
+
+import io.pluglock.core.AbstractPLock;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * 基于ZooKeeper临时顺序节点的可重入锁实现
+ *
+ * 重入只在本地计数，不访问ZooKeeper；锁的生命周期与会话绑定，会话失效时锁自动释放，因此不使用租约时间。
+ * 持有记录保存在会话上，按锁目录、节点前缀和线程区分，同名的锁实例之间共享，
+ * 用一个实例加锁、另一个实例解锁或重入都可以
+ */
+public class ZookeeperPLock extends AbstractPLock {
+
+    private final ZookeeperLockInternals internals;
+    private final ConcurrentMap<HoldKey, LockData> holds;
+    // 持有记录中区分锁的部分：锁目录加节点前缀
+    private final String holdPath;
+
+    public ZookeeperPLock(String lockName, ZookeeperLockInternals internals) {
+        super(lockName);
+        this.internals = internals;
+        this.holds = internals.getClient().getHolds();
+        this.holdPath = internals.getBasePath() + "/" + internals.getNodePrefix();
+    }
+
+    @Override
+    public void lock() {
+        try {
+            acquire(-1, false);
+        } catch (InterruptedException e) {
+            // 非中断模式下不会抛出
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) throws InterruptedException {
+        // 临时节点随会话存在，忽略租约时间
+        acquire(-1, true);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        acquire(-1, true);
+    }
+
+    @Override
+    public boolean tryLock() {
+        try {
+            return acquire(0, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return acquire(unit.toMillis(time), true);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        // 临时节点随会话存在，忽略租约时间
+        return tryLock(waitTime, unit);
+    }
+
+    private boolean acquire(long waitMillis, boolean interruptible) throws InterruptedException {
+        HoldKey key = currentKey();
+        LockData data = holds.get(key);
+        if (data != null) {
+            // 重入
+            data.holdCount++;
+            return true;
+        }
+        String path = internals.attemptLock(waitMillis, interruptible, predecessorSelector());
+        if (path == null) {
+            return false;
+        }
+        holds.put(key, new LockData(path));
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        HoldKey key = currentKey();
+        LockData data = holds.get(key);
+        if (data == null) {
+            throw new IllegalMonitorStateException("You do not own the lock: " + lockName);
+        }
+        if (--data.holdCount > 0) {
+            return;
+        }
+        holds.remove(key, data);
+        internals.releaseLock(data.path);
+    }
+
+    /**
+     * 等待时监听节点的选择策略，默认为互斥锁
+     *
+     * @return 选择策略
+     */
+    protected ZookeeperLockInternals.PredecessorSelector predecessorSelector() {
+        return ZookeeperLockInternals.EXCLUSIVE;
+    }
+
+    /**
+     * 获取当前线程持有的锁节点
+     *
+     * @return 节点路径，未持有返回null
+     */
+    protected String getHeldNodePath() {
+        LockData data = holds.get(currentKey());
+        return data == null ? null : data.path;
+    }
+
+    /**
+     * 当前线程是否持有锁
+     *
+     * @return 是否持有
+     */
+    public boolean isHeldByCurrentThread() {
+        return holds.containsKey(currentKey());
+    }
+
+    private HoldKey currentKey() {
+        return new HoldKey(holdPath, Thread.currentThread());
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("ZooKeeper lock does not support Condition");
+    }
+
+    /**
+     * 持有记录的key：锁目录加节点前缀，以及持有线程
+     */
+    static final class HoldKey {
+        private final String path;
+        private final Thread thread;
+
+        HoldKey(String path, Thread thread) {
+            this.path = path;
+            this.thread = thread;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HoldKey)) {
+                return false;
+            }
+            HoldKey other = (HoldKey) o;
+            return thread == other.thread && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * path.hashCode() + System.identityHashCode(thread);
+        }
+    }
+
+    /**
+     * 本地持有记录，只由持有线程修改
+     */
+    static final class LockData {
+        private final String path;
+        private int holdCount = 1;
+
+        LockData(String path) {
+            this.path = path;
+        }
+    }
+}
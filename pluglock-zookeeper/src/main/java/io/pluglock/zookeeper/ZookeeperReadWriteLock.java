@@ -0,0 +1,69 @@
+package io.pluglock.zookeeper;
+
+import io.pluglock.core.PLock;
+import io.pluglock.core.PReadWriteLock;
+
+/**
+ * 基于ZooKeeper的读写锁实现
+ *
+ * 读写节点在同一个目录下排队：写锁监听前一个节点；读锁只监听排在自己前面最近的写节点，
+ * 前面没有写节点即可获得读锁，读者之间互不等待。持有写锁的线程可以继续获取读锁
+ *
+ * 与同名的互斥锁共用一个目录，互斥锁节点对读者而言等同于写节点
+ */
+public class ZookeeperReadWriteLock implements PReadWriteLock {
+
+    private static final String READ_PREFIX = "read-";
+    private static final String WRITE_PREFIX = "write-";
+
+    private final String name;
+    private final ZookeeperPLock writeLock;
+    private final ReadLock readLock;
+
+    public ZookeeperReadWriteLock(String name, ZookeeperClient client, String basePath) {
+        this.name = name;
+        this.writeLock = new ZookeeperPLock(name, new ZookeeperLockInternals(client, basePath, WRITE_PREFIX));
+        this.readLock = new ReadLock(name, new ZookeeperLockInternals(client, basePath, READ_PREFIX));
+    }
+
+    @Override
+    public PLock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public PLock writeLock() {
+        return writeLock;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    private static boolean isExclusiveNode(String nodeName) {
+        return !nodeName.contains("-" + READ_PREFIX);
+    }
+
+    private class ReadLock extends ZookeeperPLock {
+        ReadLock(String lockName, ZookeeperLockInternals internals) {
+            super(lockName, internals);
+        }
+
+        @Override
+        protected ZookeeperLockInternals.PredecessorSelector predecessorSelector() {
+            // 当前线程持有的写节点不需要等待
+            String heldWritePath = writeLock.getHeldNodePath();
+            String heldWriteNode = heldWritePath == null ? null : heldWritePath.substring(heldWritePath.lastIndexOf('/') + 1);
+            return (children, ourIndex) -> {
+                for (int i = ourIndex - 1; i >= 0; i--) {
+                    String node = children.get(i);
+                    if (isExclusiveNode(node) && !node.equals(heldWriteNode)) {
+                        return node;
+                    }
+                }
+                return null;
+            };
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.pluglock.zookeeper;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.PLock;
+import org.apache.curator.test.TestingServer;
+import org.apache.zookeeper.KeeperException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZookeeperMultiLockTest {
+
+    private static TestingServer server;
+
+    private ZookeeperLockFactory factory;
+    private ZookeeperLockFactory otherFactory;
+    private LockConfig config;
+    private ExecutorService executor;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new TestingServer(true);
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        server.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        config = new LockConfig();
+        config.setProperty("zookeeper.connect", server.getConnectString());
+        factory = new ZookeeperLockFactory();
+        otherFactory = new ZookeeperLockFactory();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        factory.close();
+        otherFactory.close();
+    }
+
+    @Test
+    void waitingMultiLockDoesNotBlockHolderOfFirstName() throws Exception {
+        PLock x = otherFactory.createLock("x", config);
+        PLock y = otherFactory.createLock("y", config);
+        x.lock();
+
+        PLock multi = factory.createMultiLock(Arrays.asList("y", "x"), config);
+        Future<Boolean> multiAcquired = executor.submit(() -> {
+            boolean result = multi.tryLock(20, TimeUnit.SECONDS);
+            if (result) {
+                multi.unlock();
+            }
+            return result;
+        });
+        // 组合锁已在x下排队
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (childCount("x") < 2) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+
+        // 持有x的一方继续获取y，不能被排队中的组合锁挡住
+        assertTrue(y.tryLock(5, TimeUnit.SECONDS));
+        y.unlock();
+        x.unlock();
+        assertTrue(multiAcquired.get(20, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void timedOutMultiLockRemovesItsNodes() throws Exception {
+        PLock b = otherFactory.createLock("b", config);
+        b.lock();
+        try {
+            PLock multi = factory.createMultiLock(Arrays.asList("a", "b"), config);
+            assertFalse(multi.tryLock(100, TimeUnit.MILLISECONDS));
+            assertEquals(0, childCount("a"));
+            assertEquals(1, childCount("b"));
+        } finally {
+            b.unlock();
+        }
+    }
+
+    @Test
+    void tryLockIgnoresLeaseTime() throws Exception {
+        PLock multi = factory.createMultiLock(Arrays.asList("c", "d"), config);
+        assertTrue(multi.tryLock(1, 30, TimeUnit.SECONDS));
+        assertFalse(otherFactory.createLock("d", config).tryLock());
+        multi.unlock();
+
+        PLock single = factory.createLock("c", config);
+        assertTrue(single.tryLock(1, 30, TimeUnit.SECONDS));
+        single.unlock();
+    }
+
+    private int childCount(String name) throws Exception {
+        try {
+            return factory.getClient(config).getZooKeeper()
+                    .getChildren(factory.lockPath(name, config), false).size();
+        } catch (KeeperException.NoNodeException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package io.pluglock.zookeeper;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.PLock;
+import io.pluglock.core.PLockRegistry;
+import org.apache.curator.test.TestingServer;
+import org.apache.zookeeper.ZooKeeper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZookeeperPLockTest {
+
+    private static TestingServer server;
+
+    private ZookeeperLockFactory factory;
+    private ZookeeperLockFactory otherFactory;
+    private LockConfig config;
+    private ExecutorService executor;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new TestingServer(true);
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        server.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        config = new LockConfig();
+        config.setProperty("zookeeper.connect", server.getConnectString());
+        config.setProperty("zookeeper.session.timeout", "5000");
+        factory = new ZookeeperLockFactory();
+        // 另一个工厂使用独立的会话，模拟另一个节点
+        otherFactory = new ZookeeperLockFactory();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        factory.close();
+        otherFactory.close();
+    }
+
+    @Test
+    void contendedLockIsMutuallyExclusive() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ZookeeperLockFactory f = i % 2 == 0 ? factory : otherFactory;
+            futures.add(executor.submit(() -> {
+                PLock lock = f.createLock("contended", config);
+                for (int j = 0; j < 10; j++) {
+                    lock.lock();
+                    try {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        Thread.sleep(1);
+                        inside.decrementAndGet();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(1, maxInside.get());
+    }
+
+    @Test
+    void tryLockTimesOutWhileHeldElsewhere() throws Exception {
+        PLock lock = factory.createLock("timeout", config);
+        lock.lock();
+        try {
+            PLock other = otherFactory.createLock("timeout", config);
+            assertFalse(other.tryLock());
+            assertFalse(other.tryLock(100, TimeUnit.MILLISECONDS));
+        } finally {
+            lock.unlock();
+        }
+        PLock other = otherFactory.createLock("timeout", config);
+        assertTrue(other.tryLock(1, TimeUnit.SECONDS));
+        other.unlock();
+    }
+
+    @Test
+    void reentrantHoldIsReleasedOnLastUnlock() throws Exception {
+        ZookeeperPLock lock = (ZookeeperPLock) factory.createLock("reentrant", config);
+        lock.lock();
+        assertTrue(lock.tryLock());
+        lock.lock();
+
+        PLock other = otherFactory.createLock("reentrant", config);
+        lock.unlock();
+        lock.unlock();
+        assertTrue(lock.isHeldByCurrentThread());
+        assertFalse(other.tryLock());
+
+        lock.unlock();
+        assertFalse(lock.isHeldByCurrentThread());
+        assertTrue(other.tryLock());
+        other.unlock();
+        assertThrows(IllegalMonitorStateException.class, lock::unlock);
+    }
+
+    @Test
+    void cachedHandleCollectedWhileHeldCanStillUnlockAndReenter() throws Exception {
+        PLockRegistry registry = new PLockRegistry(factory, config);
+        awaitCollected(hold(registry, "collected"));
+        // 新实例看到同一份持有记录：重入不会等待自己的节点，解锁能删除节点
+        awaitCollected(hold(registry, "collected"));
+        PLock other = otherFactory.createLock("collected", config);
+        registry.getLock("collected").unlock();
+        assertFalse(other.tryLock());
+        registry.getLock("collected").unlock();
+        assertTrue(other.tryLock());
+        other.unlock();
+    }
+
+    /**
+     * 通过注册中心加锁，不保留锁实例的强引用
+     */
+    private WeakReference<PLock> hold(PLockRegistry registry, String name) throws InterruptedException {
+        PLock lock = registry.getLock(name);
+        assertTrue(lock.tryLock(5, TimeUnit.SECONDS));
+        return new WeakReference<>(lock);
+    }
+
+    private static void awaitCollected(WeakReference<PLock> reference) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (reference.get() != null && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
+    @Test
+    void lockIsReleasedWhenSessionExpires() throws Exception {
+        PLock lock = factory.createLock("session", config);
+        lock.lock();
+
+        PLock other = otherFactory.createLock("session", config);
+        CountDownLatch waiting = new CountDownLatch(1);
+        Future<Boolean> acquired = executor.submit(() -> {
+            waiting.countDown();
+            boolean result = other.tryLock(20, TimeUnit.SECONDS);
+            if (result) {
+                other.unlock();
+            }
+            return result;
+        });
+        waiting.await();
+        assertFalse(acquired.isDone());
+
+        expireSession(factory.getClient(config).getZooKeeper());
+        assertTrue(acquired.get(20, TimeUnit.SECONDS));
+
+        // 节点已随会话删除，解锁只清理本地状态
+        lock.unlock();
+        assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+
+    /**
+     * 用同一个会话ID建立第二个连接后关闭，服务端立即使会话过期
+     */
+    private static void expireSession(ZooKeeper zk) throws Exception {
+        CountDownLatch connected = new CountDownLatch(1);
+        ZooKeeper duplicate = new ZooKeeper(server.getConnectString(), 5000, event -> connected.countDown(),
+                zk.getSessionId(), zk.getSessionPasswd());
+        assertTrue(connected.await(10, TimeUnit.SECONDS));
+        duplicate.close();
+    }
+}
@@ -0,0 +1,163 @@
+package io.pluglock.zookeeper;
+
+import io.pluglock.core.LockConfig;
+import io.pluglock.core.PLock;
+import io.pluglock.core.PReadWriteLock;
+import org.apache.curator.test.TestingServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 读写锁：读者共享，写者互斥，读者只等待前面最近的写节点，持有写锁时可以获取读锁
+ */
+class ZookeeperReadWriteLockTest {
+
+    private static TestingServer server;
+
+    private ZookeeperLockFactory factory;
+    private ZookeeperLockFactory otherFactory;
+    private LockConfig config;
+    private ExecutorService executor;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new TestingServer(true);
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        server.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        config = new LockConfig();
+        config.setProperty("zookeeper.connect", server.getConnectString());
+        config.setProperty("zookeeper.session.timeout", "5000");
+        factory = new ZookeeperLockFactory();
+        // 另一个工厂使用独立的会话，模拟另一个节点
+        otherFactory = new ZookeeperLockFactory();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        factory.close();
+        otherFactory.close();
+    }
+
+    @Test
+    void readersShareTheLock() throws Exception {
+        PLock read = factory.createReadWriteLock("shared", config).readLock();
+        PLock otherRead = otherFactory.createReadWriteLock("shared", config).readLock();
+        read.lock();
+        try {
+            assertTrue(executor.submit(() -> tryAndRelease(otherRead, 0)).get(10, TimeUnit.SECONDS));
+            assertTrue(executor.submit(() -> tryAndRelease(read, 0)).get(10, TimeUnit.SECONDS));
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Test
+    void writerExcludesReadersAndWriters() throws Exception {
+        PLock write = factory.createReadWriteLock("exclusive", config).writeLock();
+        PReadWriteLock other = otherFactory.createReadWriteLock("exclusive", config);
+        write.lock();
+        try {
+            assertFalse(executor.submit(() -> tryAndRelease(other.readLock(), 100)).get(10, TimeUnit.SECONDS));
+            assertFalse(executor.submit(() -> tryAndRelease(other.writeLock(), 100)).get(10, TimeUnit.SECONDS));
+        } finally {
+            write.unlock();
+        }
+        assertTrue(executor.submit(() -> tryAndRelease(other.readLock(), 0)).get(10, TimeUnit.SECONDS));
+
+        // 读者持有时写者同样需要等待
+        other.readLock().lock();
+        try {
+            assertFalse(executor.submit(() -> tryAndRelease(write, 100)).get(10, TimeUnit.SECONDS));
+        } finally {
+            other.readLock().unlock();
+        }
+        assertTrue(executor.submit(() -> tryAndRelease(write, 0)).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void readerWaitsOnlyForNearestPrecedingWriteNode() throws Exception {
+        PLock firstRead = factory.createReadWriteLock("queue", config).readLock();
+        PLock write = otherFactory.createReadWriteLock("queue", config).writeLock();
+        PLock secondRead = otherFactory.createReadWriteLock("queue", config).readLock();
+        firstRead.lock();
+        try {
+            // 写者排在第一个读者之后等待，超时后删除自己的节点
+            Future<Boolean> writer = executor.submit(() -> tryAndRelease(write, 1500));
+            awaitChildren("queue", 2);
+            // 第二个读者排在写者之后，只监听写节点
+            Future<Boolean> reader = executor.submit(() -> tryAndRelease(secondRead, 10_000));
+            awaitChildren("queue", 3);
+            Thread.sleep(200);
+            assertFalse(reader.isDone());
+
+            assertFalse(writer.get(10, TimeUnit.SECONDS));
+            // 第一个读者仍然持有读锁，第二个读者不需要等待它
+            assertTrue(reader.get(5, TimeUnit.SECONDS));
+        } finally {
+            firstRead.unlock();
+        }
+    }
+
+    @Test
+    void writeHolderCanAcquireReadLock() throws Exception {
+        PReadWriteLock lock = factory.createReadWriteLock("downgrade", config);
+        PReadWriteLock other = otherFactory.createReadWriteLock("downgrade", config);
+        lock.writeLock().lock();
+        assertTrue(lock.readLock().tryLock());
+        lock.writeLock().unlock();
+        try {
+            // 降级为读锁后其他读者可以进入，写者仍需等待
+            assertTrue(executor.submit(() -> tryAndRelease(other.readLock(), 0)).get(10, TimeUnit.SECONDS));
+            assertFalse(executor.submit(() -> tryAndRelease(other.writeLock(), 100)).get(10, TimeUnit.SECONDS));
+        } finally {
+            lock.readLock().unlock();
+        }
+        assertTrue(executor.submit(() -> tryAndRelease(other.writeLock(), 0)).get(10, TimeUnit.SECONDS));
+    }
+
+    private static boolean tryAndRelease(PLock lock, long waitMillis) throws InterruptedException {
+        boolean acquired = waitMillis == 0 ? lock.tryLock() : lock.tryLock(waitMillis, TimeUnit.MILLISECONDS);
+        if (acquired) {
+            lock.unlock();
+        }
+        return acquired;
+    }
+
+    /**
+     * 等待锁目录下的节点数达到预期，保证排队顺序
+     */
+    private void awaitChildren(String name, int count) throws Exception {
+        String path = factory.lockPath(name, config);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        int children = 0;
+        while (System.nanoTime() < deadline) {
+            children = factory.getClient(config).getZooKeeper().getChildren(path, false).size();
+            if (children >= count) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(count, children);
+    }
+}